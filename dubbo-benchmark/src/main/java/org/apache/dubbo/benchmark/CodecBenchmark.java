@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.benchmark;
+
+import org.apache.dubbo.benchmark.support.BenchmarkChannel;
+import org.apache.dubbo.benchmark.support.BenchmarkService;
+import org.apache.dubbo.benchmark.support.Item;
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.Version;
+import org.apache.dubbo.remoting.buffer.ChannelBuffer;
+import org.apache.dubbo.remoting.buffer.ChannelBuffers;
+import org.apache.dubbo.remoting.exchange.Request;
+import org.apache.dubbo.remoting.exchange.Response;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.RpcResult;
+import org.apache.dubbo.rpc.protocol.dubbo.DubboCodec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes a request and its response with {@link DubboCodec}, without the network.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+
+    @Param({"hessian2", "fst", "kryo"})
+    private String serialization;
+
+    @Param({"", "lz4"})
+    private String compressor;
+
+    @Param({"1", "100"})
+    private int items;
+
+    private DubboCodec codec;
+
+    private BenchmarkChannel consumer;
+
+    private BenchmarkChannel provider;
+
+    private Request request;
+
+    private Response response;
+
+    @Setup
+    public void setup() throws IOException {
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/" + BenchmarkService.class.getName())
+                .addParameter(Constants.SERIALIZATION_KEY, serialization)
+                .addParameter(Constants.COMPRESSOR_KEY, compressor);
+        InetSocketAddress consumerAddress = new InetSocketAddress("127.0.0.1", 40000);
+        InetSocketAddress providerAddress = new InetSocketAddress("127.0.0.1", 20880);
+        consumer = new BenchmarkChannel(url, consumerAddress, providerAddress);
+        provider = new BenchmarkChannel(url, providerAddress, consumerAddress);
+        codec = new DubboCodec();
+
+        RpcInvocation invocation = new RpcInvocation("items", new Class<?>[]{int.class}, new Object[]{items});
+        invocation.setAttachment(Constants.PATH_KEY, BenchmarkService.class.getName());
+        invocation.setAttachment(Constants.VERSION_KEY, "0.0.0");
+        invocation.setAttachment(Constants.DUBBO_VERSION_KEY, Version.getProtocolVersion());
+        request = new Request();
+        request.setVersion(Version.getProtocolVersion());
+        request.setTwoWay(true);
+        request.setData(invocation);
+        response = new Response(request.getId(), request.getVersion());
+        response.setResult(new RpcResult(Item.list(items)));
+
+        // the first messages of a connection negotiate the compression.
+        request();
+        response();
+    }
+
+    @Benchmark
+    public Object request() throws IOException {
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(1024);
+        codec.encode(consumer, buffer, request);
+        return codec.decode(provider, buffer);
+    }
+
+    @Benchmark
+    public Object response() throws IOException {
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(1024);
+        codec.encode(provider, buffer, response);
+        return codec.decode(consumer, buffer);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.benchmark;
+
+import org.apache.dubbo.benchmark.support.Item;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.io.UnsafeByteArrayOutputStream;
+import org.apache.dubbo.common.serialize.ObjectOutput;
+import org.apache.dubbo.common.serialize.Serialization;
+import org.apache.dubbo.remoting.Compressor;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compresses and decompresses a list of DTOs serialized with each bundled {@link Serialization}. The bytes
+ * counters show the bytes saved for the CPU spent: the rate of compressed bytes against the rate of bytes in.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompressionBenchmark {
+
+    @Param({"hessian2", "fastjson", "fst", "kryo", "java", "compactedjava"})
+    private String serialization;
+
+    @Param({"lz4", "deflate"})
+    private String compressor;
+
+    @Param({"100"})
+    private int items;
+
+    private Compressor extension;
+
+    private byte[] body;
+
+    private byte[] compressed;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        public long bytesIn;
+        public long bytesCompressed;
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        UnsafeByteArrayOutputStream bos = new UnsafeByteArrayOutputStream(1024);
+        ObjectOutput out = ExtensionLoader.getExtensionLoader(Serialization.class).getExtension(serialization)
+                .serialize(URL.valueOf("dubbo://127.0.0.1:20880"), bos);
+        out.writeObject(Item.list(items));
+        out.flushBuffer();
+        body = bos.toByteArray();
+        extension = ExtensionLoader.getExtensionLoader(Compressor.class).getExtension(compressor);
+        compressed = extension.compress(body, 0, body.length);
+    }
+
+    @Benchmark
+    public byte[] compress(Bytes bytes) throws IOException {
+        byte[] result = extension.compress(body, 0, body.length);
+        bytes.bytesIn += body.length;
+        bytes.bytesCompressed += result.length;
+        return result;
+    }
+
+    @Benchmark
+    public byte[] decompress() throws IOException {
+        return extension.decompress(compressed, 0, compressed.length, body.length);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.benchmark;
+
+import org.apache.dubbo.benchmark.support.BenchmarkInvoker;
+import org.apache.dubbo.benchmark.support.BenchmarkService;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.cluster.LoadBalance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Selects a provider with each {@link LoadBalance}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadBalanceBenchmark {
+
+    @Param({"random", "roundrobin", "leastactive", "consistenthash", "peakewma"})
+    private String loadbalance;
+
+    @Param({"10", "100", "1000"})
+    private int providers;
+
+    private LoadBalance extension;
+
+    private List<Invoker<BenchmarkService>> invokers;
+
+    private URL url;
+
+    private Invocation invocation;
+
+    @Setup
+    public void setup() {
+        extension = ExtensionLoader.getExtensionLoader(LoadBalance.class).getExtension(loadbalance);
+        invokers = BenchmarkInvoker.list(providers);
+        url = URL.valueOf("consumer://10.30.0.1/" + BenchmarkService.class.getName());
+        invocation = new RpcInvocation("echo", new Class<?>[]{String.class}, new Object[]{"hello"});
+    }
+
+    @Benchmark
+    public Invoker<BenchmarkService> select() {
+        return extension.select(invokers, url, invocation);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.benchmark;
+
+import org.apache.dubbo.benchmark.support.BenchmarkService;
+import org.apache.dubbo.benchmark.support.BenchmarkServiceImpl;
+import org.apache.dubbo.benchmark.support.Item;
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.utils.NetUtils;
+import org.apache.dubbo.rpc.Protocol;
+import org.apache.dubbo.rpc.ProxyFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls a service exported with {@link org.apache.dubbo.rpc.protocol.dubbo.DubboProtocol} over a loopback
+ * netty4 connection. Run with -t to call from several threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProtocolBenchmark {
+
+    @Param({"1", "100"})
+    private int items;
+
+    private Protocol protocol;
+
+    private BenchmarkService service;
+
+    @Setup
+    public void setup() {
+        protocol = ExtensionLoader.getExtensionLoader(Protocol.class).getExtension("dubbo");
+        ProxyFactory proxy = ExtensionLoader.getExtensionLoader(ProxyFactory.class).getExtension("javassist");
+        URL url = URL.valueOf("dubbo://127.0.0.1:" + NetUtils.getAvailablePort() + "/" + BenchmarkService.class.getName())
+                .addParameter(Constants.SERVER_KEY, "netty4")
+                .addParameter(Constants.CLIENT_KEY, "netty4")
+                .addParameter(Constants.TIMEOUT_KEY, 10000);
+        protocol.export(proxy.getInvoker(new BenchmarkServiceImpl(), BenchmarkService.class, url));
+        service = proxy.getProxy(protocol.refer(BenchmarkService.class, url));
+    }
+
+    @TearDown
+    public void tearDown() {
+        protocol.destroy();
+    }
+
+    @Benchmark
+    public String echo() {
+        return service.echo("hello");
+    }
+
+    @Benchmark
+    public List<Item> items() {
+        return service.items(items);
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.benchmark;
+
+import org.apache.dubbo.registry.support.RegistryCacheFile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves one changed service into, and loads, a registry cache of many services, in the former
+ * properties format and in the binary {@link RegistryCacheFile}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegistryCacheBenchmark {
+
+    @Param({"5000"})
+    private int services;
+
+    private Properties properties;
+
+    private Map<String, String> entries;
+
+    private File propertiesFile;
+
+    private RegistryCacheFile cacheFile;
+
+    private int version;
+
+    @Setup
+    public void setup() throws IOException {
+        properties = new Properties();
+        entries = new HashMap<String, String>();
+        for (int i = 0; i < services; i++) {
+            String value = providers(i, 0);
+            properties.setProperty(key(i), value);
+            entries.put(key(i), value);
+        }
+        propertiesFile = File.createTempFile("dubbo-registry", ".properties");
+        storeProperties();
+        File file = File.createTempFile("dubbo-registry", ".cache");
+        file.delete();
+        cacheFile = new RegistryCacheFile(file);
+        cacheFile.compact(entries);
+    }
+
+    @TearDown
+    public void tearDown() {
+        propertiesFile.delete();
+        cacheFile.getFile().delete();
+    }
+
+    private static String key(int service) {
+        return "org.apache.dubbo.demo.DemoService" + service + ":1.0.0";
+    }
+
+    private static String providers(int service, int version) {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 1; i <= 3; i++) {
+            if (buf.length() > 0) {
+                buf.append(' ');
+            }
+            buf.append("dubbo://10.20.").append(service % 256).append('.').append(i)
+                    .append(":20880/org.apache.dubbo.demo.DemoService").append(service)
+                    .append("?anyhost=true&application=demo-provider&dubbo=2.0.2&generic=false&interface=org.apache.dubbo.demo.DemoService")
+                    .append(service).append("&methods=sayHello,sayGoodbye&pid=").append(version)
+                    .append("&revision=1.0.0&side=provider&timeout=3000&timestamp=1540000000000&version=1.0.0");
+        }
+        return buf.toString();
+    }
+
+    private void storeProperties() throws IOException {
+        OutputStream out = new FileOutputStream(propertiesFile);
+        try {
+            properties.store(out, "Dubbo Registry Cache");
+        } finally {
+            out.close();
+        }
+    }
+
+    @Benchmark
+    public void saveProperties() throws IOException {
+        int service = version++ % services;
+        properties.setProperty(key(service), providers(service, version));
+        storeProperties();
+    }
+
+    @Benchmark
+    public void saveBinary() throws IOException {
+        int service = version++ % services;
+        String value = providers(service, version);
+        entries.put(key(service), value);
+        if (cacheFile.needsCompaction()) {
+            cacheFile.compact(entries);
+        } else {
+            cacheFile.append(Collections.singletonMap(key(service), value));
+        }
+    }
+
+    @Benchmark
+    public Properties loadProperties() throws IOException {
+        Properties loaded = new Properties();
+        InputStream in = new FileInputStream(propertiesFile);
+        try {
+            loaded.load(in);
+        } finally {
+            in.close();
+        }
+        return loaded;
+    }
+
+    @Benchmark
+    public Map<String, String> loadBinary() throws IOException {
+        return new RegistryCacheFile(cacheFile.getFile()).load();
+    }
+}
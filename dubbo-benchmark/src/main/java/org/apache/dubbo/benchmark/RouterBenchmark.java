@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.benchmark;
+
+import org.apache.dubbo.benchmark.support.BenchmarkInvoker;
+import org.apache.dubbo.benchmark.support.BenchmarkService;
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.cluster.Router;
+import org.apache.dubbo.rpc.cluster.router.condition.ConditionRouter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes the providers with a {@link ConditionRouter}, matching on the consumer host or the method. {@link #route()}
+ * routes the same invoker list on each call, {@link #refresh()} a new list as after a registry notification.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouterBenchmark {
+
+    @Param({"host = 10.30.0.* => host = 10.20.0.1,10.20.0.2", "method = echo => host != 10.20.0.1"})
+    private String rule;
+
+    @Param({"10", "100", "1000"})
+    private int providers;
+
+    private Router router;
+
+    private List<Invoker<BenchmarkService>> invokers;
+
+    private URL url;
+
+    private Invocation invocation;
+
+    @Setup
+    public void setup() {
+        router = new ConditionRouter(URL.valueOf("condition://0.0.0.0/" + BenchmarkService.class.getName())
+                .addParameterAndEncoded(Constants.RULE_KEY, rule));
+        invokers = BenchmarkInvoker.list(providers);
+        url = URL.valueOf("consumer://10.30.0.1/" + BenchmarkService.class.getName());
+        invocation = new RpcInvocation("echo", new Class<?>[]{String.class}, new Object[]{"hello"});
+    }
+
+    @Benchmark
+    public List<Invoker<BenchmarkService>> route() {
+        return router.route(invokers, url, invocation);
+    }
+
+    @Benchmark
+    public List<Invoker<BenchmarkService>> refresh() {
+        return router.route(new ArrayList<Invoker<BenchmarkService>>(invokers), url, invocation);
+    }
+}
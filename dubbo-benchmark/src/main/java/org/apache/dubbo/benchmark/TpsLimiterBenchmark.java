@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.benchmark;
+
+import org.apache.dubbo.benchmark.support.BenchmarkService;
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.filter.tps.DefaultTPSLimiter;
+import org.apache.dubbo.rpc.filter.tps.TPSLimiter;
+import org.apache.dubbo.rpc.filter.tps.TokenBucketTPSLimiter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the TPS limit of a service from 32 threads, with a rate either out of reach or exhausted at once.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class TpsLimiterBenchmark {
+
+    @Param({"default", "tokenbucket"})
+    private String limiter;
+
+    @Param({"1000000000", "1000"})
+    private int rate;
+
+    private TPSLimiter tpsLimiter;
+
+    private URL url;
+
+    private Invocation invocation;
+
+    @Setup
+    public void setup() {
+        tpsLimiter = "default".equals(limiter) ? new DefaultTPSLimiter() : new TokenBucketTPSLimiter();
+        url = URL.valueOf("dubbo://10.20.0.1:20880/" + BenchmarkService.class.getName())
+                .addParameter(Constants.TPS_LIMIT_RATE_KEY, rate);
+        invocation = new RpcInvocation("echo", new Class<?>[]{String.class}, new Object[]{"hello"});
+    }
+
+    @Benchmark
+    public boolean isAllowable() {
+        return tpsLimiter.isAllowable(url, invocation);
+    }
+}
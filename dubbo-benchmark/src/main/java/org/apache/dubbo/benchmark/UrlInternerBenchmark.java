@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.benchmark;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.registry.support.UrlInterner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses the encoded provider list of a ZooKeeper notification in which a single provider changed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UrlInternerBenchmark {
+
+    @Param({"1000"})
+    private int providers;
+
+    private List<String> children;
+
+    private int timestamp;
+
+    @Setup
+    public void setup() {
+        children = new ArrayList<String>(providers);
+        for (int i = 0; i < providers; i++) {
+            children.add(provider(i, 0));
+        }
+    }
+
+    private static String provider(int i, int timestamp) {
+        return URL.encode("dubbo://10.20." + (i / 256) + "." + (i % 256) + ":20880/org.apache.dubbo.demo.DemoService"
+                + "?anyhost=true&application=demo-provider&dubbo=2.0.2&generic=false&interface=org.apache.dubbo.demo.DemoService"
+                + "&methods=sayHello,sayGoodbye,echo&pid=" + i + "&revision=1.0.0&side=provider&timeout=3000&timestamp=" + timestamp);
+    }
+
+    @Benchmark
+    public List<URL> decode() {
+        children.set(0, provider(0, ++timestamp));
+        List<URL> urls = new ArrayList<URL>(children.size());
+        for (String child : children) {
+            urls.add(URL.valueOf(URL.decode(child)));
+        }
+        return urls;
+    }
+
+    @Benchmark
+    public List<URL> intern() {
+        children.set(0, provider(0, ++timestamp));
+        UrlInterner interner = UrlInterner.getInstance();
+        List<URL> urls = new ArrayList<URL>(children.size());
+        for (String child : children) {
+            urls.add(interner.decode(child));
+        }
+        return urls;
+    }
+}
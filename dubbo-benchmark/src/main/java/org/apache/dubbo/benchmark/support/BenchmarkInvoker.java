@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.benchmark.support;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An invoker of a provider which is never called, to run the routers and load balances.
+ */
+public class BenchmarkInvoker implements Invoker<BenchmarkService> {
+
+    private final URL url;
+
+    public BenchmarkInvoker(URL url) {
+        this.url = url;
+    }
+
+    /**
+     * @return the invokers of the providers 10.20.{i / 256}.{i % 256}:20880, weighted from 100 to 190
+     */
+    public static List<Invoker<BenchmarkService>> list(int count) {
+        List<Invoker<BenchmarkService>> invokers = new ArrayList<Invoker<BenchmarkService>>(count);
+        for (int i = 0; i < count; i++) {
+            invokers.add(new BenchmarkInvoker(URL.valueOf("dubbo://10.20." + i / 256 + "." + i % 256 + ":20880/"
+                    + BenchmarkService.class.getName() + "?weight=" + (100 + i % 10 * 10))));
+        }
+        return invokers;
+    }
+
+    @Override
+    public Class<BenchmarkService> getInterface() {
+        return BenchmarkService.class;
+    }
+
+    @Override
+    public Result invoke(Invocation invocation) throws RpcException {
+        return new RpcResult();
+    }
+
+    @Override
+    public URL getUrl() {
+        return url;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
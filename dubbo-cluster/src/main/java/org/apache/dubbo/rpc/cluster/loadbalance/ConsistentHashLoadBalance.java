@@ -20,120 +20,240 @@ import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.URL;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.RpcStatus;
 import org.apache.dubbo.rpc.support.RpcUtils;
 
-import java.io.UnsupportedEncodingException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 /**
  * ConsistentHashLoadBalance
- *
+ * <p>
+ * With <code>hash.load.factor</code> set to a positive epsilon, hashing has bounded loads: a key whose invoker already
+ * has (1 + epsilon) times the average active calls walks clockwise to the next invoker under that bound. Active calls
+ * are counted by the <code>actives</code> filter, as for {@link LeastActiveLoadBalance}.
  */
 public class ConsistentHashLoadBalance extends AbstractLoadBalance {
     public static final String NAME = "consistenthash";
 
-    private final ConcurrentMap<String, ConsistentHashSelector<?>> selectors = new ConcurrentHashMap<String, ConsistentHashSelector<?>>();
+    private final ConcurrentMap<String, ConcurrentMap<String, ConsistentHashSelector<?>>> selectors = new ConcurrentHashMap<String, ConcurrentMap<String, ConsistentHashSelector<?>>>();
 
     @SuppressWarnings("unchecked")
     @Override
     protected <T> Invoker<T> doSelect(List<Invoker<T>> invokers, URL url, Invocation invocation) {
         String methodName = RpcUtils.getMethodName(invocation);
-        String key = invokers.get(0).getUrl().getServiceKey() + "." + methodName;
-        int identityHashCode = System.identityHashCode(invokers);
-        ConsistentHashSelector<T> selector = (ConsistentHashSelector<T>) selectors.get(key);
-        if (selector == null || selector.identityHashCode != identityHashCode) {
-            selectors.put(key, new ConsistentHashSelector<T>(invokers, methodName, identityHashCode));
-            selector = (ConsistentHashSelector<T>) selectors.get(key);
+        String serviceKey = String.valueOf(invokers.get(0).getUrl().getServiceKey());
+        ConcurrentMap<String, ConsistentHashSelector<?>> methodSelectors = selectors.get(serviceKey);
+        if (methodSelectors == null) {
+            selectors.putIfAbsent(serviceKey, new ConcurrentHashMap<String, ConsistentHashSelector<?>>());
+            methodSelectors = selectors.get(serviceKey);
+        }
+        ConsistentHashSelector<T> selector = (ConsistentHashSelector<T>) methodSelectors.get(String.valueOf(methodName));
+        if (selector == null || !selector.isFor(invokers)) {
+            selector = new ConsistentHashSelector<T>(invokers, methodName, selector);
+            methodSelectors.put(String.valueOf(methodName), selector);
         }
         return selector.select(invocation);
     }
 
     private static final class ConsistentHashSelector<T> {
 
-        private final TreeMap<Long, Invoker<T>> virtualInvokers;
+        private static final long FNV_OFFSET = 0xcbf29ce484222325L;
 
-        private final int replicaNumber;
+        private static final long FNV_PRIME = 0x100000001b3L;
+
+        private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+        private static final long HASH_MASK = 0xffffffff00000000L;
 
-        private final int identityHashCode;
+        private final Invoker<T>[] invokers;
+
+        /**
+         * The virtual nodes, each the hash in the high and the index of its invoker in the low 32 bits, sorted by hash
+         */
+        private final long[] ring;
+
+        private final int replicaNumber;
 
         private final int[] argumentIndex;
 
-        ConsistentHashSelector(List<Invoker<T>> invokers, String methodName, int identityHashCode) {
-            this.virtualInvokers = new TreeMap<Long, Invoker<T>>();
-            this.identityHashCode = identityHashCode;
-            URL url = invokers.get(0).getUrl();
+        private final double loadFactor;
+
+        /**
+         * The method statuses of the invokers, by invoker index, only with bounded loads
+         */
+        private final RpcStatus[] statuses;
+
+        private volatile List<Invoker<T>> list;
+
+        /**
+         * @param previous the selector of the previous invoker list, whose virtual nodes of the invokers still in the
+         *                 list are kept, so that only joining invokers are hashed
+         */
+        @SuppressWarnings("unchecked")
+        ConsistentHashSelector(List<Invoker<T>> list, String methodName, ConsistentHashSelector<T> previous) {
+            this.list = list;
+            this.invokers = list.toArray(new Invoker[0]);
+            URL url = invokers[0].getUrl();
             this.replicaNumber = url.getMethodParameter(methodName, "hash.nodes", 160);
             String[] index = Constants.COMMA_SPLIT_PATTERN.split(url.getMethodParameter(methodName, "hash.arguments", "0"));
             argumentIndex = new int[index.length];
             for (int i = 0; i < index.length; i++) {
                 argumentIndex[i] = Integer.parseInt(index[i]);
             }
-            for (Invoker<T> invoker : invokers) {
-                String address = invoker.getUrl().getAddress();
-                for (int i = 0; i < replicaNumber / 4; i++) {
-                    byte[] digest = md5(address + i);
-                    for (int h = 0; h < 4; h++) {
-                        long m = hash(digest, h);
-                        virtualInvokers.put(m, invoker);
+            this.loadFactor = url.getMethodParameter(methodName, "hash.load.factor", 0d);
+            if (loadFactor > 0) {
+                statuses = new RpcStatus[invokers.length];
+                for (int i = 0; i < invokers.length; i++) {
+                    statuses[i] = RpcStatus.getStatus(invokers[i].getUrl(), methodName);
+                }
+            } else {
+                statuses = null;
+            }
+
+            Map<Invoker<T>, Integer> indexes = new IdentityHashMap<Invoker<T>, Integer>(invokers.length);
+            for (int i = 0; i < invokers.length; i++) {
+                indexes.put(invokers[i], i);
+            }
+            boolean[] kept = new boolean[invokers.length];
+            long[] keptNodes = new long[0];
+            int keptCount = 0;
+            if (previous != null && previous.replicaNumber == replicaNumber) {
+                keptNodes = new long[previous.ring.length];
+                for (long node : previous.ring) {
+                    Integer i = indexes.get(previous.invokers[(int) node]);
+                    if (i != null) {
+                        keptNodes[keptCount++] = (node & HASH_MASK) | i;
+                        kept[i] = true;
+                    }
+                }
+            }
+            int joined = 0;
+            for (boolean k : kept) {
+                if (!k) {
+                    joined++;
+                }
+            }
+            long[] joinedNodes = new long[joined * replicaNumber];
+            int joinedCount = 0;
+            for (int i = 0; i < invokers.length; i++) {
+                if (!kept[i]) {
+                    long addressHash = hash(FNV_OFFSET, invokers[i].getUrl().getAddress());
+                    for (int r = 0; r < replicaNumber; r++) {
+                        joinedNodes[joinedCount++] = ((long) mix(addressHash + r * GOLDEN_GAMMA) << 32) | i;
                     }
                 }
             }
+            Arrays.sort(joinedNodes);
+            this.ring = merge(keptNodes, keptCount, joinedNodes);
+        }
+
+        boolean isFor(List<Invoker<T>> other) {
+            if (other == list) {
+                return true;
+            }
+            if (other.size() != invokers.length) {
+                return false;
+            }
+            for (int i = 0; i < invokers.length; i++) {
+                if (other.get(i) != invokers[i]) {
+                    return false;
+                }
+            }
+            list = other;
+            return true;
         }
 
         public Invoker<T> select(Invocation invocation) {
-            String key = toKey(invocation.getArguments());
-            byte[] digest = md5(key);
-            return selectForKey(hash(digest, 0));
+            int node = locate(hash(invocation.getArguments()));
+            if (statuses == null) {
+                return invokers[(int) ring[node]];
+            }
+            int total = 0;
+            for (RpcStatus status : statuses) {
+                total += status.getActive();
+            }
+            // the bound counts the call being selected, so that some invoker is always under it
+            double capacity = Math.ceil((1 + loadFactor) * (total + 1) / invokers.length);
+            for (int i = node; i < node + ring.length; i++) {
+                int index = (int) ring[i < ring.length ? i : i - ring.length];
+                if (statuses[index].getActive() < capacity) {
+                    return invokers[index];
+                }
+            }
+            return invokers[(int) ring[node]];
         }
 
-        private String toKey(Object[] args) {
-            StringBuilder buf = new StringBuilder();
-            for (int i : argumentIndex) {
-                if (i >= 0 && i < args.length) {
-                    buf.append(args[i]);
+        /**
+         * @return the index of the first virtual node clockwise from the hash
+         */
+        private int locate(int hash) {
+            int low = 0;
+            int high = ring.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if ((int) (ring[mid] >> 32) < hash) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
                 }
             }
-            return buf.toString();
+            return low == ring.length ? 0 : low;
         }
 
-        private Invoker<T> selectForKey(long hash) {
-            Map.Entry<Long, Invoker<T>> entry = virtualInvokers.tailMap(hash, true).firstEntry();
-            if (entry == null) {
-                entry = virtualInvokers.firstEntry();
+        private int hash(Object[] args) {
+            long hash = FNV_OFFSET;
+            if (args != null) {
+                for (int i : argumentIndex) {
+                    if (i >= 0 && i < args.length) {
+                        hash = hash(hash, String.valueOf(args[i]));
+                    }
+                }
             }
-            return entry.getValue();
+            return mix(hash);
         }
 
-        private long hash(byte[] digest, int number) {
-            return (((long) (digest[3 + number * 4] & 0xFF) << 24)
-                    | ((long) (digest[2 + number * 4] & 0xFF) << 16)
-                    | ((long) (digest[1 + number * 4] & 0xFF) << 8)
-                    | (digest[number * 4] & 0xFF))
-                    & 0xFFFFFFFFL;
+        private static long[] merge(long[] a, int aLength, long[] b) {
+            long[] merged = new long[aLength + b.length];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < aLength && j < b.length) {
+                merged[k++] = (a[i] >> 32) <= (b[j] >> 32) ? a[i++] : b[j++];
+            }
+            while (i < aLength) {
+                merged[k++] = a[i++];
+            }
+            while (j < b.length) {
+                merged[k++] = b[j++];
+            }
+            return merged;
+        }
+
+        /**
+         * FNV-1a over the chars of the value
+         */
+        private static long hash(long hash, String value) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+            }
+            return hash;
         }
 
-        private byte[] md5(String value) {
-            MessageDigest md5;
-            try {
-                md5 = MessageDigest.getInstance("MD5");
-            } catch (NoSuchAlgorithmException e) {
-                throw new IllegalStateException(e.getMessage(), e);
-            }
-            md5.reset();
-            byte[] bytes;
-            try {
-                bytes = value.getBytes("UTF-8");
-            } catch (UnsupportedEncodingException e) {
-                throw new IllegalStateException(e.getMessage(), e);
-            }
-            md5.update(bytes);
-            return md5.digest();
+        /**
+         * The finalizer of murmur3, which spreads every bit of the input over the hash
+         */
+        private static int mix(long hash) {
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return (int) hash;
         }
 
     }
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.loadbalance;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.RpcStatus;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Peak EWMA load balance: picks the cheaper of two random invokers, where the cost of an invoker is the peak moving
+ * average of the elapsed of the method ({@link RpcStatus#getEwmaElapsed()}) times the active calls plus one, divided
+ * by the weight. Like {@link LeastActiveLoadBalance}, it relies on the statistics of the <code>actives</code> filter.
+ */
+public class PeakEwmaLoadBalance extends AbstractLoadBalance {
+
+    public static final String NAME = "peakewma";
+
+    /**
+     * Floor of the elapsed average, so that providers with no or sub-millisecond samples still differ by active calls
+     */
+    private static final double MIN_ELAPSED = 0.001;
+
+    @Override
+    protected <T> Invoker<T> doSelect(List<Invoker<T>> invokers, URL url, Invocation invocation) {
+        int length = invokers.size();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(length);
+        int second = random.nextInt(length - 1);
+        if (second >= first) {
+            second++;
+        }
+        Invoker<T> firstInvoker = invokers.get(first);
+        Invoker<T> secondInvoker = invokers.get(second);
+        return cost(secondInvoker, invocation) < cost(firstInvoker, invocation) ? secondInvoker : firstInvoker;
+    }
+
+    private double cost(Invoker<?> invoker, Invocation invocation) {
+        int weight = getWeight(invoker, invocation);
+        if (weight <= 0) {
+            return Double.MAX_VALUE;
+        }
+        RpcStatus status = RpcStatus.getStatus(invoker.getUrl(), invocation.getMethodName());
+        return Math.max(status.getEwmaElapsed(), MIN_ELAPSED) * (status.getActive() + 1) / weight;
+    }
+}
@@ -16,87 +16,172 @@
  */
 package org.apache.dubbo.rpc.cluster.loadbalance;
 
+import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.utils.AtomicPositiveInteger;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 
-import java.util.LinkedHashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 /**
- * Round robin load balance.
- *
+ * Smooth weighted round robin load balance.
+ * <p>
+ * On each selection every invoker gains its weight, and the one with the highest current weight is selected and
+ * loses the total weight, so that heavier invokers are interleaved with lighter ones instead of being selected in
+ * bursts. The weights are computed once per invoker list of a method, and re-computed only while some invoker is
+ * warming up, up to the first selection after it is warm.
  */
 public class RoundRobinLoadBalance extends AbstractLoadBalance {
 
     public static final String NAME = "roundrobin";
 
-    private final ConcurrentMap<String, AtomicPositiveInteger> sequences = new ConcurrentHashMap<String, AtomicPositiveInteger>();
+    private final ConcurrentMap<String, ConcurrentMap<String, WeightedRoundRobin>> states = new ConcurrentHashMap<String, ConcurrentMap<String, WeightedRoundRobin>>();
 
     @Override
+    @SuppressWarnings("unchecked")
     protected <T> Invoker<T> doSelect(List<Invoker<T>> invokers, URL url, Invocation invocation) {
-        String key = invokers.get(0).getUrl().getServiceKey() + "." + invocation.getMethodName();
-        int length = invokers.size(); // Number of invokers
-        int maxWeight = 0; // The maximum weight
-        int minWeight = Integer.MAX_VALUE; // The minimum weight
-        final LinkedHashMap<Invoker<T>, IntegerWrapper> invokerToWeightMap = new LinkedHashMap<Invoker<T>, IntegerWrapper>();
-        int weightSum = 0;
-        for (int i = 0; i < length; i++) {
-            int weight = getWeight(invokers.get(i), invocation);
-            maxWeight = Math.max(maxWeight, weight); // Choose the maximum weight
-            minWeight = Math.min(minWeight, weight); // Choose the minimum weight
-            if (weight > 0) {
-                invokerToWeightMap.put(invokers.get(i), new IntegerWrapper(weight));
-                weightSum += weight;
-            }
+        String serviceKey = String.valueOf(invokers.get(0).getUrl().getServiceKey());
+        String methodName = String.valueOf(invocation.getMethodName());
+        ConcurrentMap<String, WeightedRoundRobin> methodStates = states.get(serviceKey);
+        if (methodStates == null) {
+            states.putIfAbsent(serviceKey, new ConcurrentHashMap<String, WeightedRoundRobin>());
+            methodStates = states.get(serviceKey);
         }
-        AtomicPositiveInteger sequence = sequences.get(key);
-        if (sequence == null) {
-            sequences.putIfAbsent(key, new AtomicPositiveInteger());
-            sequence = sequences.get(key);
+        WeightedRoundRobin state = methodStates.get(methodName);
+        if (state == null || !state.isFor(invokers)) {
+            state = new WeightedRoundRobin(invokers, state);
+            weigh(state, invocation);
+            methodStates.put(methodName, state);
         }
-        int currentSequence = sequence.getAndIncrement();
-        if (maxWeight > 0 && minWeight < maxWeight) {
-            int mod = currentSequence % weightSum;
-            for (int i = 0; i < maxWeight; i++) {
-                for (Map.Entry<Invoker<T>, IntegerWrapper> each : invokerToWeightMap.entrySet()) {
-                    final Invoker<T> k = each.getKey();
-                    final IntegerWrapper v = each.getValue();
-                    if (mod == 0 && v.getValue() > 0) {
-                        return k;
-                    }
-                    if (v.getValue() > 0) {
-                        v.decrement();
-                        mod--;
-                    }
+        return (Invoker<T>) select(state, invocation);
+    }
+
+    private Invoker<?> select(WeightedRoundRobin state, Invocation invocation) {
+        if (state.uniform) {
+            return state.invokers[state.sequence.getAndIncrement() % state.invokers.length];
+        }
+        synchronized (state) {
+            if (state.warmupEnd > 0) {
+                // the last time after the warmup ends sets the full weights and clears warmupEnd
+                weigh(state, invocation);
+            }
+            return state.next();
+        }
+    }
+
+    private void weigh(WeightedRoundRobin state, Invocation invocation) {
+        Invoker<?>[] invokers = state.invokers;
+        int[] weights = state.weights;
+        long now = System.currentTimeMillis();
+        long warmupEnd = 0;
+        long totalWeight = 0;
+        boolean uniform = true;
+        for (int i = 0; i < invokers.length; i++) {
+            URL url = invokers[i].getUrl();
+            weights[i] = Math.max(getWeight(invokers[i], invocation), 0);
+            totalWeight += weights[i];
+            uniform = uniform && weights[i] == weights[0];
+            long timestamp = url.getParameter(Constants.REMOTE_TIMESTAMP_KEY, 0L);
+            if (timestamp > 0L) {
+                long end = timestamp + url.getParameter(Constants.WARMUP_KEY, Constants.DEFAULT_WARMUP);
+                if (end > now) {
+                    warmupEnd = Math.max(warmupEnd, end);
                 }
             }
         }
-        // Round robin
-        return invokers.get(currentSequence % length);
+        state.totalWeight = totalWeight;
+        state.warmupEnd = warmupEnd;
+        // all invokers weigh zero: plain round robin, like equal weights
+        state.uniform = warmupEnd == 0 && (uniform || totalWeight == 0);
     }
 
-    private static final class IntegerWrapper {
-        private int value;
+    private static final class WeightedRoundRobin {
 
-        public IntegerWrapper(int value) {
-            this.value = value;
-        }
+        private final Invoker<?>[] invokers;
+
+        private final int[] weights;
+
+        private final long[] current;
+
+        private final AtomicPositiveInteger sequence;
+
+        /**
+         * The list the state is built for, selection compares it by identity first.
+         */
+        private volatile List<?> list;
 
-        public int getValue() {
-            return value;
+        private long totalWeight;
+
+        private long warmupEnd;
+
+        private volatile boolean uniform;
+
+        /**
+         * @param previous the state of the previous invoker list, whose progress is carried over so that switching
+         *                 lists, e.g. on reselection, does not restart the rotation
+         */
+        WeightedRoundRobin(List<? extends Invoker<?>> list, WeightedRoundRobin previous) {
+            this.list = list;
+            this.invokers = list.toArray(new Invoker<?>[0]);
+            this.weights = new int[invokers.length];
+            this.current = new long[invokers.length];
+            if (previous == null) {
+                this.sequence = new AtomicPositiveInteger();
+                return;
+            }
+            this.sequence = previous.sequence;
+            Map<Invoker<?>, Long> currents = new IdentityHashMap<Invoker<?>, Long>();
+            synchronized (previous) {
+                for (int i = 0; i < previous.invokers.length; i++) {
+                    currents.put(previous.invokers[i], previous.current[i]);
+                }
+            }
+            for (int i = 0; i < invokers.length; i++) {
+                Long value = currents.get(invokers[i]);
+                if (value != null) {
+                    current[i] = value;
+                }
+            }
         }
 
-        public void setValue(int value) {
-            this.value = value;
+        boolean isFor(List<?> other) {
+            if (other == list) {
+                return true;
+            }
+            if (other.size() != invokers.length) {
+                return false;
+            }
+            for (int i = 0; i < invokers.length; i++) {
+                if (other.get(i) != invokers[i]) {
+                    return false;
+                }
+            }
+            list = other;
+            return true;
         }
 
-        public void decrement() {
-            this.value--;
+        Invoker<?> next() {
+            if (totalWeight == 0) {
+                return invokers[sequence.getAndIncrement() % invokers.length];
+            }
+            int selected = -1;
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < invokers.length; i++) {
+                if (weights[i] > 0) {
+                    current[i] += weights[i];
+                    if (current[i] > max) {
+                        max = current[i];
+                        selected = i;
+                    }
+                }
+            }
+            current[selected] -= totalWeight;
+            return invokers[selected];
         }
     }
 
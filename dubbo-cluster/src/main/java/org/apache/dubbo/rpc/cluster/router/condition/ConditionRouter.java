@@ -35,12 +35,17 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * ConditionRouter
- *
+ * <p>
+ * The rule is compiled once into match pairs of precomputed patterns, and a route result is cached per method for the
+ * invoker list and consumer url it was computed from, so that a runtime router only evaluates the rule again after the
+ * directory pushes a new invoker list. A changed rule is a new router.
  */
 public class ConditionRouter implements Router, Comparable<Router> {
 
@@ -51,6 +56,9 @@ public class ConditionRouter implements Router, Comparable<Router> {
     private final boolean force;
     private final Map<String, MatchPair> whenCondition;
     private final Map<String, MatchPair> thenCondition;
+    private final MatchPair[] whenPairs;
+    private final MatchPair[] thenPairs;
+    private final ConcurrentMap<String, RouteCache<?>> routeCaches = new ConcurrentHashMap<String, RouteCache<?>>();
 
     public ConditionRouter(URL url) {
         this.url = url;
@@ -70,11 +78,25 @@ public class ConditionRouter implements Router, Comparable<Router> {
             // NOTE: It should be determined on the business level whether the `When condition` can be empty or not.
             this.whenCondition = when;
             this.thenCondition = then;
+            this.whenPairs = compile(when);
+            this.thenPairs = compile(then);
         } catch (ParseException e) {
             throw new IllegalStateException(e.getMessage(), e);
         }
     }
 
+    private static MatchPair[] compile(Map<String, MatchPair> condition) {
+        if (condition == null) {
+            return null;
+        }
+        MatchPair[] pairs = new MatchPair[condition.size()];
+        int i = 0;
+        for (Map.Entry<String, MatchPair> entry : condition.entrySet()) {
+            pairs[i++] = entry.getValue().compile(entry.getKey());
+        }
+        return pairs;
+    }
+
     private static Map<String, MatchPair> parseRule(String rule)
             throws ParseException {
         Map<String, MatchPair> condition = new HashMap<String, MatchPair>();
@@ -143,13 +165,20 @@ public class ConditionRouter implements Router, Comparable<Router> {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> List<Invoker<T>> route(List<Invoker<T>> invokers, URL url, Invocation invocation)
             throws RpcException {
         if (invokers == null || invokers.isEmpty()) {
             return invokers;
         }
+        String method = String.valueOf(invocation == null ? null : invocation.getMethodName());
+        RouteCache<T> cache = (RouteCache<T>) routeCaches.get(method);
+        if (cache != null && cache.isFor(invokers, url)) {
+            return cache.result;
+        }
         try {
             if (!matchWhen(url, invocation)) {
+                routeCaches.put(method, new RouteCache<T>(invokers, url, invokers));
                 return invokers;
             }
             List<Invoker<T>> result = new ArrayList<Invoker<T>>();
@@ -163,11 +192,13 @@ public class ConditionRouter implements Router, Comparable<Router> {
                 }
             }
             if (!result.isEmpty()) {
+                routeCaches.put(method, new RouteCache<T>(invokers, url, result));
                 return result;
             } else if (force) {
                 logger.warn("The route result is empty and force execute. consumer: " + NetUtils.getLocalHost() + ", service: " + url.getServiceKey() + ", router: " + url.getParameterAndDecoded(Constants.RULE_KEY));
                 return result;
             }
+            routeCaches.put(method, new RouteCache<T>(invokers, url, invokers));
         } catch (Throwable t) {
             logger.error("Failed to execute condition router rule: " + getUrl() + ", invokers: " + invokers + ", cause: " + t.getMessage(), t);
         }
@@ -189,37 +220,32 @@ public class ConditionRouter implements Router, Comparable<Router> {
     }
 
     boolean matchWhen(URL url, Invocation invocation) {
-        return whenCondition == null || whenCondition.isEmpty() || matchCondition(whenCondition, url, null, invocation);
+        return whenPairs == null || whenPairs.length == 0 || matchCondition(whenPairs, url, null, invocation);
     }
 
     private boolean matchThen(URL url, URL param) {
-        return !(thenCondition == null || thenCondition.isEmpty()) && matchCondition(thenCondition, url, param, null);
+        return !(thenPairs == null || thenPairs.length == 0) && matchCondition(thenPairs, url, param, null);
     }
 
-    private boolean matchCondition(Map<String, MatchPair> condition, URL url, URL param, Invocation invocation) {
-        Map<String, String> sample = url.toMap();
+    private boolean matchCondition(MatchPair[] condition, URL url, URL param, Invocation invocation) {
         boolean result = false;
-        for (Map.Entry<String, MatchPair> matchPair : condition.entrySet()) {
-            String key = matchPair.getKey();
+        for (MatchPair matchPair : condition) {
             String sampleValue;
             //get real invoked method name from invocation
-            if (invocation != null && (Constants.METHOD_KEY.equals(key) || Constants.METHODS_KEY.equals(key))) {
+            if (invocation != null && matchPair.method) {
                 sampleValue = invocation.getMethodName();
             } else {
-                sampleValue = sample.get(key);
-                if (sampleValue == null) {
-                    sampleValue = sample.get(Constants.DEFAULT_KEY_PREFIX + key);
-                }
+                sampleValue = matchPair.getSampleValue(url);
             }
             if (sampleValue != null) {
-                if (!matchPair.getValue().isMatch(sampleValue, param)) {
+                if (!matchPair.isMatch(sampleValue, param)) {
                     return false;
                 } else {
                     result = true;
                 }
             } else {
                 //not pass the condition
-                if (!matchPair.getValue().matches.isEmpty()) {
+                if (!matchPair.matches.isEmpty()) {
                     return false;
                 } else {
                     result = true;
@@ -229,38 +255,101 @@ public class ConditionRouter implements Router, Comparable<Router> {
         return result;
     }
 
+    /**
+     * The route result of a method for the invoker list and consumer url it was computed from, both compared by
+     * identity, as the directory hands out the same list until it is refreshed.
+     */
+    private static final class RouteCache<T> {
+        private final List<Invoker<T>> invokers;
+        private final int size;
+        private final URL url;
+        private final List<Invoker<T>> result;
+
+        RouteCache(List<Invoker<T>> invokers, URL url, List<Invoker<T>> result) {
+            this.invokers = invokers;
+            this.size = invokers.size();
+            this.url = url;
+            this.result = result;
+        }
+
+        boolean isFor(List<Invoker<T>> invokers, URL url) {
+            return this.invokers == invokers && this.size == invokers.size() && this.url == url;
+        }
+    }
+
     private static final class MatchPair {
         final Set<String> matches = new HashSet<String>();
         final Set<String> mismatches = new HashSet<String>();
+        private String key;
+        private String defaultKey;
+        private boolean method;
+        private GlobPattern[] matchPatterns;
+        private GlobPattern[] mismatchPatterns;
+
+        private MatchPair compile(String key) {
+            this.key = key;
+            this.defaultKey = Constants.DEFAULT_KEY_PREFIX + key;
+            this.method = Constants.METHOD_KEY.equals(key) || Constants.METHODS_KEY.equals(key);
+            this.matchPatterns = GlobPattern.compile(matches);
+            this.mismatchPatterns = GlobPattern.compile(mismatches);
+            return this;
+        }
+
+        /**
+         * @return the value of the key in {@link URL#toMap()}, without building the map
+         */
+        private String getSampleValue(URL url) {
+            String value = null;
+            if ("protocol".equals(key)) {
+                value = url.getProtocol();
+            } else if ("username".equals(key)) {
+                value = url.getUsername();
+            } else if ("password".equals(key)) {
+                value = url.getPassword();
+            } else if ("host".equals(key)) {
+                value = url.getHost();
+            } else if ("port".equals(key)) {
+                value = url.getPort() > 0 ? String.valueOf(url.getPort()) : null;
+            } else if ("path".equals(key)) {
+                value = url.getPath();
+            }
+            if (value == null) {
+                value = url.getParameters().get(key);
+            }
+            if (value == null) {
+                value = url.getParameters().get(defaultKey);
+            }
+            return value;
+        }
 
         private boolean isMatch(String value, URL param) {
-            if (!matches.isEmpty() && mismatches.isEmpty()) {
-                for (String match : matches) {
-                    if (UrlUtils.isMatchGlobPattern(match, value, param)) {
+            if (matchPatterns.length > 0 && mismatchPatterns.length == 0) {
+                for (GlobPattern match : matchPatterns) {
+                    if (match.isMatch(value, param)) {
                         return true;
                     }
                 }
                 return false;
             }
 
-            if (!mismatches.isEmpty() && matches.isEmpty()) {
-                for (String mismatch : mismatches) {
-                    if (UrlUtils.isMatchGlobPattern(mismatch, value, param)) {
+            if (mismatchPatterns.length > 0 && matchPatterns.length == 0) {
+                for (GlobPattern mismatch : mismatchPatterns) {
+                    if (mismatch.isMatch(value, param)) {
                         return false;
                     }
                 }
                 return true;
             }
 
-            if (!matches.isEmpty() && !mismatches.isEmpty()) {
+            if (matchPatterns.length > 0 && mismatchPatterns.length > 0) {
                 //when both mismatches and matches contain the same value, then using mismatches first
-                for (String mismatch : mismatches) {
-                    if (UrlUtils.isMatchGlobPattern(mismatch, value, param)) {
+                for (GlobPattern mismatch : mismatchPatterns) {
+                    if (mismatch.isMatch(value, param)) {
                         return false;
                     }
                 }
-                for (String match : matches) {
-                    if (UrlUtils.isMatchGlobPattern(match, value, param)) {
+                for (GlobPattern match : matchPatterns) {
+                    if (match.isMatch(value, param)) {
                         return true;
                     }
                 }
@@ -269,4 +358,45 @@ public class ConditionRouter implements Router, Comparable<Router> {
             return false;
         }
     }
+
+    /**
+     * A pattern of {@link UrlUtils#isMatchGlobPattern(String, String, URL)} with its prefix and suffix split once.
+     * A <code>$key</code> pattern refers to the consumer url, and is still resolved on each match.
+     */
+    private static final class GlobPattern {
+        private final String pattern;
+        private final String prefix;
+        private final String suffix;
+
+        private GlobPattern(String pattern) {
+            this.pattern = pattern;
+            int i = pattern.lastIndexOf('*');
+            if (i < 0 || "*".equals(pattern)) {
+                prefix = null;
+                suffix = null;
+            } else {
+                prefix = pattern.substring(0, i);
+                suffix = pattern.substring(i + 1);
+            }
+        }
+
+        private static GlobPattern[] compile(Set<String> patterns) {
+            GlobPattern[] compiled = new GlobPattern[patterns.size()];
+            int i = 0;
+            for (String pattern : patterns) {
+                compiled[i++] = new GlobPattern(pattern);
+            }
+            return compiled;
+        }
+
+        private boolean isMatch(String value, URL param) {
+            if (param != null && pattern.startsWith("$")) {
+                return UrlUtils.isMatchGlobPattern(pattern, value, param);
+            }
+            if (prefix == null) {
+                return "*".equals(pattern) || value.equals(pattern);
+            }
+            return value.length() > 0 && value.startsWith(prefix) && value.endsWith(suffix);
+        }
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.router.zone;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.cluster.Router;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * ZoneRouter prefers the invokers in the zone of the consumer, the <code>zone</code> parameter of the consumer and
+ * provider urls. It spills over to all the invokers when there is no invoker in the zone, or when less than
+ * <code>zone.spillover.ratio</code> of them are available.
+ * <p>
+ * The partition of an invoker list is cached per method until the directory hands out a new list, and the availability
+ * is checked again at most every second, so that a <code>runtime</code> router costs a lookup per call. A router with
+ * <code>runtime=false</code> only spills over when the directory is refreshed.
+ */
+public class ZoneRouter implements Router {
+
+    private static final long CHECK_INTERVAL = 1000;
+
+    private final URL url;
+    private final int priority;
+    private final double spilloverRatio;
+    private final ConcurrentMap<String, ZoneInvokers<?>> zoneInvokers = new ConcurrentHashMap<String, ZoneInvokers<?>>();
+
+    public ZoneRouter(URL url) {
+        this.url = url;
+        this.priority = url.getParameter(Constants.PRIORITY_KEY, 0);
+        this.spilloverRatio = url.getParameter(Constants.ZONE_SPILLOVER_RATIO_KEY, Constants.DEFAULT_ZONE_SPILLOVER_RATIO);
+    }
+
+    @Override
+    public URL getUrl() {
+        return url;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<Invoker<T>> route(List<Invoker<T>> invokers, URL url, Invocation invocation) throws RpcException {
+        if (invokers == null || invokers.isEmpty()) {
+            return invokers;
+        }
+        String zone = url == null ? null : url.getParameter(Constants.ZONE_KEY);
+        if (zone == null || zone.length() == 0) {
+            return invokers;
+        }
+        String method = String.valueOf(invocation == null ? null : invocation.getMethodName());
+        long now = System.currentTimeMillis();
+        ZoneInvokers<T> cache = (ZoneInvokers<T>) zoneInvokers.get(method);
+        if (cache == null || !cache.isFor(invokers, zone, now)) {
+            cache = new ZoneInvokers<T>(invokers, zone, spilloverRatio, now);
+            zoneInvokers.put(method, cache);
+        }
+        return cache.result;
+    }
+
+    @Override
+    public int compareTo(Router o) {
+        if (o == null || o.getClass() != ZoneRouter.class) {
+            return 1;
+        }
+        ZoneRouter c = (ZoneRouter) o;
+        return this.priority == c.priority ? url.toFullString().compareTo(c.url.toFullString()) : (this.priority > c.priority ? 1 : -1);
+    }
+
+    /**
+     * The routed invokers of an invoker list for a zone, compared by identity as the directory hands out the same list
+     * until it is refreshed.
+     */
+    private static final class ZoneInvokers<T> {
+        private final List<Invoker<T>> invokers;
+        private final int size;
+        private final String zone;
+        private final long checkTime;
+        private final List<Invoker<T>> result;
+
+        ZoneInvokers(List<Invoker<T>> invokers, String zone, double spilloverRatio, long checkTime) {
+            this.invokers = invokers;
+            this.size = invokers.size();
+            this.zone = zone;
+            this.checkTime = checkTime;
+            List<Invoker<T>> local = new ArrayList<Invoker<T>>();
+            int available = 0;
+            for (Invoker<T> invoker : invokers) {
+                if (zone.equals(invoker.getUrl().getParameter(Constants.ZONE_KEY))) {
+                    local.add(invoker);
+                    if (invoker.isAvailable()) {
+                        available++;
+                    }
+                }
+            }
+            if (local.isEmpty() || local.size() == invokers.size() || available < spilloverRatio * local.size()) {
+                this.result = invokers;
+            } else {
+                this.result = Collections.unmodifiableList(local);
+            }
+        }
+
+        boolean isFor(List<Invoker<T>> invokers, String zone, long now) {
+            return this.invokers == invokers && this.size == invokers.size() && this.zone.equals(zone)
+                    && now - checkTime < CHECK_INTERVAL;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.router.zone;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.cluster.Router;
+import org.apache.dubbo.rpc.cluster.RouterFactory;
+
+/**
+ * ZoneRouterFactory. The router is a <code>runtime</code> one unless configured otherwise, as the spillover depends on
+ * the availability of the invokers, which changes without the directory being refreshed.
+ */
+public class ZoneRouterFactory implements RouterFactory {
+
+    public static final String NAME = "zone";
+
+    @Override
+    public Router getRouter(URL url) {
+        if (!url.hasParameter(Constants.RUNTIME_KEY)) {
+            url = url.addParameter(Constants.RUNTIME_KEY, true);
+        }
+        return new ZoneRouter(url);
+    }
+
+}
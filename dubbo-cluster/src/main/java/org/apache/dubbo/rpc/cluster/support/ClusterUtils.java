@@ -86,6 +86,13 @@ public class ClusterUtils {
             if (methods != null && methods.length() > 0) {
                 map.put(Constants.METHODS_KEY, methods);
             }
+            // The zone of the provider, not of the consumer
+            String zone = remoteMap.get(Constants.ZONE_KEY);
+            if (zone != null && zone.length() > 0) {
+                map.put(Constants.ZONE_KEY, zone);
+            } else {
+                map.remove(Constants.ZONE_KEY);
+            }
             // Reserve timestamp of provider url.
             String remoteTimestamp = remoteMap.get(Constants.TIMESTAMP_KEY);
             if (remoteTimestamp != null && remoteTimestamp.length() > 0) {
@@ -21,11 +21,14 @@ import org.apache.dubbo.common.Version;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.common.utils.NetUtils;
+import org.apache.dubbo.rpc.AsyncRpcResult;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.Result;
 import org.apache.dubbo.rpc.RpcContext;
 import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcResult;
+import org.apache.dubbo.rpc.SimpleAsyncRpcResult;
 import org.apache.dubbo.rpc.cluster.Directory;
 import org.apache.dubbo.rpc.cluster.LoadBalance;
 
@@ -33,10 +36,12 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * When invoke fails, log the initial error and retry other invokers (retry n times, which means at most n different invokers will be invoked)
  * Note that retry causes latency.
+ * An asynchronous invoke is retried when the provider answers that it rejected the call by its limit.
  * <p>
  * <a href="http://en.wikipedia.org/wiki/Failover">Failover</a>
  *
@@ -87,6 +92,9 @@ public class FailoverClusterInvoker<T> extends AbstractClusterInvoker<T> {
                             + " using the dubbo version " + Version.getVersion() + ". Last error is: "
                             + le.getMessage(), le);
                 }
+                if (result instanceof AsyncRpcResult && i < len - 1) {
+                    return failoverLater(invocation, loadbalance, (AsyncRpcResult) result, invoked, len - 1 - i);
+                }
                 return result;
             } catch (RpcException e) {
                 if (e.isBiz()) { // biz exception.
@@ -109,4 +117,64 @@ public class FailoverClusterInvoker<T> extends AbstractClusterInvoker<T> {
                 + (le != null ? le.getMessage() : ""), le != null && le.getCause() != null ? le.getCause() : le);
     }
 
+    /**
+     * An asynchronous invoke learns that the provider rejected it only from the answer, then it is retried from there
+     * on another invoker, and the caller gets the future of the last answer.
+     */
+    private Result failoverLater(Invocation invocation, LoadBalance loadbalance, AsyncRpcResult result,
+                                 List<Invoker<T>> invoked, int retries) {
+        CompletableFuture<Object> valueFuture = new CompletableFuture<Object>();
+        CompletableFuture<Result> resultFuture = new CompletableFuture<Result>();
+        onAsyncResult(invocation, loadbalance, result, invoked, retries, Thread.currentThread(), valueFuture, resultFuture);
+        RpcContext.getContext().setFuture(valueFuture);
+        if (result instanceof SimpleAsyncRpcResult) {
+            return new SimpleAsyncRpcResult(valueFuture, resultFuture, false);
+        }
+        return new AsyncRpcResult(valueFuture, resultFuture, false);
+    }
+
+    private void onAsyncResult(Invocation invocation, LoadBalance loadbalance, AsyncRpcResult result, List<Invoker<T>> invoked,
+                               int retries, Thread caller, CompletableFuture<Object> valueFuture, CompletableFuture<Result> resultFuture) {
+        result.getResultFuture().whenComplete((r, t) -> {
+            if (t != null) {
+                resultFuture.completeExceptionally(t);
+                valueFuture.completeExceptionally(t);
+                return;
+            }
+            Result answer = r;
+            if (retries > 0 && answer.hasException() && answer.getException() instanceof RpcException
+                    && ((RpcException) answer.getException()).isLimitExceed()) {
+                try {
+                    checkWhetherDestroyed();
+                    List<Invoker<T>> copyinvokers = list(invocation);
+                    checkInvokers(copyinvokers, invocation);
+                    Invoker<T> invoker = select(loadbalance, invocation, copyinvokers, invoked);
+                    invoked.add(invoker);
+                    Result next = invoker.invoke(invocation);
+                    if (next instanceof AsyncRpcResult) {
+                        onAsyncResult(invocation, loadbalance, (AsyncRpcResult) next, invoked, retries - 1, caller,
+                                valueFuture, resultFuture);
+                        return;
+                    }
+                    answer = next;
+                } catch (RpcException e) {
+                    answer = new RpcResult(e);
+                } catch (Throwable e) {
+                    answer = new RpcResult(new RpcException(e.getMessage(), e));
+                } finally {
+                    // retried from the thread of the answer, whose context is not the caller's
+                    if (Thread.currentThread() != caller) {
+                        RpcContext.removeContext();
+                    }
+                }
+            }
+            resultFuture.complete(answer);
+            if (answer.hasException()) {
+                valueFuture.completeExceptionally(answer.getException());
+            } else {
+                valueFuture.complete(answer.getValue());
+            }
+        });
+    }
+
 }
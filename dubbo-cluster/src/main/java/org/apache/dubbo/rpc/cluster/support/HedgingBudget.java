@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.support;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Token bucket of the second requests of a method. Each invocation deposits a percentage of a token and each second
+ * request takes a whole one, so that a latency rise the percentile has not caught up with yet can not double the load.
+ */
+final class HedgingBudget {
+
+    private static final int SCALE = 1000;
+
+    private final AtomicInteger tokens;
+
+    private final int deposit;
+
+    private final int capacity;
+
+    /**
+     * @param percent the percentage of the invocations which may be hedged
+     * @param burst   the hedges which may be sent at once, the bucket starts full
+     */
+    HedgingBudget(int percent, int burst) {
+        this.deposit = Math.max(0, percent) * SCALE / 100;
+        this.capacity = Math.max(1, burst) * SCALE;
+        this.tokens = new AtomicInteger(capacity);
+    }
+
+    void deposit() {
+        for (; ; ) {
+            int current = tokens.get();
+            if (current >= capacity || tokens.compareAndSet(current, Math.min(capacity, current + deposit))) {
+                return;
+            }
+        }
+    }
+
+    boolean tryAcquire() {
+        for (; ; ) {
+            int current = tokens.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.support;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.NamedThreadFactory;
+import org.apache.dubbo.remoting.timer.HashedWheelTimer;
+import org.apache.dubbo.remoting.timer.Timeout;
+import org.apache.dubbo.remoting.timer.Timer;
+import org.apache.dubbo.remoting.timer.TimerTask;
+import org.apache.dubbo.rpc.AsyncRpcResult;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcContext;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.RpcResult;
+import org.apache.dubbo.rpc.SimpleAsyncRpcResult;
+import org.apache.dubbo.rpc.cluster.Directory;
+import org.apache.dubbo.rpc.cluster.LoadBalance;
+import org.apache.dubbo.rpc.support.RpcUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Invoke one invoker, and when it has not answered within a percentile of the latency of the method, invoke a second
+ * one. The first answer wins and the other request is canceled. Unlike {@link ForkingClusterInvoker}, the second
+ * request is only sent for the slowest calls, and both are sent asynchronously without a thread per request. The
+ * second request is handed to a shared executor, so that an invoker blocking while sending does not hold up the timer.
+ * <p>
+ * The percentile is <code>hedging.percentile</code>, 95 by default, measured over the last window of answers. A fixed
+ * <code>hedging.delay</code> in milliseconds may be configured instead. A failed first request is hedged at once.
+ * <p>
+ * Second requests after the delay are capped at <code>hedging.budget</code> percent of the invocations, 5 by default,
+ * and handed to a bounded executor, a hedge finding no budget or no thread left is not sent.
+ *
+ * <a href="https://research.google/pubs/pub40801/">The Tail at Scale</a>
+ */
+public class HedgingClusterInvoker<T> extends AbstractClusterInvoker<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgingClusterInvoker.class);
+
+    private static final int WINDOW = 200;
+
+    private static final int BUDGET_BURST = 10;
+
+    private final ConcurrentMap<String, LatencyHistogram> latencies = new ConcurrentHashMap<String, LatencyHistogram>();
+
+    private final ConcurrentMap<String, HedgingBudget> budgets = new ConcurrentHashMap<String, HedgingBudget>();
+
+    public HedgingClusterInvoker(Directory<T> directory) {
+        super(directory);
+    }
+
+    @Override
+    public Result doInvoke(Invocation invocation, List<Invoker<T>> invokers, LoadBalance loadbalance) throws RpcException {
+        checkInvokers(invokers, invocation);
+        Invoker<T> invoker = select(loadbalance, invocation, invokers, null);
+        if (RpcUtils.isOneway(getUrl(), invocation)) {
+            return invoker.invoke(invocation);
+        }
+        String methodName = RpcUtils.getMethodName(invocation);
+        int timeout = getUrl().getMethodParameter(methodName, Constants.TIMEOUT_KEY, Constants.DEFAULT_TIMEOUT);
+        boolean isAsync = RpcUtils.isAsync(getUrl(), invocation);
+        boolean isAsyncFuture = RpcUtils.isGeneratedFuture(invocation) || RpcUtils.isFutureReturnType(invocation);
+        LatencyHistogram latency = getLatency(methodName);
+        long delay = getUrl().getMethodParameter(methodName, Constants.HEDGING_DELAY_KEY, 0L) * 1000;
+        if (delay <= 0) {
+            delay = latency.getPercentile();
+        }
+
+        RpcInvocation hedgingInvocation = new RpcInvocation(invocation);
+        hedgingInvocation.setAttachment(Constants.ASYNC_KEY, Boolean.TRUE.toString());
+        HedgingBudget budget = getBudget(methodName);
+        budget.deposit();
+        Hedge hedge = new Hedge(hedgingInvocation, invokers, loadbalance, invoker, latency, budget);
+        hedge.send(invoker);
+        if (delay > 0 && invokers.size() > 1) {
+            hedge.schedule(delay);
+        }
+
+        if (isAsync) {
+            CompletableFuture<Object> valueFuture = new CompletableFuture<Object>();
+            CompletableFuture<Result> resultFuture = new CompletableFuture<Result>();
+            hedge.done.whenComplete((result, t) -> {
+                resultFuture.complete(result);
+                if (result.hasException()) {
+                    valueFuture.completeExceptionally(result.getException());
+                } else {
+                    valueFuture.complete(result.getValue());
+                }
+            });
+            RpcContext.getContext().setFuture(valueFuture);
+            if (isAsyncFuture) {
+                return new AsyncRpcResult(valueFuture, resultFuture, false);
+            }
+            return new SimpleAsyncRpcResult(valueFuture, resultFuture, false);
+        }
+        RpcContext.getContext().setFuture(null);
+        Result result;
+        try {
+            // the second request may start after the delay, and time out after it
+            result = hedge.done.get(timeout + Math.max(delay / 1000, 0), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            hedge.cancel();
+            throw new RpcException(RpcException.TIMEOUT_EXCEPTION, "Failed to hedging invoke method " + methodName
+                    + " in the service " + getInterface().getName() + " on providers " + hedge.selected
+                    + ", timeout: " + timeout + "ms", e);
+        } catch (InterruptedException | ExecutionException e) {
+            hedge.cancel();
+            throw new RpcException("Failed to hedging invoke method " + methodName + " in the service "
+                    + getInterface().getName() + " on providers " + hedge.selected + ", cause: " + e.getMessage(), e);
+        }
+        if (isFailure(result)) {
+            RpcException e = (RpcException) result.getException();
+            throw new RpcException(e.getCode(), "Failed to hedging invoke method " + methodName + " in the service "
+                    + getInterface().getName() + " on providers " + hedge.selected + ", cause: " + e.getMessage(),
+                    e.getCause() != null ? e.getCause() : e);
+        }
+        return result;
+    }
+
+    private LatencyHistogram getLatency(String methodName) {
+        LatencyHistogram latency = latencies.get(methodName);
+        if (latency == null) {
+            int percentile = getUrl().getMethodParameter(methodName, Constants.HEDGING_PERCENTILE_KEY, Constants.DEFAULT_HEDGING_PERCENTILE);
+            latencies.putIfAbsent(methodName, new LatencyHistogram(WINDOW, percentile));
+            latency = latencies.get(methodName);
+        }
+        return latency;
+    }
+
+    private HedgingBudget getBudget(String methodName) {
+        HedgingBudget budget = budgets.get(methodName);
+        if (budget == null) {
+            int percent = getUrl().getMethodParameter(methodName, Constants.HEDGING_BUDGET_KEY, Constants.DEFAULT_HEDGING_BUDGET);
+            budgets.putIfAbsent(methodName, new HedgingBudget(percent, BUDGET_BURST));
+            budget = budgets.get(methodName);
+        }
+        return budget;
+    }
+
+    /**
+     * A result of a request that did not reach the provider or timed out, rather than an answer of the provider.
+     */
+    private static boolean isFailure(Result result) {
+        return result.hasException() && result.getException() instanceof RpcException
+                && !((RpcException) result.getException()).isBiz();
+    }
+
+    /**
+     * The requests of one invocation, completing {@link #done} with the first answer, or with the last failure when
+     * every request failed.
+     */
+    private final class Hedge implements TimerTask {
+        private final Invocation invocation;
+        private final List<Invoker<T>> invokers;
+        private final LoadBalance loadbalance;
+        private final LatencyHistogram latency;
+        private final HedgingBudget budget;
+        private final List<Invoker<T>> selected = new CopyOnWriteArrayList<Invoker<T>>();
+        private final List<CompletableFuture<?>> futures = new CopyOnWriteArrayList<CompletableFuture<?>>();
+        // the requests which may still answer, including the second one until it is sent or given up
+        private final AtomicInteger pending;
+        private final AtomicBoolean hedged = new AtomicBoolean();
+        private final CompletableFuture<Result> done = new CompletableFuture<Result>();
+        private volatile Timeout timeout;
+        private volatile Result failure;
+
+        Hedge(Invocation invocation, List<Invoker<T>> invokers, LoadBalance loadbalance, Invoker<T> first,
+              LatencyHistogram latency, HedgingBudget budget) {
+            this.invocation = invocation;
+            this.invokers = invokers;
+            this.loadbalance = loadbalance;
+            this.latency = latency;
+            this.budget = budget;
+            this.selected.add(first);
+            this.pending = new AtomicInteger(invokers.size() > 1 ? 2 : 1);
+        }
+
+        void send(Invoker<T> invoker) {
+            long start = System.nanoTime();
+            Result result;
+            try {
+                result = invoker.invoke(invocation);
+            } catch (RpcException e) {
+                onResult(new RpcResult(e), start);
+                return;
+            } catch (Throwable t) {
+                onResult(new RpcResult(new RpcException(t.getMessage(), t)), start);
+                return;
+            }
+            if (result instanceof AsyncRpcResult) {
+                AsyncRpcResult asyncResult = (AsyncRpcResult) result;
+                futures.add(asyncResult.getValueFuture());
+                asyncResult.getResultFuture().whenComplete((r, t) ->
+                        onResult(t != null ? new RpcResult(new RpcException(t.getMessage(), t)) : r, start));
+            } else {
+                onResult(result, start);
+            }
+        }
+
+        void schedule(long delayMicros) {
+            timeout = HedgingTimer.TIMER.newTimeout(this, delayMicros, TimeUnit.MICROSECONDS);
+            if (done.isDone()) {
+                timeout.cancel();
+            }
+        }
+
+        @Override
+        public void run(Timeout timeout) {
+            // without budget the first request may still fail and be hedged then
+            if (!done.isDone() && budget.tryAcquire()) {
+                hedgeLater();
+            }
+        }
+
+        private void hedgeLater() {
+            try {
+                HedgingExecutor.EXECUTOR.execute(() -> {
+                    try {
+                        hedge();
+                    } finally {
+                        RpcContext.removeContext();
+                    }
+                });
+            } catch (Throwable t) {
+                logger.warn("Failed to hedge the invocation " + invocation.getMethodName() + ", cause: " + t.getMessage(), t);
+                if (hedged.compareAndSet(false, true)) {
+                    onResult(null, 0);
+                }
+            }
+        }
+
+        private void hedge() {
+            if (!hedged.compareAndSet(false, true)) {
+                return;
+            }
+            Invoker<T> invoker = null;
+            try {
+                invoker = select(loadbalance, invocation, invokers, Collections.unmodifiableList(selected));
+            } catch (Throwable t) {
+                logger.warn("Failed to select an invoker to hedge the invocation " + invocation.getMethodName() + ", cause: " + t.getMessage(), t);
+            }
+            if (invoker == null || selected.contains(invoker)) {
+                onResult(null, 0);
+                return;
+            }
+            selected.add(invoker);
+            send(invoker);
+        }
+
+        private void onResult(Result result, long start) {
+            if (result != null && !isFailure(result)) {
+                latency.record((System.nanoTime() - start) / 1000);
+                complete(result);
+                return;
+            }
+            if (result != null) {
+                failure = result;
+            }
+            if (pending.decrementAndGet() == 0) {
+                complete(failure);
+            } else if (result != null) {
+                hedgeLater();
+            }
+        }
+
+        private void complete(Result result) {
+            if (done.complete(result)) {
+                cancel();
+            }
+        }
+
+        void cancel() {
+            Timeout t = timeout;
+            if (t != null) {
+                t.cancel();
+            }
+            for (CompletableFuture<?> future : futures) {
+                if (!future.isDone()) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    private static class HedgingTimer {
+        private static final Timer TIMER = new HashedWheelTimer(
+                new NamedThreadFactory("dubbo-hedging-timer", true), 1, TimeUnit.MILLISECONDS);
+    }
+
+    private static class HedgingExecutor {
+        private static final int THREADS = 32;
+        private static final ExecutorService EXECUTOR = new ThreadPoolExecutor(0, THREADS, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new NamedThreadFactory("dubbo-hedging", true));
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.support;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram of a method, in buckets a quarter of a power of two wide. The percentile is computed when a window
+ * of samples is full and holds until the next window is, so that reading it is a volatile read.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int BUCKETS = 64 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicInteger samples = new AtomicInteger();
+
+    private final int window;
+
+    private final int percentile;
+
+    private volatile long value = -1;
+
+    LatencyHistogram(int window, int percentile) {
+        this.window = window;
+        this.percentile = percentile;
+    }
+
+    /**
+     * @return the percentile of the last full window in microseconds, or -1 before the first window is full
+     */
+    long getPercentile() {
+        return value;
+    }
+
+    void record(long micros) {
+        counts.incrementAndGet(index(Math.max(0, micros)));
+        if (samples.incrementAndGet() == window) {
+            long[] snapshot = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = counts.getAndSet(i, 0);
+                total += snapshot[i];
+            }
+            samples.set(0);
+            long rank = (long) Math.ceil(total * percentile / 100.0);
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                count += snapshot[i];
+                if (count >= rank && count > 0) {
+                    value = upperBound(i);
+                    return;
+                }
+            }
+        }
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (msb - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((msb - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + sub;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index + 1;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        int sub = index & (SUB_BUCKETS - 1);
+        return (long) (SUB_BUCKETS + sub + 1) << shift;
+    }
+}
@@ -16,15 +16,23 @@
  */
 package org.apache.dubbo.rpc.cluster.loadbalance;
 
+import org.apache.dubbo.common.URL;
 import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.RpcStatus;
 
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static org.mockito.BDDMockito.given;
+
 public class ConsistentHashLoadBalanceTest extends LoadBalanceBaseTest {
     @Ignore
     @Test
@@ -37,4 +45,83 @@ public class ConsistentHashLoadBalanceTest extends LoadBalanceBaseTest {
         }
     }
 
+    @Test
+    public void testSameKeySameInvoker() {
+        ConsistentHashLoadBalance lb = new ConsistentHashLoadBalance();
+        for (int i = 0; i < 100; i++) {
+            Invoker<LoadBalanceBaseTest> selected = lb.select(invokers, invoker1.getUrl(), invocation("key" + i));
+            for (int j = 0; j < 5; j++) {
+                Assert.assertSame(selected, lb.select(new ArrayList<Invoker<LoadBalanceBaseTest>>(invokers), invoker1.getUrl(), invocation("key" + i)));
+            }
+        }
+    }
+
+    @Test
+    public void testKeysSpread() {
+        ConsistentHashLoadBalance lb = new ConsistentHashLoadBalance();
+        int runs = 10000;
+        Map<Invoker<LoadBalanceBaseTest>, AtomicLong> counter = new IdentityHashMap<Invoker<LoadBalanceBaseTest>, AtomicLong>();
+        for (Invoker<LoadBalanceBaseTest> invoker : invokers) {
+            counter.put(invoker, new AtomicLong());
+        }
+        for (int i = 0; i < runs; i++) {
+            counter.get(lb.select(invokers, invoker1.getUrl(), invocation("key" + i))).incrementAndGet();
+        }
+        for (AtomicLong count : counter.values()) {
+            Assert.assertTrue("abs diff should < avg / 2", Math.abs(count.get() - runs / invokers.size()) < runs / invokers.size() / 2);
+        }
+    }
+
+    @Test
+    public void testInvokersChanged() {
+        ConsistentHashLoadBalance lb = new ConsistentHashLoadBalance();
+        List<Invoker<LoadBalanceBaseTest>> before = new ArrayList<Invoker<LoadBalanceBaseTest>>(invokers.subList(0, 4));
+        List<Invoker<LoadBalanceBaseTest>> after = new ArrayList<Invoker<LoadBalanceBaseTest>>(invokers.subList(1, 5));
+        List<Invoker<LoadBalanceBaseTest>> selectedBefore = new ArrayList<Invoker<LoadBalanceBaseTest>>();
+        for (int i = 0; i < 1000; i++) {
+            selectedBefore.add(lb.select(before, invoker1.getUrl(), invocation("key" + i)));
+        }
+        ConsistentHashLoadBalance fresh = new ConsistentHashLoadBalance();
+        for (int i = 0; i < 1000; i++) {
+            Invoker<LoadBalanceBaseTest> selected = lb.select(after, invoker1.getUrl(), invocation("key" + i));
+            // the ring is rebuilt incrementally as if it was built from scratch
+            Assert.assertSame(fresh.select(after, invoker1.getUrl(), invocation("key" + i)), selected);
+            // keys only move away from the leaving invoker, or to the joining one
+            if (selectedBefore.get(i) != invoker1) {
+                Assert.assertTrue(selected == selectedBefore.get(i) || selected == invoker5);
+            }
+        }
+    }
+
+    @Test
+    public void testBoundedLoads() {
+        List<Invoker<LoadBalanceBaseTest>> bounded = new ArrayList<Invoker<LoadBalanceBaseTest>>();
+        for (Invoker<LoadBalanceBaseTest> invoker : invokers) {
+            URL url = invoker.getUrl().addParameter("hash.load.factor", "0.25");
+            given(invoker.getUrl()).willReturn(url);
+            bounded.add(invoker);
+        }
+        ConsistentHashLoadBalance lb = new ConsistentHashLoadBalance();
+        Invoker<LoadBalanceBaseTest> owner = lb.select(bounded, invoker1.getUrl(), invocation("hot"));
+        try {
+            // with up to 3 active calls, all on the owner, the capacity is ceil(1.25 * (active + 1) / 5) = 1
+            for (int i = 0; i < 3; i++) {
+                RpcStatus.beginCount(owner.getUrl(), "method1");
+                Invoker<LoadBalanceBaseTest> selected = lb.select(bounded, invoker1.getUrl(), invocation("hot"));
+                Assert.assertNotSame(owner, selected);
+                // the walk is deterministic, the same key lands on the same next invoker
+                Assert.assertSame(selected, lb.select(bounded, invoker1.getUrl(), invocation("hot")));
+            }
+        } finally {
+            for (Invoker<LoadBalanceBaseTest> invoker : bounded) {
+                RpcStatus.removeStatus(invoker.getUrl());
+                RpcStatus.removeStatus(invoker.getUrl(), "method1");
+            }
+        }
+    }
+
+    private static RpcInvocation invocation(String key) {
+        return new RpcInvocation("method1", new Class<?>[]{String.class}, new Object[]{key});
+    }
+
 }
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.loadbalance;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.RpcStatus;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.BDDMockito.given;
+
+public class PeakEwmaLoadBalanceTest extends LoadBalanceBaseTest {
+
+    @Before
+    @After
+    public void resetStatus() {
+        for (Invoker<LoadBalanceBaseTest> invoker : invokers) {
+            RpcStatus.removeStatus(invoker.getUrl());
+            RpcStatus.removeStatus(invoker.getUrl(), invocation.getMethodName());
+        }
+    }
+
+    @Test
+    public void testSelectEvenly() {
+        int runs = 10000;
+        Map<Invoker, AtomicLong> counter = getInvokeCounter(runs, PeakEwmaLoadBalance.NAME);
+        for (Invoker invoker : counter.keySet()) {
+            Long count = counter.get(invoker).get();
+            Assert.assertTrue("abs diff should < avg / 5",
+                    Math.abs(count - runs / (0f + invokers.size())) < runs / (5f * invokers.size()));
+        }
+    }
+
+    @Test
+    public void testSlowInvoker() {
+        for (Invoker<LoadBalanceBaseTest> invoker : invokers) {
+            call(invoker, invoker == invoker3 ? 500 : 5);
+        }
+        Map<Invoker, AtomicLong> counter = getInvokeCounter(10000, PeakEwmaLoadBalance.NAME);
+        Assert.assertEquals(0, counter.get(invoker3).get());
+    }
+
+    @Test
+    public void testBusyInvoker() {
+        for (Invoker<LoadBalanceBaseTest> invoker : invokers) {
+            call(invoker, 5);
+        }
+        RpcStatus.beginCount(invoker2.getUrl(), invocation.getMethodName());
+        Map<Invoker, AtomicLong> counter = getInvokeCounter(10000, PeakEwmaLoadBalance.NAME);
+        Assert.assertEquals(0, counter.get(invoker2).get());
+        Assert.assertTrue(counter.get(invoker1).get() > 0);
+    }
+
+    @Test
+    public void testWarmupInvoker() {
+        // started a second ago, an uptime of 0 is not warming up
+        URL url = invoker4.getUrl().addParameter(Constants.REMOTE_TIMESTAMP_KEY, System.currentTimeMillis() - 1000);
+        given(invoker4.getUrl()).willReturn(url);
+        Map<Invoker, AtomicLong> counter = getInvokeCounter(10000, PeakEwmaLoadBalance.NAME);
+        Assert.assertEquals(0, counter.get(invoker4).get());
+    }
+
+    private void call(Invoker<?> invoker, long elapsed) {
+        RpcStatus.beginCount(invoker.getUrl(), invocation.getMethodName());
+        RpcStatus.endCount(invoker.getUrl(), invocation.getMethodName(), elapsed, true);
+    }
+}
@@ -16,14 +16,22 @@
  */
 package org.apache.dubbo.rpc.cluster.loadbalance;
 
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
 import org.apache.dubbo.rpc.Invoker;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
 public class RoundRobinLoadBalanceTest extends LoadBalanceBaseTest {
     @Test
     public void testRoundRobinLoadBalanceSelect() {
@@ -34,4 +42,91 @@ public class RoundRobinLoadBalanceTest extends LoadBalanceBaseTest {
             Assert.assertTrue("abs diff should < 1", Math.abs(count - runs / (0f + invokers.size())) < 1f);
         }
     }
+
+    @Test
+    public void testSmoothWeightedRoundRobin() {
+        Invoker<LoadBalanceBaseTest> a = weighted(1, 5);
+        Invoker<LoadBalanceBaseTest> b = weighted(2, 1);
+        Invoker<LoadBalanceBaseTest> c = weighted(3, 1);
+        List<Invoker<LoadBalanceBaseTest>> weighted = Arrays.asList(a, b, c);
+        RoundRobinLoadBalance lb = new RoundRobinLoadBalance();
+        List<Invoker<LoadBalanceBaseTest>> expected = Arrays.asList(a, a, b, a, c, a, a);
+        for (int round = 0; round < 3; round++) {
+            List<Invoker<LoadBalanceBaseTest>> selected = new ArrayList<Invoker<LoadBalanceBaseTest>>();
+            for (int i = 0; i < expected.size(); i++) {
+                selected.add(lb.select(weighted, a.getUrl(), invocation));
+            }
+            Assert.assertEquals(expected, selected);
+        }
+    }
+
+    @Test
+    public void testZeroWeight() {
+        Invoker<LoadBalanceBaseTest> a = weighted(1, 0);
+        Invoker<LoadBalanceBaseTest> b = weighted(2, 3);
+        Invoker<LoadBalanceBaseTest> c = weighted(3, 1);
+        List<Invoker<LoadBalanceBaseTest>> weighted = Arrays.asList(a, b, c);
+        RoundRobinLoadBalance lb = new RoundRobinLoadBalance();
+        int b_count = 0;
+        for (int i = 0; i < 400; i++) {
+            Invoker<LoadBalanceBaseTest> selected = lb.select(weighted, a.getUrl(), invocation);
+            Assert.assertNotSame(a, selected);
+            if (selected == b) {
+                b_count++;
+            }
+        }
+        Assert.assertEquals(300, b_count);
+    }
+
+    @Test
+    public void testInvokersChanged() {
+        Invoker<LoadBalanceBaseTest> a = weighted(1, 2);
+        Invoker<LoadBalanceBaseTest> b = weighted(2, 1);
+        Invoker<LoadBalanceBaseTest> c = weighted(3, 1);
+        RoundRobinLoadBalance lb = new RoundRobinLoadBalance();
+        for (int i = 0; i < 9; i++) {
+            lb.select(Arrays.asList(a, b, c), a.getUrl(), invocation);
+        }
+        // an equal list of the same invokers keeps the state
+        Assert.assertSame(b, lb.select(new ArrayList<Invoker<LoadBalanceBaseTest>>(Arrays.asList(a, b, c)), a.getUrl(), invocation));
+
+        List<Invoker<LoadBalanceBaseTest>> changed = Arrays.asList(a, c);
+        for (int i = 0; i < 30; i++) {
+            Assert.assertNotSame(b, lb.select(changed, a.getUrl(), invocation));
+        }
+    }
+
+    @Test
+    public void testWarmupEnds() throws Exception {
+        Invoker<LoadBalanceBaseTest> warming = weighted(1, "weight=100&warmup=200&"
+                + Constants.REMOTE_TIMESTAMP_KEY + "=" + (System.currentTimeMillis() - 50));
+        Invoker<LoadBalanceBaseTest> warm = weighted(2, 100);
+        List<Invoker<LoadBalanceBaseTest>> weighted = Arrays.asList(warming, warm);
+        RoundRobinLoadBalance lb = new RoundRobinLoadBalance();
+        lb.select(weighted, warm.getUrl(), invocation);
+        Thread.sleep(250);
+
+        // the full weight once warm, without waiting for the invoker list to change
+        int warmingCount = 0;
+        for (int i = 0; i < 200; i++) {
+            if (lb.select(weighted, warm.getUrl(), invocation) == warming) {
+                warmingCount++;
+            }
+        }
+        // give or take the rotation carried over from the warmup
+        Assert.assertTrue(String.valueOf(warmingCount), Math.abs(warmingCount - 100) <= 1);
+    }
+
+    private static Invoker<LoadBalanceBaseTest> weighted(int port, int weight) {
+        return weighted(port, "weight=" + weight);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Invoker<LoadBalanceBaseTest> weighted(int port, String parameters) {
+        Invoker<LoadBalanceBaseTest> invoker = mock(Invoker.class);
+        given(invoker.isAvailable()).willReturn(true);
+        given(invoker.getInterface()).willReturn(LoadBalanceBaseTest.class);
+        given(invoker.getUrl()).willReturn(URL.valueOf("test://127.0.0.1:" + port + "/DemoService?" + parameters));
+        return invoker;
+    }
 }
@@ -305,4 +305,48 @@ public class ConditionRouterTest {
         Assert.assertEquals(0, filteredInvokers.size());
     }
 
+    @Test
+    public void testRoute_CachedUntilInvokersChange() {
+        Router router = new ConditionRouterFactory().getRouter(getRouteUrl("host = " + NetUtils.getLocalHost() + " => " + " host = 10.20.3.3"));
+        List<Invoker<String>> invokers = new ArrayList<Invoker<String>>();
+        Invoker<String> invoker1 = new MockInvoker<String>(URL.valueOf("dubbo://10.20.3.3:20880/com.foo.BarService"));
+        Invoker<String> invoker2 = new MockInvoker<String>(URL.valueOf("dubbo://10.20.3.4:20880/com.foo.BarService"));
+        invokers.add(invoker1);
+        invokers.add(invoker2);
+        URL consumer = URL.valueOf("consumer://" + NetUtils.getLocalHost() + "/com.foo.BarService");
+        List<Invoker<String>> filteredInvokers1 = router.route(invokers, consumer, new RpcInvocation());
+        List<Invoker<String>> filteredInvokers2 = router.route(invokers, consumer, new RpcInvocation());
+        Assert.assertEquals(1, filteredInvokers1.size());
+        Assert.assertSame(filteredInvokers1, filteredInvokers2);
+
+        Invoker<String> invoker3 = new MockInvoker<String>(URL.valueOf("dubbo://10.20.3.3:20881/com.foo.BarService"));
+        List<Invoker<String>> newInvokers = new ArrayList<Invoker<String>>(invokers);
+        newInvokers.add(invoker3);
+        List<Invoker<String>> filteredInvokers3 = router.route(newInvokers, consumer, new RpcInvocation());
+        Assert.assertEquals(2, filteredInvokers3.size());
+        Assert.assertEquals(invoker1, filteredInvokers3.get(0));
+        Assert.assertEquals(invoker3, filteredInvokers3.get(1));
+    }
+
+    @Test
+    public void testRoute_GlobPattern() {
+        Router router = new ConditionRouterFactory().getRouter(getRouteUrl("host = " + NetUtils.getLocalHost() + " => " + " host = 10.20.*,*.3.5,10.*.6 & host != 10.20.3.4"));
+        List<Invoker<String>> invokers = new ArrayList<Invoker<String>>();
+        Invoker<String> invoker1 = new MockInvoker<String>(URL.valueOf("dubbo://10.20.3.3:20880/com.foo.BarService"));
+        Invoker<String> invoker2 = new MockInvoker<String>(URL.valueOf("dubbo://10.20.3.4:20880/com.foo.BarService"));
+        Invoker<String> invoker3 = new MockInvoker<String>(URL.valueOf("dubbo://11.20.3.5:20880/com.foo.BarService"));
+        Invoker<String> invoker4 = new MockInvoker<String>(URL.valueOf("dubbo://10.30.3.6:20880/com.foo.BarService"));
+        Invoker<String> invoker5 = new MockInvoker<String>(URL.valueOf("dubbo://11.30.3.6:20880/com.foo.BarService"));
+        invokers.add(invoker1);
+        invokers.add(invoker2);
+        invokers.add(invoker3);
+        invokers.add(invoker4);
+        invokers.add(invoker5);
+        List<Invoker<String>> filteredInvokers = router.route(invokers, URL.valueOf("consumer://" + NetUtils.getLocalHost() + "/com.foo.BarService"), new RpcInvocation());
+        Assert.assertEquals(3, filteredInvokers.size());
+        Assert.assertEquals(invoker1, filteredInvokers.get(0));
+        Assert.assertEquals(invoker3, filteredInvokers.get(1));
+        Assert.assertEquals(invoker4, filteredInvokers.get(2));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.router.zone;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.cluster.Router;
+import org.apache.dubbo.rpc.cluster.directory.StaticDirectory;
+import org.apache.dubbo.rpc.cluster.router.MockInvoker;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ZoneRouterTest {
+
+    private static final URL ROUTER_URL = URL.valueOf("zone://0.0.0.0/com.foo.BarService");
+
+    private static final URL CONSUMER_URL = URL.valueOf("consumer://10.20.3.1/com.foo.BarService?zone=a");
+
+    private static Invoker<String> invoker(String host, String zone, boolean available) {
+        return new MockInvoker<String>(URL.valueOf("dubbo://" + host + ":20880/com.foo.BarService?zone=" + zone), available);
+    }
+
+    @Test
+    public void testRoute_LocalZone() {
+        Router router = new ZoneRouterFactory().getRouter(ROUTER_URL);
+        List<Invoker<String>> invokers = new ArrayList<Invoker<String>>();
+        Invoker<String> invoker1 = invoker("10.20.3.2", "a", true);
+        Invoker<String> invoker2 = invoker("10.20.3.3", "b", true);
+        Invoker<String> invoker3 = invoker("10.20.3.4", "a", true);
+        invokers.add(invoker1);
+        invokers.add(invoker2);
+        invokers.add(invoker3);
+        List<Invoker<String>> filteredInvokers = router.route(invokers, CONSUMER_URL, new RpcInvocation());
+        Assert.assertEquals(2, filteredInvokers.size());
+        Assert.assertEquals(invoker1, filteredInvokers.get(0));
+        Assert.assertEquals(invoker3, filteredInvokers.get(1));
+        Assert.assertSame(filteredInvokers, router.route(invokers, CONSUMER_URL, new RpcInvocation()));
+    }
+
+    @Test
+    public void testRoute_NoZone() {
+        Router router = new ZoneRouterFactory().getRouter(ROUTER_URL);
+        List<Invoker<String>> invokers = new ArrayList<Invoker<String>>();
+        invokers.add(invoker("10.20.3.2", "a", true));
+        invokers.add(invoker("10.20.3.3", "b", true));
+        Assert.assertSame(invokers, router.route(invokers, CONSUMER_URL.removeParameter(Constants.ZONE_KEY), new RpcInvocation()));
+        Assert.assertSame(invokers, router.route(invokers, CONSUMER_URL.addParameter(Constants.ZONE_KEY, "c"), new RpcInvocation()));
+    }
+
+    @Test
+    public void testRoute_Spillover() {
+        Router router = new ZoneRouterFactory().getRouter(ROUTER_URL);
+        List<Invoker<String>> invokers = new ArrayList<Invoker<String>>();
+        invokers.add(invoker("10.20.3.2", "a", true));
+        invokers.add(invoker("10.20.3.3", "a", false));
+        invokers.add(invoker("10.20.3.4", "a", false));
+        invokers.add(invoker("10.20.3.5", "b", true));
+        Assert.assertSame(invokers, router.route(invokers, CONSUMER_URL, new RpcInvocation()));
+
+        router = new ZoneRouterFactory().getRouter(ROUTER_URL.addParameter(Constants.ZONE_SPILLOVER_RATIO_KEY, "0.3"));
+        Assert.assertEquals(3, router.route(invokers, CONSUMER_URL, new RpcInvocation()).size());
+    }
+
+    @Test
+    public void testRoute_InvokersChanged() {
+        Router router = new ZoneRouterFactory().getRouter(ROUTER_URL);
+        List<Invoker<String>> invokers = new ArrayList<Invoker<String>>();
+        invokers.add(invoker("10.20.3.2", "a", true));
+        invokers.add(invoker("10.20.3.3", "b", true));
+        Assert.assertEquals(1, router.route(invokers, CONSUMER_URL, new RpcInvocation()).size());
+
+        List<Invoker<String>> newInvokers = new ArrayList<Invoker<String>>(invokers);
+        newInvokers.add(invoker("10.20.3.4", "a", true));
+        Assert.assertEquals(2, router.route(newInvokers, CONSUMER_URL, new RpcInvocation()).size());
+    }
+
+    @Test
+    public void testRoute_AvailabilityChangedWithoutRefresh() throws Exception {
+        final AtomicBoolean available = new AtomicBoolean(true);
+        Invoker<String> local = new MockInvoker<String>(URL.valueOf("dubbo://10.20.3.2:20880/com.foo.BarService?zone=a")) {
+            @Override
+            public boolean isAvailable() {
+                return available.get();
+            }
+        };
+        Invoker<String> remote = invoker("10.20.3.3", "b", true);
+        List<Invoker<String>> invokers = new ArrayList<Invoker<String>>();
+        invokers.add(local);
+        invokers.add(remote);
+        // configured without runtime, the directory still routes every call
+        Router router = new ZoneRouterFactory().getRouter(ROUTER_URL);
+        Assert.assertTrue(router.getUrl().getParameter(Constants.RUNTIME_KEY, false));
+        StaticDirectory<String> directory = new StaticDirectory<String>(CONSUMER_URL, invokers, Arrays.asList(router));
+        List<Invoker<String>> routed = directory.list(new RpcInvocation());
+        Assert.assertEquals(1, routed.size());
+        Assert.assertSame(local, routed.get(0));
+
+        available.set(false);
+        Thread.sleep(1100);
+        Assert.assertEquals(2, directory.list(new RpcInvocation()).size());
+
+        Assert.assertFalse(new ZoneRouterFactory().getRouter(ROUTER_URL.addParameter(Constants.RUNTIME_KEY, false))
+                .getUrl().getParameter(Constants.RUNTIME_KEY, true));
+    }
+}
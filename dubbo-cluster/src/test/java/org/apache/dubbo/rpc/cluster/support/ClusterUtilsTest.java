@@ -77,4 +77,14 @@ public class ClusterUtilsTest {
         Assert.assertEquals(url.getParameter(Constants.THREADPOOL_KEY), "foo");
     }
 
+    @Test
+    public void testMergeUrlZone() throws Exception {
+        URL providerURL = URL.valueOf("dubbo://localhost:55555/path?zone=a&group=dubbo");
+        URL consumerURL = URL.valueOf("dubbo://localhost:55555/path?zone=b");
+        Assert.assertEquals("a", ClusterUtils.mergeUrl(providerURL, consumerURL.getParameters()).getParameter(Constants.ZONE_KEY));
+
+        providerURL = providerURL.removeParameter(Constants.ZONE_KEY);
+        Assert.assertFalse(ClusterUtils.mergeUrl(providerURL, consumerURL.getParameters()).hasParameter(Constants.ZONE_KEY));
+    }
+
 }
@@ -17,12 +17,15 @@
 package org.apache.dubbo.rpc.cluster.support;
 
 import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.AsyncRpcResult;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcContext;
 import org.apache.dubbo.rpc.RpcException;
 import org.apache.dubbo.rpc.RpcInvocation;
 import org.apache.dubbo.rpc.RpcResult;
+import org.apache.dubbo.rpc.SimpleAsyncRpcResult;
 import org.apache.dubbo.rpc.cluster.Directory;
 import org.apache.dubbo.rpc.cluster.directory.StaticDirectory;
 import org.apache.dubbo.rpc.protocol.AbstractInvoker;
@@ -33,6 +36,8 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -117,6 +122,56 @@ public class FailoverClusterInvokerTest {
         }
     }
 
+    @Test
+    public void testAsyncLimitExceededIsRetried() throws Exception {
+        // whichever invoker is selected first rejects the call, the retry answers
+        AtomicInteger invoked = new AtomicInteger();
+        for (Invoker<FailoverClusterInvokerTest> mockInvoker : invokers) {
+            given(mockInvoker.invoke(invocation)).willAnswer(i -> invoked.incrementAndGet() == 1
+                    ? asyncResult(new RpcResult(new RpcException(RpcException.LIMIT_EXCEEDED_EXCEPTION, "rejected")))
+                    : asyncResult(new RpcResult("answer")));
+            given(mockInvoker.isAvailable()).willReturn(true);
+            given(mockInvoker.getUrl()).willReturn(url);
+            given(mockInvoker.getInterface()).willReturn(FailoverClusterInvokerTest.class);
+        }
+
+        FailoverClusterInvoker<FailoverClusterInvokerTest> invoker = new FailoverClusterInvoker<FailoverClusterInvokerTest>(dic);
+        Result ret = invoker.invoke(invocation);
+        assertTrue(ret instanceof SimpleAsyncRpcResult);
+        assertEquals("answer", ((AsyncRpcResult) ret).getResultFuture().get().getValue());
+        assertEquals("answer", RpcContext.getContext().getFuture().get());
+        assertEquals(2, invoked.get());
+    }
+
+    @Test
+    public void testAsyncLimitExceededRetryTimes() throws Exception {
+        AtomicInteger invoked = new AtomicInteger();
+        for (Invoker<FailoverClusterInvokerTest> mockInvoker : invokers) {
+            given(mockInvoker.invoke(invocation)).willAnswer(i -> {
+                invoked.incrementAndGet();
+                return asyncResult(new RpcResult(new RpcException(RpcException.LIMIT_EXCEEDED_EXCEPTION, "rejected")));
+            });
+            given(mockInvoker.isAvailable()).willReturn(true);
+            given(mockInvoker.getUrl()).willReturn(url);
+            given(mockInvoker.getInterface()).willReturn(FailoverClusterInvokerTest.class);
+        }
+
+        FailoverClusterInvoker<FailoverClusterInvokerTest> invoker = new FailoverClusterInvoker<FailoverClusterInvokerTest>(dic);
+        Result ret = invoker.invoke(invocation);
+        assertTrue(((RpcException) ((AsyncRpcResult) ret).getResultFuture().get().getException()).isLimitExceed());
+        assertEquals(retries + 1, invoked.get());
+    }
+
+    private static AsyncRpcResult asyncResult(Result result) {
+        CompletableFuture<Object> valueFuture = new CompletableFuture<Object>();
+        if (result.hasException()) {
+            valueFuture.completeExceptionally(result.getException());
+        } else {
+            valueFuture.complete(result.getValue());
+        }
+        return new SimpleAsyncRpcResult(valueFuture, CompletableFuture.completedFuture(result), false);
+    }
+
     @Test()
     public void testInvoke_retryTimes() {
         given(invoker1.invoke(invocation)).willThrow(new RpcException(RpcException.TIMEOUT_EXCEPTION));
@@ -0,0 +1,319 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.support;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.RpcResult;
+import org.apache.dubbo.rpc.SimpleAsyncRpcResult;
+import org.apache.dubbo.rpc.cluster.Directory;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * HedgingClusterInvokerTest
+ */
+@SuppressWarnings("unchecked")
+public class HedgingClusterInvokerTest {
+
+    private List<Invoker<HedgingClusterInvokerTest>> invokers = new ArrayList<Invoker<HedgingClusterInvokerTest>>();
+    private RpcInvocation invocation = new RpcInvocation();
+    private Directory<HedgingClusterInvokerTest> dic;
+    private TestInvoker invoker1;
+    private TestInvoker invoker2;
+
+    @Before
+    public void setUp() throws Exception {
+        invocation.setMethodName("method1");
+        invoker1 = new TestInvoker(URL.valueOf("test://127.0.0.1:1/test"));
+        invoker2 = new TestInvoker(URL.valueOf("test://127.0.0.1:2/test"));
+        invokers.add(invoker1);
+        invokers.add(invoker2);
+    }
+
+    private HedgingClusterInvoker<HedgingClusterInvokerTest> getInvoker(long delay) {
+        return getInvoker(delay, invocation, invokers);
+    }
+
+    private HedgingClusterInvoker<HedgingClusterInvokerTest> getInvoker(long delay, Invocation invocation,
+                                                                        List<Invoker<HedgingClusterInvokerTest>> invokers) {
+        URL url = URL.valueOf("test://test:11/test?" + Constants.HEDGING_DELAY_KEY + "=" + delay + "&timeout=1000");
+        dic = mock(Directory.class);
+        given(dic.getUrl()).willReturn(url);
+        given(dic.list(invocation)).willReturn(invokers);
+        given(dic.getInterface()).willReturn(HedgingClusterInvokerTest.class);
+        return new HedgingClusterInvoker<HedgingClusterInvokerTest>(dic);
+    }
+
+    @Test
+    public void testFirstAnswers() {
+        invoker1.answer("1");
+        invoker2.answer("2");
+        Result result = getInvoker(1000).invoke(invocation);
+        Assert.assertEquals(1, invoker1.invoked.get() + invoker2.invoked.get());
+        Assert.assertEquals(invoker1.invoked.get() == 1 ? "1" : "2", result.getValue());
+    }
+
+    @Test
+    public void testSlowFirstIsHedged() {
+        invoker2.answer("2");
+        HedgingClusterInvoker<HedgingClusterInvokerTest> invoker = getInvoker(10);
+        // whichever is selected first, the answer comes from invoker2
+        Result result = invoker.invoke(invocation);
+        Assert.assertEquals("2", result.getValue());
+        if (invoker1.invoked.get() == 1) {
+            Assert.assertTrue(invoker1.valueFuture.isCancelled());
+        }
+    }
+
+    @Test
+    public void testFailedFirstIsHedgedAtOnce() {
+        invoker1.fail();
+        invoker2.answer("2");
+        long start = System.currentTimeMillis();
+        Result result = getInvoker(5000).invoke(invocation);
+        Assert.assertEquals("2", result.getValue());
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+
+    @Test
+    public void testBizExceptionIsAnAnswer() {
+        invoker1.answer(new IllegalStateException());
+        invoker2.answer(new IllegalStateException());
+        Result result = getInvoker(5000).invoke(invocation);
+        Assert.assertTrue(result.getException() instanceof IllegalStateException);
+        Assert.assertEquals(1, invoker1.invoked.get() + invoker2.invoked.get());
+    }
+
+    @Test
+    public void testAllFail() {
+        invoker1.fail();
+        invoker2.fail();
+        try {
+            getInvoker(5000).invoke(invocation);
+            Assert.fail();
+        } catch (RpcException expected) {
+            Assert.assertTrue(expected.getMessage().contains("Failed to hedging invoke"));
+            Assert.assertTrue(expected.isNetwork());
+        }
+        Assert.assertEquals(1, invoker1.invoked.get());
+        Assert.assertEquals(1, invoker2.invoked.get());
+    }
+
+    @Test
+    public void testBlockingHedgeDoesNotStallOthers() throws Exception {
+        // the hedge of the first call blocks while sending, like a synchronous protocol
+        CountDownLatch unblock = new CountDownLatch(1);
+        AtomicInteger blockingSent = new AtomicInteger();
+        TestInvoker blocking1 = new TestInvoker(URL.valueOf("test://127.0.0.1:3/test"));
+        TestInvoker blocking2 = new TestInvoker(URL.valueOf("test://127.0.0.1:4/test"));
+        for (TestInvoker blocking : new TestInvoker[]{blocking1, blocking2}) {
+            blocking.onInvoke = () -> {
+                if (blockingSent.incrementAndGet() == 2) {
+                    try {
+                        unblock.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    blocking.answer("blocked");
+                }
+            };
+        }
+        List<Invoker<HedgingClusterInvokerTest>> blockingInvokers = new ArrayList<Invoker<HedgingClusterInvokerTest>>();
+        blockingInvokers.add(blocking1);
+        blockingInvokers.add(blocking2);
+        RpcInvocation blockingInvocation = new RpcInvocation();
+        blockingInvocation.setMethodName("method1");
+        HedgingClusterInvoker<HedgingClusterInvokerTest> blockingCluster = getInvoker(10, blockingInvocation, blockingInvokers);
+        Thread caller = new Thread(() -> blockingCluster.invoke(blockingInvocation));
+        caller.start();
+        try {
+            while (blockingSent.get() < 2) {
+                Thread.sleep(10);
+            }
+
+            // only the second request answers, so the call needs its hedge to be sent
+            AtomicInteger sent = new AtomicInteger();
+            for (TestInvoker invoker : new TestInvoker[]{invoker1, invoker2}) {
+                invoker.onInvoke = () -> {
+                    if (sent.incrementAndGet() == 2) {
+                        invoker.answer("hedged");
+                    }
+                };
+            }
+            Assert.assertEquals("hedged", getInvoker(10).invoke(invocation).getValue());
+        } finally {
+            unblock.countDown();
+            caller.join();
+        }
+    }
+
+    @Test
+    public void testHedgesAreCappedByBudget() {
+        // every request answers after the delay, so every invocation would be hedged without a budget
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        AtomicInteger sent = new AtomicInteger();
+        List<Invoker<HedgingClusterInvokerTest>> slowInvokers = new ArrayList<Invoker<HedgingClusterInvokerTest>>();
+        slowInvokers.add(slowInvoker(5, sent, scheduler));
+        slowInvokers.add(slowInvoker(6, sent, scheduler));
+        RpcInvocation slowInvocation = new RpcInvocation();
+        slowInvocation.setMethodName("method1");
+        HedgingClusterInvoker<HedgingClusterInvokerTest> slowCluster = getInvoker(1, slowInvocation, slowInvokers);
+        try {
+            for (int i = 0; i < 100; i++) {
+                Assert.assertEquals("slow", slowCluster.invoke(slowInvocation).getValue());
+            }
+        } finally {
+            scheduler.shutdownNow();
+        }
+        // a burst of 10, then 5 in 100
+        int hedges = sent.get() - 100;
+        Assert.assertTrue("hedges: " + hedges, hedges > 0 && hedges <= 15);
+    }
+
+    private Invoker<HedgingClusterInvokerTest> slowInvoker(int port, AtomicInteger sent, ScheduledExecutorService scheduler) {
+        Invoker<HedgingClusterInvokerTest> invoker = mock(Invoker.class);
+        given(invoker.getUrl()).willReturn(URL.valueOf("test://127.0.0.1:" + port + "/test"));
+        given(invoker.getInterface()).willReturn(HedgingClusterInvokerTest.class);
+        given(invoker.isAvailable()).willReturn(true);
+        given(invoker.invoke(any(Invocation.class))).willAnswer(i -> {
+            sent.incrementAndGet();
+            CompletableFuture<Object> valueFuture = new CompletableFuture<Object>();
+            CompletableFuture<Result> resultFuture = new CompletableFuture<Result>();
+            scheduler.schedule(() -> {
+                resultFuture.complete(new RpcResult("slow"));
+                valueFuture.complete("slow");
+            }, 20, TimeUnit.MILLISECONDS);
+            return new SimpleAsyncRpcResult(valueFuture, resultFuture, false);
+        });
+        return invoker;
+    }
+
+    @Test
+    public void testHedgingBudget() {
+        HedgingBudget budget = new HedgingBudget(5, 2);
+        Assert.assertTrue(budget.tryAcquire());
+        Assert.assertTrue(budget.tryAcquire());
+        Assert.assertFalse(budget.tryAcquire());
+        for (int i = 0; i < 19; i++) {
+            budget.deposit();
+        }
+        Assert.assertFalse(budget.tryAcquire());
+        budget.deposit();
+        Assert.assertTrue(budget.tryAcquire());
+        Assert.assertFalse(budget.tryAcquire());
+        for (int i = 0; i < 1000; i++) {
+            budget.deposit();
+        }
+        Assert.assertTrue(budget.tryAcquire());
+        Assert.assertTrue(budget.tryAcquire());
+        Assert.assertFalse(budget.tryAcquire());
+    }
+
+    @Test
+    public void testLatencyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram(100, 95);
+        for (int i = 1; i <= 99; i++) {
+            histogram.record(i * 10);
+        }
+        Assert.assertEquals(-1, histogram.getPercentile());
+        histogram.record(1000);
+        // 950 in a bucket of [896, 1024)
+        Assert.assertEquals(1024, histogram.getPercentile());
+        for (long i = 0; i < 1000000; i += 97) {
+            Assert.assertTrue(LatencyHistogram.upperBound(LatencyHistogram.index(i)) > i);
+            Assert.assertTrue(LatencyHistogram.upperBound(LatencyHistogram.index(i)) <= i * 1.25 + 1);
+        }
+    }
+
+    private static class TestInvoker implements Invoker<HedgingClusterInvokerTest> {
+        private final URL url;
+        private final CompletableFuture<Object> valueFuture = new CompletableFuture<Object>();
+        private final CompletableFuture<Result> resultFuture = new CompletableFuture<Result>();
+        private final AtomicInteger invoked = new AtomicInteger();
+        private volatile Runnable onInvoke;
+
+        TestInvoker(URL url) {
+            this.url = url;
+        }
+
+        void answer(Object value) {
+            resultFuture.complete(new RpcResult(value));
+            valueFuture.complete(value);
+        }
+
+        void answer(Throwable exception) {
+            resultFuture.complete(new RpcResult(exception));
+            valueFuture.completeExceptionally(exception);
+        }
+
+        void fail() {
+            RpcException exception = new RpcException(RpcException.NETWORK_EXCEPTION, "failed");
+            resultFuture.complete(new RpcResult(exception));
+            valueFuture.completeExceptionally(exception);
+        }
+
+        @Override
+        public Class<HedgingClusterInvokerTest> getInterface() {
+            return HedgingClusterInvokerTest.class;
+        }
+
+        @Override
+        public Result invoke(Invocation invocation) throws RpcException {
+            invoked.incrementAndGet();
+            Assert.assertEquals("true", invocation.getAttachment(Constants.ASYNC_KEY));
+            if (onInvoke != null) {
+                onInvoke.run();
+            }
+            return new SimpleAsyncRpcResult(valueFuture, resultFuture, false);
+        }
+
+        @Override
+        public URL getUrl() {
+            return url;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+}
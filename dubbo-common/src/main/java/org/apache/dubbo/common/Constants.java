@@ -110,6 +110,10 @@ public class Constants {
 
     public static final int DEFAULT_FORKS = 2;
 
+    public static final int DEFAULT_HEDGING_PERCENTILE = 95;
+
+    public static final int DEFAULT_HEDGING_BUDGET = 5;
+
     public static final String DEFAULT_THREAD_NAME = "Dubbo";
 
     public static final int DEFAULT_CORE_THREADS = 0;
@@ -202,6 +206,21 @@ public class Constants {
 
     public static final String FORKS_KEY = "forks";
 
+    /**
+     * The hedging cluster sends a second request when the first is slower than this percentile of the method latency
+     */
+    public static final String HEDGING_PERCENTILE_KEY = "hedging.percentile";
+
+    /**
+     * A fixed delay in milliseconds before the hedging cluster sends a second request, instead of the percentile
+     */
+    public static final String HEDGING_DELAY_KEY = "hedging.delay";
+
+    /**
+     * The percentage of the invocations the hedging cluster may send a second request for after the delay
+     */
+    public static final String HEDGING_BUDGET_KEY = "hedging.budget";
+
     public static final String DEFAULT_THREADPOOL = "limited";
 
     public static final String DEFAULT_CLIENT_THREADPOOL = "cached";
@@ -240,6 +259,40 @@ public class Constants {
 
     public static final String CONNECTIONS_KEY = "connections";
 
+    /**
+     * The upper bound of the connections of a service reference, the pool grows from connections to this
+     * when the requests in flight on every connection reach connections.pending.threshold
+     */
+    public static final String MAX_CONNECTIONS_KEY = "connections.max";
+
+    public static final String CONNECTIONS_PENDING_THRESHOLD_KEY = "connections.pending.threshold";
+
+    public static final int DEFAULT_CONNECTIONS_PENDING_THRESHOLD = 64;
+
+    /**
+     * Receive the Iterator returned by a method as a stream of chunks instead of a single response
+     */
+    public static final String STREAM_KEY = "stream";
+
+    /**
+     * The chunks of a stream the provider sends ahead of the consumer
+     */
+    public static final String STREAM_WINDOW_KEY = "stream.window";
+
+    public static final int DEFAULT_STREAM_WINDOW = 16;
+
+    /**
+     * The compressor of the message bodies, only used once the peer has shown it supports compression
+     */
+    public static final String COMPRESSOR_KEY = "compressor";
+
+    /**
+     * The body size in bytes below which a message is not compressed
+     */
+    public static final String COMPRESS_THRESHOLD_KEY = "compress.threshold";
+
+    public static final int DEFAULT_COMPRESS_THRESHOLD = 1024;
+
     public static final String ACCEPTS_KEY = "accepts";
 
     public static final String IDLE_TIMEOUT_KEY = "idle.timeout";
@@ -472,6 +525,27 @@ public class Constants {
      */
     public static final int DEFAULT_REGISTRY_RETRY_PERIOD = 5 * 1000;
 
+    /**
+     * Quiet period in milliseconds after which the notifications of a subscription are delivered,
+     * only the latest urls of each category being delivered. 0, the default, delivers every notification at once
+     */
+    public static final String REGISTRY_NOTIFY_DELAY_KEY = "notify.delay";
+
+    /**
+     * Longest time in milliseconds a notification waits for its quiet period
+     */
+    public static final String REGISTRY_NOTIFY_MAX_DELAY_KEY = "notify.max.delay";
+
+    /**
+     * Default value for the longest delay of a notification in milliseconds: 5000
+     */
+    public static final int DEFAULT_REGISTRY_NOTIFY_MAX_DELAY = 5 * 1000;
+
+    /**
+     * Set to true on a subscribe url whose listener accepts the changes of a category instead of its full list
+     */
+    public static final String REGISTRY_NOTIFY_DIFF_KEY = "notify.diff";
+
     /**
      * Reconnection period in milliseconds for register center
      */
@@ -564,6 +638,16 @@ public class Constants {
 
     public static final String DEFAULT_SCRIPT_TYPE_KEY = "javascript";
 
+    public static final String ZONE_KEY = "zone";
+
+    /**
+     * The zone router spills over to the other zones when the available invokers of the local zone are less than
+     * this ratio of its invokers
+     */
+    public static final String ZONE_SPILLOVER_RATIO_KEY = "zone.spillover.ratio";
+
+    public static final double DEFAULT_ZONE_SPILLOVER_RATIO = 0.5;
+
     public static final String STUB_EVENT_KEY = "dubbo.stub.event";
 
     public static final boolean DEFAULT_STUB_EVENT = false;
@@ -593,12 +677,84 @@ public class Constants {
 
     public static final String TPS_LIMIT_INTERVAL_KEY = "tps.interval";
 
+    /**
+     * TPS limit of each consumer application of a service
+     */
+    public static final String TPS_LIMIT_APPLICATION_RATE_KEY = "tps.application";
+
     public static final long DEFAULT_TPS_LIMIT_INTERVAL = 60 * 1000;
 
+    /**
+     * Initial concurrency limit of a provider method, which is then adapted to its response time
+     */
+    public static final String ADAPTIVE_LIMIT_KEY = "adaptive.limit";
+
+    public static final String MAX_ADAPTIVE_LIMIT_KEY = "adaptive.limit.max";
+
+    public static final int DEFAULT_MAX_ADAPTIVE_LIMIT = 1000;
+
     public static final String DECODE_IN_IO_THREAD_KEY = "decode.in.io";
 
     public static final boolean DEFAULT_DECODE_IN_IO_THREAD = true;
 
+    /**
+     * Body size in bytes above which a message is decoded on the business thread pool instead
+     * of the IO thread, overrides decode.in.io when positive
+     */
+    public static final String DECODE_IN_IO_THREAD_THRESHOLD_KEY = "decode.in.io.threshold";
+
+    /**
+     * The max number of flushes merged into one socket flush by the netty4 transporter, disabled when less than 2
+     */
+    public static final String FLUSH_CONSOLIDATION_KEY = "flush.consolidation";
+
+    /**
+     * The max delay in microseconds a flush can be held back to be merged with the following ones
+     */
+    public static final String FLUSH_CONSOLIDATION_DELAY_KEY = "flush.consolidation.delay";
+
+    public static final int DEFAULT_FLUSH_CONSOLIDATION_DELAY = 100;
+
+    /**
+     * Use the native epoll transport of netty4 when it is available, fall back to NIO otherwise
+     */
+    public static final String EPOLL_KEY = "epoll";
+
+    /**
+     * The epoll trigger mode, "edge" or "level"
+     */
+    public static final String EPOLL_MODE_KEY = "epoll.mode";
+
+    /**
+     * Bind the server socket with SO_REUSEPORT, only available with epoll
+     */
+    public static final String REUSE_PORT_KEY = "reuse.port";
+
+    /**
+     * The number of server sockets accepting on the same port, needs reuse.port
+     */
+    public static final String ACCEPTORS_KEY = "acceptors";
+
+    public static final String TCP_QUICKACK_KEY = "tcp.quickack";
+
+    public static final String TCP_CORK_KEY = "tcp.cork";
+
+    /**
+     * Once the pending writes of a connection exceed this many bytes the connection turns unwritable,
+     * and further sends on it are rejected instead of being queued
+     */
+    public static final String WRITE_BUFFER_HIGH_WATER_MARK_KEY = "write.buffer.high.water.mark";
+
+    /**
+     * The connection turns writable again once the pending writes drain below this many bytes,
+     * half of the high water mark by default
+     */
+    public static final String WRITE_BUFFER_LOW_WATER_MARK_KEY = "write.buffer.low.water.mark";
+
+    public static final String FUTURE_TIMEOUT_TICK_KEY = "dubbo.future.timeout.tick";
+
+    public static final int DEFAULT_FUTURE_TIMEOUT_TICK = 30;
+
     public static final String INPUT_KEY = "input";
 
     public static final String OUTPUT_KEY = "output";
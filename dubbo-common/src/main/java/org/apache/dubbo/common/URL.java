@@ -114,6 +114,8 @@ public /**final**/ class URL implements Serializable {
 
     private volatile transient String string;
 
+    private volatile transient String serviceKey;
+
     protected URL() {
         this.protocol = null;
         this.username = null;
@@ -1227,6 +1229,9 @@ public /**final**/ class URL implements Serializable {
     }
 
     public String getServiceKey() {
+        if (serviceKey != null) {
+            return serviceKey;
+        }
         String inf = getServiceInterface();
         if (inf == null) return null;
         StringBuilder buf = new StringBuilder();
@@ -1239,7 +1244,8 @@ public /**final**/ class URL implements Serializable {
         if (version != null && version.length() > 0) {
             buf.append(":").append(version);
         }
-        return buf.toString();
+        serviceKey = buf.toString();
+        return serviceKey;
     }
 
     public String toServiceStringWithoutResolving() {
@@ -36,7 +36,7 @@ public final class Version {
     private static final Logger logger = LoggerFactory.getLogger(Version.class);
 
     // Dubbo RPC protocol version, for compatibility, it must not be between 2.0.10 ~ 2.6.2
-    public static final String DEFAULT_DUBBO_PROTOCOL_VERSION = "2.0.2";
+    public static final String DEFAULT_DUBBO_PROTOCOL_VERSION = "2.0.3";
     // Dubbo implementation version, usually is jar version.
     private static final String VERSION = getVersion(Version.class, "");
 
@@ -45,6 +45,7 @@ public final class Version {
      * Because {@link #isSupportResponseAttatchment} is checked for every call, int compare expect to has higher performance than string.
      */
     private static final int LOWEST_VERSION_FOR_RESPONSE_ATTATCHMENT = 20002; // 2.0.2
+    private static final int LOWEST_VERSION_FOR_LIMIT_EXCEEDED = 20003; // 2.0.3
     private static final Map<String, Integer> VERSION2INT = new HashMap<String, Integer>();
 
     static {
@@ -64,6 +65,18 @@ public final class Version {
     }
 
     public static boolean isSupportResponseAttatchment(String version) {
+        return isSupport(version, LOWEST_VERSION_FOR_RESPONSE_ATTATCHMENT);
+    }
+
+    /**
+     * Whether a consumer of this version rethrows a limit exceeded result as an exception, rather than taking it for
+     * the answer of the service.
+     */
+    public static boolean isSupportLimitExceeded(String version) {
+        return isSupport(version, LOWEST_VERSION_FOR_LIMIT_EXCEEDED);
+    }
+
+    private static boolean isSupport(String version, int lowestVersion) {
         if (version == null || version.length() == 0) {
             return false;
         }
@@ -73,7 +86,7 @@ public final class Version {
             return false;
         }
 
-        return iVersion >= LOWEST_VERSION_FOR_RESPONSE_ATTATCHMENT;
+        return iVersion >= lowestVersion;
     }
 
     public static int getIntVersion(String version) {
@@ -685,6 +685,7 @@ public class ExtensionLoader<T> {
                 }
             }
         }
+        return classes;
     }
 
 
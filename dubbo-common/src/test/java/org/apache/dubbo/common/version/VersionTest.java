@@ -35,4 +35,12 @@ public class VersionTest {
         Assert.assertTrue(Version.isSupportResponseAttatchment("2.0.3"));
         Assert.assertFalse(Version.isSupportResponseAttatchment("2.0.0"));
     }
+
+    @Test
+    public void testSupportLimitExceeded() {
+        Assert.assertTrue(Version.isSupportLimitExceeded(Version.getProtocolVersion()));
+        Assert.assertFalse(Version.isSupportLimitExceeded("2.0.2"));
+        Assert.assertFalse(Version.isSupportLimitExceeded("2.5.10"));
+        Assert.assertFalse(Version.isSupportLimitExceeded(null));
+    }
 }
@@ -16,7 +16,6 @@
  */
 package org.apache.dubbo.config;
 
-import com.sun.javafx.webkit.KeyCodeMap;
 import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.Version;
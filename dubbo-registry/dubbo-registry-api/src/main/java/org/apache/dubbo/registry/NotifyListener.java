@@ -41,4 +41,24 @@ public interface NotifyListener {
      */
     void notify(List<URL> urls);
 
+    /**
+     * Triggered with the changes of one category of data, instead of its full list.
+     * <p>
+     * A registry calls it only for the subscriptions whose url has <code>notify.diff=true</code>, the contract is: <br>
+     * 1. The revision of a category is increased by one with each change notified to the listener.<br>
+     * 2. The first notification of a category is its full list, with <code>removed</code> being null. The full list follows the rules of {@link #notify(List)}, it holds an empty protocol url when the category is empty.<br>
+     * 3. A change holds the urls added and removed since the previous revision, never an empty protocol url.<br>
+     * 4. If the listener does not hold the previous revision, it returns false and the registry notifies the full list of the category again.<br>
+     * 5. A full notification through {@link #notify(List)} drops the revisions held by the listener.<br>
+     *
+     * @param category the category of the urls, e.g.: providers, routers, configurators
+     * @param revision the revision of the category after the change
+     * @param added    the urls added since the previous revision, or the full list of the category if <code>removed</code> is null
+     * @param removed  the urls removed since the previous revision, or null
+     * @return true if the change was applied, false if the full list of the category is needed
+     */
+    default boolean notify(String category, long revision, List<URL> added, List<URL> removed) {
+        return false;
+    }
+
 }
\ No newline at end of file
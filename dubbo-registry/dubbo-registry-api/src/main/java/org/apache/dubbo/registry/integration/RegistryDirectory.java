@@ -24,6 +24,9 @@ import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.common.utils.NetUtils;
 import org.apache.dubbo.common.utils.StringUtils;
+import org.apache.dubbo.metrics.Compass;
+import org.apache.dubbo.metrics.MetricManager;
+import org.apache.dubbo.metrics.MetricName;
 import org.apache.dubbo.registry.NotifyListener;
 import org.apache.dubbo.registry.Registry;
 import org.apache.dubbo.rpc.Invocation;
@@ -38,17 +41,20 @@ import org.apache.dubbo.rpc.cluster.Router;
 import org.apache.dubbo.rpc.cluster.RouterFactory;
 import org.apache.dubbo.rpc.cluster.directory.AbstractDirectory;
 import org.apache.dubbo.rpc.cluster.directory.StaticDirectory;
+import org.apache.dubbo.rpc.cluster.router.zone.ZoneRouter;
 import org.apache.dubbo.rpc.cluster.support.ClusterUtils;
 import org.apache.dubbo.rpc.protocol.InvokerWrapper;
 import org.apache.dubbo.rpc.support.RpcUtils;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -72,6 +78,7 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
     private final URL directoryUrl; // Initialization at construction time, assertion not null, and always assign non null value
     private final String[] serviceMethods;
     private final boolean multiGroup;
+    private final Compass refreshCompass;
     private Protocol protocol; // Initialization at the time of injection, the assertion is not null
     private Registry registry; // Initialization at the time of injection, the assertion is not null
     private volatile boolean forbidden = false;
@@ -95,6 +102,21 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
     // Set<invokerUrls> cache invokeUrls to invokers mapping.
     private volatile Set<URL> cachedInvokerUrls; // The initial value is null and the midway may be assigned to null, please use the local variable reference
 
+    // Map<providerUrl, Invoker> cache notified provider url to invoker mapping, valid for the configurators the urls were merged with.
+    private volatile Map<URL, Invoker<T>> providerInvokerMap; // The initial value is null and the midway may be assigned to null, please use the local variable reference
+    private List<Configurator> providerInvokerConfigurators;
+
+    // Map<methodName, Invoker> cache service method to invokers mapping before and after routing, valid for the routers and consumer url they were routed with.
+    private Map<String, List<Invoker<T>>> declaredMethodInvokerMap;
+    private Map<String, List<Invoker<T>>> unroutedMethodInvokerMap;
+    private Map<String, List<Invoker<T>>> routedMethodInvokerMap;
+    private List<Router> methodInvokerRouters;
+    private URL methodInvokerConsumerUrl;
+
+    // Map<category, revision> and Map<category, urls> of the categories notified by changes, guarded by this.
+    private final Map<String, Long> categoryRevisions = new HashMap<String, Long>();
+    private final Map<String, Set<URL>> categoryUrls = new HashMap<String, Set<URL>>();
+
     public RegistryDirectory(Class<T> serviceType, URL url) {
         super(url);
         if (serviceType == null)
@@ -109,6 +131,8 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
         this.multiGroup = group != null && ("*".equals(group) || group.contains(","));
         String methods = queryMap.get(Constants.METHODS_KEY);
         this.serviceMethods = methods == null ? null : Constants.COMMA_SPLIT_PATTERN.split(methods);
+        this.refreshCompass = MetricManager.getCompass("dubbo", new MetricName("dubbo.consumer.directory.refresh")
+                .tag("service", serviceKey));
     }
 
     /**
@@ -155,6 +179,7 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
     }
 
     public void subscribe(URL url) {
+        url = url.addParameter(Constants.REGISTRY_NOTIFY_DIFF_KEY, true);
         setConsumerUrl(url);
         registry.subscribe(url, this);
     }
@@ -182,6 +207,62 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
 
     @Override
     public synchronized void notify(List<URL> urls) {
+        categoryRevisions.clear();
+        categoryUrls.clear();
+        refresh(urls);
+    }
+
+    /**
+     * Applies the change of a category onto the urls of its previous revision. A change of the providers is applied
+     * onto the invokers in place, other changes are refreshed as on a full notification.
+     */
+    @Override
+    public synchronized boolean notify(String category, long revision, List<URL> added, List<URL> removed) {
+        Set<URL> urls;
+        if (removed == null) {
+            urls = new LinkedHashSet<URL>();
+            for (URL url : added) {
+                if (!Constants.EMPTY_PROTOCOL.equals(url.getProtocol())) {
+                    urls.add(url);
+                }
+            }
+        } else {
+            Long previous = categoryRevisions.get(category);
+            if (previous == null || previous + 1 != revision) {
+                if (logger.isInfoEnabled()) {
+                    logger.info("Ask for the full " + category + " of service " + serviceKey + ", notified revision " + revision + " does not follow " + previous);
+                }
+                return false;
+            }
+            urls = categoryUrls.get(category);
+            for (URL url : removed) {
+                urls.remove(url);
+            }
+            urls.addAll(added);
+        }
+        categoryRevisions.put(category, revision);
+        categoryUrls.put(category, urls);
+        if (removed != null && !urls.isEmpty() && Constants.PROVIDERS_CATEGORY.equals(category)) {
+            long start = System.currentTimeMillis();
+            if (refreshInvoker(added, removed)) {
+                long elapsed = System.currentTimeMillis() - start;
+                refreshCompass.record(elapsed, "success");
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Applied " + added.size() + " added and " + removed.size() + " removed invoker urls of service " + serviceKey + " in " + elapsed + "ms");
+                }
+                return true;
+            }
+        }
+        if (urls.isEmpty()) {
+            refresh(Collections.singletonList(directoryUrl.setProtocol(Constants.EMPTY_PROTOCOL)
+                    .addParameter(Constants.CATEGORY_KEY, category)));
+        } else {
+            refresh(new ArrayList<URL>(urls));
+        }
+        return true;
+    }
+
+    private void refresh(List<URL> urls) {
         List<URL> invokerUrls = new ArrayList<URL>();
         List<URL> routerUrls = new ArrayList<URL>();
         List<URL> configuratorUrls = new ArrayList<URL>();
@@ -220,7 +301,13 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
             }
         }
         // providers
+        long start = System.currentTimeMillis();
         refreshInvoker(invokerUrls);
+        long elapsed = System.currentTimeMillis() - start;
+        refreshCompass.record(elapsed, "success");
+        if (logger.isDebugEnabled()) {
+            logger.debug("Refreshed " + invokerUrls.size() + " invoker urls of service " + serviceKey + " in " + elapsed + "ms");
+        }
     }
 
     /**
@@ -228,6 +315,8 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
      * 1.If URL has been converted to invoker, it is no longer re-referenced and obtained directly from the cache, and notice that any parameter changes in the URL will be re-referenced.
      * 2.If the incoming invoker list is not empty, it means that it is the latest invoker list
      * 3.If the list of incoming invokerUrl is empty, It means that the rule is only a override rule or a route rule, which needs to be re-contrasted to decide whether to re-reference.
+     * 4.If a provider url was notified before and the configurators are unchanged, its invoker is reused without merging the url again.
+     * 5.Only the methods whose invokers changed are routed again, unless the routers or the consumer url changed.
      *
      * @param invokerUrls this parameter can't be null
      */
@@ -268,6 +357,120 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
         }
     }
 
+    /**
+     * Apply a change of the provider urls onto the invokers: only the added urls are referred and the removed ones
+     * destroyed, the unchanged urls are not looked up again and only the methods whose invokers changed are routed again.
+     * The parameters of the removed providers stay merged into the directory url until the next full refresh.
+     *
+     * @return false if the change can not be applied on its own, then the invokers have to be refreshed from all the urls
+     */
+    private boolean refreshInvoker(List<URL> added, List<URL> removed) {
+        Map<String, Invoker<T>> localUrlInvokerMap = this.urlInvokerMap; // local reference
+        Map<URL, Invoker<T>> localProviderInvokerMap = this.providerInvokerMap; // local reference
+        Set<URL> localCachedInvokerUrls = this.cachedInvokerUrls; // local reference
+        // Not refreshed yet, merged with other configurators, merged by group, or an invoker shared by several urls
+        if (forbidden || multiGroup || localUrlInvokerMap == null || localProviderInvokerMap == null
+                || localCachedInvokerUrls == null || declaredMethodInvokerMap == null
+                || configurators != providerInvokerConfigurators
+                || localProviderInvokerMap.size() != localUrlInvokerMap.size()) {
+            return false;
+        }
+        Map<String, Invoker<T>> newUrlInvokerMap = new HashMap<String, Invoker<T>>(localUrlInvokerMap);
+        Map<Invoker<T>, Boolean> removedInvokers = new IdentityHashMap<Invoker<T>, Boolean>();
+        for (URL providerUrl : removed) {
+            Invoker<T> invoker = localProviderInvokerMap.get(providerUrl);
+            if (invoker != null) {
+                newUrlInvokerMap.remove(invoker.getUrl().toFullString());
+                removedInvokers.put(invoker, Boolean.TRUE);
+            }
+        }
+        Map<String, URL> addedUrls = new LinkedHashMap<String, URL>();
+        Map<String, URL> addedProviderUrls = new HashMap<String, URL>();
+        for (URL providerUrl : added) {
+            if (!isAcceptedProtocol(providerUrl)) {
+                continue;
+            }
+            URL url = mergeUrl(providerUrl);
+            String key = url.toFullString();
+            if (localProviderInvokerMap.containsKey(providerUrl) || newUrlInvokerMap.containsKey(key)
+                    || addedUrls.containsKey(key)) {
+                return false;
+            }
+            addedUrls.put(key, url);
+            addedProviderUrls.put(key, providerUrl);
+        }
+        Map<String, String> providerParameters = new HashMap<String, String>();
+        Map<URL, Invoker<T>> addedInvokers = new LinkedHashMap<URL, Invoker<T>>();
+        for (Map.Entry<String, URL> entry : addedUrls.entrySet()) {
+            URL url = entry.getValue();
+            URL providerUrl = addedProviderUrls.get(entry.getKey());
+            addParametersIfAbsent(providerParameters, url.getParameters());
+            Invoker<T> invoker = referInvoker(url, providerUrl);
+            if (invoker != null) {
+                newUrlInvokerMap.put(entry.getKey(), invoker);
+                addedInvokers.put(providerUrl, invoker);
+            }
+        }
+        if (newUrlInvokerMap.isEmpty()) {
+            return false;
+        }
+        // state change
+        for (URL providerUrl : removed) {
+            localProviderInvokerMap.remove(providerUrl);
+            localCachedInvokerUrls.remove(providerUrl);
+        }
+        localProviderInvokerMap.putAll(addedInvokers);
+        localCachedInvokerUrls.addAll(added);
+        this.overrideDirectoryUrl = this.overrideDirectoryUrl.addParametersIfAbsent(providerParameters);
+        Map<String, List<Invoker<T>>> addedMethodInvokers = new HashMap<String, List<Invoker<T>>>();
+        for (Invoker<T> invoker : addedInvokers.values()) {
+            for (String method : getDeclaredMethods(invoker)) {
+                List<Invoker<T>> methodInvokers = addedMethodInvokers.get(method);
+                if (methodInvokers == null) {
+                    methodInvokers = new ArrayList<Invoker<T>>();
+                    addedMethodInvokers.put(method, methodInvokers);
+                }
+                methodInvokers.add(invoker);
+            }
+        }
+        Set<String> changedMethods = new HashSet<String>(addedMethodInvokers.keySet());
+        for (Invoker<T> invoker : removedInvokers.keySet()) {
+            changedMethods.addAll(getDeclaredMethods(invoker));
+        }
+        Map<String, List<Invoker<T>>> newMethodInvokerMap = new HashMap<String, List<Invoker<T>>>(declaredMethodInvokerMap);
+        for (String method : changedMethods) {
+            List<Invoker<T>> methodInvokers = changeInvokers(newMethodInvokerMap.get(method), removedInvokers, addedMethodInvokers.get(method));
+            if (methodInvokers.isEmpty()) {
+                newMethodInvokerMap.remove(method);
+            } else {
+                newMethodInvokerMap.put(method, methodInvokers);
+            }
+        }
+        List<Invoker<T>> invokersList = changeInvokers(unroutedMethodInvokerMap.get(Constants.ANY_VALUE), removedInvokers,
+                new ArrayList<Invoker<T>>(addedInvokers.values()));
+        this.methodInvokerMap = routeMethodInvokers(newMethodInvokerMap, invokersList);
+        this.urlInvokerMap = newUrlInvokerMap;
+        for (Invoker<T> invoker : removedInvokers.keySet()) {
+            destroyInvoker(invoker);
+        }
+        return true;
+    }
+
+    private static <I> List<I> changeInvokers(List<I> invokers, Map<I, Boolean> removed, List<I> added) {
+        List<I> changed = new ArrayList<I>();
+        if (invokers != null) {
+            for (I invoker : invokers) {
+                if (!removed.containsKey(invoker)) {
+                    changed.add(invoker);
+                }
+            }
+        }
+        if (added != null) {
+            changed.addAll(added);
+        }
+        return changed;
+    }
+
     private Map<String, List<Invoker<T>>> toMergeMethodInvokerMap(Map<String, List<Invoker<T>>> methodMap) {
         Map<String, List<Invoker<T>>> result = new HashMap<String, List<Invoker<T>>>();
         for (Map.Entry<String, List<Invoker<T>>> entry : methodMap.entrySet()) {
@@ -341,31 +544,27 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
             return newUrlInvokerMap;
         }
         Set<String> keys = new HashSet<String>();
-        String queryProtocols = this.queryMap.get(Constants.PROTOCOL_KEY);
+        Map<URL, Invoker<T>> newProviderInvokerMap = new HashMap<URL, Invoker<T>>();
+        List<Configurator> localConfigurators = this.configurators; // local reference
+        Map<URL, Invoker<T>> localProviderInvokerMap = localConfigurators == providerInvokerConfigurators ? this.providerInvokerMap : null; // local reference
+        Map<String, String> providerParameters = new HashMap<String, String>();
         for (URL providerUrl : urls) {
-            // If protocol is configured at the reference side, only the matching protocol is selected
-            if (queryProtocols != null && queryProtocols.length() > 0) {
-                boolean accept = false;
-                String[] acceptProtocols = queryProtocols.split(",");
-                for (String acceptProtocol : acceptProtocols) {
-                    if (providerUrl.getProtocol().equals(acceptProtocol)) {
-                        accept = true;
-                        break;
-                    }
-                }
-                if (!accept) {
-                    continue;
+            Invoker<T> providerInvoker = localProviderInvokerMap == null ? null : localProviderInvokerMap.get(providerUrl);
+            if (providerInvoker != null) { // Notified before, the merged url is unchanged
+                URL url = providerInvoker.getUrl();
+                addParametersIfAbsent(providerParameters, url.getParameters());
+                String key = url.toFullString();
+                if (keys.add(key)) {
+                    newUrlInvokerMap.put(key, providerInvoker);
                 }
-            }
-            if (Constants.EMPTY_PROTOCOL.equals(providerUrl.getProtocol())) {
+                newProviderInvokerMap.put(providerUrl, newUrlInvokerMap.get(key));
                 continue;
             }
-            if (!ExtensionLoader.getExtensionLoader(Protocol.class).hasExtension(providerUrl.getProtocol())) {
-                logger.error(new IllegalStateException("Unsupported protocol " + providerUrl.getProtocol() + " in notified url: " + providerUrl + " from registry " + getUrl().getAddress() + " to consumer " + NetUtils.getLocalHost()
-                        + ", supported protocol: " + ExtensionLoader.getExtensionLoader(Protocol.class).getSupportedExtensions()));
+            if (!isAcceptedProtocol(providerUrl)) {
                 continue;
             }
             URL url = mergeUrl(providerUrl);
+            addParametersIfAbsent(providerParameters, url.getParameters());
 
             String key = url.toFullString(); // The parameter urls are sorted
             if (keys.contains(key)) { // Repeated url
@@ -376,30 +575,81 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
             Map<String, Invoker<T>> localUrlInvokerMap = this.urlInvokerMap; // local reference
             Invoker<T> invoker = localUrlInvokerMap == null ? null : localUrlInvokerMap.get(key);
             if (invoker == null) { // Not in the cache, refer again
-                try {
-                    boolean enabled = true;
-                    if (url.hasParameter(Constants.DISABLED_KEY)) {
-                        enabled = !url.getParameter(Constants.DISABLED_KEY, false);
-                    } else {
-                        enabled = url.getParameter(Constants.ENABLED_KEY, true);
-                    }
-                    if (enabled) {
-                        invoker = new InvokerDelegate<T>(protocol.refer(serviceType, url), url, providerUrl);
-                    }
-                } catch (Throwable t) {
-                    logger.error("Failed to refer invoker for interface:" + serviceType + ",url:(" + url + ")" + t.getMessage(), t);
-                }
+                invoker = referInvoker(url, providerUrl);
                 if (invoker != null) { // Put new invoker in cache
                     newUrlInvokerMap.put(key, invoker);
+                    newProviderInvokerMap.put(providerUrl, invoker);
                 }
             } else {
                 newUrlInvokerMap.put(key, invoker);
+                newProviderInvokerMap.put(providerUrl, invoker);
             }
         }
         keys.clear();
+        // The combination of directoryUrl and override is at the end of notify, which can't be handled here
+        this.overrideDirectoryUrl = this.overrideDirectoryUrl.addParametersIfAbsent(providerParameters); // Merge the provider side parameters
+        this.providerInvokerMap = newProviderInvokerMap;
+        this.providerInvokerConfigurators = localConfigurators;
         return newUrlInvokerMap;
     }
 
+    private boolean isAcceptedProtocol(URL providerUrl) {
+        // If protocol is configured at the reference side, only the matching protocol is selected
+        String queryProtocols = this.queryMap.get(Constants.PROTOCOL_KEY);
+        if (queryProtocols != null && queryProtocols.length() > 0) {
+            boolean accept = false;
+            String[] acceptProtocols = queryProtocols.split(",");
+            for (String acceptProtocol : acceptProtocols) {
+                if (providerUrl.getProtocol().equals(acceptProtocol)) {
+                    accept = true;
+                    break;
+                }
+            }
+            if (!accept) {
+                return false;
+            }
+        }
+        if (Constants.EMPTY_PROTOCOL.equals(providerUrl.getProtocol())) {
+            return false;
+        }
+        if (!ExtensionLoader.getExtensionLoader(Protocol.class).hasExtension(providerUrl.getProtocol())) {
+            logger.error(new IllegalStateException("Unsupported protocol " + providerUrl.getProtocol() + " in notified url: " + providerUrl + " from registry " + getUrl().getAddress() + " to consumer " + NetUtils.getLocalHost()
+                    + ", supported protocol: " + ExtensionLoader.getExtensionLoader(Protocol.class).getSupportedExtensions()));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Refer the merged url of a provider, unless it is disabled.
+     *
+     * @return the invoker, or null if disabled or failed to refer
+     */
+    private Invoker<T> referInvoker(URL url, URL providerUrl) {
+        try {
+            boolean enabled = true;
+            if (url.hasParameter(Constants.DISABLED_KEY)) {
+                enabled = !url.getParameter(Constants.DISABLED_KEY, false);
+            } else {
+                enabled = url.getParameter(Constants.ENABLED_KEY, true);
+            }
+            if (enabled) {
+                return new InvokerDelegate<T>(protocol.refer(serviceType, url), url, providerUrl);
+            }
+        } catch (Throwable t) {
+            logger.error("Failed to refer invoker for interface:" + serviceType + ",url:(" + url + ")" + t.getMessage(), t);
+        }
+        return null;
+    }
+
+    private static void addParametersIfAbsent(Map<String, String> parameters, Map<String, String> added) {
+        for (Map.Entry<String, String> entry : added.entrySet()) {
+            if (!parameters.containsKey(entry.getKey())) {
+                parameters.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
     /**
      * Merge url parameters. the order is: override > -D >Consumer > Provider
      *
@@ -418,9 +668,6 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
 
         providerUrl = providerUrl.addParameter(Constants.CHECK_KEY, String.valueOf(false)); // Do not check whether the connection is successful or not, always create Invoker!
 
-        // The combination of directoryUrl and override is at the end of notify, which can't be handled here
-        this.overrideDirectoryUrl = this.overrideDirectoryUrl.addParametersIfAbsent(providerUrl.getParameters()); // Merge the provider side parameters
-
         if ((providerUrl.getPath() == null || providerUrl.getPath().length() == 0)
                 && "dubbo".equals(providerUrl.getProtocol())) { // Compatible version 1.0
             //fix by tony.chenl DUBBO-44
@@ -445,7 +692,8 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
         List<Router> routers = getRouters();
         if (routers != null) {
             for (Router router : routers) {
-                if (router.getUrl() != null) {
+                // a runtime zone router routes each call in list(), it has to see the full list to spill over
+                if (router.getUrl() != null && !isRoutedPerCall(router)) {
                     invokers = router.route(invokers, getConsumerUrl(), invocation);
                 }
             }
@@ -453,6 +701,10 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
         return invokers;
     }
 
+    private static boolean isRoutedPerCall(Router router) {
+        return router instanceof ZoneRouter && router.getUrl().getParameter(Constants.RUNTIME_KEY, false);
+    }
+
     /**
      * Transform the invokers list into a mapping relationship with a method
      *
@@ -465,44 +717,111 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
         List<Invoker<T>> invokersList = new ArrayList<Invoker<T>>();
         if (invokersMap != null && invokersMap.size() > 0) {
             for (Invoker<T> invoker : invokersMap.values()) {
-                String parameter = invoker.getUrl().getParameter(Constants.METHODS_KEY);
-                if (parameter != null && parameter.length() > 0) {
-                    String[] methods = Constants.COMMA_SPLIT_PATTERN.split(parameter);
-                    if (methods != null && methods.length > 0) {
-                        for (String method : methods) {
-                            if (method != null && method.length() > 0
-                                    && !Constants.ANY_VALUE.equals(method)) {
-                                List<Invoker<T>> methodInvokers = newMethodInvokerMap.get(method);
-                                if (methodInvokers == null) {
-                                    methodInvokers = new ArrayList<Invoker<T>>();
-                                    newMethodInvokerMap.put(method, methodInvokers);
-                                }
-                                methodInvokers.add(invoker);
-                            }
-                        }
+                for (String method : getDeclaredMethods(invoker)) {
+                    List<Invoker<T>> methodInvokers = newMethodInvokerMap.get(method);
+                    if (methodInvokers == null) {
+                        methodInvokers = new ArrayList<Invoker<T>>();
+                        newMethodInvokerMap.put(method, methodInvokers);
                     }
+                    methodInvokers.add(invoker);
                 }
                 invokersList.add(invoker);
             }
         }
-        List<Invoker<T>> newInvokersList = route(invokersList, null);
-        newMethodInvokerMap.put(Constants.ANY_VALUE, newInvokersList);
+        return routeMethodInvokers(newMethodInvokerMap, invokersList);
+    }
+
+    private static List<String> getDeclaredMethods(Invoker<?> invoker) {
+        List<String> declaredMethods = new ArrayList<String>();
+        String parameter = invoker.getUrl().getParameter(Constants.METHODS_KEY);
+        if (parameter != null && parameter.length() > 0) {
+            for (String method : Constants.COMMA_SPLIT_PATTERN.split(parameter)) {
+                if (method != null && method.length() > 0
+                        && !Constants.ANY_VALUE.equals(method)) {
+                    declaredMethods.add(method);
+                }
+            }
+        }
+        return declaredMethods;
+    }
+
+    /**
+     * Route the invokers of each method, the previous results are reused for the methods whose invokers are unchanged.
+     *
+     * @param newMethodInvokerMap the invokers of the methods declared by the providers
+     * @param invokersList all the invokers
+     * @return Mapping relation between Invoker and method
+     */
+    private Map<String, List<Invoker<T>>> routeMethodInvokers(Map<String, List<Invoker<T>>> newMethodInvokerMap, List<Invoker<T>> invokersList) {
+        List<Router> routers = getRouters();
+        URL consumerUrl = getConsumerUrl();
+        boolean reuse = routers == methodInvokerRouters && consumerUrl == methodInvokerConsumerUrl
+                && unroutedMethodInvokerMap != null;
+        Map<String, List<Invoker<T>>> newUnroutedMethodInvokerMap = new HashMap<String, List<Invoker<T>>>();
+        Map<String, List<Invoker<T>>> newRoutedMethodInvokerMap = new HashMap<String, List<Invoker<T>>>();
+        List<Invoker<T>> newInvokersList = routeIfChanged(Constants.ANY_VALUE, null, invokersList, true, reuse,
+                newUnroutedMethodInvokerMap, newRoutedMethodInvokerMap);
         if (serviceMethods != null && serviceMethods.length > 0) {
             for (String method : serviceMethods) {
                 List<Invoker<T>> methodInvokers = newMethodInvokerMap.get(method);
                 if (methodInvokers == null || methodInvokers.isEmpty()) {
                     methodInvokers = newInvokersList;
                 }
-                newMethodInvokerMap.put(method, route(methodInvokers, method));
+                routeIfChanged(method, method, methodInvokers, true, reuse,
+                        newUnroutedMethodInvokerMap, newRoutedMethodInvokerMap);
             }
         }
         // sort and unmodifiable
-        for (String method : new HashSet<String>(newMethodInvokerMap.keySet())) {
-            List<Invoker<T>> methodInvokers = newMethodInvokerMap.get(method);
-            Collections.sort(methodInvokers, InvokerComparator.getComparator());
-            newMethodInvokerMap.put(method, Collections.unmodifiableList(methodInvokers));
+        for (Map.Entry<String, List<Invoker<T>>> entry : newMethodInvokerMap.entrySet()) {
+            if (!newRoutedMethodInvokerMap.containsKey(entry.getKey())) {
+                routeIfChanged(entry.getKey(), entry.getKey(), entry.getValue(), false, reuse,
+                        newUnroutedMethodInvokerMap, newRoutedMethodInvokerMap);
+            }
+        }
+        this.declaredMethodInvokerMap = newMethodInvokerMap;
+        this.unroutedMethodInvokerMap = newUnroutedMethodInvokerMap;
+        this.routedMethodInvokerMap = newRoutedMethodInvokerMap;
+        this.methodInvokerRouters = routers;
+        this.methodInvokerConsumerUrl = consumerUrl;
+        return Collections.unmodifiableMap(new HashMap<String, List<Invoker<T>>>(newRoutedMethodInvokerMap));
+    }
+
+    /**
+     * Route the invokers of a method, or reuse the previous result if the method had the same invokers before.
+     *
+     * @return the sorted and unmodifiable invokers of the method
+     */
+    private List<Invoker<T>> routeIfChanged(String key, String method, List<Invoker<T>> invokers, boolean route, boolean reuse,
+                                            Map<String, List<Invoker<T>>> unroutedMap, Map<String, List<Invoker<T>>> routedMap) {
+        unroutedMap.put(key, invokers);
+        List<Invoker<T>> routed = reuse ? routedMethodInvokerMap.get(key) : null;
+        if (routed == null || !isSameInvokers(unroutedMethodInvokerMap.get(key), invokers)) {
+            routed = route ? route(invokers, method) : invokers;
+            routed = new ArrayList<Invoker<T>>(routed);
+            Collections.sort(routed, InvokerComparator.getComparator());
+            routed = Collections.unmodifiableList(routed);
+        }
+        routedMap.put(key, routed);
+        return routed;
+    }
+
+    private static boolean isSameInvokers(List<? extends Invoker<?>> previous, List<? extends Invoker<?>> invokers) {
+        if (previous == invokers) {
+            return true;
+        }
+        if (previous == null || previous.size() != invokers.size()) {
+            return false;
+        }
+        Map<Invoker<?>, Boolean> previousSet = new IdentityHashMap<Invoker<?>, Boolean>(previous.size());
+        for (Invoker<?> invoker : previous) {
+            previousSet.put(invoker, Boolean.TRUE);
         }
-        return Collections.unmodifiableMap(newMethodInvokerMap);
+        for (Invoker<?> invoker : invokers) {
+            if (previousSet.remove(invoker) == null) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -521,6 +840,7 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
             localUrlInvokerMap.clear();
         }
         methodInvokerMap = null;
+        providerInvokerMap = null;
     }
 
     /**
@@ -538,9 +858,12 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
         // check deleted invoker
         List<String> deleted = null;
         if (oldUrlInvokerMap != null) {
-            Collection<Invoker<T>> newInvokers = newUrlInvokerMap.values();
+            Map<Invoker<T>, Boolean> newInvokers = new IdentityHashMap<Invoker<T>, Boolean>(newUrlInvokerMap.size());
+            for (Invoker<T> invoker : newUrlInvokerMap.values()) {
+                newInvokers.put(invoker, Boolean.TRUE);
+            }
             for (Map.Entry<String, Invoker<T>> entry : oldUrlInvokerMap.entrySet()) {
-                if (!newInvokers.contains(entry.getValue())) {
+                if (!newInvokers.containsKey(entry.getValue())) {
                     if (deleted == null) {
                         deleted = new ArrayList<String>();
                     }
@@ -554,20 +877,24 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
                 if (url != null) {
                     Invoker<T> invoker = oldUrlInvokerMap.remove(url);
                     if (invoker != null) {
-                        try {
-                            invoker.destroy();
-                            if (logger.isDebugEnabled()) {
-                                logger.debug("destroy invoker[" + invoker.getUrl() + "] success. ");
-                            }
-                        } catch (Exception e) {
-                            logger.warn("destroy invoker[" + invoker.getUrl() + "] faild. " + e.getMessage(), e);
-                        }
+                        destroyInvoker(invoker);
                     }
                 }
             }
         }
     }
 
+    private void destroyInvoker(Invoker<T> invoker) {
+        try {
+            invoker.destroy();
+            if (logger.isDebugEnabled()) {
+                logger.debug("destroy invoker[" + invoker.getUrl() + "] success. ");
+            }
+        } catch (Exception e) {
+            logger.warn("destroy invoker[" + invoker.getUrl() + "] faild. " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public List<Invoker<T>> doList(Invocation invocation) {
         if (forbidden) {
@@ -28,10 +28,7 @@ import org.apache.dubbo.registry.NotifyListener;
 import org.apache.dubbo.registry.Registry;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.RandomAccessFile;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
@@ -68,12 +65,17 @@ public abstract class AbstractRegistry implements Registry {
     // Is it synchronized to save the file
     private final boolean syncSaveFile;
     private final AtomicLong lastCacheChanged = new AtomicLong();
+    // Service keys changed since the last save, only these are appended to the file cache
+    private final Set<String> changedKeys = new ConcurrentHashSet<String>();
     private final Set<URL> registered = new ConcurrentHashSet<URL>();
     private final ConcurrentMap<URL, Set<NotifyListener>> subscribed = new ConcurrentHashMap<URL, Set<NotifyListener>>();
     private final ConcurrentMap<URL, Map<String, List<URL>>> notified = new ConcurrentHashMap<URL, Map<String, List<URL>>>();
+    // Pushes the changes instead of the full lists to the listeners subscribed with notify.diff=true
+    private final DiffNotifier diffNotifier = new DiffNotifier();
     private URL registryUrl;
     // Local disk cache file
     private File file;
+    private RegistryCacheFile cacheFile;
 
     public AbstractRegistry(URL url) {
         setUrl(url);
@@ -81,8 +83,11 @@ public abstract class AbstractRegistry implements Registry {
         syncSaveFile = url.getParameter(Constants.REGISTRY_FILESAVE_SYNC_KEY, false);
         String filename = url.getParameter(Constants.FILE_KEY, System.getProperty("user.home") + "/.dubbo/dubbo-registry-" + url.getParameter(Constants.APPLICATION_KEY) + "-" + url.getAddress() + ".cache");
         File file = null;
+        File propertiesFile = null;
         if (ConfigUtils.isNotEmpty(filename)) {
-            file = new File(filename);
+            // the binary cache has a name of its own, the properties file may still be used by older versions
+            propertiesFile = new File(filename);
+            file = new File(filename + RegistryCacheFile.SUFFIX);
             if (!file.exists() && file.getParentFile() != null && !file.getParentFile().exists()) {
                 if (!file.getParentFile().mkdirs()) {
                     throw new IllegalArgumentException("Invalid registry store file " + file + ", cause: Failed to create directory " + file.getParentFile() + "!");
@@ -90,6 +95,7 @@ public abstract class AbstractRegistry implements Registry {
             }
         }
         this.file = file;
+        this.cacheFile = file == null ? null : new RegistryCacheFile(file, propertiesFile);
         loadProperties();
         notify(url.getBackupUrls());
     }
@@ -162,15 +168,7 @@ public abstract class AbstractRegistry implements Registry {
                     }
                     // Save
                     try {
-                        if (!file.exists()) {
-                            file.createNewFile();
-                        }
-                        FileOutputStream outputFile = new FileOutputStream(file);
-                        try {
-                            properties.store(outputFile, "Dubbo Registry Cache");
-                        } finally {
-                            outputFile.close();
-                        }
+                        saveChanges();
                     } finally {
                         lock.release();
                     }
@@ -190,43 +188,61 @@ public abstract class AbstractRegistry implements Registry {
         }
     }
 
+    /**
+     * Appends the services changed since the last save, or rewrites the whole file once it holds
+     * more superseded records than live ones. Must be called under the cache file lock.
+     */
+    private void saveChanges() throws IOException {
+        Map<String, String> changes = new HashMap<String, String>();
+        for (String key : changedKeys) {
+            changedKeys.remove(key);
+            changes.put(key, properties.getProperty(key));
+        }
+        try {
+            if (cacheFile.needsCompaction()) {
+                Map<String, String> entries = new HashMap<String, String>();
+                synchronized (properties) {
+                    for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+                        entries.put((String) entry.getKey(), (String) entry.getValue());
+                    }
+                }
+                cacheFile.compact(entries);
+            } else {
+                cacheFile.append(changes);
+            }
+        } catch (IOException e) {
+            changedKeys.addAll(changes.keySet());
+            throw e;
+        }
+    }
+
     private void loadProperties() {
-        if (file != null && file.exists()) {
-            InputStream in = null;
+        if (cacheFile != null) {
             try {
-                in = new FileInputStream(file);
-                properties.load(in);
+                properties.putAll(cacheFile.load());
                 if (logger.isInfoEnabled()) {
-                    logger.info("Load registry store file " + file + ", data: " + properties);
+                    logger.info("Load registry store file " + file + ", services: " + properties.size());
                 }
             } catch (Throwable e) {
                 logger.warn("Failed to load registry store file " + file, e);
-            } finally {
-                if (in != null) {
-                    try {
-                        in.close();
-                    } catch (IOException e) {
-                        logger.warn(e.getMessage(), e);
-                    }
-                }
             }
         }
     }
 
     public List<URL> getCacheUrls(URL url) {
-        for (Map.Entry<Object, Object> entry : properties.entrySet()) {
-            String key = (String) entry.getKey();
-            String value = (String) entry.getValue();
-            if (key != null && key.length() > 0 && key.equals(url.getServiceKey())
-                    && (Character.isLetter(key.charAt(0)) || key.charAt(0) == '_')
-                    && value != null && value.length() > 0) {
-                String[] arr = value.trim().split(URL_SPLIT);
-                List<URL> urls = new ArrayList<URL>();
-                for (String u : arr) {
-                    urls.add(URL.valueOf(u));
-                }
-                return urls;
+        String key = url.getServiceKey();
+        if (key == null || key.length() == 0
+                || !(Character.isLetter(key.charAt(0)) || key.charAt(0) == '_')) {
+            return null;
+        }
+        String value = properties.getProperty(key);
+        if (value != null && value.length() > 0) {
+            String[] arr = value.trim().split(URL_SPLIT);
+            List<URL> urls = new ArrayList<URL>();
+            for (String u : arr) {
+                urls.add(URL.valueOf(u));
             }
+            return urls;
         }
         return null;
     }
@@ -320,6 +336,7 @@ public abstract class AbstractRegistry implements Registry {
         if (listeners != null) {
             listeners.remove(listener);
         }
+        diffNotifier.remove(listener);
     }
 
     protected void recover() throws Exception {
@@ -411,7 +428,7 @@ public abstract class AbstractRegistry implements Registry {
             List<URL> categoryList = entry.getValue();
             categoryNotified.put(category, categoryList);
             saveProperties(url);
-            listener.notify(categoryList);
+            diffNotifier.notify(url, listener, categoryList);
         }
     }
 
@@ -434,6 +451,7 @@ public abstract class AbstractRegistry implements Registry {
                 }
             }
             properties.setProperty(url.getServiceKey(), buf.toString());
+            changedKeys.add(url.getServiceKey());
             long version = lastCacheChanged.incrementAndGet();
             if (syncSaveFile) {
                 doSaveProperties(version);
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.support;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.registry.NotifyListener;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry side of {@link NotifyListener#notify(String, long, List, List)}.
+ * <p>
+ * Takes the full lists a registry has to notify, and pushes to each listener subscribed with
+ * <code>notify.diff=true</code> only the urls added and removed since what it last pushed to it, with the revision
+ * of the category. The full list of a category is pushed on its first notification, when the listener asks for it,
+ * and after a push failed. The other listeners get the full lists through {@link NotifyListener#notify(List)}.
+ */
+public class DiffNotifier {
+
+    private final ConcurrentMap<NotifyListener, ConcurrentMap<String, CategoryState>> states = new ConcurrentHashMap<NotifyListener, ConcurrentMap<String, CategoryState>>();
+
+    /**
+     * @param subscribed the url the listener subscribed with
+     * @param urls       the full lists of the notified categories, with an empty protocol url for an empty category
+     */
+    public void notify(URL subscribed, NotifyListener listener, List<URL> urls) {
+        if (!subscribed.getParameter(Constants.REGISTRY_NOTIFY_DIFF_KEY, false)) {
+            listener.notify(urls);
+            return;
+        }
+        ConcurrentMap<String, CategoryState> categories = states.get(listener);
+        if (categories == null) {
+            states.putIfAbsent(listener, new ConcurrentHashMap<String, CategoryState>());
+            categories = states.get(listener);
+        }
+        Map<String, List<URL>> result = new LinkedHashMap<String, List<URL>>();
+        for (URL url : urls) {
+            String category = url.getParameter(Constants.CATEGORY_KEY, Constants.DEFAULT_CATEGORY);
+            List<URL> categoryList = result.get(category);
+            if (categoryList == null) {
+                categoryList = new ArrayList<URL>();
+                result.put(category, categoryList);
+            }
+            categoryList.add(url);
+        }
+        for (Map.Entry<String, List<URL>> entry : result.entrySet()) {
+            CategoryState state = categories.get(entry.getKey());
+            if (state == null) {
+                categories.putIfAbsent(entry.getKey(), new CategoryState());
+                state = categories.get(entry.getKey());
+            }
+            state.notify(listener, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Forgets what was pushed to the listener, once it unsubscribed or disconnected.
+     */
+    public void remove(NotifyListener listener) {
+        states.remove(listener);
+    }
+
+    private static class CategoryState {
+
+        private long revision;
+
+        // the urls last pushed, null until the full list was pushed
+        private Set<URL> urls;
+
+        synchronized void notify(NotifyListener listener, String category, List<URL> categoryList) {
+            Set<URL> current = new HashSet<URL>();
+            for (URL url : categoryList) {
+                if (!Constants.EMPTY_PROTOCOL.equals(url.getProtocol())) {
+                    current.add(url);
+                }
+            }
+            Set<URL> previous = urls;
+            urls = null;
+            if (previous != null) {
+                List<URL> added = new ArrayList<URL>();
+                for (URL url : current) {
+                    if (!previous.contains(url)) {
+                        added.add(url);
+                    }
+                }
+                List<URL> removed = new ArrayList<URL>();
+                for (URL url : previous) {
+                    if (!current.contains(url)) {
+                        removed.add(url);
+                    }
+                }
+                if (added.isEmpty() && removed.isEmpty()) {
+                    urls = previous;
+                    return;
+                }
+                if (listener.notify(category, ++revision, added, removed)) {
+                    urls = current;
+                    return;
+                }
+            }
+            // the full list of the category at the revision of the refused change, or at a new one
+            if (previous == null) {
+                revision++;
+            }
+            if (listener.notify(category, revision, categoryList, null)) {
+                urls = current;
+            } else {
+                // the listener does not take changes after all
+                listener.notify(categoryList);
+            }
+        }
+    }
+
+}
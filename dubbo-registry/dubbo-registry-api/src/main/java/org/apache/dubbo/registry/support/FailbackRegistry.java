@@ -21,8 +21,12 @@ import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.utils.ConcurrentHashSet;
 import org.apache.dubbo.common.utils.ExecutorUtil;
 import org.apache.dubbo.common.utils.NamedThreadFactory;
+import org.apache.dubbo.metrics.Counter;
+import org.apache.dubbo.metrics.MetricManager;
+import org.apache.dubbo.metrics.MetricName;
 import org.apache.dubbo.registry.NotifyListener;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -32,6 +36,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -63,9 +68,30 @@ public abstract class FailbackRegistry extends AbstractRegistry {
      */
     private final int retryPeriod;
 
+    // Quiet period and longest delay in milliseconds of the coalesced notifications, coalescing is off when 0
+    private final int notifyDelay;
+
+    private final int notifyMaxDelay;
+
+    // Delivers the coalesced notifications, null when coalescing is off
+    private final ScheduledExecutorService notifyExecutor;
+
+    private final ConcurrentMap<URL, ConcurrentMap<NotifyListener, PendingNotify>> pendingNotified = new ConcurrentHashMap<URL, ConcurrentMap<NotifyListener, PendingNotify>>();
+
+    private final Counter notifyReceived;
+
+    private final Counter notifyDelivered;
+
     public FailbackRegistry(URL url) {
         super(url);
         this.retryPeriod = url.getParameter(Constants.REGISTRY_RETRY_PERIOD_KEY, Constants.DEFAULT_REGISTRY_RETRY_PERIOD);
+        this.notifyDelay = Math.max(url.getParameter(Constants.REGISTRY_NOTIFY_DELAY_KEY, 0), 0);
+        this.notifyMaxDelay = Math.max(url.getParameter(Constants.REGISTRY_NOTIFY_MAX_DELAY_KEY, Constants.DEFAULT_REGISTRY_NOTIFY_MAX_DELAY), notifyDelay);
+        this.notifyExecutor = notifyDelay > 0 ? Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("DubboRegistryNotifyTimer", true)) : null;
+        this.notifyReceived = MetricManager.getCounter("dubbo", new MetricName("dubbo.consumer.registry.notify.received")
+                .tag("registry", url.getAddress()));
+        this.notifyDelivered = MetricManager.getCounter("dubbo", new MetricName("dubbo.consumer.registry.notify.delivered")
+                .tag("registry", url.getAddress()));
         this.retryFuture = retryExecutor.scheduleWithFixedDelay(new Runnable() {
             @Override
             public void run() {
@@ -127,6 +153,13 @@ public abstract class FailbackRegistry extends AbstractRegistry {
         }
     }
 
+    private void removePendingNotified(URL url, NotifyListener listener) {
+        Map<NotifyListener, PendingNotify> pending = pendingNotified.get(url);
+        if (pending != null) {
+            pending.remove(listener);
+        }
+    }
+
     @Override
     public void register(URL url) {
         super.register(url);
@@ -225,6 +258,7 @@ public abstract class FailbackRegistry extends AbstractRegistry {
     public void unsubscribe(URL url, NotifyListener listener) {
         super.unsubscribe(url, listener);
         removeFailedSubscribed(url, listener);
+        removePendingNotified(url, listener);
         try {
             // Sending a canceling subscription request to the server side
             doUnsubscribe(url, listener);
@@ -262,8 +296,28 @@ public abstract class FailbackRegistry extends AbstractRegistry {
         if (listener == null) {
             throw new IllegalArgumentException("notify listener == null");
         }
+        notifyReceived.inc();
+        if (notifyExecutor != null) {
+            ConcurrentMap<NotifyListener, PendingNotify> pending = pendingNotified.get(url);
+            if (pending == null) {
+                pendingNotified.putIfAbsent(url, new ConcurrentHashMap<NotifyListener, PendingNotify>());
+                pending = pendingNotified.get(url);
+            }
+            PendingNotify pendingNotify = pending.get(listener);
+            if (pendingNotify != null) {
+                pendingNotify.add(urls);
+                return;
+            }
+            // The first notification of a subscription is delivered at once, subscribe relies on it
+            pending.putIfAbsent(listener, new PendingNotify(url, listener));
+        }
+        deliver(url, listener, urls);
+    }
+
+    private void deliver(URL url, NotifyListener listener, List<URL> urls) {
         try {
             doNotify(url, listener, urls);
+            notifyDelivered.inc();
         } catch (Exception t) {
             // Record a failed registration request to a failed list, retry regularly
             Map<NotifyListener, List<URL>> listeners = failedNotified.get(url);
@@ -447,6 +501,9 @@ public abstract class FailbackRegistry extends AbstractRegistry {
             logger.warn(t.getMessage(), t);
         }
         ExecutorUtil.gracefulShutdown(retryExecutor, retryPeriod);
+        if (notifyExecutor != null) {
+            ExecutorUtil.gracefulShutdown(notifyExecutor, notifyDelay);
+        }
     }
 
     // ==== Template method ====
@@ -459,4 +516,82 @@ public abstract class FailbackRegistry extends AbstractRegistry {
 
     protected abstract void doUnsubscribe(URL url, NotifyListener listener);
 
+    /**
+     * Notifications of a subscription not delivered yet. Each notification carries the whole state of its
+     * categories, so only the latest urls of each category are kept, and they are delivered together once
+     * no notification came for the quiet period, or once the first of them waited for the longest delay.
+     * The listeners taking changes get a single change against what was last delivered to them, as it is
+     * computed on delivery.
+     */
+    private class PendingNotify implements Runnable {
+
+        private final URL url;
+
+        private final NotifyListener listener;
+
+        private Map<String, List<URL>> categories = new HashMap<String, List<URL>>();
+
+        private long first;
+
+        private long last;
+
+        private boolean scheduled;
+
+        PendingNotify(URL url, NotifyListener listener) {
+            this.url = url;
+            this.listener = listener;
+        }
+
+        synchronized void add(List<URL> urls) {
+            Map<String, List<URL>> result = new HashMap<String, List<URL>>();
+            for (URL u : urls) {
+                String category = u.getParameter(Constants.CATEGORY_KEY, Constants.DEFAULT_CATEGORY);
+                List<URL> categoryList = result.get(category);
+                if (categoryList == null) {
+                    categoryList = new ArrayList<URL>();
+                    result.put(category, categoryList);
+                }
+                categoryList.add(u);
+            }
+            categories.putAll(result);
+            last = System.currentTimeMillis();
+            if (!scheduled) {
+                first = last;
+                scheduled = schedule(notifyDelay);
+            }
+        }
+
+        private boolean schedule(long delay) {
+            try {
+                notifyExecutor.schedule(this, delay, TimeUnit.MILLISECONDS);
+                return true;
+            } catch (RejectedExecutionException e) {
+                logger.warn("Failed to schedule notify for subscribe " + url + ", cause: registry destroyed");
+                return false;
+            }
+        }
+
+        @Override
+        public void run() {
+            List<URL> urls = new ArrayList<URL>();
+            synchronized (this) {
+                long due = Math.min(last + notifyDelay, first + notifyMaxDelay);
+                long now = System.currentTimeMillis();
+                if (now < due) {
+                    scheduled = schedule(due - now);
+                    return;
+                }
+                for (List<URL> categoryList : categories.values()) {
+                    urls.addAll(categoryList);
+                }
+                categories = new HashMap<String, List<URL>>();
+                scheduled = false;
+            }
+            Map<NotifyListener, PendingNotify> pending = pendingNotified.get(url);
+            if (pending != null && pending.get(listener) == this && !urls.isEmpty()) {
+                deliver(url, listener, urls);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,311 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.support;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+/**
+ * Binary, append-only store behind the registry cache file.
+ * <p>
+ * The file starts with a magic number and a format version, followed by one record per change:
+ * <pre>
+ * | length (4) | crc32 (4) | type (1) | key length (4) | key | value length (4) | value |
+ * </pre>
+ * A record either puts the provider list of a service key or removes it, and the last record of a key wins.
+ * Saving a notify only appends the services that changed, and the file is rewritten from the live entries
+ * once the records that have been superseded take more room than the live ones. A torn or corrupt tail
+ * is ignored on load and dropped by the next rewrite, as is a tail the file got from a failed append or from
+ * another process.
+ * <p>
+ * The file is not the former properties cache file, which older versions on the same host may still read and
+ * write. When there is no file yet, the properties file is imported once and written in this format on the
+ * next save.
+ * <p>
+ * Not thread safe: the registry calls it under the cache file lock.
+ */
+public class RegistryCacheFile {
+
+    /**
+     * Appended to the name of the former properties cache file
+     */
+    public static final String SUFFIX = ".bin";
+
+    private static final int MAGIC = 0x44524346;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_LENGTH = 8;
+
+    // record length and crc
+    private static final int RECORD_OVERHEAD = 8;
+
+    private static final byte PUT = 1;
+
+    private static final byte REMOVE = 2;
+
+    // files smaller than this are never rewritten just to drop superseded records
+    private static final long MIN_COMPACT_LENGTH = 64 * 1024;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File file;
+
+    // the former properties cache file, imported when there is no file yet
+    private final File propertiesFile;
+
+    // size on disk of the latest record of every live key
+    private final Map<String, Integer> recordLengths = new HashMap<String, Integer>();
+
+    private long liveLength;
+
+    private long fileLength;
+
+    // the file is not in this format, or ends with a broken record
+    private boolean rewrite;
+
+    public RegistryCacheFile(File file) {
+        this(file, null);
+    }
+
+    public RegistryCacheFile(File file, File propertiesFile) {
+        this.file = file;
+        this.propertiesFile = propertiesFile;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Reads all the entries of the file, or of the properties file if there is no file yet.
+     */
+    public Map<String, String> load() throws IOException {
+        Map<String, String> entries = new HashMap<String, String>();
+        recordLengths.clear();
+        liveLength = 0;
+        fileLength = file.length();
+        rewrite = false;
+        if (!file.exists() || fileLength == 0) {
+            if (propertiesFile != null && propertiesFile.exists()) {
+                loadProperties(entries);
+                rewrite = true;
+            }
+            return entries;
+        }
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+        try {
+            if (fileLength < HEADER_LENGTH || in.readInt() != MAGIC) {
+                rewrite = true;
+                throw new IOException("Invalid registry cache file " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                rewrite = true;
+                throw new IOException("Unsupported registry cache file version " + version + " of " + file);
+            }
+            long position = HEADER_LENGTH;
+            CRC32 crc = new CRC32();
+            while (position < fileLength) {
+                if (fileLength - position < RECORD_OVERHEAD) {
+                    rewrite = true;
+                    break;
+                }
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length <= 0 || length > fileLength - position - RECORD_OVERHEAD) {
+                    rewrite = true;
+                    break;
+                }
+                byte[] body = new byte[length];
+                in.readFully(body);
+                crc.reset();
+                crc.update(body, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    rewrite = true;
+                    break;
+                }
+                position += RECORD_OVERHEAD + length;
+                apply(entries, ByteBuffer.wrap(body), RECORD_OVERHEAD + length);
+            }
+        } catch (EOFException e) {
+            rewrite = true;
+        } finally {
+            in.close();
+        }
+        return entries;
+    }
+
+    private void loadProperties(Map<String, String> entries) throws IOException {
+        Properties properties = new Properties();
+        InputStream in = new FileInputStream(propertiesFile);
+        try {
+            properties.load(in);
+        } finally {
+            in.close();
+        }
+        for (String key : properties.stringPropertyNames()) {
+            entries.put(key, properties.getProperty(key));
+        }
+    }
+
+    private void apply(Map<String, String> entries, ByteBuffer body, int recordLength) throws IOException {
+        byte type = body.get();
+        String key = readString(body);
+        if (type == PUT) {
+            entries.put(key, readString(body));
+            track(key, recordLength);
+        } else if (type == REMOVE) {
+            entries.remove(key);
+            track(key, 0);
+        } else {
+            throw new IOException("Unknown record type " + type + " in registry cache file " + file);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Invalid string length " + length);
+        }
+        String value = new String(buffer.array(), buffer.position(), length, UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private void track(String key, int recordLength) {
+        Integer previous = recordLength > 0 ? recordLengths.put(key, recordLength) : recordLengths.remove(key);
+        if (previous != null) {
+            liveLength -= previous;
+        }
+        liveLength += recordLength;
+    }
+
+    /**
+     * Whether the file should be rewritten by {@link #compact(Map)} rather than appended to.
+     */
+    public boolean needsCompaction() {
+        if (rewrite || file.length() != fileLength) {
+            return true;
+        }
+        return fileLength > MIN_COMPACT_LENGTH && fileLength - HEADER_LENGTH - liveLength > liveLength;
+    }
+
+    /**
+     * Appends the changed entries, a <code>null</code> value removes the key.
+     */
+    public void append(Map<String, String> changes) throws IOException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (rewrite || file.length() != fileLength) {
+            rewrite = true;
+            throw new IOException("Registry cache file " + file + " must be compacted before appending");
+        }
+        boolean appended = false;
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true), 64 * 1024));
+            try {
+                if (fileLength == 0) {
+                    writeHeader(out);
+                }
+                for (Map.Entry<String, String> entry : changes.entrySet()) {
+                    track(entry.getKey(), writeRecord(out, entry.getKey(), entry.getValue()));
+                }
+            } finally {
+                out.close();
+            }
+            appended = true;
+        } finally {
+            // a partial record would hide all the records appended after it
+            if (!appended) {
+                rewrite = true;
+            }
+        }
+        fileLength = file.length();
+    }
+
+    /**
+     * Rewrites the file with the given entries only, replacing it atomically where the file system allows.
+     */
+    public void compact(Map<String, String> entries) throws IOException {
+        File temp = new File(file.getAbsolutePath() + ".tmp");
+        recordLengths.clear();
+        liveLength = 0;
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 64 * 1024));
+        try {
+            writeHeader(out);
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                if (entry.getValue() != null) {
+                    track(entry.getKey(), writeRecord(out, entry.getKey(), entry.getValue()));
+                }
+            }
+        } finally {
+            out.close();
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        fileLength = file.length();
+        rewrite = false;
+    }
+
+    private static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    /**
+     * @return the length of the record, 0 for a removal
+     */
+    private static int writeRecord(DataOutputStream out, String key, String value) throws IOException {
+        byte[] keyBytes = key.getBytes(UTF_8);
+        byte[] valueBytes = value == null ? null : value.getBytes(UTF_8);
+        ByteBuffer body = ByteBuffer.allocate(1 + 4 + keyBytes.length + (valueBytes == null ? 0 : 4 + valueBytes.length));
+        body.put(valueBytes == null ? REMOVE : PUT);
+        body.putInt(keyBytes.length).put(keyBytes);
+        if (valueBytes != null) {
+            body.putInt(valueBytes.length).put(valueBytes);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(body.array(), 0, body.capacity());
+        out.writeInt(body.capacity());
+        out.writeInt((int) crc.getValue());
+        out.write(body.array());
+        return valueBytes == null ? 0 : RECORD_OVERHEAD + body.capacity();
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.support;
+
+import org.apache.dubbo.common.URL;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shares the URLs parsed from registry notifications.
+ * <p>
+ * A registry usually pushes the whole provider list of a service when only one provider changed. The parsed
+ * URL of every provider string is cached, so that only the changed providers are parsed again and the others
+ * keep the same instance. The strings inside a parsed URL are pooled too: the providers of a service share
+ * most of their parameters, such as interface, methods, application and version, and keep one copy of each.
+ * <p>
+ * Both caches are bounded: an entry not used since the last two times the cache filled up is dropped.
+ */
+public class UrlInterner {
+
+    private static final int DEFAULT_URL_CAPACITY = 16 * 1024;
+
+    private static final int DEFAULT_STRING_CAPACITY = 64 * 1024;
+
+    private static final UrlInterner INSTANCE = new UrlInterner(DEFAULT_URL_CAPACITY, DEFAULT_STRING_CAPACITY);
+
+    private final Pool<URL> urls;
+
+    private final Pool<String> strings;
+
+    UrlInterner(int urlCapacity, int stringCapacity) {
+        this.urls = new Pool<URL>(urlCapacity);
+        this.strings = new Pool<String>(stringCapacity);
+    }
+
+    /**
+     * The interner shared by all registries.
+     */
+    public static UrlInterner getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Same as {@link URL#valueOf(String)}, returning the same instance for the same string.
+     */
+    public URL valueOf(String url) {
+        URL result = urls.get(url);
+        if (result == null) {
+            result = intern(URL.valueOf(url));
+            urls.put(url, result);
+        }
+        return result;
+    }
+
+    /**
+     * Parses an URL encoded with {@link URL#encode(String)}, returning the same instance for the same string.
+     *
+     * @return the URL, or <code>null</code> if the decoded string is not an URL
+     */
+    public URL decode(String encoded) {
+        URL result = urls.get(encoded);
+        if (result == null) {
+            String url = URL.decode(encoded);
+            if (!url.contains("://")) {
+                return null;
+            }
+            result = intern(URL.valueOf(url));
+            urls.put(encoded, result);
+        }
+        return result;
+    }
+
+    private URL intern(URL url) {
+        Map<String, String> parameters = new HashMap<String, String>((int) (url.getParameters().size() / 0.75f) + 1);
+        for (Map.Entry<String, String> entry : url.getParameters().entrySet()) {
+            parameters.put(intern(entry.getKey()), intern(entry.getValue()));
+        }
+        return new URL(intern(url.getProtocol()), url.getUsername(), url.getPassword(), intern(url.getHost()),
+                url.getPort(), intern(url.getPath()), parameters);
+    }
+
+    private String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String result = strings.get(value);
+        if (result == null) {
+            result = value;
+            strings.put(value, value);
+        }
+        return result;
+    }
+
+    /**
+     * Keeps up to two generations of entries: when the current one is full it becomes the previous one,
+     * and an entry found in the previous generation is moved back to the current one.
+     */
+    private static class Pool<T> {
+
+        private final int capacity;
+
+        private volatile ConcurrentMap<String, T> current = new ConcurrentHashMap<String, T>();
+
+        private volatile ConcurrentMap<String, T> previous = new ConcurrentHashMap<String, T>();
+
+        Pool(int capacity) {
+            this.capacity = capacity;
+        }
+
+        T get(String key) {
+            T value = current.get(key);
+            if (value == null) {
+                value = previous.get(key);
+                if (value != null) {
+                    put(key, value);
+                }
+            }
+            return value;
+        }
+
+        void put(String key, T value) {
+            ConcurrentMap<String, T> map = current;
+            if (map.size() >= capacity) {
+                synchronized (this) {
+                    if (current == map) {
+                        previous = map;
+                        current = new ConcurrentHashMap<String, T>();
+                    }
+                    map = current;
+                }
+            }
+            map.put(key, value);
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.support;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.registry.NotifyListener;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DiffNotifierTest {
+
+    private static final URL SUBSCRIBED = URL.valueOf("consumer://10.20.0.9/DemoService?category=providers");
+
+    private static final URL PROVIDER1 = URL.valueOf("dubbo://10.20.0.1:20880/DemoService");
+
+    private static final URL PROVIDER2 = URL.valueOf("dubbo://10.20.0.2:20880/DemoService");
+
+    private static final URL PROVIDER3 = URL.valueOf("dubbo://10.20.0.3:20880/DemoService");
+
+    @Test
+    public void testFullListWithoutDiff() {
+        RecordingListener listener = new RecordingListener(true);
+        new DiffNotifier().notify(SUBSCRIBED, listener, Arrays.asList(PROVIDER1));
+        assertEquals(Collections.singletonList(Arrays.asList(PROVIDER1)), listener.lists);
+        assertEquals(0, listener.revisions.size());
+    }
+
+    @Test
+    public void testDiff() {
+        DiffNotifier notifier = new DiffNotifier();
+        URL subscribed = SUBSCRIBED.addParameter(Constants.REGISTRY_NOTIFY_DIFF_KEY, true);
+        RecordingListener listener = new RecordingListener(true);
+
+        notifier.notify(subscribed, listener, Arrays.asList(PROVIDER1, PROVIDER2));
+        assertEquals(Long.valueOf(1), listener.revisions.get(0));
+        assertEquals(Arrays.asList(PROVIDER1, PROVIDER2), listener.added.get(0));
+        assertNull(listener.removed.get(0));
+
+        notifier.notify(subscribed, listener, Arrays.asList(PROVIDER2, PROVIDER3));
+        assertEquals(Long.valueOf(2), listener.revisions.get(1));
+        assertEquals(Arrays.asList(PROVIDER3), listener.added.get(1));
+        assertEquals(Arrays.asList(PROVIDER1), listener.removed.get(1));
+
+        // unchanged, nothing pushed
+        notifier.notify(subscribed, listener, Arrays.asList(PROVIDER3, PROVIDER2));
+        assertEquals(2, listener.revisions.size());
+        assertEquals(0, listener.lists.size());
+    }
+
+    @Test
+    public void testRejectedDiff() {
+        DiffNotifier notifier = new DiffNotifier();
+        URL subscribed = SUBSCRIBED.addParameter(Constants.REGISTRY_NOTIFY_DIFF_KEY, true);
+        RecordingListener listener = new RecordingListener(false);
+
+        notifier.notify(subscribed, listener, Arrays.asList(PROVIDER1));
+        notifier.notify(subscribed, listener, Arrays.asList(PROVIDER1, PROVIDER2));
+        // the change is refused, the full list follows with the same revision
+        assertEquals(Arrays.asList(1L, 2L, 2L), listener.revisions);
+        assertEquals(Arrays.asList(PROVIDER2), listener.added.get(1));
+        assertEquals(Arrays.asList(PROVIDER1, PROVIDER2), listener.added.get(2));
+        assertNull(listener.removed.get(2));
+    }
+
+    @Test
+    public void testListenerWithoutDiff() {
+        final List<List<URL>> lists = new ArrayList<List<URL>>();
+        NotifyListener listener = new NotifyListener() {
+            @Override
+            public void notify(List<URL> urls) {
+                lists.add(urls);
+            }
+        };
+        DiffNotifier notifier = new DiffNotifier();
+        URL subscribed = SUBSCRIBED.addParameter(Constants.REGISTRY_NOTIFY_DIFF_KEY, true);
+        notifier.notify(subscribed, listener, Arrays.asList(PROVIDER1));
+        notifier.notify(subscribed, listener, Arrays.asList(PROVIDER1, PROVIDER2));
+        assertEquals(Arrays.asList(Arrays.asList(PROVIDER1), Arrays.asList(PROVIDER1, PROVIDER2)), lists);
+    }
+
+    private static class RecordingListener implements NotifyListener {
+
+        private final boolean acceptDiff;
+
+        private final List<List<URL>> lists = new ArrayList<List<URL>>();
+
+        private final List<Long> revisions = new ArrayList<Long>();
+
+        private final List<List<URL>> added = new ArrayList<List<URL>>();
+
+        private final List<List<URL>> removed = new ArrayList<List<URL>>();
+
+        RecordingListener(boolean acceptDiff) {
+            this.acceptDiff = acceptDiff;
+        }
+
+        @Override
+        public void notify(List<URL> urls) {
+            lists.add(urls);
+        }
+
+        @Override
+        public boolean notify(String category, long revision, List<URL> added, List<URL> removed) {
+            assertEquals(Constants.PROVIDERS_CATEGORY, category);
+            this.revisions.add(revision);
+            this.added.add(added);
+            this.removed.add(removed);
+            return removed == null || acceptDiff;
+        }
+    }
+}
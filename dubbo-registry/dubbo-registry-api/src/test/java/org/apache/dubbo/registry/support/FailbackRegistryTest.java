@@ -24,13 +24,17 @@ import org.apache.dubbo.registry.NotifyListener;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class FailbackRegistryTest {
     static String service;
@@ -180,6 +184,133 @@ public class FailbackRegistryTest {
         assertEquals(2, count.get());
     }
 
+    @Test
+    public void testNotifyCoalesced() throws Exception {
+        final AtomicInteger count = new AtomicInteger(0);
+        final AtomicReference<List<URL>> last = new AtomicReference<List<URL>>();
+        NotifyListener listener = new NotifyListener() {
+            @Override
+            public void notify(List<URL> urls) {
+                count.incrementAndGet();
+                last.set(urls);
+            }
+        };
+        registry = new MockRegistry(registryUrl.addParameter(Constants.REGISTRY_NOTIFY_DELAY_KEY, 100), new CountDownLatch(0));
+        URL consumerUrl = serviceUrl.setProtocol(Constants.CONSUMER_PROTOCOL).addParameter("check", "false");
+        registry.subscribe(consumerUrl, listener);
+        // the notification on subscribe is not delayed
+        assertEquals(1, count.get());
+
+        for (int i = 0; i < 10; i++) {
+            registry.notify(consumerUrl, listener, Arrays.asList(serviceUrl.addParameter("timestamp", i)));
+        }
+        assertEquals(1, count.get());
+        for (int i = 0; i < trytimes * 2 && count.get() < 2; i++) {
+            Thread.sleep(sleeptime);
+        }
+        Thread.sleep(sleeptime);
+        assertEquals(2, count.get());
+        assertEquals(Arrays.asList(serviceUrl.addParameter("timestamp", 9)), last.get());
+    }
+
+    @Test
+    public void testNotifyMaxDelay() throws Exception {
+        final AtomicInteger count = new AtomicInteger(0);
+        NotifyListener listener = new NotifyListener() {
+            @Override
+            public void notify(List<URL> urls) {
+                count.incrementAndGet();
+            }
+        };
+        registry = new MockRegistry(registryUrl.addParameter(Constants.REGISTRY_NOTIFY_DELAY_KEY, 100)
+                .addParameter(Constants.REGISTRY_NOTIFY_MAX_DELAY_KEY, 200), new CountDownLatch(0));
+        URL consumerUrl = serviceUrl.setProtocol(Constants.CONSUMER_PROTOCOL).addParameter("check", "false");
+        registry.subscribe(consumerUrl, listener);
+
+        // never quiet for 100ms, still delivered about every 200ms instead of 50 times
+        for (int i = 0; i < 50; i++) {
+            registry.notify(consumerUrl, listener, Arrays.asList(serviceUrl.addParameter("timestamp", i)));
+            Thread.sleep(20);
+        }
+        assertTrue(count.get() >= 3);
+        assertTrue(count.get() <= 20);
+    }
+
+    @Test
+    public void testNotifyDiff() throws Exception {
+        DiffListener listener = new DiffListener();
+        registry = new MockRegistry(registryUrl, new CountDownLatch(0));
+        URL consumerUrl = serviceUrl.setProtocol(Constants.CONSUMER_PROTOCOL).addParameter("check", "false")
+                .addParameter(Constants.REGISTRY_NOTIFY_DIFF_KEY, true);
+        registry.subscribe(consumerUrl, listener);
+        assertEquals(1, listener.changes.size());
+        assertEquals(Arrays.asList(serviceUrl), listener.changes.get(0).added);
+        assertNull(listener.changes.get(0).removed);
+
+        URL provider = serviceUrl.setPort(20881);
+        registry.notify(consumerUrl, listener, Arrays.asList(serviceUrl, provider));
+        assertEquals(2, listener.changes.size());
+        assertEquals(2, listener.changes.get(1).revision);
+        assertEquals(Arrays.asList(provider), listener.changes.get(1).added);
+        assertTrue(listener.changes.get(1).removed.isEmpty());
+        // the full list is still kept for the cache
+        assertEquals(Arrays.asList(serviceUrl, provider), registry.getNotified().get(consumerUrl).get(Constants.PROVIDERS_CATEGORY));
+        assertEquals(0, listener.full.get());
+    }
+
+    @Test
+    public void testNotifyDiffCoalesced() throws Exception {
+        DiffListener listener = new DiffListener();
+        registry = new MockRegistry(registryUrl.addParameter(Constants.REGISTRY_NOTIFY_DELAY_KEY, 100), new CountDownLatch(0));
+        URL consumerUrl = serviceUrl.setProtocol(Constants.CONSUMER_PROTOCOL).addParameter("check", "false")
+                .addParameter(Constants.REGISTRY_NOTIFY_DIFF_KEY, true);
+        registry.subscribe(consumerUrl, listener);
+        assertEquals(1, listener.changes.size());
+
+        URL provider1 = serviceUrl.setPort(20881);
+        URL provider2 = serviceUrl.setPort(20882);
+        registry.notify(consumerUrl, listener, Arrays.asList(serviceUrl, provider1));
+        registry.notify(consumerUrl, listener, Arrays.asList(serviceUrl, provider1, provider2));
+        registry.notify(consumerUrl, listener, Arrays.asList(provider1, provider2));
+        for (int i = 0; i < trytimes * 2 && listener.changes.size() < 2; i++) {
+            Thread.sleep(sleeptime);
+        }
+        Thread.sleep(sleeptime);
+        // a single change against the list delivered on subscribe, none of the intermediate ones is lost
+        assertEquals(2, listener.changes.size());
+        Change change = listener.changes.get(1);
+        assertEquals(2, change.revision);
+        assertEquals(new HashSet<URL>(Arrays.asList(provider1, provider2)), new HashSet<URL>(change.added));
+        assertEquals(Arrays.asList(serviceUrl), change.removed);
+    }
+
+    private static class Change {
+        final long revision;
+        final List<URL> added;
+        final List<URL> removed;
+
+        Change(long revision, List<URL> added, List<URL> removed) {
+            this.revision = revision;
+            this.added = added;
+            this.removed = removed;
+        }
+    }
+
+    private static class DiffListener implements NotifyListener {
+        final List<Change> changes = new ArrayList<Change>();
+        final AtomicInteger full = new AtomicInteger();
+
+        @Override
+        public void notify(List<URL> urls) {
+            full.incrementAndGet();
+        }
+
+        @Override
+        public synchronized boolean notify(String category, long revision, List<URL> added, List<URL> removed) {
+            changes.add(new Change(revision, added, removed));
+            return true;
+        }
+    }
 
     private static class MockRegistry extends FailbackRegistry {
         CountDownLatch latch;
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.support;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RegistryCacheFileTest {
+
+    private File file;
+
+    private File propertiesFile;
+
+    @Before
+    public void setUp() throws Exception {
+        propertiesFile = File.createTempFile("dubbo-registry", ".cache");
+        propertiesFile.delete();
+        file = new File(propertiesFile.getPath() + RegistryCacheFile.SUFFIX);
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        propertiesFile.delete();
+    }
+
+    @Test
+    public void testAppendAndLoad() throws Exception {
+        RegistryCacheFile cacheFile = new RegistryCacheFile(file);
+        assertTrue(cacheFile.load().isEmpty());
+
+        Map<String, String> changes = new HashMap<String, String>();
+        changes.put("demo/DemoService:1.0.0", "dubbo://10.20.0.1:20880/DemoService");
+        changes.put("HelloService", "dubbo://10.20.0.2:20880/HelloService");
+        cacheFile.append(changes);
+        long length = file.length();
+
+        changes.clear();
+        changes.put("demo/DemoService:1.0.0", "dubbo://10.20.0.1:20880/DemoService dubbo://10.20.0.3:20880/DemoService");
+        changes.put("HelloService", null);
+        cacheFile.append(changes);
+        assertTrue(file.length() > length);
+
+        Map<String, String> entries = new RegistryCacheFile(file).load();
+        assertEquals(1, entries.size());
+        assertEquals("dubbo://10.20.0.1:20880/DemoService dubbo://10.20.0.3:20880/DemoService", entries.get("demo/DemoService:1.0.0"));
+    }
+
+    @Test
+    public void testImportPropertiesFile() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("DemoService", "dubbo://10.20.0.1:20880/DemoService");
+        FileOutputStream out = new FileOutputStream(propertiesFile);
+        try {
+            properties.store(out, "Dubbo Registry Cache");
+        } finally {
+            out.close();
+        }
+        long propertiesLength = propertiesFile.length();
+
+        RegistryCacheFile cacheFile = new RegistryCacheFile(file, propertiesFile);
+        Map<String, String> entries = cacheFile.load();
+        assertEquals("dubbo://10.20.0.1:20880/DemoService", entries.get("DemoService"));
+        assertTrue(cacheFile.needsCompaction());
+
+        cacheFile.compact(entries);
+        assertFalse(cacheFile.needsCompaction());
+        assertEquals(entries, new RegistryCacheFile(file).load());
+        // left as is for older versions
+        assertEquals(propertiesLength, propertiesFile.length());
+
+        // imported only once
+        cacheFile.append(Collections.singletonMap("DemoService", (String) null));
+        assertTrue(new RegistryCacheFile(file, propertiesFile).load().isEmpty());
+    }
+
+    @Test
+    public void testInvalidFile() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("DemoService", "dubbo://10.20.0.1:20880/DemoService");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            properties.store(out, "Dubbo Registry Cache");
+        } finally {
+            out.close();
+        }
+
+        RegistryCacheFile cacheFile = new RegistryCacheFile(file);
+        try {
+            cacheFile.load();
+            fail();
+        } catch (IOException expected) {
+        }
+        assertTrue(cacheFile.needsCompaction());
+    }
+
+    @Test
+    public void testForeignTailCompacted() throws Exception {
+        RegistryCacheFile cacheFile = new RegistryCacheFile(file);
+        cacheFile.load();
+        cacheFile.append(Collections.singletonMap("DemoService", "dubbo://10.20.0.1:20880/DemoService"));
+        assertFalse(cacheFile.needsCompaction());
+        // a partial record left by a failed write, or by another process
+        FileOutputStream out = new FileOutputStream(file, true);
+        try {
+            out.write(new byte[]{0, 0, 1});
+        } finally {
+            out.close();
+        }
+
+        assertTrue(cacheFile.needsCompaction());
+        try {
+            cacheFile.append(Collections.singletonMap("HelloService", "dubbo://10.20.0.2:20880/HelloService"));
+            fail();
+        } catch (IOException expected) {
+        }
+        Map<String, String> entries = new HashMap<String, String>();
+        entries.put("DemoService", "dubbo://10.20.0.1:20880/DemoService");
+        entries.put("HelloService", "dubbo://10.20.0.2:20880/HelloService");
+        cacheFile.compact(entries);
+        cacheFile.append(Collections.singletonMap("DemoService", (String) null));
+        assertEquals(Collections.singletonMap("HelloService", "dubbo://10.20.0.2:20880/HelloService"), new RegistryCacheFile(file).load());
+    }
+
+    @Test
+    public void testTornRecordIgnored() throws Exception {
+        RegistryCacheFile cacheFile = new RegistryCacheFile(file);
+        cacheFile.append(Collections.singletonMap("DemoService", "dubbo://10.20.0.1:20880/DemoService"));
+        cacheFile.append(Collections.singletonMap("HelloService", "dubbo://10.20.0.2:20880/HelloService"));
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(raf.length() - 3);
+        } finally {
+            raf.close();
+        }
+
+        cacheFile = new RegistryCacheFile(file);
+        Map<String, String> entries = cacheFile.load();
+        assertEquals(Collections.singletonMap("DemoService", "dubbo://10.20.0.1:20880/DemoService"), entries);
+        assertTrue(cacheFile.needsCompaction());
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            value.append("dubbo://10.20.0.").append(i).append(":20880/DemoService ");
+        }
+        RegistryCacheFile cacheFile = new RegistryCacheFile(file);
+        int i = 0;
+        while (!cacheFile.needsCompaction()) {
+            cacheFile.append(Collections.singletonMap("DemoService", value.toString() + i++));
+        }
+        assertTrue(file.length() > 64 * 1024);
+
+        Map<String, String> entries = new RegistryCacheFile(file).load();
+        assertEquals(value.toString() + (i - 1), entries.get("DemoService"));
+        cacheFile.compact(entries);
+        assertTrue(file.length() < 4 * 1024);
+        assertFalse(cacheFile.needsCompaction());
+        assertEquals(entries, new RegistryCacheFile(file).load());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.support;
+
+import org.apache.dubbo.common.URL;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class UrlInternerTest {
+
+    private static final String PROVIDER1 = "dubbo://10.20.0.1:20880/org.apache.dubbo.demo.DemoService?application=demo&interface=org.apache.dubbo.demo.DemoService&methods=sayHello,sayGoodbye&timestamp=1";
+
+    private static final String PROVIDER2 = "dubbo://10.20.0.2:20880/org.apache.dubbo.demo.DemoService?application=demo&interface=org.apache.dubbo.demo.DemoService&methods=sayHello,sayGoodbye&timestamp=2";
+
+    @Test
+    public void testValueOf() {
+        UrlInterner interner = new UrlInterner(16, 64);
+        URL url = interner.valueOf(PROVIDER1);
+        assertEquals(URL.valueOf(PROVIDER1), url);
+        assertSame(url, interner.valueOf(PROVIDER1));
+        assertSame(url, interner.valueOf(new String(PROVIDER1)));
+    }
+
+    @Test
+    public void testDecode() {
+        UrlInterner interner = new UrlInterner(16, 64);
+        String encoded = URL.encode(PROVIDER1);
+        URL url = interner.decode(encoded);
+        assertEquals(URL.valueOf(PROVIDER1), url);
+        assertSame(url, interner.decode(encoded));
+        assertNull(interner.decode("org.apache.dubbo.demo.DemoService"));
+    }
+
+    @Test
+    public void testSharedParameters() {
+        UrlInterner interner = new UrlInterner(16, 64);
+        URL url1 = interner.valueOf(PROVIDER1);
+        URL url2 = interner.valueOf(PROVIDER2);
+        assertSame(url1.getPath(), url2.getPath());
+        assertSame(url1.getParameter("methods"), url2.getParameter("methods"));
+        assertSame(url1.getParameter("interface"), url2.getParameter("interface"));
+        assertEquals("1", url1.getParameter("timestamp"));
+        assertEquals("2", url2.getParameter("timestamp"));
+    }
+
+    @Test
+    public void testBounded() {
+        UrlInterner interner = new UrlInterner(2, 64);
+        URL url = interner.valueOf("dubbo://10.20.0.1:20880/DemoService");
+        interner.valueOf("dubbo://10.20.0.2:20880/DemoService");
+        interner.valueOf("dubbo://10.20.0.3:20880/DemoService");
+        // still in the previous generation
+        assertSame(url, interner.valueOf("dubbo://10.20.0.1:20880/DemoService"));
+        for (int i = 4; i < 10; i++) {
+            interner.valueOf("dubbo://10.20.0." + i + ":20880/DemoService");
+        }
+        assertNotSame(url, interner.valueOf("dubbo://10.20.0.1:20880/DemoService"));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.dubbo;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.utils.NetUtils;
+import org.apache.dubbo.registry.NotifyListener;
+import org.apache.dubbo.registry.Registry;
+import org.apache.dubbo.registry.RegistryFactory;
+import org.apache.dubbo.registry.RegistryService;
+import org.apache.dubbo.rpc.Exporter;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class DubboRegistryTest {
+
+    private Exporter<RegistryService> exporter;
+
+    private Registry registry;
+
+    @Before
+    public void setUp() {
+        int port = NetUtils.getAvailablePort();
+        exporter = SimpleRegistryExporter.export(port);
+        registry = ExtensionLoader.getExtensionLoader(RegistryFactory.class).getExtension("dubbo")
+                .getRegistry(URL.valueOf("dubbo://127.0.0.1:" + port));
+    }
+
+    @After
+    public void tearDown() {
+        registry.destroy();
+        exporter.unexport();
+    }
+
+    @Test
+    public void testNotifyDiff() throws Exception {
+        URL provider1 = URL.valueOf("dubbo://127.0.0.1:20881/" + DemoService.class.getName());
+        URL provider2 = URL.valueOf("dubbo://127.0.0.1:20882/" + DemoService.class.getName());
+        registry.register(provider1);
+
+        DiffListener listener = new DiffListener();
+        registry.subscribe(URL.valueOf("consumer://127.0.0.1/" + DemoService.class.getName()
+                + "?check=false&" + Constants.REGISTRY_NOTIFY_DIFF_KEY + "=true"), listener);
+        waitFor(listener, 1);
+        Assert.assertEquals(Arrays.asList(provider1), listener.added.get(0));
+        Assert.assertNull(listener.removed.get(0));
+
+        registry.register(provider2);
+        waitFor(listener, 2);
+        Assert.assertEquals(Long.valueOf(2), listener.revisions.get(1));
+        Assert.assertEquals(Arrays.asList(provider2), listener.added.get(1));
+        Assert.assertEquals(new ArrayList<URL>(), listener.removed.get(1));
+        Assert.assertEquals(0, listener.full.size());
+    }
+
+    private static void waitFor(DiffListener listener, int changes) throws InterruptedException {
+        for (int i = 0; i < 50 && listener.revisions.size() < changes; i++) {
+            Thread.sleep(100);
+        }
+        Assert.assertEquals(changes, listener.revisions.size());
+    }
+
+    private static class DiffListener implements NotifyListener {
+        final List<Long> revisions = new CopyOnWriteArrayList<Long>();
+        final List<List<URL>> added = new CopyOnWriteArrayList<List<URL>>();
+        final List<List<URL>> removed = new CopyOnWriteArrayList<List<URL>>();
+        final List<List<URL>> full = new CopyOnWriteArrayList<List<URL>>();
+
+        @Override
+        public void notify(List<URL> urls) {
+            full.add(urls);
+        }
+
+        @Override
+        public boolean notify(String category, long revision, List<URL> added, List<URL> removed) {
+            this.revisions.add(revision);
+            this.added.add(added);
+            this.removed.add(removed);
+            return true;
+        }
+    }
+}
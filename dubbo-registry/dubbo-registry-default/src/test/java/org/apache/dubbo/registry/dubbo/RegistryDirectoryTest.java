@@ -42,6 +42,7 @@ import org.junit.Test;
 import javax.script.ScriptEngineManager;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
@@ -560,6 +561,34 @@ public class RegistryDirectoryTest {
         Assert.assertEquals(0 + 1, routers.size());
     }
 
+    /**
+     * A runtime condition router is applied on refresh in its order too, and again on each call.
+     */
+    @Test
+    public void testNotifyRuntimeConditionRouter() {
+        RegistryDirectory registryDirectory = getRegistryDirectory();
+        List<URL> serviceUrls = new ArrayList<URL>();
+        serviceUrls.add(SERVICEURL);
+        serviceUrls.add(SERVICEURL2);
+        serviceUrls.add(SERVICEURL3);
+        URL routerurl = URL.valueOf(Constants.ROUTE_PROTOCOL + "://0.0.0.0/").addParameter(Constants.CATEGORY_KEY, Constants.ROUTERS_CATEGORY)
+                .addParameter(Constants.ROUTER_KEY, "condition");
+        // runs first, then keeps what the second router left on each call
+        serviceUrls.add(routerurl.addParameter(Constants.PRIORITY_KEY, 1).addParameter(Constants.RUNTIME_KEY, true)
+                .addParameterAndEncoded(Constants.RULE_KEY, "=> port != 9091"));
+        // finds nothing left, and falls back to what it was given
+        serviceUrls.add(routerurl.addParameter(Constants.PRIORITY_KEY, 2)
+                .addParameterAndEncoded(Constants.RULE_KEY, "=> port = 9091"));
+        registryDirectory.notify(serviceUrls);
+
+        invocation = new RpcInvocation();
+        List<Invoker<?>> invokers = registryDirectory.list(invocation);
+        Assert.assertEquals(2, invokers.size());
+        for (Invoker<?> invoker : invokers) {
+            Assert.assertNotEquals(9091, invoker.getUrl().getPort());
+        }
+    }
+
     /**
      * Test whether the override rule have a high priority
      * Scene: first push override , then push invoker
@@ -821,6 +850,124 @@ public class RegistryDirectoryTest {
         Assert.assertEquals(2, invokers.size());
     }
 
+    /**
+     * Test notify the same providers again, then one provider less
+     * It is expected that the invokers and the routed method invokers of unchanged providers are reused.
+     */
+    @Test
+    public void testNofity_Reuse_unchangedProvider() {
+        RegistryDirectory registryDirectory = getRegistryDirectory();
+
+        List<URL> durls = new ArrayList<URL>();
+        durls.add(SERVICEURL.addParameter("methods", "getXXX1"));
+        durls.add(SERVICEURL2.addParameter("methods", "getXXX1,getXXX2"));
+        registryDirectory.notify(durls);
+        Map<String, Invoker<?>> urlInvokerMap = registryDirectory.getUrlInvokerMap();
+        Map<String, List<Invoker<?>>> methodInvokerMap = registryDirectory.getMethodInvokerMap();
+        Assert.assertEquals(2, urlInvokerMap.size());
+
+        durls = new ArrayList<URL>();
+        durls.add(SERVICEURL.addParameter("methods", "getXXX1"));
+        durls.add(SERVICEURL2.addParameter("methods", "getXXX1,getXXX2"));
+        registryDirectory.notify(durls);
+        Map<String, Invoker<?>> urlInvokerMap2 = registryDirectory.getUrlInvokerMap();
+        Map<String, List<Invoker<?>>> methodInvokerMap2 = registryDirectory.getMethodInvokerMap();
+        Assert.assertEquals(urlInvokerMap.keySet(), urlInvokerMap2.keySet());
+        for (String key : urlInvokerMap.keySet()) {
+            Assert.assertSame(urlInvokerMap.get(key), urlInvokerMap2.get(key));
+        }
+        Assert.assertSame(methodInvokerMap.get(Constants.ANY_VALUE), methodInvokerMap2.get(Constants.ANY_VALUE));
+        Assert.assertSame(methodInvokerMap.get("getXXX1"), methodInvokerMap2.get("getXXX1"));
+        Assert.assertSame(methodInvokerMap.get("getXXX2"), methodInvokerMap2.get("getXXX2"));
+
+        durls = new ArrayList<URL>();
+        durls.add(SERVICEURL2.addParameter("methods", "getXXX1,getXXX2"));
+        registryDirectory.notify(durls);
+        Map<String, List<Invoker<?>>> methodInvokerMap3 = registryDirectory.getMethodInvokerMap();
+        Assert.assertEquals(1, methodInvokerMap3.get(Constants.ANY_VALUE).size());
+        Assert.assertEquals(1, methodInvokerMap3.get("getXXX1").size());
+        Assert.assertSame(methodInvokerMap2.get("getXXX2"), methodInvokerMap3.get("getXXX2"));
+        Assert.assertEquals(1, registryDirectory.getUrlInvokerMap().size());
+    }
+
+    @Test
+    public void testNotifyDiff() {
+        RegistryDirectory registryDirectory = getRegistryDirectory();
+        URL provider1 = SERVICEURL.addParameter("methods", "getXXX1");
+        URL provider2 = SERVICEURL2.addParameter("methods", "getXXX1");
+        URL provider3 = SERVICEURL3.addParameter("methods", "getXXX1");
+
+        // a change before the full list is refused
+        Assert.assertFalse(registryDirectory.notify(Constants.PROVIDERS_CATEGORY, 1, Arrays.asList(provider1), new ArrayList<URL>()));
+        Assert.assertTrue(registryDirectory.notify(Constants.PROVIDERS_CATEGORY, 1, Arrays.asList(provider1, provider2), null));
+        Map<String, Invoker<?>> urlInvokerMap = registryDirectory.getUrlInvokerMap();
+        Assert.assertEquals(2, urlInvokerMap.size());
+
+        Assert.assertTrue(registryDirectory.notify(Constants.PROVIDERS_CATEGORY, 2, Arrays.asList(provider3), Arrays.asList(provider1)));
+        Map<String, Invoker<?>> urlInvokerMap2 = registryDirectory.getUrlInvokerMap();
+        Assert.assertEquals(2, urlInvokerMap2.size());
+        for (String key : urlInvokerMap2.keySet()) {
+            if (urlInvokerMap.containsKey(key)) {
+                Assert.assertSame(urlInvokerMap.get(key), urlInvokerMap2.get(key));
+            }
+        }
+        Assert.assertEquals(2, registryDirectory.list(invocation).size());
+
+        // a revision gap is refused and nothing changes
+        Assert.assertFalse(registryDirectory.notify(Constants.PROVIDERS_CATEGORY, 4, new ArrayList<URL>(), Arrays.asList(provider2)));
+        Assert.assertEquals(2, registryDirectory.list(invocation).size());
+
+        // removing every provider forbids the service
+        Assert.assertTrue(registryDirectory.notify(Constants.PROVIDERS_CATEGORY, 3, new ArrayList<URL>(), Arrays.asList(provider2, provider3)));
+        Assert.assertFalse(registryDirectory.isAvailable());
+
+        // a full notification drops the revisions
+        registryDirectory.notify(Arrays.asList(provider1));
+        Assert.assertFalse(registryDirectory.notify(Constants.PROVIDERS_CATEGORY, 4, Arrays.asList(provider2), new ArrayList<URL>()));
+        Assert.assertEquals(1, registryDirectory.list(invocation).size());
+    }
+
+    /**
+     * Test a change of the providers is applied onto the invokers in place
+     * It is expected that only the removed invoker is destroyed, and only the methods of the changed providers are routed again.
+     */
+    @Test
+    public void testNotifyDiff_Incremental() {
+        RegistryDirectory registryDirectory = getRegistryDirectory();
+        URL provider1 = SERVICEURL.addParameter("methods", "getXXX1");
+        URL provider2 = SERVICEURL2.addParameter("methods", "getXXX2");
+        URL provider3 = SERVICEURL3.addParameter("methods", "getXXX3");
+
+        Assert.assertTrue(registryDirectory.notify(Constants.PROVIDERS_CATEGORY, 1, Arrays.asList(provider1, provider2), null));
+        Map<String, Invoker<?>> urlInvokerMap = registryDirectory.getUrlInvokerMap();
+        Map<String, List<Invoker<?>>> methodInvokerMap = registryDirectory.getMethodInvokerMap();
+        Invoker<?> invoker1 = methodInvokerMap.get("getXXX1").get(0);
+        Invoker<?> invoker2 = methodInvokerMap.get("getXXX2").get(0);
+        Assert.assertTrue(invoker1.isAvailable());
+
+        Assert.assertTrue(registryDirectory.notify(Constants.PROVIDERS_CATEGORY, 2, Arrays.asList(provider3), Arrays.asList(provider1)));
+        Map<String, Invoker<?>> urlInvokerMap2 = registryDirectory.getUrlInvokerMap();
+        Map<String, List<Invoker<?>>> methodInvokerMap2 = registryDirectory.getMethodInvokerMap();
+        Assert.assertEquals(2, urlInvokerMap2.size());
+        Assert.assertTrue(urlInvokerMap2.containsValue(invoker2));
+        Assert.assertFalse(urlInvokerMap2.containsValue(invoker1));
+        Assert.assertFalse(invoker1.isAvailable());
+        Assert.assertEquals(2, methodInvokerMap2.get(Constants.ANY_VALUE).size());
+        Assert.assertNull(methodInvokerMap2.get("getXXX1"));
+        Assert.assertSame(methodInvokerMap.get("getXXX2"), methodInvokerMap2.get("getXXX2"));
+        Assert.assertEquals(1, methodInvokerMap2.get("getXXX3").size());
+        Assert.assertEquals(urlInvokerMap.size(), urlInvokerMap2.size());
+
+        // a full notification after the change keeps the invokers
+        registryDirectory.notify(Arrays.asList(provider2, provider3));
+        Map<String, Invoker<?>> urlInvokerMap3 = registryDirectory.getUrlInvokerMap();
+        Assert.assertEquals(urlInvokerMap2.keySet(), urlInvokerMap3.keySet());
+        for (String key : urlInvokerMap2.keySet()) {
+            Assert.assertSame(urlInvokerMap2.get(key), urlInvokerMap3.get(key));
+        }
+        Assert.assertSame(methodInvokerMap2.get("getXXX3"), registryDirectory.getMethodInvokerMap().get("getXXX3"));
+    }
+
     /**
      * Test override disables a specified service provider through enable=false
      * It is expected that a specified service provider can be disable.
@@ -23,6 +23,7 @@ import org.apache.dubbo.common.utils.NetUtils;
 import org.apache.dubbo.common.utils.UrlUtils;
 import org.apache.dubbo.registry.NotifyListener;
 import org.apache.dubbo.registry.RegistryService;
+import org.apache.dubbo.registry.support.DiffNotifier;
 import org.apache.dubbo.rpc.RpcContext;
 
 import java.util.List;
@@ -39,6 +40,8 @@ public class SimpleRegistryService extends AbstractRegistryService {
     private final static Logger logger = LoggerFactory.getLogger(SimpleRegistryService.class);
     private final ConcurrentMap<String, ConcurrentMap<String, URL>> remoteRegistered = new ConcurrentHashMap<String, ConcurrentMap<String, URL>>();
     private final ConcurrentMap<String, ConcurrentMap<String, NotifyListener>> remoteListeners = new ConcurrentHashMap<String, ConcurrentMap<String, NotifyListener>>();
+    private final ConcurrentMap<NotifyListener, URL> subscribedUrls = new ConcurrentHashMap<NotifyListener, URL>();
+    private final DiffNotifier diffNotifier = new DiffNotifier();
     private List<String> registries;
 
     @Override
@@ -86,6 +89,7 @@ public class SimpleRegistryService extends AbstractRegistryService {
                 }
             }
         }
+        subscribedUrls.put(listener, url);
         super.subscribe(service, url, listener);
 
         Map<String, NotifyListener> listeners = remoteListeners.get(client);
@@ -96,7 +100,7 @@ public class SimpleRegistryService extends AbstractRegistryService {
         listeners.put(service, listener);
         urls = getRegistered().get(service);
         if (urls != null && urls.size() > 0) {
-            listener.notify(urls);
+            notify(service, urls, listener);
         }
 
 
@@ -105,6 +109,8 @@ public class SimpleRegistryService extends AbstractRegistryService {
     @Override
     public void unsubscribe(String service, URL url, NotifyListener listener) {
         super.unsubscribe(service, url, listener);
+        subscribedUrls.remove(listener);
+        diffNotifier.remove(listener);
         String client = RpcContext.getContext().getRemoteAddressString();
         Map<String, NotifyListener> listeners = remoteListeners.get(client);
         if (listeners != null && listeners.size() > 0) {
@@ -135,10 +141,22 @@ public class SimpleRegistryService extends AbstractRegistryService {
                         RpcContext.getContext().getRemoteHost(),
                         RpcContext.getContext().getRemotePort(),
                         org.apache.dubbo.registry.RegistryService.class.getName(), getSubscribed(service)), entry.getValue());
+                subscribedUrls.remove(entry.getValue());
+                diffNotifier.remove(entry.getValue());
             }
         }
     }
 
+    @Override
+    protected void notify(String service, List<URL> urls, NotifyListener listener) {
+        URL url = subscribedUrls.get(listener);
+        if (url == null) {
+            listener.notify(urls);
+        } else {
+            diffNotifier.notify(url, listener, urls);
+        }
+    }
+
     public List<String> getRegistries() {
         return registries;
     }
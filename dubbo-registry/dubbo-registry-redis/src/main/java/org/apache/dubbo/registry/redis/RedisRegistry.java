@@ -26,23 +26,32 @@ import org.apache.dubbo.common.utils.StringUtils;
 import org.apache.dubbo.common.utils.UrlUtils;
 import org.apache.dubbo.registry.NotifyListener;
 import org.apache.dubbo.registry.support.FailbackRegistry;
+import org.apache.dubbo.registry.support.UrlInterner;
 import org.apache.dubbo.rpc.RpcException;
 
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
@@ -63,12 +72,28 @@ public class RedisRegistry extends FailbackRegistry {
 
     private final static String DEFAULT_ROOT = "dubbo";
 
+    // Keys asked for per round trip by the cursor based scans
+    private static final int SCAN_COUNT = 1000;
+
+    // Takes the cleaner lock when it is free, or extends it when this node holds it
+    private static final String ELECT_SCRIPT = "if redis.call('get', KEYS[1]) == ARGV[1] then"
+            + " return redis.call('pexpire', KEYS[1], ARGV[2])"
+            + " else return redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) and 1 or 0 end";
+
     private final ScheduledExecutorService expireExecutor = Executors.newScheduledThreadPool(1, new NamedThreadFactory("DubboRegistryExpireTimer", true));
 
     private final ScheduledFuture<?> expireFuture;
 
     private final String root;
 
+    // Set of the category keys written by the providers, cleaned by the elected node
+    private final String indexKey;
+
+    // Lock held by the node cleaning the expired providers in the elected clean mode
+    private final String cleanerKey;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
     private final Map<String, JedisPool> jedisPools = new ConcurrentHashMap<String, JedisPool>();
 
     private final ConcurrentMap<String, Notifier> notifiers = new ConcurrentHashMap<String, Notifier>();
@@ -81,6 +106,9 @@ public class RedisRegistry extends FailbackRegistry {
 
     private boolean replicate;
 
+    // A single node elected among all cleans the expired providers, instead of every admin
+    private final boolean elected;
+
     public RedisRegistry(URL url) {
         super(url);
         if (url.isAnyHost()) {
@@ -113,6 +141,12 @@ public class RedisRegistry extends FailbackRegistry {
         }
         replicate = "replicate".equals(cluster);
 
+        String clean = url.getParameter("clean.mode", "admin");
+        if (!"admin".equals(clean) && !"elected".equals(clean)) {
+            throw new IllegalArgumentException("Unsupported redis clean mode: " + clean + ". The redis clean mode only supported admin or elected.");
+        }
+        elected = "elected".equals(clean);
+
         List<String> addresses = new ArrayList<String>();
         addresses.add(url.getAddress());
         String[] backups = url.getParameter(Constants.BACKUP_KEY, new String[0]);
@@ -145,6 +179,8 @@ public class RedisRegistry extends FailbackRegistry {
             group = group + Constants.PATH_SEPARATOR;
         }
         this.root = group;
+        this.indexKey = group.substring(0, group.length() - 1) + ":index";
+        this.cleanerKey = group.substring(0, group.length() - 1) + ":cleaner";
 
         this.expirePeriod = url.getParameter(Constants.SESSION_TIMEOUT_KEY, Constants.DEFAULT_SESSION_TIMEOUT);
         this.expireFuture = expireExecutor.scheduleWithFixedDelay(new Runnable() {
@@ -165,15 +201,26 @@ public class RedisRegistry extends FailbackRegistry {
             try {
                 Jedis jedis = jedisPool.getResource();
                 try {
+                    String expire = String.valueOf(System.currentTimeMillis() + expirePeriod);
+                    List<String> keys = new ArrayList<String>();
+                    List<Response<Long>> responses = new ArrayList<Response<Long>>();
+                    Pipeline pipeline = jedis.pipelined();
                     for (URL url : new HashSet<URL>(getRegistered())) {
                         if (url.getParameter(Constants.DYNAMIC_KEY, true)) {
                             String key = toCategoryPath(url);
-                            if (jedis.hset(key, url.toFullString(), String.valueOf(System.currentTimeMillis() + expirePeriod)) == 1) {
-                                jedis.publish(key, Constants.REGISTER);
-                            }
+                            keys.add(key);
+                            responses.add(pipeline.hset(key, url.toFullString(), expire));
+                            pipeline.sadd(indexKey, key);
+                        }
+                    }
+                    pipeline.sync();
+                    Set<String> published = new HashSet<String>();
+                    for (int i = 0; i < keys.size(); i++) {
+                        if (responses.get(i).get() == 1 && published.add(keys.get(i))) {
+                            jedis.publish(keys.get(i), Constants.REGISTER);
                         }
                     }
-                    if (admin) {
+                    if (elected ? elect(jedis) : admin) {
                         clean(jedis);
                     }
                     if (!replicate) {
@@ -188,34 +235,102 @@ public class RedisRegistry extends FailbackRegistry {
         }
     }
 
-    // The monitoring center is responsible for deleting outdated dirty data
+    private boolean elect(Jedis jedis) {
+        Object result = jedis.eval(ELECT_SCRIPT, Collections.singletonList(cleanerKey),
+                Arrays.asList(nodeId, String.valueOf(expirePeriod)));
+        return Long.valueOf(1).equals(result);
+    }
+
+    // The monitoring center, or the elected node, is responsible for deleting outdated dirty data
     private void clean(Jedis jedis) {
-        Set<String> keys = jedis.keys(root + Constants.ANY_VALUE);
-        if (keys != null && !keys.isEmpty()) {
-            for (String key : keys) {
-                Map<String, String> values = jedis.hgetAll(key);
-                if (values != null && values.size() > 0) {
-                    boolean delete = false;
-                    long now = System.currentTimeMillis();
-                    for (Map.Entry<String, String> entry : values.entrySet()) {
-                        URL url = URL.valueOf(entry.getKey());
-                        if (url.getParameter(Constants.DYNAMIC_KEY, true)) {
-                            long expire = Long.parseLong(entry.getValue());
-                            if (expire < now) {
-                                jedis.hdel(key, entry.getKey());
-                                delete = true;
-                                if (logger.isWarnEnabled()) {
-                                    logger.warn("Delete expired key: " + key + " -> value: " + entry.getKey() + ", expire: " + new Date(expire) + ", now: " + new Date(now));
-                                }
-                            }
+        ScanParams params = new ScanParams().count(SCAN_COUNT);
+        String cursor = ScanParams.SCAN_POINTER_START;
+        if (elected) {
+            do {
+                ScanResult<String> result = jedis.sscan(indexKey, cursor, params);
+                List<String> emptyKeys = clean(jedis, result.getResult());
+                if (!emptyKeys.isEmpty()) {
+                    jedis.srem(indexKey, emptyKeys.toArray(new String[0]));
+                }
+                cursor = result.getStringCursor();
+            } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+        } else {
+            params.match(root + Constants.ANY_VALUE);
+            do {
+                ScanResult<String> result = jedis.scan(cursor, params);
+                clean(jedis, result.getResult());
+                cursor = result.getStringCursor();
+            } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+        }
+    }
+
+    /**
+     * @return the keys without any provider left
+     */
+    private List<String> clean(Jedis jedis, List<String> keys) {
+        List<String> emptyKeys = new ArrayList<String>();
+        if (keys.isEmpty()) {
+            return emptyKeys;
+        }
+        long now = System.currentTimeMillis();
+        Pipeline pipeline = null;
+        for (Map.Entry<String, Map<String, String>> values : hgetAll(jedis, keys).entrySet()) {
+            String key = values.getKey();
+            if (values.getValue().isEmpty()) {
+                emptyKeys.add(key);
+                continue;
+            }
+            boolean delete = false;
+            for (Map.Entry<String, String> entry : values.getValue().entrySet()) {
+                URL url = URL.valueOf(entry.getKey());
+                if (url.getParameter(Constants.DYNAMIC_KEY, true)) {
+                    long expire = Long.parseLong(entry.getValue());
+                    if (expire < now) {
+                        if (pipeline == null) {
+                            pipeline = jedis.pipelined();
+                        }
+                        pipeline.hdel(key, entry.getKey());
+                        delete = true;
+                        if (logger.isWarnEnabled()) {
+                            logger.warn("Delete expired key: " + key + " -> value: " + entry.getKey() + ", expire: " + new Date(expire) + ", now: " + new Date(now));
                         }
-                    }
-                    if (delete) {
-                        jedis.publish(key, Constants.UNREGISTER);
                     }
                 }
             }
+            if (delete) {
+                pipeline.publish(key, Constants.UNREGISTER);
+            }
+        }
+        if (pipeline != null) {
+            pipeline.sync();
+        }
+        return emptyKeys;
+    }
+
+    private static Map<String, Map<String, String>> hgetAll(Jedis jedis, Collection<String> keys) {
+        Map<String, Response<Map<String, String>>> responses = new LinkedHashMap<String, Response<Map<String, String>>>();
+        Pipeline pipeline = jedis.pipelined();
+        for (String key : keys) {
+            responses.put(key, pipeline.hgetAll(key));
+        }
+        pipeline.sync();
+        Map<String, Map<String, String>> values = new LinkedHashMap<String, Map<String, String>>();
+        for (Map.Entry<String, Response<Map<String, String>>> entry : responses.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().get());
         }
+        return values;
+    }
+
+    private static Set<String> scan(Jedis jedis, String pattern) {
+        Set<String> keys = new HashSet<String>();
+        ScanParams params = new ScanParams().match(pattern).count(SCAN_COUNT);
+        String cursor = ScanParams.SCAN_POINTER_START;
+        do {
+            ScanResult<String> result = jedis.scan(cursor, params);
+            keys.addAll(result.getResult());
+            cursor = result.getStringCursor();
+        } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+        return keys;
     }
 
     @Override
@@ -274,8 +389,11 @@ public class RedisRegistry extends FailbackRegistry {
             try {
                 Jedis jedis = jedisPool.getResource();
                 try {
-                    jedis.hset(key, value, expire);
-                    jedis.publish(key, Constants.REGISTER);
+                    Pipeline pipeline = jedis.pipelined();
+                    pipeline.hset(key, value, expire);
+                    pipeline.sadd(indexKey, key);
+                    pipeline.publish(key, Constants.REGISTER);
+                    pipeline.sync();
                     success = true;
                     if (!replicate) {
                         break; //  If the server side has synchronized data, just write a single machine
@@ -307,8 +425,10 @@ public class RedisRegistry extends FailbackRegistry {
             try {
                 Jedis jedis = jedisPool.getResource();
                 try {
-                    jedis.hdel(key, value);
-                    jedis.publish(key, Constants.UNREGISTER);
+                    Pipeline pipeline = jedis.pipelined();
+                    pipeline.hdel(key, value);
+                    pipeline.publish(key, Constants.UNREGISTER);
+                    pipeline.sync();
                     success = true;
                     if (!replicate) {
                         break; //  If the server side has synchronized data, just write a single machine
@@ -350,7 +470,7 @@ public class RedisRegistry extends FailbackRegistry {
                 try {
                     if (service.endsWith(Constants.ANY_VALUE)) {
                         admin = true;
-                        Set<String> keys = jedis.keys(service);
+                        Set<String> keys = scan(jedis, service);
                         if (keys != null && !keys.isEmpty()) {
                             Map<String, Set<String>> serviceKeys = new HashMap<String, Set<String>>();
                             for (String key : keys) {
@@ -367,7 +487,14 @@ public class RedisRegistry extends FailbackRegistry {
                             }
                         }
                     } else {
-                        doNotify(jedis, jedis.keys(service + Constants.PATH_SEPARATOR + Constants.ANY_VALUE), url, Arrays.asList(listener));
+                        Map<String, Map<String, String>> values = hgetAll(jedis, toCategoryPaths(jedis, url));
+                        // only the categories with providers, as listed by the former KEYS lookup
+                        for (Iterator<Map<String, String>> iterator = values.values().iterator(); iterator.hasNext(); ) {
+                            if (iterator.next().isEmpty()) {
+                                iterator.remove();
+                            }
+                        }
+                        doNotify(values, url, Arrays.asList(listener));
                     }
                     success = true;
                     break; // Just read one server's data
@@ -392,8 +519,9 @@ public class RedisRegistry extends FailbackRegistry {
     }
 
     private void doNotify(Jedis jedis, String key) {
+        Map<String, Map<String, String>> values = hgetAll(jedis, Collections.singletonList(key));
         for (Map.Entry<URL, Set<NotifyListener>> entry : new HashMap<URL, Set<NotifyListener>>(getSubscribed()).entrySet()) {
-            doNotify(jedis, Arrays.asList(key), entry.getKey(), new HashSet<NotifyListener>(entry.getValue()));
+            doNotify(values, entry.getKey(), new HashSet<NotifyListener>(entry.getValue()));
         }
     }
 
@@ -402,11 +530,20 @@ public class RedisRegistry extends FailbackRegistry {
                 || listeners == null || listeners.isEmpty()) {
             return;
         }
+        doNotify(hgetAll(jedis, keys), url, listeners);
+    }
+
+    private void doNotify(Map<String, Map<String, String>> keyValues, URL url, Collection<NotifyListener> listeners) {
+        if (keyValues.isEmpty()
+                || listeners == null || listeners.isEmpty()) {
+            return;
+        }
         long now = System.currentTimeMillis();
         List<URL> result = new ArrayList<URL>();
         List<String> categories = Arrays.asList(url.getParameter(Constants.CATEGORY_KEY, new String[0]));
         String consumerService = url.getServiceInterface();
-        for (String key : keys) {
+        for (Map.Entry<String, Map<String, String>> keyValue : keyValues.entrySet()) {
+            String key = keyValue.getKey();
             if (!Constants.ANY_VALUE.equals(consumerService)) {
                 String prvoiderService = toServiceName(key);
                 if (!prvoiderService.equals(consumerService)) {
@@ -418,10 +555,10 @@ public class RedisRegistry extends FailbackRegistry {
                 continue;
             }
             List<URL> urls = new ArrayList<URL>();
-            Map<String, String> values = jedis.hgetAll(key);
+            Map<String, String> values = keyValue.getValue();
             if (values != null && values.size() > 0) {
                 for (Map.Entry<String, String> entry : values.entrySet()) {
-                    URL u = URL.valueOf(entry.getKey());
+                    URL u = UrlInterner.getInstance().valueOf(entry.getKey());
                     if (!u.getParameter(Constants.DYNAMIC_KEY, true)
                             || Long.parseLong(entry.getValue()) >= now) {
                         if (UrlUtils.isMatch(url, u)) {
@@ -477,6 +614,19 @@ public class RedisRegistry extends FailbackRegistry {
         return toServicePath(url) + Constants.PATH_SEPARATOR + url.getParameter(Constants.CATEGORY_KEY, Constants.DEFAULT_CATEGORY);
     }
 
+    private Collection<String> toCategoryPaths(Jedis jedis, URL url) {
+        String service = toServicePath(url);
+        String[] categories = url.getParameter(Constants.CATEGORY_KEY, new String[]{Constants.DEFAULT_CATEGORY});
+        if (Arrays.asList(categories).contains(Constants.ANY_VALUE)) {
+            return scan(jedis, service + Constants.PATH_SEPARATOR + Constants.ANY_VALUE);
+        }
+        List<String> paths = new ArrayList<String>(categories.length);
+        for (String category : categories) {
+            paths.add(service + Constants.PATH_SEPARATOR + category);
+        }
+        return paths;
+    }
+
     private class NotifySub extends JedisPubSub {
 
         private final JedisPool jedisPool;
@@ -582,7 +732,7 @@ public class RedisRegistry extends FailbackRegistry {
                                         if (service.endsWith(Constants.ANY_VALUE)) {
                                             if (!first) {
                                                 first = false;
-                                                Set<String> keys = jedis.keys(service);
+                                                Set<String> keys = scan(jedis, service);
                                                 if (keys != null && !keys.isEmpty()) {
                                                     for (String s : keys) {
                                                         doNotify(jedis, s);
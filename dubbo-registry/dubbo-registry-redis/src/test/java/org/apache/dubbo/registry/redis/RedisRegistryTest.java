@@ -23,11 +23,14 @@ import org.apache.dubbo.registry.Registry;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import redis.clients.jedis.Jedis;
 import redis.embedded.RedisServer;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.apache.dubbo.common.Constants.BACKUP_KEY;
 import static org.hamcrest.CoreMatchers.is;
@@ -40,10 +43,11 @@ public class RedisRegistryTest {
     private RedisServer redisServer;
     private RedisRegistry redisRegistry;
     private URL registryUrl;
+    private int redisPort;
 
     @Before
     public void setUp() throws Exception {
-        int redisPort = NetUtils.getAvailablePort();
+        redisPort = NetUtils.getAvailablePort();
         this.redisServer = new RedisServer(redisPort);
         this.redisServer.start();
         this.registryUrl = URL.valueOf("redis://localhost:" + redisPort);
@@ -105,6 +109,80 @@ public class RedisRegistryTest {
         assertThat(redisRegistry.isAvailable(), is(false));
     }
 
+    @Test
+    public void testSubscribeNotify() {
+        URL providerUrl = URL.valueOf("dubbo://10.20.0.1:20880/" + service + "?methods=test1,test2");
+        redisRegistry.register(providerUrl);
+
+        final List<URL> notified = new CopyOnWriteArrayList<URL>();
+        redisRegistry.subscribe(URL.valueOf("consumer://10.20.0.2/" + service + "?category=providers,routers"), new NotifyListener() {
+            @Override
+            public void notify(List<URL> urls) {
+                notified.addAll(urls);
+            }
+        });
+        // the routers category has no key, only the providers are notified
+        assertThat(notified.size(), is(1));
+        assertThat(notified.get(0), is(providerUrl));
+
+        Jedis jedis = new Jedis("localhost", redisPort);
+        try {
+            assertThat(jedis.smembers("/dubbo:index").contains("/dubbo/" + service + "/providers"), is(true));
+        } finally {
+            jedis.close();
+        }
+    }
+
+    @Test
+    public void testAdminSubscribe() {
+        URL providerUrl1 = URL.valueOf("dubbo://10.20.0.1:20880/" + service + "1");
+        URL providerUrl2 = URL.valueOf("dubbo://10.20.0.1:20880/" + service + "2");
+        redisRegistry.register(providerUrl1);
+        redisRegistry.register(providerUrl2);
+
+        final List<URL> notified = new CopyOnWriteArrayList<URL>();
+        redisRegistry.subscribe(URL.valueOf("admin://10.20.0.2/*?category=providers"), new NotifyListener() {
+            @Override
+            public void notify(List<URL> urls) {
+                notified.addAll(urls);
+            }
+        });
+        assertThat(notified.size(), is(2));
+        assertThat(notified.contains(providerUrl1), is(true));
+        assertThat(notified.contains(providerUrl2), is(true));
+    }
+
+    @Test
+    public void testElectedClean() throws Exception {
+        String key = "/dubbo/" + service + "/providers";
+        Jedis jedis = new Jedis("localhost", redisPort);
+        List<RedisRegistry> registries = new ArrayList<RedisRegistry>();
+        try {
+            jedis.hset(key, "dubbo://10.20.0.9:20880/" + service, "1");
+            jedis.sadd("/dubbo:index", key);
+
+            URL url = registryUrl.addParameter("clean.mode", "elected").addParameter("session", 400);
+            registries.add(new RedisRegistry(url));
+            registries.add(new RedisRegistry(url));
+            for (int i = 0; i < 50 && (jedis.exists(key) || jedis.sismember("/dubbo:index", key)); i++) {
+                Thread.sleep(100);
+            }
+            assertThat(jedis.exists(key), is(false));
+            assertThat(jedis.sismember("/dubbo:index", key), is(false));
+            assertThat(jedis.get("/dubbo:cleaner") != null, is(true));
+        } finally {
+            for (RedisRegistry registry : registries) {
+                registry.destroy();
+            }
+            jedis.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedCleanMode() {
+        new RedisRegistry(registryUrl.addParameter("clean.mode", "all"));
+    }
+
     @Test
     public void testAvailableWithBackup() {
         URL url = URL.valueOf("redis://redisOne:8880").addParameter(BACKUP_KEY, "redisTwo:8881");
@@ -24,6 +24,7 @@ import org.apache.dubbo.common.utils.ConcurrentHashSet;
 import org.apache.dubbo.common.utils.UrlUtils;
 import org.apache.dubbo.registry.NotifyListener;
 import org.apache.dubbo.registry.support.FailbackRegistry;
+import org.apache.dubbo.registry.support.UrlInterner;
 import org.apache.dubbo.remoting.zookeeper.ChildListener;
 import org.apache.dubbo.remoting.zookeeper.StateListener;
 import org.apache.dubbo.remoting.zookeeper.ZookeeperClient;
@@ -276,13 +277,11 @@ public class ZookeeperRegistry extends FailbackRegistry {
     private List<URL> toUrlsWithoutEmpty(URL consumer, List<String> providers) {
         List<URL> urls = new ArrayList<URL>();
         if (providers != null && !providers.isEmpty()) {
+            UrlInterner interner = UrlInterner.getInstance();
             for (String provider : providers) {
-                provider = URL.decode(provider);
-                if (provider.contains("://")) {
-                    URL url = URL.valueOf(provider);
-                    if (UrlUtils.isMatch(consumer, url)) {
-                        urls.add(url);
-                    }
+                URL url = interner.decode(provider);
+                if (url != null && UrlUtils.isMatch(consumer, url)) {
+                    urls.add(url);
                 }
             }
         }
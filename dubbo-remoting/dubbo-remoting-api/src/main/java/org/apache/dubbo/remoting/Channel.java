@@ -43,6 +43,16 @@ public interface Channel extends Endpoint {
      */
     boolean isConnected();
 
+    /**
+     * is writable, false when the pending writes exceed the high water mark of the transport,
+     * it turns true again once they drain below the low water mark.
+     *
+     * @return writable
+     */
+    default boolean isWritable() {
+        return true;
+    }
+
     /**
      * has attribute.
      *
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting;
+
+import org.apache.dubbo.common.extension.SPI;
+
+import java.io.IOException;
+
+/**
+ * Compressor of the message bodies. (SPI, Singleton, ThreadSafe)
+ * <p>
+ * The id is written ahead of a compressed body so the peer knows how to decompress it, 0 is reserved for a body
+ * sent as is.
+ */
+@SPI("lz4")
+public interface Compressor {
+
+    /**
+     * get content type id
+     *
+     * @return content type id, between 1 and 127
+     */
+    byte getContentTypeId();
+
+    /**
+     * compress the data
+     *
+     * @param data   the data
+     * @param offset the offset of the data
+     * @param length the length of the data
+     * @return the compressed data
+     */
+    byte[] compress(byte[] data, int offset, int length) throws IOException;
+
+    /**
+     * decompress the data
+     *
+     * @param data   the compressed data
+     * @param offset the offset of the compressed data
+     * @param length the length of the compressed data
+     * @param originalLength the length of the data before it was compressed
+     * @return the data
+     */
+    byte[] decompress(byte[] data, int offset, int length, int originalLength) throws IOException;
+
+}
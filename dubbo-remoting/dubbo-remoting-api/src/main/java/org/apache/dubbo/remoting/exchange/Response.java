@@ -30,6 +30,11 @@ public class Response {
      */
     public static final byte OK = 20;
 
+    /**
+     * a chunk of a streamed reply, more responses with the same id follow up to the last chunk.
+     */
+    public static final byte STREAM = 21;
+
     /**
      * clien side timeout.
      */
@@ -87,6 +92,10 @@ public class Response {
 
     private Object mResult;
 
+    private int mChunk;
+
+    private boolean mLastChunk;
+
     public Response() {
     }
 
@@ -151,6 +160,22 @@ public class Response {
         mResult = msg;
     }
 
+    /**
+     * @return the index of a {@link #STREAM} chunk in its stream.
+     */
+    public int getChunk() {
+        return mChunk;
+    }
+
+    public boolean isLastChunk() {
+        return mLastChunk;
+    }
+
+    public void setChunk(int chunk, boolean last) {
+        mChunk = chunk;
+        mLastChunk = last;
+    }
+
     public String getErrorMessage() {
         return mErrorMsg;
     }
@@ -162,6 +187,7 @@ public class Response {
     @Override
     public String toString() {
         return "Response [id=" + mId + ", version=" + mVersion + ", status=" + mStatus + ", event=" + mEvent
+                + (mStatus == STREAM ? ", chunk=" + mChunk + (mLastChunk ? ", last" : "") : "")
                 + ", error=" + mErrorMsg + ", result=" + (mResult == this ? "this" : mResult) + "]";
     }
 }
\ No newline at end of file
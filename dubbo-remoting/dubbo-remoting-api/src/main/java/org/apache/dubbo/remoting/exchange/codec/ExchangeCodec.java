@@ -16,9 +16,11 @@
  */
 package org.apache.dubbo.remoting.exchange.codec;
 
+import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.Version;
 import org.apache.dubbo.common.io.Bytes;
 import org.apache.dubbo.common.io.StreamUtils;
+import org.apache.dubbo.common.io.UnsafeByteArrayInputStream;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.common.serialize.Cleanable;
@@ -27,6 +29,7 @@ import org.apache.dubbo.common.serialize.ObjectOutput;
 import org.apache.dubbo.common.serialize.Serialization;
 import org.apache.dubbo.common.utils.StringUtils;
 import org.apache.dubbo.remoting.Channel;
+import org.apache.dubbo.remoting.Compressor;
 import org.apache.dubbo.remoting.RemotingException;
 import org.apache.dubbo.remoting.buffer.ChannelBuffer;
 import org.apache.dubbo.remoting.buffer.ChannelBufferInputStream;
@@ -59,7 +62,14 @@ public class ExchangeCodec extends TelnetCodec {
     protected static final byte FLAG_REQUEST = (byte) 0x80;
     protected static final byte FLAG_TWOWAY = (byte) 0x40;
     protected static final byte FLAG_EVENT = (byte) 0x20;
-    protected static final int SERIALIZATION_MASK = 0x1f;
+    // the body is prefixed by the id of its compressor, see Compressor. this bit used to be the 5th bit of the
+    // serialization id, CodecSupport ignores a serialization whose id is above 15.
+    protected static final byte FLAG_COMPRESSED = (byte) 0x10;
+    protected static final int SERIALIZATION_MASK = 0x0f;
+    // the status of a request is unused, a request with this status tells the provider the consumer can decompress.
+    protected static final byte ACCEPT_COMPRESSION = (byte) 0x01;
+    // set on a channel once the peer has shown it supports compression.
+    private static final String COMPRESSION_KEY = ExchangeCodec.class.getName() + ".compression";
     private static final Logger logger = LoggerFactory.getLogger(ExchangeCodec.class);
 
     public Short getMagicCode() {
@@ -122,6 +132,13 @@ public class ExchangeCodec extends TelnetCodec {
         ChannelBufferInputStream is = new ChannelBufferInputStream(buffer, len);
 
         try {
+            if ((header[2] & FLAG_COMPRESSED) != 0) {
+                acceptCompression(channel);
+                return decodeBody(channel, decompress(channel, is, len), header);
+            }
+            if ((header[2] & FLAG_REQUEST) != 0 && (header[3] & ACCEPT_COMPRESSION) != 0) {
+                acceptCompression(channel);
+            }
             return decodeBody(channel, is, header);
         } finally {
             if (is.available() > 0) {
@@ -140,6 +157,8 @@ public class ExchangeCodec extends TelnetCodec {
     protected Object decodeBody(Channel channel, InputStream is, byte[] header) throws IOException {
         byte flag = header[2], proto = (byte) (flag & SERIALIZATION_MASK);
         Serialization s = CodecSupport.getSerialization(channel.getUrl(), proto);
+        // the chunk index is ahead of the serialized body, read it before the serialization touches the stream.
+        int chunk = (flag & FLAG_REQUEST) == 0 && header[3] == Response.STREAM ? readChunkIndex(is) : 0;
         ObjectInput in = s.deserialize(channel.getUrl(), is);
         // get request id.
         long id = Bytes.bytes2long(header, 4);
@@ -152,7 +171,10 @@ public class ExchangeCodec extends TelnetCodec {
             // get status.
             byte status = header[3];
             res.setStatus(status);
-            if (status == Response.OK) {
+            if (status == Response.STREAM) {
+                setChunkIndex(res, chunk);
+            }
+            if (status == Response.OK || status == Response.STREAM) {
                 try {
                     Object data;
                     if (res.isHeartbeat()) {
@@ -210,23 +232,23 @@ public class ExchangeCodec extends TelnetCodec {
 
     protected void encodeRequest(Channel channel, ChannelBuffer buffer, Request req) throws IOException {
         Serialization serialization = getSerialization(channel);
-        // header.
-        byte[] header = new byte[HEADER_LENGTH];
-        // set magic number.
-        Bytes.short2bytes(MAGIC, header);
-
+        Compressor compressor = CodecSupport.getCompressor(channel.getUrl());
+        boolean compress = compressor != null && channel.hasAttribute(COMPRESSION_KEY);
         // set request and serialization flag.
-        header[2] = (byte) (FLAG_REQUEST | serialization.getContentTypeId());
-
-        if (req.isTwoWay()) header[2] |= FLAG_TWOWAY;
-        if (req.isEvent()) header[2] |= FLAG_EVENT;
+        byte flag = (byte) (FLAG_REQUEST | serialization.getContentTypeId());
+        if (req.isTwoWay()) flag |= FLAG_TWOWAY;
+        if (req.isEvent()) flag |= FLAG_EVENT;
+        if (compress) flag |= FLAG_COMPRESSED;
 
-        // set request id.
-        Bytes.long2bytes(req.getId(), header, 4);
+        // write header in place, the data length is filled in after the body is encoded.
+        int savedWriteIndex = buffer.writerIndex();
+        writeHeader(buffer, flag, compressor != null ? ACCEPT_COMPRESSION : 0, req.getId());
+        if (compress) {
+            // not compressed until the size of the body is known.
+            buffer.writeByte(0);
+        }
 
         // encode request data.
-        int savedWriteIndex = buffer.writerIndex();
-        buffer.writerIndex(savedWriteIndex + HEADER_LENGTH);
         ChannelBufferOutputStream bos = new ChannelBufferOutputStream(buffer);
         ObjectOutput out = serialization.serialize(channel.getUrl(), bos);
         if (req.isEvent()) {
@@ -240,38 +262,40 @@ public class ExchangeCodec extends TelnetCodec {
         }
         bos.flush();
         bos.close();
-        int len = bos.writtenBytes();
+        if (compress) {
+            compressBody(channel, buffer, savedWriteIndex, compressor);
+        }
+        int len = buffer.writerIndex() - savedWriteIndex - HEADER_LENGTH;
         checkPayload(channel, len);
-        Bytes.int2bytes(len, header, 12);
-
-        // write
-        buffer.writerIndex(savedWriteIndex);
-        buffer.writeBytes(header); // write header.
-        buffer.writerIndex(savedWriteIndex + HEADER_LENGTH + len);
+        setBodyLength(buffer, savedWriteIndex, len);
     }
 
     protected void encodeResponse(Channel channel, ChannelBuffer buffer, Response res) throws IOException {
         int savedWriteIndex = buffer.writerIndex();
         try {
             Serialization serialization = getSerialization(channel);
-            // header.
-            byte[] header = new byte[HEADER_LENGTH];
-            // set magic number.
-            Bytes.short2bytes(MAGIC, header);
+            Compressor compressor = CodecSupport.getCompressor(channel.getUrl());
+            boolean compress = compressor != null && channel.hasAttribute(COMPRESSION_KEY);
             // set request and serialization flag.
-            header[2] = serialization.getContentTypeId();
-            if (res.isHeartbeat()) header[2] |= FLAG_EVENT;
+            byte flag = serialization.getContentTypeId();
+            if (res.isHeartbeat()) flag |= FLAG_EVENT;
+            if (compress) flag |= FLAG_COMPRESSED;
             // set response status.
             byte status = res.getStatus();
-            header[3] = status;
-            // set request id.
-            Bytes.long2bytes(res.getId(), header, 4);
 
-            buffer.writerIndex(savedWriteIndex + HEADER_LENGTH);
+            // write header in place, the data length is filled in after the body is encoded.
+            writeHeader(buffer, flag, status, res.getId());
+            if (compress) {
+                // not compressed until the size of the body is known.
+                buffer.writeByte(0);
+            }
+            if (status == Response.STREAM) {
+                writeChunkIndex(buffer, res);
+            }
             ChannelBufferOutputStream bos = new ChannelBufferOutputStream(buffer);
             ObjectOutput out = serialization.serialize(channel.getUrl(), bos);
             // encode response data or error message.
-            if (status == Response.OK) {
+            if (status == Response.OK || status == Response.STREAM) {
                 if (res.isHeartbeat()) {
                     encodeHeartbeatData(channel, out, res.getResult());
                 } else {
@@ -284,14 +308,13 @@ public class ExchangeCodec extends TelnetCodec {
             }
             bos.flush();
             bos.close();
+            if (compress) {
+                compressBody(channel, buffer, savedWriteIndex, compressor);
+            }
 
-            int len = bos.writtenBytes();
+            int len = buffer.writerIndex() - savedWriteIndex - HEADER_LENGTH;
             checkPayload(channel, len);
-            Bytes.int2bytes(len, header, 12);
-            // write
-            buffer.writerIndex(savedWriteIndex);
-            buffer.writeBytes(header); // write header.
-            buffer.writerIndex(savedWriteIndex + HEADER_LENGTH + len);
+            setBodyLength(buffer, savedWriteIndex, len);
         } catch (Throwable t) {
             // clear buffer
             buffer.writerIndex(savedWriteIndex);
@@ -335,6 +358,118 @@ public class ExchangeCodec extends TelnetCodec {
         }
     }
 
+    /**
+     * Writes the header straight into the buffer without an intermediate array,
+     * leaving the 4 bytes of the data length to be set by {@link #setBodyLength}.
+     */
+    private static void writeHeader(ChannelBuffer buffer, byte flag, byte status, long id) {
+        buffer.ensureWritableBytes(HEADER_LENGTH);
+        // set magic number.
+        buffer.writeByte(MAGIC_HIGH);
+        buffer.writeByte(MAGIC_LOW);
+        buffer.writeByte(flag);
+        buffer.writeByte(status);
+        // set request id.
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer.writeByte((int) (id >>> shift));
+        }
+        // reserve data length.
+        for (int i = 0; i < 4; i++) {
+            buffer.writeByte(0);
+        }
+    }
+
+    /**
+     * A stream chunk has its index as 4 raw bytes ahead of the body, negative for the last chunk.
+     */
+    private static void writeChunkIndex(ChannelBuffer buffer, Response res) {
+        int index = res.isLastChunk() ? -res.getChunk() - 1 : res.getChunk();
+        buffer.writeByte(index >>> 24);
+        buffer.writeByte(index >>> 16);
+        buffer.writeByte(index >>> 8);
+        buffer.writeByte(index);
+    }
+
+    protected static int readChunkIndex(InputStream is) throws IOException {
+        byte[] index = new byte[4];
+        readFully(is, index);
+        return Bytes.bytes2int(index);
+    }
+
+    protected static void setChunkIndex(Response res, int index) {
+        if (index < 0) {
+            res.setChunk(-index - 1, true);
+        } else {
+            res.setChunk(index, false);
+        }
+    }
+
+    private static void acceptCompression(Channel channel) {
+        if (!channel.hasAttribute(COMPRESSION_KEY)) {
+            channel.setAttribute(COMPRESSION_KEY, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * The body of a compressed message starts with the compressor id, 0 for a body sent as is. Otherwise the id is
+     * followed by the original length of the body and the compressed body.
+     */
+    private static void compressBody(Channel channel, ChannelBuffer buffer, int headerIndex, Compressor compressor) throws IOException {
+        int bodyIndex = headerIndex + HEADER_LENGTH;
+        int len = buffer.writerIndex() - bodyIndex - 1;
+        int threshold = channel.getUrl().getParameter(Constants.COMPRESS_THRESHOLD_KEY, Constants.DEFAULT_COMPRESS_THRESHOLD);
+        if (len < threshold) {
+            return;
+        }
+        byte[] body = new byte[len];
+        buffer.getBytes(bodyIndex + 1, body);
+        byte[] compressed = compressor.compress(body, 0, len);
+        // keep the body as is unless it gets smaller.
+        if (compressed.length + 4 < len) {
+            buffer.writerIndex(bodyIndex);
+            buffer.writeByte(compressor.getContentTypeId());
+            buffer.writeBytes(Bytes.int2bytes(len));
+            buffer.writeBytes(compressed);
+        }
+    }
+
+    private static InputStream decompress(Channel channel, InputStream is, int len) throws IOException {
+        int id = is.read();
+        if (id == 0) {
+            return is;
+        }
+        Compressor compressor = CodecSupport.getCompressorById((byte) id);
+        if (compressor == null) {
+            throw new IOException("Unexpected compressor id:" + id + " received from network, please check if the peer send the right id.");
+        }
+        if (len < 5) {
+            throw new IOException("Unexpected end of the compressed message body");
+        }
+        byte[] body = new byte[len - 1];
+        readFully(is, body);
+        int originalLength = Bytes.bytes2int(body);
+        checkPayload(channel, originalLength);
+        return new UnsafeByteArrayInputStream(compressor.decompress(body, 4, body.length - 4, originalLength));
+    }
+
+    private static void readFully(InputStream is, byte[] bytes) throws IOException {
+        for (int read = 0; read < bytes.length; ) {
+            int n = is.read(bytes, read, bytes.length - read);
+            if (n < 0) {
+                throw new IOException("Unexpected end of the message body");
+            }
+            read += n;
+        }
+    }
+
+    private static void setBodyLength(ChannelBuffer buffer, int headerIndex, int len) {
+        int index = headerIndex + 12;
+        buffer.setByte(index, len >>> 24);
+        buffer.setByte(index + 1, len >>> 16);
+        buffer.setByte(index + 2, len >>> 8);
+        buffer.setByte(index + 3, len);
+    }
+
     @Override
     protected Object decodeData(ObjectInput in) throws IOException {
         return decodeRequestData(in);
@@ -19,6 +19,8 @@ package org.apache.dubbo.remoting.exchange.support;
 import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.ConfigUtils;
+import org.apache.dubbo.common.utils.NamedThreadFactory;
 import org.apache.dubbo.remoting.Channel;
 import org.apache.dubbo.remoting.RemotingException;
 import org.apache.dubbo.remoting.TimeoutException;
@@ -26,6 +28,10 @@ import org.apache.dubbo.remoting.exchange.Request;
 import org.apache.dubbo.remoting.exchange.Response;
 import org.apache.dubbo.remoting.exchange.ResponseCallback;
 import org.apache.dubbo.remoting.exchange.ResponseFuture;
+import org.apache.dubbo.remoting.timer.HashedWheelTimer;
+import org.apache.dubbo.remoting.timer.Timeout;
+import org.apache.dubbo.remoting.timer.Timer;
+import org.apache.dubbo.remoting.timer.TimerTask;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -47,11 +53,10 @@ public class DefaultFuture implements ResponseFuture {
 
     private static final Map<Long, DefaultFuture> FUTURES = new ConcurrentHashMap<Long, DefaultFuture>();
 
-    static {
-        Thread th = new Thread(new RemotingInvocationTimeoutScan(), "DubboResponseTimeoutScanTimer");
-        th.setDaemon(true);
-        th.start();
-    }
+    public static final Timer TIME_OUT_TIMER = new HashedWheelTimer(
+            new NamedThreadFactory("dubbo-future-timeout", true),
+            getTimeoutTick(),
+            TimeUnit.MILLISECONDS);
 
     // invoke id.
     private final long id;
@@ -64,6 +69,10 @@ public class DefaultFuture implements ResponseFuture {
     private volatile long sent;
     private volatile Response response;
     private volatile ResponseCallback callback;
+    private volatile Timeout timeoutCheckTask;
+    // the timeout check that counts, a stream restarts it on progress
+    private volatile int timeoutGeneration;
+    private ResponseStream stream; // guarded by lock, created on the first chunk or getStream
 
     public DefaultFuture(Channel channel, Request request, int timeout) {
         this.channel = channel;
@@ -73,6 +82,24 @@ public class DefaultFuture implements ResponseFuture {
         // put into waiting map.
         FUTURES.put(id, this);
         CHANNELS.put(id, channel);
+        // register the timeout of this future only, instead of scanning all of them.
+        timeoutCheckTask = TIME_OUT_TIMER.newTimeout(new TimeoutCheckTask(this, 0), this.timeout, TimeUnit.MILLISECONDS);
+    }
+
+    private static int getTimeoutTick() {
+        String tick = ConfigUtils.getProperty(Constants.FUTURE_TIMEOUT_TICK_KEY);
+        if (tick != null && tick.length() > 0) {
+            try {
+                int value = Integer.parseInt(tick.trim());
+                if (value > 0) {
+                    return value;
+                }
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid " + Constants.FUTURE_TIMEOUT_TICK_KEY + " " + tick + ", use default "
+                        + Constants.DEFAULT_FUTURE_TIMEOUT_TICK + " ms instead.");
+            }
+        }
+        return Constants.DEFAULT_FUTURE_TIMEOUT_TICK;
     }
 
     public static DefaultFuture getFuture(long id) {
@@ -91,9 +118,14 @@ public class DefaultFuture implements ResponseFuture {
     }
 
     public static void received(Channel channel, Response response) {
+        if (response.getStatus() == Response.STREAM) {
+            receivedChunk(channel, response);
+            return;
+        }
         try {
             DefaultFuture future = FUTURES.remove(response.getId());
             if (future != null) {
+                future.cancelTimeoutCheck();
                 future.doReceived(response);
             } else {
                 logger.warn("The timeout response finally returned at "
@@ -107,6 +139,51 @@ public class DefaultFuture implements ResponseFuture {
         }
     }
 
+    private static void receivedChunk(Channel channel, Response chunk) {
+        DefaultFuture future = FUTURES.get(chunk.getId());
+        if (future == null) {
+            logger.warn("The stream chunk finally returned after the stream is done, response " + chunk
+                    + (channel == null ? "" : ", channel: " + channel.getLocalAddress() + " -> " + channel.getRemoteAddress()));
+            return;
+        }
+        Response last = future.stream().received(chunk);
+        if (last == null) {
+            future.refreshTimeoutCheck();
+        } else if (FUTURES.remove(chunk.getId()) != null) {
+            CHANNELS.remove(chunk.getId());
+            future.cancelTimeoutCheck();
+            Response response = new Response(last.getId(), last.getVersion());
+            response.setResult(last.getResult());
+            future.doReceived(response);
+        }
+    }
+
+    /**
+     * The chunks of a streamed reply, instead of waiting for the single response with {@link #get()}.
+     *
+     * @param window the chunks the provider sends ahead, the same as the window the provider was asked for
+     */
+    public ResponseStream getStream(int window) {
+        ResponseStream stream = stream();
+        stream.setWindow(window);
+        return stream;
+    }
+
+    private ResponseStream stream() {
+        lock.lock();
+        try {
+            if (stream == null) {
+                stream = new ResponseStream(this, channel);
+                if (response != null) {
+                    stream.finish(response);
+                }
+            }
+            return stream;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     @Override
     public Object get() throws RemotingException {
         return get(timeout);
@@ -139,12 +216,41 @@ public class DefaultFuture implements ResponseFuture {
         return returnFromResponse();
     }
 
+    /**
+     * Complete the future with an error and call its callback. It is unregistered at once, a late response is logged
+     * like one arriving after the timeout.
+     */
     public void cancel() {
         Response errorResult = new Response(id);
+        errorResult.setStatus(Response.CLIENT_ERROR);
         errorResult.setErrorMessage("request future has been canceled.");
-        response = errorResult;
         FUTURES.remove(id);
         CHANNELS.remove(id);
+        cancelTimeoutCheck();
+        doReceived(errorResult);
+    }
+
+    private void cancelTimeoutCheck() {
+        Timeout t = timeoutCheckTask;
+        if (t != null) {
+            t.cancel();
+        }
+    }
+
+    /**
+     * Restart the timeout, a stream times out only when it makes no progress for the timeout.
+     */
+    void refreshTimeoutCheck() {
+        lock.lock();
+        try {
+            if (!isDone()) {
+                cancelTimeoutCheck();
+                int generation = ++timeoutGeneration;
+                timeoutCheckTask = TIME_OUT_TIMER.newTimeout(new TimeoutCheckTask(this, generation), timeout, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
@@ -238,14 +344,6 @@ public class DefaultFuture implements ResponseFuture {
         return request;
     }
 
-    private int getTimeout() {
-        return timeout;
-    }
-
-    private long getStartTimestamp() {
-        return start;
-    }
-
     private void doSent() {
         sent = System.currentTimeMillis();
     }
@@ -253,10 +351,16 @@ public class DefaultFuture implements ResponseFuture {
     private void doReceived(Response res) {
         lock.lock();
         try {
+            if (response != null) {
+                return;
+            }
             response = res;
             if (done != null) {
                 done.signal();
             }
+            if (stream != null) {
+                stream.finish(res);
+            }
         } finally {
             lock.unlock();
         }
@@ -268,7 +372,7 @@ public class DefaultFuture implements ResponseFuture {
     private String getTimeoutMessage(boolean scan) {
         long nowTimestamp = System.currentTimeMillis();
         return (sent > 0 ? "Waiting server-side response timeout" : "Sending request timeout in client-side")
-                + (scan ? " by scan timer" : "") + ". start time: "
+                + (scan ? " by timeout timer" : "") + ". start time: "
                 + (new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(start))) + ", end time: "
                 + (new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date())) + ","
                 + (sent > 0 ? " client elapsed: " + (sent - start)
@@ -278,31 +382,31 @@ public class DefaultFuture implements ResponseFuture {
                 + " -> " + channel.getRemoteAddress();
     }
 
-    private static class RemotingInvocationTimeoutScan implements Runnable {
+    private static class TimeoutCheckTask implements TimerTask {
+
+        private final DefaultFuture future;
+
+        private final int generation;
+
+        TimeoutCheckTask(DefaultFuture future, int generation) {
+            this.future = future;
+            this.generation = generation;
+        }
 
         @Override
-        public void run() {
-            while (true) {
-                try {
-                    for (DefaultFuture future : FUTURES.values()) {
-                        if (future == null || future.isDone()) {
-                            continue;
-                        }
-                        if (System.currentTimeMillis() - future.getStartTimestamp() > future.getTimeout()) {
-                            // create exception response.
-                            Response timeoutResponse = new Response(future.getId());
-                            // set timeout status.
-                            timeoutResponse.setStatus(future.isSent() ? Response.SERVER_TIMEOUT : Response.CLIENT_TIMEOUT);
-                            timeoutResponse.setErrorMessage(future.getTimeoutMessage(true));
-                            // handle response.
-                            DefaultFuture.received(future.getChannel(), timeoutResponse);
-                        }
-                    }
-                    Thread.sleep(30);
-                } catch (Throwable e) {
-                    logger.error("Exception when scan the timeout invocation of remoting.", e);
-                }
+        public void run(Timeout timeout) {
+            // a stream restarts its timeout on progress, only the latest one counts. the generation is fixed before
+            // scheduling, the task may run before newTimeout returns.
+            if (future.timeoutGeneration != generation || future.isDone()) {
+                return;
             }
+            // create exception response.
+            Response timeoutResponse = new Response(future.getId());
+            // set timeout status.
+            timeoutResponse.setStatus(future.isSent() ? Response.SERVER_TIMEOUT : Response.CLIENT_TIMEOUT);
+            timeoutResponse.setErrorMessage(future.getTimeoutMessage(true));
+            // handle response.
+            DefaultFuture.received(future.getChannel(), timeoutResponse);
         }
     }
 
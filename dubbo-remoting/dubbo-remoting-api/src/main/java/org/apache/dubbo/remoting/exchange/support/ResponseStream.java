@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.exchange.support;
+
+import org.apache.dubbo.common.Version;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.remoting.Channel;
+import org.apache.dubbo.remoting.RemotingException;
+import org.apache.dubbo.remoting.TimeoutException;
+import org.apache.dubbo.remoting.exchange.Request;
+import org.apache.dubbo.remoting.exchange.Response;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The consumer side of a {@link StreamReply}, see {@link DefaultFuture#getStream(int)}.
+ * <p>
+ * The chunks may be dispatched to different threads and arrive out of order, so they are put back in order by
+ * their index here. Every half window of taken chunks is credited back to the provider, which keeps at most a
+ * window of chunks buffered on this side.
+ */
+public class ResponseStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseStream.class);
+
+    private final DefaultFuture future;
+
+    private final Channel channel;
+
+    private final Lock lock = new ReentrantLock();
+
+    private final Condition available = lock.newCondition();
+
+    private final Map<Integer, Response> outOfOrder = new HashMap<Integer, Response>();
+
+    private final Queue<Object> chunks = new ArrayDeque<Object>();
+
+    private int expected;
+
+    private boolean completed;
+
+    private Response failure;
+
+    private int window = 1;
+
+    private int taken;
+
+    ResponseStream(DefaultFuture future, Channel channel) {
+        this.future = future;
+        this.channel = channel;
+    }
+
+    void setWindow(int window) {
+        lock.lock();
+        try {
+            this.window = Math.max(1, window);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the last chunk once it is in order, that is the stream is complete, otherwise null
+     */
+    Response received(Response chunk) {
+        lock.lock();
+        try {
+            if (completed || failure != null) {
+                return null;
+            }
+            if (chunk.getChunk() != expected) {
+                outOfOrder.put(chunk.getChunk(), chunk);
+                return null;
+            }
+            Response last = offer(chunk);
+            Response next;
+            while (last == null && (next = outOfOrder.remove(expected)) != null) {
+                last = offer(next);
+            }
+            available.signalAll();
+            return last;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Response offer(Response chunk) {
+        expected++;
+        if (chunk.isLastChunk()) {
+            completed = true;
+            outOfOrder.clear();
+            return chunk;
+        }
+        chunks.add(chunk.getResult());
+        return null;
+    }
+
+    /**
+     * The future is done, either by the last chunk or by a plain response which failed or did not stream.
+     */
+    void finish(Response response) {
+        lock.lock();
+        try {
+            if (!completed && failure == null) {
+                if (response.getStatus() == Response.OK) {
+                    chunks.add(response.getResult());
+                    completed = true;
+                } else {
+                    failure = response;
+                }
+                outOfOrder.clear();
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take the next chunk, waiting for it to arrive. The chunks received before a failure are still handed out
+     * before the failure is thrown.
+     *
+     * @return the next chunk, or null at the end of the stream
+     */
+    public Object next() throws RemotingException {
+        Object chunk;
+        int credits = 0;
+        lock.lock();
+        try {
+            while (chunks.isEmpty()) {
+                if (failure != null) {
+                    if (failure.getStatus() == Response.CLIENT_TIMEOUT || failure.getStatus() == Response.SERVER_TIMEOUT) {
+                        throw new TimeoutException(failure.getStatus() == Response.SERVER_TIMEOUT, channel, failure.getErrorMessage());
+                    }
+                    throw new RemotingException(channel, failure.getErrorMessage());
+                }
+                if (completed) {
+                    return null;
+                }
+                available.await();
+            }
+            chunk = chunks.poll();
+            if (!completed && failure == null && ++taken >= Math.max(1, window / 2)) {
+                credits = taken;
+                taken = 0;
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+        if (credits > 0) {
+            credit(credits);
+        }
+        return chunk;
+    }
+
+    private void credit(int credits) {
+        Request request = new Request();
+        request.setVersion(Version.getProtocolVersion());
+        request.setTwoWay(false);
+        request.setEvent(StreamReply.creditEvent(future.getRequest().getId(), credits));
+        try {
+            channel.send(request);
+            // the consumer is making progress, so do not time the stream out while the provider catches up.
+            future.refreshTimeoutCheck();
+        } catch (RemotingException e) {
+            logger.warn("Failed to credit " + credits + " chunks of stream " + future.getRequest().getId()
+                    + ", cause: " + e.getMessage(), e);
+        }
+    }
+}
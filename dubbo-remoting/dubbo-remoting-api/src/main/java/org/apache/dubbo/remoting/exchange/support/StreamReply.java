@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.exchange.support;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.remoting.Channel;
+import org.apache.dubbo.remoting.exchange.Request;
+import org.apache.dubbo.remoting.exchange.Response;
+import org.apache.dubbo.remoting.timer.Timeout;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A reply sent as a series of {@link Response#STREAM} responses sharing the request id, one per chunk, instead of
+ * a single response holding the whole result.
+ * <p>
+ * The consumer grants credits for the chunks it has taken, see {@link ResponseStream}. At most <code>window</code>
+ * chunks are sent ahead of the credits, and no thread is held while waiting for them: the chunks are pulled from
+ * the iterator by whichever thread brings in new credits. A stream without any credit for the request timeout is
+ * abandoned.
+ */
+public class StreamReply {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamReply.class);
+
+    private static final String CREDIT_EVENT_PREFIX = "C";
+
+    private static final String ATTRIBUTE_PREFIX = StreamReply.class.getName() + ".";
+
+    private final Iterator<?> chunks;
+
+    private final Object end;
+
+    private final int window;
+
+    private Channel channel;
+
+    private Request request;
+
+    private int credits;
+
+    private int sent;
+
+    private boolean finished;
+
+    private Timeout stallTimeout;
+
+    /**
+     * @param chunks the results sent one response each
+     * @param end    the result of the last response, which ends the stream
+     * @param window the chunks sent ahead of the consumer credits
+     */
+    public StreamReply(Iterator<?> chunks, Object end, int window) {
+        if (chunks == null) {
+            throw new IllegalArgumentException("chunks == null");
+        }
+        this.chunks = chunks;
+        this.end = end;
+        this.window = Math.max(1, window);
+    }
+
+    static String creditEvent(long id, int credits) {
+        return CREDIT_EVENT_PREFIX + id + ":" + credits;
+    }
+
+    /**
+     * Hand the credits of a credit event to the stream it is meant for.
+     *
+     * @return whether the event is a credit event
+     */
+    public static boolean credit(Channel channel, Object event) {
+        if (!(event instanceof String) || !((String) event).startsWith(CREDIT_EVENT_PREFIX)) {
+            return false;
+        }
+        String credit = (String) event;
+        int separator = credit.indexOf(':');
+        if (separator < 0) {
+            return false;
+        }
+        long id;
+        int credits;
+        try {
+            id = Long.parseLong(credit.substring(CREDIT_EVENT_PREFIX.length(), separator));
+            credits = Integer.parseInt(credit.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        StreamReply reply = (StreamReply) channel.getAttribute(ATTRIBUTE_PREFIX + id);
+        if (reply != null) {
+            reply.grant(credits);
+        }
+        return true;
+    }
+
+    /**
+     * Start sending the stream as the reply of the request.
+     */
+    public void start(Channel channel, Request request) {
+        synchronized (this) {
+            this.channel = channel;
+            this.request = request;
+            this.credits = window;
+        }
+        channel.setAttribute(ATTRIBUTE_PREFIX + request.getId(), this);
+        pump();
+    }
+
+    private void grant(int credits) {
+        synchronized (this) {
+            this.credits += credits;
+        }
+        pump();
+    }
+
+    private synchronized void pump() {
+        if (finished) {
+            return;
+        }
+        if (stallTimeout != null) {
+            stallTimeout.cancel();
+            stallTimeout = null;
+        }
+        try {
+            while (credits > 0 && chunks.hasNext()) {
+                send(chunks.next(), false);
+                credits--;
+            }
+            if (!chunks.hasNext()) {
+                send(end, true);
+                finish();
+            } else {
+                int timeout = channel.getUrl().getPositiveParameter(Constants.TIMEOUT_KEY, Constants.DEFAULT_TIMEOUT);
+                stallTimeout = DefaultFuture.TIME_OUT_TIMER.newTimeout(t -> abandon(), timeout, TimeUnit.MILLISECONDS);
+            }
+        } catch (Throwable t) {
+            logger.warn("Failed to send the stream reply of request " + request.getId() + " to " + channel.getRemoteAddress()
+                    + ", cause: " + t.getMessage(), t);
+            finish();
+        }
+    }
+
+    private void send(Object result, boolean last) throws Exception {
+        Response response = new Response(request.getId(), request.getVersion());
+        response.setStatus(Response.STREAM);
+        response.setChunk(sent++, last);
+        response.setResult(result);
+        channel.send(response);
+    }
+
+    private synchronized void abandon() {
+        if (!finished && credits == 0) {
+            logger.warn("Abandon the stream reply of request " + request.getId() + " to " + channel.getRemoteAddress()
+                    + ", no credit from the consumer after " + sent + " chunks");
+            finish();
+        }
+    }
+
+    private void finish() {
+        finished = true;
+        channel.removeAttribute(ATTRIBUTE_PREFIX + request.getId());
+    }
+}
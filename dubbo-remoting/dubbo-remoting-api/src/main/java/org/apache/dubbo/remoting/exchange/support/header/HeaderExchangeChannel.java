@@ -181,6 +181,11 @@ final class HeaderExchangeChannel implements ExchangeChannel {
         return channel.isConnected();
     }
 
+    @Override
+    public boolean isWritable() {
+        return channel.isWritable();
+    }
+
     @Override
     public ChannelHandler getChannelHandler() {
         return channel.getChannelHandler();
@@ -100,6 +100,11 @@ public class HeaderExchangeClient implements ExchangeClient {
         return channel.isConnected();
     }
 
+    @Override
+    public boolean isWritable() {
+        return channel.isWritable();
+    }
+
     @Override
     public InetSocketAddress getLocalAddress() {
         return channel.getLocalAddress();
@@ -31,6 +31,7 @@ import org.apache.dubbo.remoting.exchange.ExchangeHandler;
 import org.apache.dubbo.remoting.exchange.Request;
 import org.apache.dubbo.remoting.exchange.Response;
 import org.apache.dubbo.remoting.exchange.support.DefaultFuture;
+import org.apache.dubbo.remoting.exchange.support.StreamReply;
 import org.apache.dubbo.remoting.transport.ChannelHandlerDelegate;
 
 import java.net.InetSocketAddress;
@@ -74,6 +75,8 @@ public class HeaderExchangeHandler implements ChannelHandlerDelegate {
     void handlerEvent(Channel channel, Request req) throws RemotingException {
         if (req.getData() != null && req.getData().equals(Request.READONLY_EVENT)) {
             channel.setAttribute(Constants.CHANNEL_ATTRIBUTE_READONLY_KEY, Boolean.TRUE);
+        } else {
+            StreamReply.credit(channel, req.getData());
         }
     }
 
@@ -98,13 +101,22 @@ public class HeaderExchangeHandler implements ChannelHandlerDelegate {
             // handle data.
             CompletableFuture<Object> future = handler.reply(channel, msg);
             if (future.isDone()) {
+                Object result = future.get();
+                if (result instanceof StreamReply) {
+                    ((StreamReply) result).start(channel, req);
+                    return;
+                }
                 res.setStatus(Response.OK);
-                res.setResult(future.get());
+                res.setResult(result);
                 channel.send(res);
                 return;
             }
             future.whenComplete((result, t) -> {
                 try {
+                    if (t == null && result instanceof StreamReply) {
+                        ((StreamReply) result).start(channel, req);
+                        return;
+                    }
                     if (t == null) {
                         res.setStatus(Response.OK);
                         res.setResult(result);
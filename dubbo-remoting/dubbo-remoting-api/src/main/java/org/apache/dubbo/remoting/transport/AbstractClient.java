@@ -220,6 +220,14 @@ public abstract class AbstractClient extends AbstractEndpoint implements Client
         return channel.isConnected();
     }
 
+    @Override
+    public boolean isWritable() {
+        Channel channel = getChannel();
+        if (channel == null)
+            return false;
+        return channel.isWritable();
+    }
+
     @Override
     public Object getAttribute(String key) {
         Channel channel = getChannel();
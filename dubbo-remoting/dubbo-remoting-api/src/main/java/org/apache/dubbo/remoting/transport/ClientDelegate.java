@@ -84,6 +84,11 @@ public class ClientDelegate implements Client {
         return client.isConnected();
     }
 
+    @Override
+    public boolean isWritable() {
+        return client.isWritable();
+    }
+
     @Override
     public InetSocketAddress getLocalAddress() {
         return client.getLocalAddress();
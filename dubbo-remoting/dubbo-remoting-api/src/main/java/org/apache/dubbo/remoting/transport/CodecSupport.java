@@ -23,6 +23,8 @@ import org.apache.dubbo.common.extension.ExtensionLoader;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.common.serialize.Serialization;
+import org.apache.dubbo.common.utils.StringUtils;
+import org.apache.dubbo.remoting.Compressor;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -31,30 +33,56 @@ import java.util.Set;
 
 public class CodecSupport {
 
+    /**
+     * The exchange header keeps the serialization id in its low 4 bits, the bit above flags a compressed body
+     */
+    static final byte MAX_SERIALIZATION_ID = 0x0f;
+
     private static final Logger logger = LoggerFactory.getLogger(CodecSupport.class);
     private static Map<Byte, Serialization> ID_SERIALIZATION_MAP = new HashMap<Byte, Serialization>();
     private static Map<Byte, String> ID_SERIALIZATIONNAME_MAP = new HashMap<Byte, String>();
+    private static Map<Byte, Compressor> ID_COMPRESSOR_MAP = new HashMap<Byte, Compressor>();
 
     static {
         Set<String> supportedExtensions = ExtensionLoader.getExtensionLoader(Serialization.class).getSupportedExtensions();
         for (String name : supportedExtensions) {
-            Serialization serialization = ExtensionLoader.getExtensionLoader(Serialization.class).getExtension(name);
-            byte idByte = serialization.getContentTypeId();
-            if (ID_SERIALIZATION_MAP.containsKey(idByte)) {
-                logger.error("Serialization extension " + serialization.getClass().getName()
-                        + " has duplicate id to Serialization extension "
-                        + ID_SERIALIZATION_MAP.get(idByte).getClass().getName()
-                        + ", ignore this Serialization extension");
+            addSerialization(name, ExtensionLoader.getExtensionLoader(Serialization.class).getExtension(name));
+        }
+        for (String name : ExtensionLoader.getExtensionLoader(Compressor.class).getSupportedExtensions()) {
+            Compressor compressor = ExtensionLoader.getExtensionLoader(Compressor.class).getExtension(name);
+            byte idByte = compressor.getContentTypeId();
+            if (idByte <= 0 || ID_COMPRESSOR_MAP.containsKey(idByte)) {
+                logger.error("Compressor extension " + compressor.getClass().getName()
+                        + " has invalid or duplicate id " + idByte + ", ignore this Compressor extension");
                 continue;
             }
-            ID_SERIALIZATION_MAP.put(idByte, serialization);
-            ID_SERIALIZATIONNAME_MAP.put(idByte, name);
+            ID_COMPRESSOR_MAP.put(idByte, compressor);
         }
     }
 
     private CodecSupport() {
     }
 
+    static boolean addSerialization(String name, Serialization serialization) {
+        byte idByte = serialization.getContentTypeId();
+        if (idByte < 0 || idByte > MAX_SERIALIZATION_ID) {
+            logger.error("Serialization extension " + serialization.getClass().getName() + " has id " + idByte
+                    + " out of [0, " + MAX_SERIALIZATION_ID + "], which the exchange header cannot carry since the "
+                    + "compression flag took its 5th bit, ignore this Serialization extension");
+            return false;
+        }
+        if (ID_SERIALIZATION_MAP.containsKey(idByte)) {
+            logger.error("Serialization extension " + serialization.getClass().getName()
+                    + " has duplicate id to Serialization extension "
+                    + ID_SERIALIZATION_MAP.get(idByte).getClass().getName()
+                    + ", ignore this Serialization extension");
+            return false;
+        }
+        ID_SERIALIZATION_MAP.put(idByte, serialization);
+        ID_SERIALIZATIONNAME_MAP.put(idByte, name);
+        return true;
+    }
+
     public static Serialization getSerializationById(Byte id) {
         return ID_SERIALIZATION_MAP.get(id);
     }
@@ -75,4 +103,19 @@ public class CodecSupport {
         return serialization;
     }
 
+    public static Compressor getCompressorById(Byte id) {
+        return ID_COMPRESSOR_MAP.get(id);
+    }
+
+    /**
+     * @return the compressor configured on the url, or null if compression is off
+     */
+    public static Compressor getCompressor(URL url) {
+        String name = url.getParameter(Constants.COMPRESSOR_KEY);
+        if (StringUtils.isEmpty(name)) {
+            return null;
+        }
+        return ExtensionLoader.getExtensionLoader(Compressor.class).getExtension(name);
+    }
+
 }
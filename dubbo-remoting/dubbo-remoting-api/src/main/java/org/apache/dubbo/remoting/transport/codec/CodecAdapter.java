@@ -24,6 +24,7 @@ import org.apache.dubbo.remoting.Channel;
 import org.apache.dubbo.remoting.Codec;
 import org.apache.dubbo.remoting.Codec2;
 import org.apache.dubbo.remoting.buffer.ChannelBuffer;
+import org.apache.dubbo.remoting.exchange.Response;
 
 import java.io.IOException;
 
@@ -39,6 +40,10 @@ public class CodecAdapter implements Codec2 {
     @Override
     public void encode(Channel channel, ChannelBuffer buffer, Object message)
             throws IOException {
+        // a legacy codec does not know the chunk index of a streamed response, and would write it as a plain one
+        if (message instanceof Response && ((Response) message).getStatus() == Response.STREAM) {
+            throw new IOException("Codec " + codec.getClass().getName() + " does not support streamed responses, response: " + message);
+        }
         UnsafeByteArrayOutputStream os = new UnsafeByteArrayOutputStream(1024);
         codec.encode(channel, os, message);
         buffer.writeBytes(os.toByteArray());
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.compress;
+
+import org.apache.dubbo.remoting.Compressor;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A compressor of the JDK deflate format, a better ratio than lz4 at a much higher CPU cost.
+ */
+public class DeflateCompressor implements Compressor {
+
+    public static final byte ID = 2;
+
+    @Override
+    public byte getContentTypeId() {
+        return ID;
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int offset, int length) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(data, offset, length);
+            deflater.finish();
+            byte[] dest = new byte[length + length / 1000 + 64];
+            int written = 0;
+            while (!deflater.finished()) {
+                if (written == dest.length) {
+                    dest = Arrays.copyOf(dest, dest.length * 2);
+                }
+                written += deflater.deflate(dest, written, dest.length - written);
+            }
+            return Arrays.copyOf(dest, written);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int offset, int length, int originalLength) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            // the nowrap format needs an extra dummy byte at the end of the input.
+            byte[] input = new byte[length + 1];
+            System.arraycopy(data, offset, input, 0, length);
+            inflater.setInput(input);
+            byte[] dest = new byte[originalLength];
+            int read = 0;
+            while (read < originalLength && !inflater.finished()) {
+                int n = inflater.inflate(dest, read, originalLength - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != originalLength) {
+                throw new IOException("Malformed deflate data, " + read + " bytes inflated instead of " + originalLength);
+            }
+            return dest;
+        } catch (DataFormatException e) {
+            throw new IOException("Malformed deflate data, cause: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
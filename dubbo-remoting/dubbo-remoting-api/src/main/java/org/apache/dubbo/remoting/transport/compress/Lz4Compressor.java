@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.compress;
+
+import org.apache.dubbo.remoting.Compressor;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A pure Java compressor of the LZ4 block format, trading some ratio for speed: serialized DTOs repeat their
+ * class and field names a lot, which is cheap to find with a single hash probe per position.
+ */
+public class Lz4Compressor implements Compressor {
+
+    public static final byte ID = 1;
+
+    private static final int MIN_MATCH = 4;
+
+    // the last match must start 12 bytes before the end, and the last 5 bytes are always literals.
+    private static final int MF_LIMIT = 12;
+
+    private static final int LAST_LITERALS = 5;
+
+    private static final int MAX_DISTANCE = 0xffff;
+
+    private static final int HASH_LOG = 12;
+
+    private static final int RUN_MASK = 0x0f;
+
+    @Override
+    public byte getContentTypeId() {
+        return ID;
+    }
+
+    @Override
+    public byte[] compress(byte[] data, int offset, int length) throws IOException {
+        byte[] dest = new byte[length + length / 255 + 16];
+        int[] table = new int[1 << HASH_LOG];
+        Arrays.fill(table, -1);
+        int end = offset + length;
+        int matchLimit = end - LAST_LITERALS;
+        int mfLimit = end - MF_LIMIT;
+        int anchor = offset;
+        int sp = offset;
+        int dp = 0;
+        while (sp < mfLimit) {
+            int sequence = readInt(data, sp);
+            int h = hash(sequence);
+            int ref = table[h];
+            table[h] = sp;
+            if (ref < 0 || sp - ref > MAX_DISTANCE || readInt(data, ref) != sequence) {
+                sp++;
+                continue;
+            }
+            while (sp > anchor && ref > offset && data[sp - 1] == data[ref - 1]) {
+                sp--;
+                ref--;
+            }
+            int matchLength = MIN_MATCH;
+            while (sp + matchLength < matchLimit && data[sp + matchLength] == data[ref + matchLength]) {
+                matchLength++;
+            }
+            dp = writeSequence(dest, dp, data, anchor, sp - anchor, sp - ref, matchLength);
+            sp += matchLength;
+            anchor = sp;
+        }
+        dp = writeLastLiterals(dest, dp, data, anchor, end - anchor);
+        return Arrays.copyOf(dest, dp);
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int offset, int length, int originalLength) throws IOException {
+        byte[] dest = new byte[originalLength];
+        int end = offset + length;
+        int sp = offset;
+        int dp = 0;
+        try {
+            while (sp < end) {
+                int token = data[sp++] & 0xff;
+                int literalLength = token >>> 4;
+                if (literalLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = data[sp++] & 0xff;
+                        literalLength += b;
+                    } while (b == 0xff);
+                }
+                if (sp + literalLength > end || dp + literalLength > originalLength) {
+                    throw new IOException("Malformed lz4 data, literals out of bounds at " + (sp - offset));
+                }
+                System.arraycopy(data, sp, dest, dp, literalLength);
+                sp += literalLength;
+                dp += literalLength;
+                if (sp == end) {
+                    break;
+                }
+                int distance = (data[sp++] & 0xff) | (data[sp++] & 0xff) << 8;
+                int matchLength = token & RUN_MASK;
+                if (matchLength == RUN_MASK) {
+                    int b;
+                    do {
+                        b = data[sp++] & 0xff;
+                        matchLength += b;
+                    } while (b == 0xff);
+                }
+                matchLength += MIN_MATCH;
+                if (distance == 0 || distance > dp || dp + matchLength > originalLength) {
+                    throw new IOException("Malformed lz4 data, match out of bounds at " + (sp - offset));
+                }
+                // the match may overlap the bytes it produces, so copy byte by byte.
+                for (int ref = dp - distance, i = 0; i < matchLength; i++) {
+                    dest[dp++] = dest[ref++];
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Malformed lz4 data, truncated at " + (sp - offset));
+        }
+        if (dp != originalLength) {
+            throw new IOException("Malformed lz4 data, " + dp + " bytes decompressed instead of " + originalLength);
+        }
+        return dest;
+    }
+
+    private static int writeSequence(byte[] dest, int dp, byte[] data, int literals, int literalLength,
+                                     int distance, int matchLength) {
+        int tokenIndex = dp++;
+        int token;
+        if (literalLength >= RUN_MASK) {
+            token = RUN_MASK << 4;
+            dp = writeLength(dest, dp, literalLength - RUN_MASK);
+        } else {
+            token = literalLength << 4;
+        }
+        System.arraycopy(data, literals, dest, dp, literalLength);
+        dp += literalLength;
+        dest[dp++] = (byte) distance;
+        dest[dp++] = (byte) (distance >>> 8);
+        int length = matchLength - MIN_MATCH;
+        if (length >= RUN_MASK) {
+            token |= RUN_MASK;
+            dp = writeLength(dest, dp, length - RUN_MASK);
+        } else {
+            token |= length;
+        }
+        dest[tokenIndex] = (byte) token;
+        return dp;
+    }
+
+    private static int writeLastLiterals(byte[] dest, int dp, byte[] data, int literals, int literalLength) {
+        if (literalLength >= RUN_MASK) {
+            dest[dp++] = (byte) (RUN_MASK << 4);
+            dp = writeLength(dest, dp, literalLength - RUN_MASK);
+        } else {
+            dest[dp++] = (byte) (literalLength << 4);
+        }
+        System.arraycopy(data, literals, dest, dp, literalLength);
+        return dp + literalLength;
+    }
+
+    private static int writeLength(byte[] dest, int dp, int length) {
+        while (length >= 0xff) {
+            dest[dp++] = (byte) 0xff;
+            length -= 0xff;
+        }
+        dest[dp++] = (byte) length;
+        return dp;
+    }
+
+    private static int readInt(byte[] data, int index) {
+        return (data[index] & 0xff) | (data[index + 1] & 0xff) << 8
+                | (data[index + 2] & 0xff) << 16 | (data[index + 3] & 0xff) << 24;
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting;
+
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.NamedThreadFactory;
+import org.apache.dubbo.remoting.timer.HashedWheelTimer;
+import org.apache.dubbo.remoting.timer.Timeout;
+import org.apache.dubbo.remoting.timer.TimerTask;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the CPU cost and the accuracy of the timeout scan thread, which walks all the pending
+ * requests every 30ms, with the {@link HashedWheelTimer} used by DefaultFuture.
+ * <p>
+ * Run with -Dtimeouts=200000 -Dtimeout=3000 -Dtick=30
+ */
+public class PerformanceTimeoutTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceTimeoutTest.class);
+
+    @Test
+    public void testTimeout() throws Exception {
+        if (PerformanceUtils.getProperty("timeouts", null) == null) {
+            logger.warn("Please set -Dtimeouts=200000");
+            return;
+        }
+        final int count = PerformanceUtils.getIntProperty("timeouts", 200000);
+        final int timeout = PerformanceUtils.getIntProperty("timeout", 3000);
+        final int tick = PerformanceUtils.getIntProperty("tick", 30);
+
+        PerformanceUtils.printBorder();
+        PerformanceUtils.printBody("Timeouts: " + count + ", timeout: " + timeout + " ms, tick: " + tick + " ms");
+        for (String env : PerformanceUtils.getEnvironment()) {
+            PerformanceUtils.printBody(env);
+        }
+        PerformanceUtils.printSeparator();
+        printResult("Scan", runScan(count, timeout, tick));
+        printResult("HashedWheelTimer", runWheel(count, timeout, tick));
+        PerformanceUtils.printBorder();
+    }
+
+    private static void printResult(String name, Stats stats) {
+        PerformanceUtils.printBody(name + ": cpu " + TimeUnit.NANOSECONDS.toMillis(stats.cpu)
+                + " ms, avg late " + stats.totalLate.get() / stats.count + " ms, max late " + stats.maxLate.get() + " ms");
+    }
+
+    private static Stats runScan(final int count, final int timeout, final int tick) throws Exception {
+        final Map<Integer, Long> deadlines = new ConcurrentHashMap<Integer, Long>();
+        final Stats stats = new Stats(count);
+        Thread scanner = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!Thread.currentThread().isInterrupted()) {
+                    for (Map.Entry<Integer, Long> entry : deadlines.entrySet()) {
+                        long now = System.currentTimeMillis();
+                        if (now > entry.getValue() && deadlines.remove(entry.getKey()) != null) {
+                            stats.expire(now - entry.getValue());
+                        }
+                    }
+                    try {
+                        Thread.sleep(tick);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }, "timeout-scan");
+        scanner.setDaemon(true);
+        scanner.start();
+        for (int i = 0; i < count; i++) {
+            deadlines.put(i, System.currentTimeMillis() + timeout);
+        }
+        stats.latch.await();
+        stats.cpu = cpuTime(scanner);
+        scanner.interrupt();
+        return stats;
+    }
+
+    private static Stats runWheel(final int count, final int timeout, final int tick) throws Exception {
+        final Stats stats = new Stats(count);
+        final AtomicLong worker = new AtomicLong();
+        HashedWheelTimer timer = new HashedWheelTimer(new NamedThreadFactory("timeout-wheel", true), tick, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < count; i++) {
+            final long deadline = System.currentTimeMillis() + timeout;
+            timer.newTimeout(new TimerTask() {
+                @Override
+                public void run(Timeout t) {
+                    worker.set(Thread.currentThread().getId());
+                    stats.expire(System.currentTimeMillis() - deadline);
+                }
+            }, timeout, TimeUnit.MILLISECONDS);
+        }
+        stats.latch.await();
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        stats.cpu = bean.isThreadCpuTimeSupported() ? bean.getThreadCpuTime(worker.get()) : 0;
+        timer.stop();
+        return stats;
+    }
+
+    private static long cpuTime(Thread thread) {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        return bean.isThreadCpuTimeSupported() ? bean.getThreadCpuTime(thread.getId()) : 0;
+    }
+
+    private static class Stats {
+
+        final int count;
+        final CountDownLatch latch;
+        final AtomicLong totalLate = new AtomicLong();
+        final AtomicLong maxLate = new AtomicLong();
+        volatile long cpu;
+
+        Stats(int count) {
+            this.count = count;
+            this.latch = new CountDownLatch(count);
+        }
+
+        void expire(long late) {
+            totalLate.addAndGet(late);
+            long max;
+            while (late > (max = maxLate.get()) && !maxLate.compareAndSet(max, late)) {
+            }
+            latch.countDown();
+        }
+    }
+}
@@ -18,6 +18,7 @@ package org.apache.dubbo.remoting.codec;
 
 
 import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.Version;
 import org.apache.dubbo.common.extension.ExtensionLoader;
 import org.apache.dubbo.common.io.Bytes;
@@ -51,7 +52,8 @@ import static org.junit.Assert.fail;
  *         8 - 1-request/0-response
  *         7 - two way
  *         6 - heartbeat
- *         1-5 serialization id
+ *         5 - compressed
+ *         1-4 serialization id
  *         3 status
  *         20 ok
  *         90 error?
@@ -355,6 +357,104 @@ public class ExchangeCodecTest extends TelnetCodecTest {
 
     }
 
+    @Test
+    public void test_Encode_Stream_Response() throws IOException {
+        Channel channel = getCliendSideChannel(url);
+        for (boolean last : new boolean[]{false, true}) {
+            ChannelBuffer encodeBuffer = ChannelBuffers.dynamicBuffer(1024);
+            Response response = new Response(1001l);
+            response.setStatus(Response.STREAM);
+            response.setChunk(7, last);
+            Person person = new Person();
+            response.setResult(person);
+
+            codec.encode(channel, encodeBuffer, response);
+            Response obj = (Response) codec.decode(channel, encodeBuffer);
+
+            Assert.assertEquals(response.getId(), obj.getId());
+            Assert.assertEquals(Response.STREAM, obj.getStatus());
+            Assert.assertEquals(7, obj.getChunk());
+            Assert.assertEquals(last, obj.isLastChunk());
+            Assert.assertEquals(person, obj.getResult());
+        }
+    }
+
+    @Test
+    public void test_Compression_Negotiation() throws IOException {
+        URL compressed = url.addParameter(Constants.COMPRESSOR_KEY, "lz4").addParameter(Constants.COMPRESS_THRESHOLD_KEY, 64);
+        Channel client = getCliendSideChannel(compressed);
+        Channel server = getServerSideChannel(compressed);
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            data.append("repeated data ");
+        }
+
+        // the consumer does not know yet whether the provider supports compression.
+        Request request = new Request(1);
+        request.setData(data.toString());
+        byte[] bytes = encode(client, request);
+        Assert.assertEquals(0, bytes[2] & 0x10);
+        Assert.assertEquals(1, bytes[3]);
+        Assert.assertEquals(data.toString(), ((Request) codec.decode(server, ChannelBuffers.wrappedBuffer(bytes))).getData());
+
+        // the consumer said it accepts compression.
+        Response response = new Response(1);
+        response.setResult(data.toString());
+        bytes = encode(server, response);
+        Assert.assertEquals(0x10, bytes[2] & 0x10);
+        Assert.assertTrue(bytes.length < data.length());
+        Assert.assertEquals(data.toString(), ((Response) codec.decode(client, ChannelBuffers.wrappedBuffer(bytes))).getResult());
+
+        // the provider sent a compressed response, so the consumer compresses from now on.
+        request = new Request(2);
+        request.setData(data.toString());
+        bytes = encode(client, request);
+        Assert.assertEquals(0x10, bytes[2] & 0x10);
+        Assert.assertTrue(bytes.length < data.length());
+        Assert.assertEquals(data.toString(), ((Request) codec.decode(server, ChannelBuffers.wrappedBuffer(bytes))).getData());
+
+        // small bodies are flagged but sent as is.
+        request = new Request(3);
+        request.setData("small");
+        bytes = encode(client, request);
+        Assert.assertEquals(0x10, bytes[2] & 0x10);
+        Assert.assertEquals(0, bytes[16]);
+        Assert.assertEquals("small", ((Request) codec.decode(server, ChannelBuffers.wrappedBuffer(bytes))).getData());
+    }
+
+    @Test
+    public void test_Compression_Old_Peer() throws IOException {
+        URL compressed = url.addParameter(Constants.COMPRESSOR_KEY, "lz4").addParameter(Constants.COMPRESS_THRESHOLD_KEY, 64);
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            data.append("repeated data ");
+        }
+
+        // a provider without compression ignores that the consumer accepts it, and never compresses.
+        Channel server = getServerSideChannel(url);
+        Request request = new Request(1);
+        request.setData(data.toString());
+        codec.decode(server, ChannelBuffers.wrappedBuffer(encode(getCliendSideChannel(compressed), request)));
+        Response response = new Response(1);
+        response.setResult(data.toString());
+        Assert.assertEquals(0, encode(server, response)[2] & 0x10);
+
+        // a consumer without compression does not accept it, so the provider does not compress.
+        server = getServerSideChannel(compressed);
+        byte[] bytes = encode(getCliendSideChannel(url), request);
+        Assert.assertEquals(0, bytes[3]);
+        codec.decode(server, ChannelBuffers.wrappedBuffer(bytes));
+        Assert.assertEquals(0, encode(server, response)[2] & 0x10);
+    }
+
+    private byte[] encode(Channel channel, Object message) throws IOException {
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(1024);
+        codec.encode(channel, buffer, message);
+        byte[] data = new byte[buffer.readableBytes()];
+        buffer.readBytes(data);
+        return data;
+    }
+
     @Test
     public void test_Encode_Error_Response() throws IOException {
         ChannelBuffer encodeBuffer = ChannelBuffers.dynamicBuffer(1024);
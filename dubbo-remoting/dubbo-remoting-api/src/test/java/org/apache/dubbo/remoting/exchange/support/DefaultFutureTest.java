@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.exchange.support;
+
+import org.apache.dubbo.remoting.RemotingException;
+import org.apache.dubbo.remoting.TimeoutException;
+import org.apache.dubbo.remoting.exchange.Request;
+import org.apache.dubbo.remoting.exchange.Response;
+import org.apache.dubbo.remoting.exchange.ResponseCallback;
+import org.apache.dubbo.remoting.handler.MockedChannel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+public class DefaultFutureTest {
+
+    @Test
+    public void testTimeout() throws Exception {
+        Request request = new Request();
+        DefaultFuture future = new DefaultFuture(new MockedChannel(), request, 100);
+        long start = System.currentTimeMillis();
+        try {
+            future.get(5000);
+            Assert.fail();
+        } catch (TimeoutException e) {
+            Assert.assertTrue(e.getMessage().contains("by timeout timer"));
+        }
+        Assert.assertTrue(System.currentTimeMillis() - start >= 100);
+        Assert.assertNull(DefaultFuture.getFuture(request.getId()));
+    }
+
+    @Test
+    public void testShortTimeouts() throws Exception {
+        // the timer may expire a check before the constructor has stored it, every future still times out
+        Request[] requests = new Request[200];
+        DefaultFuture[] futures = new DefaultFuture[requests.length];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = new Request();
+            futures[i] = new DefaultFuture(new MockedChannel(), requests[i], 1);
+        }
+        Thread.sleep(500);
+        for (int i = 0; i < requests.length; i++) {
+            Assert.assertTrue(futures[i].isDone());
+            Assert.assertNull(DefaultFuture.getFuture(requests[i].getId()));
+        }
+    }
+
+    @Test
+    public void testReceived() throws Exception {
+        Request request = new Request();
+        DefaultFuture future = new DefaultFuture(new MockedChannel(), request, 100);
+        Response response = new Response(request.getId());
+        response.setResult("ok");
+        DefaultFuture.received(null, response);
+        Assert.assertTrue(future.isDone());
+        Assert.assertEquals("ok", future.get());
+        // the timeout must not override the received response.
+        Thread.sleep(200);
+        Assert.assertEquals("ok", future.get());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        Request request = new Request();
+        MockedChannel channel = new MockedChannel();
+        DefaultFuture future = new DefaultFuture(channel, request, 100);
+        final AtomicReference<Throwable> caught = new AtomicReference<Throwable>();
+        future.setCallback(new ResponseCallback() {
+            @Override
+            public void done(Object response) {
+            }
+
+            @Override
+            public void caught(Throwable exception) {
+                caught.set(exception);
+            }
+        });
+        future.cancel();
+        Assert.assertTrue(future.isDone());
+        // unregistered at once, a graceful close does not wait for it
+        Assert.assertNull(DefaultFuture.getFuture(request.getId()));
+        Assert.assertFalse(DefaultFuture.hasFuture(channel));
+        Assert.assertTrue(caught.get().getMessage().contains("canceled"));
+        try {
+            future.get();
+            Assert.fail();
+        } catch (RemotingException e) {
+            Assert.assertTrue(e.getMessage().contains("canceled"));
+        }
+        // a late response does not override the cancellation.
+        Response response = new Response(request.getId());
+        response.setResult("ok");
+        DefaultFuture.received(null, response);
+        try {
+            future.get();
+            Assert.fail();
+        } catch (RemotingException e) {
+            Assert.assertTrue(e.getMessage().contains("canceled"));
+        }
+    }
+}
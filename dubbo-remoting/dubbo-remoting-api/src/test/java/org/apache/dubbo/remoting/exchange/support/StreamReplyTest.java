@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.exchange.support;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.remoting.RemotingException;
+import org.apache.dubbo.remoting.exchange.Request;
+import org.apache.dubbo.remoting.exchange.Response;
+import org.apache.dubbo.remoting.handler.MockedChannel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class StreamReplyTest {
+
+    private static final URL URL = org.apache.dubbo.common.URL.valueOf("dubbo://127.0.0.1:20880/test?timeout=1000");
+
+    @Test
+    public void testStream() throws Exception {
+        List<Integer> values = new ArrayList<Integer>();
+        for (int i = 0; i < 100; i++) {
+            values.add(i);
+        }
+        Loopback loopback = new Loopback();
+        Request request = new Request();
+        DefaultFuture future = new DefaultFuture(loopback.consumer, request, 1000);
+        ResponseStream stream = future.getStream(4);
+
+        new StreamReply(values.iterator(), "end", 4).start(loopback.provider, request);
+        // only the window is sent ahead of the credits.
+        Assert.assertEquals(4, loopback.sent.size());
+        Assert.assertFalse(future.isDone());
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i, stream.next());
+        }
+        Assert.assertNull(stream.next());
+        Assert.assertTrue(future.isDone());
+        Assert.assertEquals("end", future.get());
+        Assert.assertFalse(loopback.provider.hasAttribute(StreamReply.class.getName() + "." + request.getId()));
+    }
+
+    @Test
+    public void testOutOfOrder() throws Exception {
+        Request request = new Request();
+        DefaultFuture future = new DefaultFuture(new Channel(), request, 1000);
+        ResponseStream stream = future.getStream(16);
+
+        List<Response> chunks = new ArrayList<Response>();
+        for (int i = 0; i < 5; i++) {
+            chunks.add(chunk(request, i, i == 4, i == 4 ? "end" : i));
+        }
+        Collections.reverse(chunks);
+        for (Response chunk : chunks) {
+            DefaultFuture.received(null, chunk);
+        }
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(i, stream.next());
+        }
+        Assert.assertNull(stream.next());
+        Assert.assertEquals("end", future.get());
+        Assert.assertNull(DefaultFuture.getFuture(request.getId()));
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        Request request = new Request();
+        DefaultFuture future = new DefaultFuture(new Channel(), request, 1000);
+        ResponseStream stream = future.getStream(16);
+
+        DefaultFuture.received(null, chunk(request, 0, false, "first"));
+        Response error = new Response(request.getId());
+        error.setStatus(Response.SERVICE_ERROR);
+        error.setErrorMessage("broken");
+        DefaultFuture.received(null, error);
+
+        // the chunks received before the failure are still handed out.
+        Assert.assertEquals("first", stream.next());
+        try {
+            stream.next();
+            Assert.fail();
+        } catch (RemotingException e) {
+            Assert.assertEquals("broken", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testNotStreamed() throws Exception {
+        Request request = new Request();
+        DefaultFuture future = new DefaultFuture(new Channel(), request, 1000);
+        Response response = new Response(request.getId());
+        response.setResult("whole");
+        DefaultFuture.received(null, response);
+
+        ResponseStream stream = future.getStream(16);
+        Assert.assertEquals("whole", stream.next());
+        Assert.assertNull(stream.next());
+    }
+
+    @Test
+    public void testCreditEvent() throws Exception {
+        Channel channel = new Channel();
+        Assert.assertTrue(StreamReply.credit(channel, StreamReply.creditEvent(1, 2)));
+        Assert.assertFalse(StreamReply.credit(channel, "R"));
+        Assert.assertFalse(StreamReply.credit(channel, "Cx:1"));
+        Assert.assertFalse(StreamReply.credit(channel, null));
+    }
+
+    private static Response chunk(Request request, int index, boolean last, Object result) {
+        Response response = new Response(request.getId());
+        response.setStatus(Response.STREAM);
+        response.setChunk(index, last);
+        response.setResult(result);
+        return response;
+    }
+
+    private static class Channel extends MockedChannel {
+        @Override
+        public URL getUrl() {
+            return URL;
+        }
+    }
+
+    /**
+     * Hands the responses of the provider to the futures, and the credits of the consumer to the stream replies.
+     */
+    private static class Loopback {
+
+        private final List<Response> sent = new ArrayList<Response>();
+
+        private final Channel provider = new Channel() {
+            @Override
+            public void send(Object message) throws RemotingException {
+                sent.add((Response) message);
+                DefaultFuture.received(this, (Response) message);
+            }
+        };
+
+        private final Channel consumer = new Channel() {
+            @Override
+            public void send(Object message) throws RemotingException {
+                Assert.assertTrue(StreamReply.credit(provider, ((Request) message).getData()));
+            }
+        };
+    }
+}
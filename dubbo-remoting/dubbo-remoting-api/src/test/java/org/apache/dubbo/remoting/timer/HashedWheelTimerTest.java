@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.timer;
+
+import org.apache.dubbo.common.utils.NamedThreadFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HashedWheelTimerTest {
+
+    @Test
+    public void testExpire() throws Exception {
+        Timer timer = new HashedWheelTimer(new NamedThreadFactory("timer-test", true), 10, TimeUnit.MILLISECONDS);
+        try {
+            final CountDownLatch latch = new CountDownLatch(3);
+            long start = System.nanoTime();
+            for (int i = 0; i < 3; i++) {
+                timer.newTimeout(new TimerTask() {
+                    @Override
+                    public void run(Timeout timeout) {
+                        latch.countDown();
+                    }
+                }, 50, TimeUnit.MILLISECONDS);
+            }
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(new NamedThreadFactory("timer-test", true), 10, TimeUnit.MILLISECONDS);
+        try {
+            final AtomicInteger counter = new AtomicInteger();
+            Timeout timeout = timer.newTimeout(new TimerTask() {
+                @Override
+                public void run(Timeout timeout) {
+                    counter.incrementAndGet();
+                }
+            }, 50, TimeUnit.MILLISECONDS);
+            Assert.assertTrue(timeout.cancel());
+            Assert.assertTrue(timeout.isCancelled());
+            Assert.assertFalse(timeout.cancel());
+            Thread.sleep(200);
+            Assert.assertEquals(0, counter.get());
+            Assert.assertFalse(timeout.isExpired());
+            Assert.assertEquals(0, timer.pendingTimeouts());
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testStop() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(new NamedThreadFactory("timer-test", true), 10, TimeUnit.MILLISECONDS);
+        TimerTask task = new TimerTask() {
+            @Override
+            public void run(Timeout timeout) {
+            }
+        };
+        timer.newTimeout(task, 10, TimeUnit.SECONDS);
+        timer.newTimeout(task, 10, TimeUnit.SECONDS);
+        Set<Timeout> unprocessed = timer.stop();
+        Assert.assertEquals(2, unprocessed.size());
+        Assert.assertTrue(timer.isStop());
+        try {
+            timer.newTimeout(task, 1, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testMaxPendingTimeouts() {
+        HashedWheelTimer timer = new HashedWheelTimer(new NamedThreadFactory("timer-test", true),
+                10, TimeUnit.MILLISECONDS, 8, 2);
+        TimerTask task = new TimerTask() {
+            @Override
+            public void run(Timeout timeout) {
+            }
+        };
+        try {
+            timer.newTimeout(task, 10, TimeUnit.SECONDS);
+            timer.newTimeout(task, 10, TimeUnit.SECONDS);
+            timer.newTimeout(task, 10, TimeUnit.SECONDS);
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testExpireAcrossRounds() throws Exception {
+        // a wheel of 8 ticks of 10ms needs more than one round for a 200ms delay.
+        HashedWheelTimer timer = new HashedWheelTimer(new NamedThreadFactory("timer-test", true),
+                10, TimeUnit.MILLISECONDS, 8, -1);
+        try {
+            final CountDownLatch latch = new CountDownLatch(1);
+            long start = System.nanoTime();
+            timer.newTimeout(new TimerTask() {
+                @Override
+                public void run(Timeout timeout) {
+                    latch.countDown();
+                }
+            }, 200, TimeUnit.MILLISECONDS);
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+        } finally {
+            timer.stop();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport;
+
+import org.apache.dubbo.common.serialize.Serialization;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class CodecSupportTest {
+
+    @Test
+    public void testSerializationIdOutOfHeader() {
+        // 16 would be read back as a compressed body of serialization 0
+        Serialization serialization = mock(Serialization.class);
+        given(serialization.getContentTypeId()).willReturn((byte) 16);
+        Assert.assertFalse(CodecSupport.addSerialization("wide", serialization));
+        Assert.assertNull(CodecSupport.getSerializationById((byte) 16));
+        Assert.assertNull(CodecSupport.getSerializationById((byte) 0));
+    }
+
+    @Test
+    public void testDuplicateSerializationId() {
+        Serialization serialization = mock(Serialization.class);
+        given(serialization.getContentTypeId()).willReturn((byte) 2);
+        Serialization hessian2 = CodecSupport.getSerializationById((byte) 2);
+        Assert.assertNotNull(hessian2);
+        Assert.assertFalse(CodecSupport.addSerialization("duplicate", serialization));
+        Assert.assertSame(hessian2, CodecSupport.getSerializationById((byte) 2));
+    }
+}
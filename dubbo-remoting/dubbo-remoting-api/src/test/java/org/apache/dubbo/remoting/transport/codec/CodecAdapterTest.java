@@ -16,9 +16,18 @@
  */
 package org.apache.dubbo.remoting.transport.codec;
 
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.remoting.buffer.ChannelBuffer;
+import org.apache.dubbo.remoting.buffer.ChannelBuffers;
 import org.apache.dubbo.remoting.codec.ExchangeCodecTest;
+import org.apache.dubbo.remoting.exchange.Response;
 
+import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.IOException;
 
 public class CodecAdapterTest extends ExchangeCodecTest {
 
@@ -27,4 +36,27 @@ public class CodecAdapterTest extends ExchangeCodecTest {
         codec = new CodecAdapter(new DeprecatedExchangeCodec());
     }
 
+    @Test
+    @Override
+    public void test_Encode_Stream_Response() throws IOException {
+        // the adapter refuses streamed responses for the legacy codec.
+        Response response = new Response(1001l);
+        response.setStatus(Response.STREAM);
+        response.setChunk(7, true);
+        response.setResult("chunk");
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(1024);
+        try {
+            codec.encode(getCliendSideChannel(URL.valueOf("dubbo://10.20.30.40:20880")), buffer, response);
+            Assert.fail();
+        } catch (IOException expected) {
+        }
+        Assert.assertEquals(0, buffer.readableBytes());
+    }
+
+    @Ignore("the deprecated codec does not compress")
+    @Test
+    @Override
+    public void test_Compression_Negotiation() {
+    }
+
 }
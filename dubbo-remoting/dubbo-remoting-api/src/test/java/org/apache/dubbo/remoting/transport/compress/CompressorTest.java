@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.compress;
+
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.remoting.Compressor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+public class CompressorTest {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append("org.apache.dubbo.Person{name=person").append(i).append(", age=").append(i % 100).append("}");
+        }
+        byte[] repeated = text.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] random = new byte[10000];
+        new Random(0).nextBytes(random);
+        byte[] run = new byte[100000];
+        Arrays.fill(run, (byte) 'a');
+
+        for (String name : ExtensionLoader.getExtensionLoader(Compressor.class).getSupportedExtensions()) {
+            Compressor compressor = ExtensionLoader.getExtensionLoader(Compressor.class).getExtension(name);
+            for (byte[] data : new byte[][]{new byte[0], new byte[]{1}, "0123456789abcdef".getBytes(), repeated, random, run}) {
+                assertRoundTrip(compressor, data);
+            }
+            Assert.assertTrue(name, compressor.compress(repeated, 0, repeated.length).length < repeated.length / 3);
+            Assert.assertTrue(name, compressor.compress(run, 0, run.length).length < run.length / 100);
+        }
+    }
+
+    @Test
+    public void testOffset() throws Exception {
+        byte[] data = "xxxxhello hello hello hello hello hello hello helloyyyy".getBytes();
+        Lz4Compressor compressor = new Lz4Compressor();
+        byte[] compressed = compressor.compress(data, 4, data.length - 8);
+        byte[] padded = new byte[compressed.length + 3];
+        System.arraycopy(compressed, 0, padded, 3, compressed.length);
+        Assert.assertArrayEquals(Arrays.copyOfRange(data, 4, data.length - 4),
+                compressor.decompress(padded, 3, compressed.length, data.length - 8));
+    }
+
+    @Test
+    public void testMalformed() throws Exception {
+        Lz4Compressor compressor = new Lz4Compressor();
+        byte[] data = "hello hello hello hello hello hello hello hello".getBytes();
+        byte[] compressed = compressor.compress(data, 0, data.length);
+        try {
+            compressor.decompress(compressed, 0, compressed.length - 3, data.length);
+            Assert.fail();
+        } catch (IOException expected) {
+        }
+        try {
+            compressor.decompress(compressed, 0, compressed.length, data.length - 1);
+            Assert.fail();
+        } catch (IOException expected) {
+        }
+        try {
+            // a match before the start of the data.
+            compressor.decompress(new byte[]{0x10, 'a', 5, 0}, 0, 4, 10);
+            Assert.fail();
+        } catch (IOException expected) {
+        }
+    }
+
+    private static void assertRoundTrip(Compressor compressor, byte[] data) throws IOException {
+        byte[] compressed = compressor.compress(data, 0, data.length);
+        Assert.assertArrayEquals(data, compressor.decompress(compressed, 0, compressed.length, data.length));
+    }
+}
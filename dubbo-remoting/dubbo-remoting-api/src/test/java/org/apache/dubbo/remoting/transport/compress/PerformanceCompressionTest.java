@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.compress;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.io.UnsafeByteArrayOutputStream;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.serialize.ObjectOutput;
+import org.apache.dubbo.common.serialize.Serialization;
+import org.apache.dubbo.remoting.Compressor;
+
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the CPU cost of each compressor with the bytes it saves on a list of DTOs,
+ * for each serialization on the classpath.
+ * <p>
+ * Run with -Dtimes=1000 -Dsize=1000
+ */
+public class PerformanceCompressionTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceCompressionTest.class);
+
+    @Test
+    public void testCompression() throws Exception {
+        if (System.getProperty("times") == null) {
+            logger.warn("Please set -Dtimes=1000");
+            return;
+        }
+        int times = Integer.getInteger("times", 1000);
+        int size = Integer.getInteger("size", 1000);
+        List<Item> items = new ArrayList<Item>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new Item(i, "item" + i, "a description of the item " + i % 10, i * 1.5));
+        }
+
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880");
+        for (String serializationName : ExtensionLoader.getExtensionLoader(Serialization.class).getSupportedExtensions()) {
+            UnsafeByteArrayOutputStream bos = new UnsafeByteArrayOutputStream(1024);
+            ObjectOutput out = ExtensionLoader.getExtensionLoader(Serialization.class).getExtension(serializationName).serialize(url, bos);
+            out.writeObject(items);
+            out.flushBuffer();
+            byte[] body = bos.toByteArray();
+            for (String compressorName : ExtensionLoader.getExtensionLoader(Compressor.class).getSupportedExtensions()) {
+                Compressor compressor = ExtensionLoader.getExtensionLoader(Compressor.class).getExtension(compressorName);
+                byte[] compressed = compressor.compress(body, 0, body.length);
+                // warm up
+                run(compressor, body, compressed, times / 10);
+                long start = System.nanoTime();
+                run(compressor, body, compressed, times);
+                long elapsed = System.nanoTime() - start;
+                System.out.println(serializationName + " + " + compressorName + ": " + body.length + " -> " + compressed.length
+                        + " bytes (" + compressed.length * 100 / body.length + "%), compress and decompress "
+                        + elapsed / times / 1000 + " us, " + (long) body.length * times * 1000 / elapsed + " MB/s");
+            }
+        }
+    }
+
+    private static void run(Compressor compressor, byte[] body, byte[] compressed, int times) throws Exception {
+        for (int i = 0; i < times; i++) {
+            compressor.compress(body, 0, body.length);
+            compressor.decompress(compressed, 0, compressed.length, body.length);
+        }
+    }
+
+    public static class Item implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private int id;
+        private String name;
+        private String description;
+        private double price;
+
+        public Item() {
+        }
+
+        public Item(int id, String name, String description, double price) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.price = price;
+        }
+    }
+}
@@ -76,9 +76,15 @@ public class NettyBackedChannelBuffer implements ChannelBuffer {
     @Override
     public void getBytes(int index, ChannelBuffer dst, int dstIndex, int length) {
         // careful
-        byte[] data = new byte[length];
-        buffer.getBytes(index, data, 0, length);
-        dst.setBytes(dstIndex, data, 0, length);
+        if (dst instanceof NettyBackedChannelBuffer) {
+            buffer.getBytes(index, ((NettyBackedChannelBuffer) dst).buffer, dstIndex, length);
+        } else if (dst.hasArray()) {
+            buffer.getBytes(index, dst.array(), dst.arrayOffset() + dstIndex, length);
+        } else {
+            byte[] data = new byte[length];
+            buffer.getBytes(index, data, 0, length);
+            dst.setBytes(dstIndex, data, 0, length);
+        }
     }
 
     
@@ -115,9 +121,15 @@ public class NettyBackedChannelBuffer implements ChannelBuffer {
     @Override
     public void setBytes(int index, ChannelBuffer src, int srcIndex, int length) {
         // careful
-        byte[] data = new byte[length];
-        buffer.getBytes(srcIndex, data, 0, length);
-        setBytes(0, data, index, length);
+        if (src instanceof NettyBackedChannelBuffer) {
+            buffer.setBytes(index, ((NettyBackedChannelBuffer) src).buffer, srcIndex, length);
+        } else if (src.hasArray()) {
+            buffer.setBytes(index, src.array(), src.arrayOffset() + srcIndex, length);
+        } else {
+            byte[] data = new byte[length];
+            src.getBytes(srcIndex, data, 0, length);
+            buffer.setBytes(index, data, 0, length);
+        }
     }
 
     
@@ -275,9 +287,8 @@ public class NettyBackedChannelBuffer implements ChannelBuffer {
         if (readableBytes() < length) {
             throw new IndexOutOfBoundsException();
         }
-        byte[] data = new byte[length];
-        buffer.readBytes(data, 0, length);
-        dst.setBytes(dstIndex, data, 0, length);
+        getBytes(buffer.readerIndex(), dst, dstIndex, length);
+        buffer.skipBytes(length);
     }
 
     
@@ -416,9 +427,15 @@ public class NettyBackedChannelBuffer implements ChannelBuffer {
     @Override
     public void writeBytes(ChannelBuffer src, int srcIndex, int length) {
         // careful
-        byte[] data = new byte[length];
-        src.getBytes(srcIndex, data, 0, length);
-        writeBytes(data, 0, length);
+        if (src instanceof NettyBackedChannelBuffer) {
+            buffer.writeBytes(((NettyBackedChannelBuffer) src).buffer, srcIndex, length);
+        } else if (src.hasArray()) {
+            buffer.writeBytes(src.array(), src.arrayOffset() + srcIndex, length);
+        } else {
+            byte[] data = new byte[length];
+            src.getBytes(srcIndex, data, 0, length);
+            writeBytes(data, 0, length);
+        }
     }
 
     
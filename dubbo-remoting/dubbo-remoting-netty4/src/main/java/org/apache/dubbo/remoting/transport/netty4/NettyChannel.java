@@ -26,6 +26,7 @@ import org.apache.dubbo.remoting.transport.AbstractChannel;
 
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.WriteBufferWaterMark;
 
 import java.net.InetSocketAddress;
 import java.util.Map;
@@ -45,12 +46,18 @@ final class NettyChannel extends AbstractChannel {
 
     private final Map<String, Object> attributes = new ConcurrentHashMap<String, Object>();
 
+    /**
+     * reject sends on an unwritable channel, only when the water marks are configured explicitly.
+     */
+    private final boolean rejectUnwritable;
+
     private NettyChannel(Channel channel, URL url, ChannelHandler handler) {
         super(url, handler);
         if (channel == null) {
             throw new IllegalArgumentException("netty channel == null;");
         }
         this.channel = channel;
+        this.rejectUnwritable = url.getParameter(Constants.WRITE_BUFFER_HIGH_WATER_MARK_KEY, 0) > 0;
     }
 
     static NettyChannel getOrAddChannel(Channel ch, URL url, ChannelHandler handler) {
@@ -76,6 +83,22 @@ final class NettyChannel extends AbstractChannel {
         }
     }
 
+    /**
+     * @return the configured write buffer water marks, or null to keep the netty defaults.
+     */
+    static WriteBufferWaterMark writeBufferWaterMark(URL url) {
+        int high = url.getParameter(Constants.WRITE_BUFFER_HIGH_WATER_MARK_KEY, 0);
+        if (high <= 0) {
+            return null;
+        }
+        int low = url.getParameter(Constants.WRITE_BUFFER_LOW_WATER_MARK_KEY, high / 2);
+        if (low <= 0 || low > high) {
+            throw new IllegalArgumentException("Illegal write buffer water marks, low: " + low + ", high: " + high
+                    + ", the low water mark must be positive and not greater than the high one");
+        }
+        return new WriteBufferWaterMark(low, high);
+    }
+
     @Override
     public InetSocketAddress getLocalAddress() {
         return (InetSocketAddress) channel.localAddress();
@@ -91,9 +114,19 @@ final class NettyChannel extends AbstractChannel {
         return !isClosed() && channel.isActive();
     }
 
+    @Override
+    public boolean isWritable() {
+        return channel.isWritable();
+    }
+
     @Override
     public void send(Object message, boolean sent) throws RemotingException {
         super.send(message, sent);
+        if (rejectUnwritable && !channel.isWritable()) {
+            throw new RemotingException(this, "Failed to send message " + message + " to " + getRemoteAddress()
+                    + ", cause: The channel is unwritable, the pending writes exceed the high water mark "
+                    + channel.config().getWriteBufferHighWaterMark() + " bytes");
+        }
 
         boolean success = true;
         int timeout = 0;
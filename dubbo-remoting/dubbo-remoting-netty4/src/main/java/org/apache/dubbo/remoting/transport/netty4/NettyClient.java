@@ -32,8 +32,9 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.util.concurrent.DefaultThreadFactory;
 
 import java.util.concurrent.TimeUnit;
@@ -58,13 +59,21 @@ public class NettyClient extends AbstractClient {
     @Override
     protected void doOpen() throws Throwable {
         final NettyClientHandler nettyClientHandler = new NettyClientHandler(getUrl(), this);
+        boolean epoll = NettyEventLoopFactory.shouldEpoll(getUrl());
         bootstrap = new Bootstrap();
-        bootstrap.group(nioEventLoopGroup)
+        bootstrap.group(epoll ? EpollEventLoopGroupHolder.INSTANCE : nioEventLoopGroup)
                 .option(ChannelOption.SO_KEEPALIVE, true)
                 .option(ChannelOption.TCP_NODELAY, true)
                 .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
                 //.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, getTimeout())
-                .channel(NioSocketChannel.class);
+                .channel(NettyEventLoopFactory.socketChannelClass(epoll));
+        if (epoll) {
+            NettyEventLoopFactory.configureClient(bootstrap, getUrl());
+        }
+        WriteBufferWaterMark waterMark = NettyChannel.writeBufferWaterMark(getUrl());
+        if (waterMark != null) {
+            bootstrap.option(ChannelOption.WRITE_BUFFER_WATER_MARK, waterMark);
+        }
 
         if (getTimeout() < 3000) {
             bootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 3000);
@@ -77,6 +86,11 @@ public class NettyClient extends AbstractClient {
             @Override
             protected void initChannel(Channel ch) throws Exception {
                 NettyCodecAdapter adapter = new NettyCodecAdapter(getCodec(), getUrl(), NettyClient.this);
+                int flushes = getUrl().getParameter(Constants.FLUSH_CONSOLIDATION_KEY, 0);
+                if (flushes > 1) {
+                    ch.pipeline().addLast("flush", new FlushCoalescingHandler(flushes, getUrl().getParameter(
+                            Constants.FLUSH_CONSOLIDATION_DELAY_KEY, Constants.DEFAULT_FLUSH_CONSOLIDATION_DELAY)));
+                }
                 ch.pipeline()//.addLast("logging",new LoggingHandler(LogLevel.INFO))//for debug
                         .addLast("decoder", adapter.getDecoder())
                         .addLast("encoder", adapter.getEncoder())
@@ -161,4 +175,11 @@ public class NettyClient extends AbstractClient {
         return NettyChannel.getOrAddChannel(c, getUrl(), this);
     }
 
+    /**
+     * Created on first use only, so the native library is not loaded unless epoll is enabled.
+     */
+    private static class EpollEventLoopGroupHolder {
+        private static final EventLoopGroup INSTANCE = NettyEventLoopFactory.eventLoopGroup(true,
+                Constants.DEFAULT_IO_THREADS, "NettyClientWorker");
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.netty4;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+/**
+ * Chooses between the NIO and the native epoll transport of netty, and applies the epoll only
+ * socket options. Epoll is used when the url asks for it and the native library can be loaded,
+ * otherwise it falls back to NIO.
+ */
+final class NettyEventLoopFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(NettyEventLoopFactory.class);
+
+    private NettyEventLoopFactory() {
+    }
+
+    static boolean shouldEpoll(URL url) {
+        if (!url.getParameter(Constants.EPOLL_KEY, false)) {
+            return false;
+        }
+        if (Epoll.isAvailable()) {
+            return true;
+        }
+        logger.warn("Native epoll transport is not available, fall back to NIO, cause: "
+                + Epoll.unavailabilityCause());
+        return false;
+    }
+
+    static EventLoopGroup eventLoopGroup(boolean epoll, int threads, String threadName) {
+        DefaultThreadFactory threadFactory = new DefaultThreadFactory(threadName, true);
+        return epoll ? new EpollEventLoopGroup(threads, threadFactory) : new NioEventLoopGroup(threads, threadFactory);
+    }
+
+    static Class<? extends SocketChannel> socketChannelClass(boolean epoll) {
+        return epoll ? EpollSocketChannel.class : NioSocketChannel.class;
+    }
+
+    static Class<? extends ServerSocketChannel> serverSocketChannelClass(boolean epoll) {
+        return epoll ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+    }
+
+    /**
+     * The number of server channels bound to the same port, each one accepting on its own boss thread.
+     */
+    static int acceptors(URL url, boolean epoll) {
+        int acceptors = url.getPositiveParameter(Constants.ACCEPTORS_KEY, 1);
+        if (acceptors > 1 && !(epoll && url.getParameter(Constants.REUSE_PORT_KEY, false))) {
+            logger.warn("Multiple acceptors need the epoll transport and " + Constants.REUSE_PORT_KEY
+                    + "=true, use one acceptor instead, url: " + url);
+            return 1;
+        }
+        return acceptors;
+    }
+
+    static void configureServer(ServerBootstrap bootstrap, URL url) {
+        if (url.getParameter(Constants.REUSE_PORT_KEY, false)) {
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, Boolean.TRUE);
+        }
+        EpollMode mode = epollMode(url);
+        if (mode != null) {
+            bootstrap.option(EpollChannelOption.EPOLL_MODE, mode);
+            bootstrap.childOption(EpollChannelOption.EPOLL_MODE, mode);
+        }
+        if (url.hasParameter(Constants.TCP_QUICKACK_KEY)) {
+            bootstrap.childOption(EpollChannelOption.TCP_QUICKACK, url.getParameter(Constants.TCP_QUICKACK_KEY, false));
+        }
+        if (url.hasParameter(Constants.TCP_CORK_KEY)) {
+            bootstrap.childOption(EpollChannelOption.TCP_CORK, url.getParameter(Constants.TCP_CORK_KEY, false));
+        }
+    }
+
+    static void configureClient(Bootstrap bootstrap, URL url) {
+        EpollMode mode = epollMode(url);
+        if (mode != null) {
+            bootstrap.option(EpollChannelOption.EPOLL_MODE, mode);
+        }
+        if (url.hasParameter(Constants.TCP_QUICKACK_KEY)) {
+            bootstrap.option(EpollChannelOption.TCP_QUICKACK, url.getParameter(Constants.TCP_QUICKACK_KEY, false));
+        }
+        if (url.hasParameter(Constants.TCP_CORK_KEY)) {
+            bootstrap.option(EpollChannelOption.TCP_CORK, url.getParameter(Constants.TCP_CORK_KEY, false));
+        }
+    }
+
+    private static EpollMode epollMode(URL url) {
+        String mode = url.getParameter(Constants.EPOLL_MODE_KEY);
+        if (mode == null || mode.length() == 0) {
+            return null;
+        }
+        return "level".equalsIgnoreCase(mode) ? EpollMode.LEVEL_TRIGGERED : EpollMode.EDGE_TRIGGERED;
+    }
+}
@@ -35,14 +35,14 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.socket.SocketChannel;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -56,7 +56,7 @@ public class NettyServer extends AbstractServer implements Server {
 
     private ServerBootstrap bootstrap;
 
-    private io.netty.channel.Channel channel;
+    private List<io.netty.channel.Channel> serverChannels; // one per acceptor
 
     private EventLoopGroup bossGroup;
     private EventLoopGroup workerGroup;
@@ -69,44 +69,63 @@ public class NettyServer extends AbstractServer implements Server {
     protected void doOpen() throws Throwable {
         bootstrap = new ServerBootstrap();
 
-        bossGroup = new NioEventLoopGroup(1, new DefaultThreadFactory("NettyServerBoss", true));
-        workerGroup = new NioEventLoopGroup(getUrl().getPositiveParameter(Constants.IO_THREADS_KEY, Constants.DEFAULT_IO_THREADS),
-                new DefaultThreadFactory("NettyServerWorker", true));
+        boolean epoll = NettyEventLoopFactory.shouldEpoll(getUrl());
+        int acceptors = NettyEventLoopFactory.acceptors(getUrl(), epoll);
+        bossGroup = NettyEventLoopFactory.eventLoopGroup(epoll, acceptors, "NettyServerBoss");
+        workerGroup = NettyEventLoopFactory.eventLoopGroup(epoll, getUrl().getPositiveParameter(Constants.IO_THREADS_KEY, Constants.DEFAULT_IO_THREADS),
+                "NettyServerWorker");
 
         final NettyServerHandler nettyServerHandler = new NettyServerHandler(getUrl(), this);
         channels = nettyServerHandler.getChannels();
 
         bootstrap.group(bossGroup, workerGroup)
-                .channel(NioServerSocketChannel.class)
+                .channel(NettyEventLoopFactory.serverSocketChannelClass(epoll))
                 .childOption(ChannelOption.TCP_NODELAY, Boolean.TRUE)
                 .childOption(ChannelOption.SO_REUSEADDR, Boolean.TRUE)
                 .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
-                .childHandler(new ChannelInitializer<NioSocketChannel>() {
+                .childHandler(new ChannelInitializer<SocketChannel>() {
                     @Override
-                    protected void initChannel(NioSocketChannel ch) throws Exception {
+                    protected void initChannel(SocketChannel ch) throws Exception {
                         NettyCodecAdapter adapter = new NettyCodecAdapter(getCodec(), getUrl(), NettyServer.this);
+                        int flushes = getUrl().getParameter(Constants.FLUSH_CONSOLIDATION_KEY, 0);
+                        if (flushes > 1) {
+                            ch.pipeline().addLast("flush", new FlushCoalescingHandler(flushes, getUrl().getParameter(
+                                    Constants.FLUSH_CONSOLIDATION_DELAY_KEY, Constants.DEFAULT_FLUSH_CONSOLIDATION_DELAY)));
+                        }
                         ch.pipeline()//.addLast("logging",new LoggingHandler(LogLevel.INFO))//for debug
                                 .addLast("decoder", adapter.getDecoder())
                                 .addLast("encoder", adapter.getEncoder())
                                 .addLast("handler", nettyServerHandler);
                     }
                 });
-        // bind
-        ChannelFuture channelFuture = bootstrap.bind(getBindAddress());
-        channelFuture.syncUninterruptibly();
-        channel = channelFuture.channel();
+        if (epoll) {
+            NettyEventLoopFactory.configureServer(bootstrap, getUrl());
+        }
+        WriteBufferWaterMark waterMark = NettyChannel.writeBufferWaterMark(getUrl());
+        if (waterMark != null) {
+            bootstrap.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, waterMark);
+        }
+        // bind, with SO_REUSEPORT every acceptor gets its own server socket and boss thread
+        serverChannels = new ArrayList<io.netty.channel.Channel>(acceptors);
+        for (int i = 0; i < acceptors; i++) {
+            ChannelFuture channelFuture = bootstrap.bind(getBindAddress());
+            channelFuture.syncUninterruptibly();
+            serverChannels.add(channelFuture.channel());
+        }
 
     }
 
     @Override
     protected void doClose() throws Throwable {
-        try {
-            if (channel != null) {
-                // unbind.
-                channel.close();
+        if (serverChannels != null) {
+            for (io.netty.channel.Channel channel : serverChannels) {
+                try {
+                    // unbind.
+                    channel.close();
+                } catch (Throwable e) {
+                    logger.warn(e.getMessage(), e);
+                }
             }
-        } catch (Throwable e) {
-            logger.warn(e.getMessage(), e);
         }
         try {
             Collection<org.apache.dubbo.remoting.Channel> channels = getChannels();
@@ -159,7 +178,12 @@ public class NettyServer extends AbstractServer implements Server {
 
     @Override
     public boolean isBound() {
-        return channel.isActive();
+        for (io.netty.channel.Channel channel : serverChannels) {
+            if (channel.isActive()) {
+                return true;
+            }
+        }
+        return false;
     }
 
 }
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.netty4;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class FlushCoalescingHandlerTest {
+
+    @Test
+    public void testFlushOnMaxPendingFlushes() {
+        EmbeddedChannel channel = new EmbeddedChannel(new FlushCoalescingHandler(3, TimeUnit.SECONDS.toMicros(10)));
+        channel.writeAndFlush("a");
+        channel.writeAndFlush("b");
+        Assert.assertNull(channel.readOutbound());
+        channel.writeAndFlush("c");
+        Assert.assertEquals("a", channel.readOutbound());
+        Assert.assertEquals("b", channel.readOutbound());
+        Assert.assertEquals("c", channel.readOutbound());
+        Assert.assertNull(channel.readOutbound());
+        channel.finish();
+    }
+
+    @Test
+    public void testFlushOnDelay() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel(new FlushCoalescingHandler(100, TimeUnit.MILLISECONDS.toMicros(20)));
+        channel.writeAndFlush("a");
+        channel.writeAndFlush("b");
+        Assert.assertNull(channel.readOutbound());
+        Thread.sleep(50);
+        channel.runScheduledPendingTasks();
+        Assert.assertEquals("a", channel.readOutbound());
+        Assert.assertEquals("b", channel.readOutbound());
+        channel.finish();
+    }
+
+    @Test
+    public void testFlushOnNextLoopWithoutDelay() {
+        EmbeddedChannel channel = new EmbeddedChannel(new FlushCoalescingHandler(100, 0));
+        channel.writeAndFlush("a");
+        Assert.assertNull(channel.readOutbound());
+        channel.runPendingTasks();
+        Assert.assertEquals("a", channel.readOutbound());
+        channel.finish();
+    }
+
+    @Test
+    public void testFlushOnClose() {
+        EmbeddedChannel channel = new EmbeddedChannel(new FlushCoalescingHandler(100, TimeUnit.SECONDS.toMicros(10)));
+        channel.writeAndFlush("a");
+        Assert.assertNull(channel.readOutbound());
+        channel.close();
+        Assert.assertEquals("a", channel.readOutbound());
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.netty4;
+
+import org.apache.dubbo.remoting.buffer.ChannelBuffer;
+import org.apache.dubbo.remoting.buffer.ChannelBuffers;
+
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NettyBackedChannelBufferTest {
+
+    private static final byte[] DATA = {1, 2, 3, 4, 5, 6, 7, 8};
+
+    @Test
+    public void testWriteFromNettyBuffer() {
+        ChannelBuffer src = new NettyBackedChannelBuffer(Unpooled.wrappedBuffer(DATA));
+        ChannelBuffer dst = new NettyBackedChannelBuffer(Unpooled.directBuffer(16));
+        dst.writeBytes(src, 2, 4);
+        Assert.assertEquals(4, dst.readableBytes());
+        Assert.assertEquals(3, dst.getByte(0));
+        Assert.assertEquals(6, dst.getByte(3));
+    }
+
+    @Test
+    public void testWriteFromHeapBuffer() {
+        ChannelBuffer src = ChannelBuffers.wrappedBuffer(DATA);
+        ChannelBuffer dst = new NettyBackedChannelBuffer(Unpooled.directBuffer(16));
+        dst.writeBytes(src);
+        Assert.assertEquals(DATA.length, dst.readableBytes());
+        Assert.assertEquals(0, src.readableBytes());
+        for (int i = 0; i < DATA.length; i++) {
+            Assert.assertEquals(DATA[i], dst.getByte(i));
+        }
+    }
+
+    @Test
+    public void testSetBytes() {
+        ChannelBuffer src = ChannelBuffers.wrappedBuffer(DATA);
+        ChannelBuffer dst = new NettyBackedChannelBuffer(Unpooled.buffer(16));
+        dst.writerIndex(8);
+        dst.setBytes(4, src, 0, 4);
+        Assert.assertEquals(0, dst.getByte(3));
+        Assert.assertEquals(1, dst.getByte(4));
+        Assert.assertEquals(4, dst.getByte(7));
+    }
+
+    @Test
+    public void testReadBytes() {
+        ChannelBuffer src = new NettyBackedChannelBuffer(Unpooled.wrappedBuffer(DATA));
+        ChannelBuffer dst = ChannelBuffers.buffer(16);
+        src.readBytes(dst, 5);
+        Assert.assertEquals(5, src.readerIndex());
+        Assert.assertEquals(5, dst.writerIndex());
+        Assert.assertEquals(5, dst.getByte(4));
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.netty4;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.remoting.RemotingException;
+import org.apache.dubbo.remoting.transport.ChannelHandlerAdapter;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+public class NettyChannelTest {
+
+    @Test
+    public void testWriteBufferWaterMark() {
+        Assert.assertNull(NettyChannel.writeBufferWaterMark(URL.valueOf("dubbo://127.0.0.1:20880")));
+
+        WriteBufferWaterMark waterMark = NettyChannel.writeBufferWaterMark(
+                URL.valueOf("dubbo://127.0.0.1:20880?write.buffer.high.water.mark=1024"));
+        Assert.assertEquals(1024, waterMark.high());
+        Assert.assertEquals(512, waterMark.low());
+
+        waterMark = NettyChannel.writeBufferWaterMark(
+                URL.valueOf("dubbo://127.0.0.1:20880?write.buffer.high.water.mark=1024&write.buffer.low.water.mark=128"));
+        Assert.assertEquals(1024, waterMark.high());
+        Assert.assertEquals(128, waterMark.low());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalWriteBufferWaterMark() {
+        NettyChannel.writeBufferWaterMark(
+                URL.valueOf("dubbo://127.0.0.1:20880?write.buffer.high.water.mark=1024&write.buffer.low.water.mark=2048"));
+    }
+
+    @Test
+    public void testRejectWhenUnwritable() throws Exception {
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880?write.buffer.high.water.mark=2048");
+        EmbeddedChannel ch = stuckChannel(NettyChannel.writeBufferWaterMark(url));
+        try {
+            NettyChannel channel = NettyChannel.getOrAddChannel(ch, url, new ChannelHandlerAdapter());
+            Assert.assertTrue(channel.isWritable());
+            int sends = 0;
+            while (channel.isWritable()) {
+                channel.send(Unpooled.wrappedBuffer(new byte[1024]));
+                Assert.assertTrue(++sends < 10);
+            }
+            try {
+                channel.send(Unpooled.wrappedBuffer(new byte[1024]));
+                Assert.fail();
+            } catch (RemotingException expected) {
+                Assert.assertTrue(expected.getMessage().contains("unwritable"));
+            }
+        } finally {
+            ch.close();
+            NettyChannel.removeChannelIfDisconnected(ch);
+        }
+    }
+
+    @Test
+    public void testQueueWhenUnwritableByDefault() throws Exception {
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880");
+        EmbeddedChannel ch = stuckChannel(new WriteBufferWaterMark(1024, 2048));
+        try {
+            NettyChannel channel = NettyChannel.getOrAddChannel(ch, url, new ChannelHandlerAdapter());
+            for (int i = 0; i < 10; i++) {
+                channel.send(Unpooled.wrappedBuffer(new byte[1024]));
+            }
+            Assert.assertFalse(channel.isWritable());
+        } finally {
+            ch.close();
+            NettyChannel.removeChannelIfDisconnected(ch);
+        }
+    }
+
+    /**
+     * A channel which never flushes, so everything written stays in its outbound buffer.
+     */
+    private static EmbeddedChannel stuckChannel(WriteBufferWaterMark waterMark) {
+        EmbeddedChannel ch = new EmbeddedChannel(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void flush(ChannelHandlerContext ctx) {
+            }
+        }) {
+            @Override
+            protected SocketAddress localAddress0() {
+                return new InetSocketAddress("127.0.0.1", 12345);
+            }
+
+            @Override
+            protected SocketAddress remoteAddress0() {
+                return new InetSocketAddress("127.0.0.1", 20880);
+            }
+        };
+        ch.config().setWriteBufferWaterMark(waterMark);
+        return ch;
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.netty4;
+
+import org.apache.dubbo.common.URL;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class NettyEventLoopFactoryTest {
+
+    @Test
+    public void testNioByDefault() {
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880");
+        Assert.assertFalse(NettyEventLoopFactory.shouldEpoll(url));
+        Assert.assertEquals(NioSocketChannel.class, NettyEventLoopFactory.socketChannelClass(false));
+        Assert.assertEquals(NioServerSocketChannel.class, NettyEventLoopFactory.serverSocketChannelClass(false));
+        EventLoopGroup group = NettyEventLoopFactory.eventLoopGroup(false, 1, "test");
+        try {
+            Assert.assertTrue(group instanceof NioEventLoopGroup);
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testEpoll() {
+        Assume.assumeTrue(Epoll.isAvailable());
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880?epoll=true");
+        Assert.assertTrue(NettyEventLoopFactory.shouldEpoll(url));
+        Assert.assertEquals(EpollSocketChannel.class, NettyEventLoopFactory.socketChannelClass(true));
+        Assert.assertEquals(EpollServerSocketChannel.class, NettyEventLoopFactory.serverSocketChannelClass(true));
+        EventLoopGroup group = NettyEventLoopFactory.eventLoopGroup(true, 1, "test");
+        try {
+            Assert.assertTrue(group instanceof EpollEventLoopGroup);
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testFallbackWithoutEpoll() {
+        Assume.assumeFalse(Epoll.isAvailable());
+        Assert.assertFalse(NettyEventLoopFactory.shouldEpoll(URL.valueOf("dubbo://127.0.0.1:20880?epoll=true")));
+    }
+
+    @Test
+    public void testAcceptors() {
+        Assert.assertEquals(1, NettyEventLoopFactory.acceptors(URL.valueOf("dubbo://127.0.0.1:20880"), true));
+        Assert.assertEquals(1, NettyEventLoopFactory.acceptors(URL.valueOf("dubbo://127.0.0.1:20880?acceptors=4"), true));
+        Assert.assertEquals(1, NettyEventLoopFactory.acceptors(
+                URL.valueOf("dubbo://127.0.0.1:20880?acceptors=4&reuse.port=true"), false));
+        Assert.assertEquals(4, NettyEventLoopFactory.acceptors(
+                URL.valueOf("dubbo://127.0.0.1:20880?acceptors=4&reuse.port=true"), true));
+    }
+
+}
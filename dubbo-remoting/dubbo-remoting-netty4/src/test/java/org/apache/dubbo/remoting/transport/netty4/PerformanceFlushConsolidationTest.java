@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.netty4;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.NetUtils;
+import org.apache.dubbo.remoting.exchange.ExchangeClient;
+import org.apache.dubbo.remoting.exchange.ExchangeServer;
+import org.apache.dubbo.remoting.exchange.Exchangers;
+import org.apache.dubbo.remoting.exchange.ResponseFuture;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the throughput of small asynchronous requests over one connection
+ * with and without flush consolidation.
+ * <p>
+ * Run with -Drequests=200000 -Dflush.consolidation=32 -Dflush.consolidation.delay=100
+ */
+public class PerformanceFlushConsolidationTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceFlushConsolidationTest.class);
+
+    @Test
+    public void testThroughput() throws Exception {
+        if (System.getProperty("requests") == null) {
+            logger.warn("Please set -Drequests=200000");
+            return;
+        }
+        int requests = Integer.getInteger("requests", 200000);
+        int flushes = Integer.getInteger("flush.consolidation", 32);
+        int delay = Integer.getInteger("flush.consolidation.delay", 100);
+
+        long plain = run(requests, "");
+        long consolidated = run(requests, "&flush.consolidation=" + flushes + "&flush.consolidation.delay=" + delay);
+        System.out.println("Requests: " + requests);
+        System.out.println("writeAndFlush per request: " + requests * 1000L / plain + " req/s");
+        System.out.println("flush consolidation " + flushes + "/" + delay + "us: " + requests * 1000L / consolidated + " req/s");
+    }
+
+    private long run(int requests, String parameters) throws Exception {
+        int port = NetUtils.getAvailablePort();
+        ExchangeServer server = Exchangers.bind(URL.valueOf("exchange://localhost:" + port
+                + "?server=netty4&timeout=60000" + parameters), new WorldHandler());
+        ExchangeClient client = Exchangers.connect(URL.valueOf("exchange://localhost:" + port
+                + "?client=netty4&timeout=60000" + parameters));
+        try {
+            // warm up
+            send(client, requests / 10);
+            long start = System.currentTimeMillis();
+            send(client, requests);
+            return Math.max(System.currentTimeMillis() - start, 1);
+        } finally {
+            client.close();
+            server.close();
+        }
+    }
+
+    private void send(ExchangeClient client, int requests) throws Exception {
+        int window = 100;
+        List<ResponseFuture> futures = new ArrayList<ResponseFuture>(window);
+        for (int i = 0; i < requests; i++) {
+            futures.add(client.request(new World("world")));
+            if (futures.size() == window) {
+                for (ResponseFuture future : futures) {
+                    future.get();
+                }
+                futures.clear();
+            }
+        }
+        for (ResponseFuture future : futures) {
+            future.get();
+        }
+    }
+}
@@ -32,6 +32,7 @@ public /**final**/ class RpcException extends RuntimeException {
     public static final int BIZ_EXCEPTION = 3;
     public static final int FORBIDDEN_EXCEPTION = 4;
     public static final int SERIALIZATION_EXCEPTION = 5;
+    public static final int LIMIT_EXCEEDED_EXCEPTION = 6;
     private static final long serialVersionUID = 7815426752583648734L;
     private int code; // RpcException cannot be extended, use error code for exception type to keep compatibility
 
@@ -98,4 +99,8 @@ public /**final**/ class RpcException extends RuntimeException {
     public boolean isSerialization() {
         return code == SERIALIZATION_EXCEPTION;
     }
+
+    public boolean isLimitExceed() {
+        return code == LIMIT_EXCEEDED_EXCEPTION;
+    }
 }
\ No newline at end of file
@@ -22,6 +22,7 @@ import org.apache.dubbo.common.URL;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -31,9 +32,15 @@ import java.util.concurrent.atomic.AtomicLong;
  * @see org.apache.dubbo.rpc.filter.ActiveLimitFilter
  * @see org.apache.dubbo.rpc.filter.ExecuteLimitFilter
  * @see org.apache.dubbo.rpc.cluster.loadbalance.LeastActiveLoadBalance
+ * @see org.apache.dubbo.rpc.cluster.loadbalance.PeakEwmaLoadBalance
  */
 public class RpcStatus {
 
+    /**
+     * Time constant of the decay of the elapsed moving average, in nanoseconds
+     */
+    private static final double EWMA_DECAY = TimeUnit.SECONDS.toNanos(10);
+
     private static final ConcurrentMap<String, RpcStatus> SERVICE_STATISTICS = new ConcurrentHashMap<String, RpcStatus>();
 
     private static final ConcurrentMap<String, ConcurrentMap<String, RpcStatus>> METHOD_STATISTICS = new ConcurrentHashMap<String, ConcurrentMap<String, RpcStatus>>();
@@ -47,6 +54,12 @@ public class RpcStatus {
     private final AtomicLong failedMaxElapsed = new AtomicLong();
     private final AtomicLong succeededMaxElapsed = new AtomicLong();
 
+    /**
+     * Peak moving average of elapsed and the nano time it was last updated at, written under the status lock
+     */
+    private volatile double ewmaElapsed;
+    private volatile long ewmaStamp;
+
     /**
      * Semaphore used to control concurrency limit set by `executes`
      */
@@ -149,6 +162,23 @@ public class RpcStatus {
                 status.failedMaxElapsed.set(elapsed);
             }
         }
+        status.observeElapsed(elapsed, System.nanoTime());
+    }
+
+    /**
+     * Peak EWMA: a slower elapsed is taken at once, a faster one is averaged in by the time since the last sample.
+     */
+    void observeElapsed(long elapsed, long now) {
+        synchronized (this) {
+            double ewma = ewmaElapsed;
+            if (elapsed > ewma) {
+                ewmaElapsed = elapsed;
+            } else {
+                double w = Math.exp(-Math.max(now - ewmaStamp, 0) / EWMA_DECAY);
+                ewmaElapsed = ewma * w + elapsed * (1 - w);
+            }
+            ewmaStamp = now;
+        }
     }
 
     /**
@@ -211,6 +241,24 @@ public class RpcStatus {
         return getTotalElapsed() / total;
     }
 
+    /**
+     * get the peak exponentially weighted moving average of elapsed, which follows a slower elapsed at once and
+     * decays towards faster ones, and towards zero while no call ends, so that an idle provider is tried again.
+     *
+     * @return peak ewma elapsed, in milliseconds
+     */
+    public double getEwmaElapsed() {
+        return getEwmaElapsed(System.nanoTime());
+    }
+
+    double getEwmaElapsed(long now) {
+        double ewma = ewmaElapsed;
+        if (ewma == 0) {
+            return 0;
+        }
+        return ewma * Math.exp(-Math.max(now - ewmaStamp, 0) / EWMA_DECAY);
+    }
+
     /**
      * get max elapsed.
      *
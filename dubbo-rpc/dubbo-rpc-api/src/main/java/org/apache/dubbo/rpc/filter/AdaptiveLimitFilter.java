@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.Activate;
+import org.apache.dubbo.metrics.Gauge;
+import org.apache.dubbo.metrics.MetricManager;
+import org.apache.dubbo.metrics.MetricName;
+import org.apache.dubbo.rpc.AsyncRpcResult;
+import org.apache.dubbo.rpc.Filter;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.filter.limit.VegasLimiter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Limits the concurrent calls of a provider method to a limit adapted to its response time, see {@link VegasLimiter}.
+ * Excess calls are rejected with {@link RpcException#LIMIT_EXCEEDED_EXCEPTION}, which a failover consumer retries on
+ * another provider. The live limit is registered as the <code>dubbo.provider.adaptive.limit</code> gauge.
+ */
+@Activate(group = Constants.PROVIDER, value = Constants.ADAPTIVE_LIMIT_KEY)
+public class AdaptiveLimitFilter implements Filter {
+
+    private final ConcurrentMap<String, ConcurrentMap<String, VegasLimiter>> limiters = new ConcurrentHashMap<String, ConcurrentMap<String, VegasLimiter>>();
+
+    @Override
+    public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+        URL url = invoker.getUrl();
+        String methodName = invocation.getMethodName();
+        VegasLimiter limiter = getLimiter(url, methodName);
+        if (limiter == null) {
+            return invoker.invoke(invocation);
+        }
+        if (!limiter.tryAcquire()) {
+            throw new RpcException(RpcException.LIMIT_EXCEEDED_EXCEPTION, "Failed to invoke method " + methodName + " in provider " + url + ", cause: The service concurrency exceeds its adaptive limit " + limiter.getLimit());
+        }
+        int inflight = limiter.getInflight();
+        long begin = System.nanoTime();
+        boolean async = false;
+        try {
+            Result result = invoker.invoke(invocation);
+            if (result instanceof AsyncRpcResult) {
+                // an asynchronous method is in flight until its result completes
+                ((AsyncRpcResult) result).getResultFuture().whenComplete((r, t) -> limiter.release(System.nanoTime() - begin, inflight));
+                async = true;
+            }
+            return result;
+        } finally {
+            if (!async) {
+                limiter.release(System.nanoTime() - begin, inflight);
+            }
+        }
+    }
+
+    private VegasLimiter getLimiter(URL url, String methodName) {
+        String serviceKey = url.getServiceKey();
+        ConcurrentMap<String, VegasLimiter> methodLimiters = limiters.get(serviceKey);
+        if (methodLimiters == null) {
+            limiters.putIfAbsent(serviceKey, new ConcurrentHashMap<String, VegasLimiter>());
+            methodLimiters = limiters.get(serviceKey);
+        }
+        VegasLimiter limiter = methodLimiters.get(methodName);
+        if (limiter == null) {
+            int initialLimit = url.getMethodParameter(methodName, Constants.ADAPTIVE_LIMIT_KEY, 0);
+            if (initialLimit <= 0) {
+                return null;
+            }
+            int maxLimit = url.getMethodParameter(methodName, Constants.MAX_ADAPTIVE_LIMIT_KEY, Constants.DEFAULT_MAX_ADAPTIVE_LIMIT);
+            if (methodLimiters.putIfAbsent(methodName, new VegasLimiter(initialLimit, maxLimit)) == null) {
+                final VegasLimiter registered = methodLimiters.get(methodName);
+                MetricManager.register("dubbo", new MetricName("dubbo.provider.adaptive.limit")
+                        .tag("service", serviceKey, "method", methodName), new Gauge<Integer>() {
+                    @Override
+                    public Integer getValue() {
+                        return registered.getLimit();
+                    }
+
+                    @Override
+                    public long lastUpdateTime() {
+                        return registered.getLastUpdateTime();
+                    }
+                });
+            }
+            limiter = methodLimiters.get(methodName);
+        }
+        return limiter;
+    }
+}
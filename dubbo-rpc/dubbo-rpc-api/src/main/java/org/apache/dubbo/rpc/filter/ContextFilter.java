@@ -47,6 +47,8 @@ public class ContextFilter extends AbstractPostProcessFilter {
             attachments.remove(Constants.TOKEN_KEY);
             attachments.remove(Constants.TIMEOUT_KEY);
             attachments.remove(Constants.ASYNC_KEY);// Remove async property to avoid being passed to the following invoke chain.
+            attachments.remove(Constants.STREAM_WINDOW_KEY);
+            attachments.remove(Constants.APPLICATION_KEY);
         }
         RpcContext.getContext()
                 .setInvoker(invoker)
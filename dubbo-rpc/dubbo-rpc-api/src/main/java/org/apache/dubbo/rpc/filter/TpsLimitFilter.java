@@ -24,22 +24,22 @@ import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.Result;
 import org.apache.dubbo.rpc.RpcException;
-import org.apache.dubbo.rpc.filter.tps.DefaultTPSLimiter;
 import org.apache.dubbo.rpc.filter.tps.TPSLimiter;
+import org.apache.dubbo.rpc.filter.tps.TokenBucketTPSLimiter;
 
 /**
- * Limit TPS for either service or service's particular method
+ * Limit TPS for either service or service's particular method, and optionally for each consumer application
  */
-@Activate(group = Constants.PROVIDER, value = Constants.TPS_LIMIT_RATE_KEY)
+@Activate(group = Constants.PROVIDER, value = {Constants.TPS_LIMIT_RATE_KEY, Constants.TPS_LIMIT_APPLICATION_RATE_KEY})
 public class TpsLimitFilter implements Filter {
 
-    private final TPSLimiter tpsLimiter = new DefaultTPSLimiter();
+    private final TPSLimiter tpsLimiter = new TokenBucketTPSLimiter();
 
     @Override
     public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
 
         if (!tpsLimiter.isAllowable(invoker.getUrl(), invocation)) {
-            throw new RpcException(
+            throw new RpcException(RpcException.LIMIT_EXCEEDED_EXCEPTION,
                     "Failed to invoke service " +
                             invoker.getInterface().getName() +
                             "." +
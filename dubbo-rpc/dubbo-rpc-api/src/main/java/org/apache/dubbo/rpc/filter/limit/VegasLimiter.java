@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limiter in the manner of TCP Vegas: the limit grows while the response time stays close to the lowest
+ * one seen, and shrinks when calls start to queue, estimated as <code>limit * (1 - minRtt / rtt)</code>. The lowest
+ * response time is probed again every {@link #PROBE_MULTIPLIER} times limit calls, so that it follows a provider
+ * whose response time changes for good. Lock free.
+ */
+public class VegasLimiter {
+
+    static final int PROBE_MULTIPLIER = 30;
+
+    private final int maxLimit;
+
+    private final AtomicInteger limit;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final AtomicLong minRtt = new AtomicLong(Long.MAX_VALUE);
+
+    private final AtomicLong samples = new AtomicLong();
+
+    private volatile long lastUpdateTime = System.currentTimeMillis();
+
+    public VegasLimiter(int initialLimit, int maxLimit) {
+        this.maxLimit = maxLimit;
+        this.limit = new AtomicInteger(Math.max(1, Math.min(initialLimit, maxLimit)));
+    }
+
+    /**
+     * @return true if the call may proceed, and must then be {@link #release(long, int) released}
+     */
+    public boolean tryAcquire() {
+        for (; ; ) {
+            int current = inflight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param rtt      the response time of the call, in nanoseconds
+     * @param inflight the calls in flight when it was acquired, itself included
+     */
+    public void release(long rtt, int inflight) {
+        this.inflight.decrementAndGet();
+        if (rtt > 0) {
+            update(rtt, inflight);
+        }
+    }
+
+    private void update(long rtt, int inflight) {
+        int current = limit.get();
+        long count = samples.incrementAndGet();
+        if (count >= (long) PROBE_MULTIPLIER * current && samples.compareAndSet(count, 0)) {
+            minRtt.set(rtt);
+            return;
+        }
+        long min = minRtt.get();
+        while (rtt < min && !minRtt.compareAndSet(min, rtt)) {
+            min = minRtt.get();
+        }
+        min = Math.min(min, rtt);
+        // not enough load to tell whether the limit is too low
+        if (inflight * 2 < current) {
+            return;
+        }
+        int queue = (int) Math.ceil(current * (1 - (double) min / rtt));
+        int log = Math.max(1, (int) Math.log10(current));
+        int next;
+        if (queue <= log) {
+            next = current + 6 * log;
+        } else if (queue < 3 * log) {
+            next = current + log;
+        } else if (queue > 6 * log) {
+            next = current - log;
+        } else {
+            return;
+        }
+        // a concurrent update wins over this sample
+        if (limit.compareAndSet(current, Math.max(1, Math.min(next, maxLimit)))) {
+            lastUpdateTime = System.currentTimeMillis();
+        }
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public long getLastUpdateTime() {
+        return lastUpdateTime;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter.tps;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token bucket of <code>rate</code> tokens per interval, refilled evenly by the nanosecond, so a burst can only spend
+ * the tokens accumulated since the last one. The tokens are striped over up to one bucket per processor, each a
+ * single CAS on its theoretical arrival time (GCRA), so that threads do not contend on one counter. A thread takes
+ * from its own stripe first and from the others when it is empty, so no call is rejected while a token is left.
+ */
+class TokenBucket {
+
+    /**
+     * Longs between two stripes, to keep them on separate cache lines
+     */
+    private static final int PADDING = 16;
+
+    private final int rate;
+
+    private final long interval;
+
+    private final long intervalNanos;
+
+    /**
+     * Nanoseconds per token of each stripe
+     */
+    private final long[] emissions;
+
+    private final AtomicLongArray arrivals;
+
+    TokenBucket(int rate, long interval) {
+        this.rate = rate;
+        this.interval = interval;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(interval);
+        int stripes = Math.max(1, Math.min(rate, Runtime.getRuntime().availableProcessors()));
+        this.emissions = new long[stripes];
+        this.arrivals = new AtomicLongArray(stripes * PADDING);
+        long now = System.nanoTime();
+        for (int i = 0; i < stripes; i++) {
+            int tokens = rate / stripes + (i < rate % stripes ? 1 : 0);
+            emissions[i] = Math.max(1, intervalNanos / tokens);
+            arrivals.set(i * PADDING, now);
+        }
+    }
+
+    boolean tryAcquire() {
+        return acquire() >= 0;
+    }
+
+    /**
+     * @return the stripe the token was taken from, to {@link #release(int)} it, or -1 when none is left
+     */
+    int acquire() {
+        long now = System.nanoTime();
+        int stripes = emissions.length;
+        int first = (int) (Thread.currentThread().getId() % stripes);
+        for (int i = 0; i < stripes; i++) {
+            int stripe = first + i < stripes ? first + i : first + i - stripes;
+            if (tryAcquire(stripe, now)) {
+                return stripe;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Give back a token which was not used after all. An arrival time falling behind now is the same as now, so this
+     * never grants more than a full bucket.
+     */
+    void release(int stripe) {
+        arrivals.addAndGet(stripe * PADDING, -emissions[stripe]);
+    }
+
+    private boolean tryAcquire(int stripe, long now) {
+        int index = stripe * PADDING;
+        long emission = emissions[stripe];
+        for (; ; ) {
+            long arrival = arrivals.get(index);
+            long next = (arrival - now > 0 ? arrival : now) + emission;
+            if (next - now > intervalNanos) {
+                return false;
+            }
+            if (arrivals.compareAndSet(index, arrival, next)) {
+                return true;
+            }
+        }
+    }
+
+    boolean isFor(int rate, long interval) {
+        return this.rate == rate && this.interval == interval;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenBucket [rate = " + rate + ", interval = " + interval + ", stripes = " + emissions.length + "]";
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter.tps;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.Invocation;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Limits the TPS of a service with {@link TokenBucket}s, which unlike {@link DefaultTPSLimiter} admit at most the rate
+ * of calls per interval under concurrency. With <code>tps.application</code>, the calls from each consumer
+ * application, told by the <code>application</code> attachment, are limited on their own as well. The attachment is up
+ * to the consumer, so only the first {@value #MAX_APPLICATIONS} applications of a service get a bucket of their own,
+ * the others share one.
+ */
+public class TokenBucketTPSLimiter implements TPSLimiter {
+
+    static final int MAX_APPLICATIONS = 1024;
+
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<String, TokenBucket>();
+
+    private final ConcurrentMap<String, ConcurrentMap<String, TokenBucket>> applicationBuckets = new ConcurrentHashMap<String, ConcurrentMap<String, TokenBucket>>();
+
+    @Override
+    public boolean isAllowable(URL url, Invocation invocation) {
+        int rate = url.getParameter(Constants.TPS_LIMIT_RATE_KEY, -1);
+        int applicationRate = url.getParameter(Constants.TPS_LIMIT_APPLICATION_RATE_KEY, -1);
+        long interval = url.getParameter(Constants.TPS_LIMIT_INTERVAL_KEY, Constants.DEFAULT_TPS_LIMIT_INTERVAL);
+        String serviceKey = url.getServiceKey();
+        if (applicationRate > 0) {
+            String application = invocation.getAttachment(Constants.APPLICATION_KEY, "");
+            ConcurrentMap<String, TokenBucket> applications = applicationBuckets.get(serviceKey);
+            if (applications == null) {
+                applicationBuckets.putIfAbsent(serviceKey, new ConcurrentHashMap<String, TokenBucket>());
+                applications = applicationBuckets.get(serviceKey);
+            }
+            if (applications.size() >= MAX_APPLICATIONS && !applications.containsKey(application)) {
+                application = "";
+            }
+            TokenBucket applicationBucket = getBucket(applications, application, applicationRate, interval);
+            int stripe = applicationBucket.acquire();
+            if (stripe < 0) {
+                return false;
+            }
+            if (rate > 0 && !getBucket(buckets, serviceKey, rate, interval).tryAcquire()) {
+                // not spent on a call the service rejects
+                applicationBucket.release(stripe);
+                return false;
+            }
+            return true;
+        } else if (applicationBuckets.get(serviceKey) != null) {
+            applicationBuckets.remove(serviceKey);
+        }
+        if (rate > 0) {
+            return getBucket(buckets, serviceKey, rate, interval).tryAcquire();
+        }
+        if (buckets.get(serviceKey) != null) {
+            buckets.remove(serviceKey);
+        }
+        return true;
+    }
+
+    private static TokenBucket getBucket(ConcurrentMap<String, TokenBucket> buckets, String key, int rate, long interval) {
+        for (; ; ) {
+            TokenBucket bucket = buckets.get(key);
+            if (bucket != null && bucket.isFor(rate, interval)) {
+                return bucket;
+            }
+            // the rate changed, or no call came yet. only one of the concurrent callers installs its full bucket
+            TokenBucket created = new TokenBucket(rate, interval);
+            if (bucket == null ? buckets.putIfAbsent(key, created) == null : buckets.replace(key, bucket, created)) {
+                return created;
+            }
+        }
+    }
+}
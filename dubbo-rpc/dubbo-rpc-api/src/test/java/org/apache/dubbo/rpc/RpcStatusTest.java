@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc;
+
+import org.apache.dubbo.common.URL;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class RpcStatusTest {
+
+    private final URL url = URL.valueOf("dubbo://127.0.0.1:20880/org.apache.dubbo.rpc.DemoService");
+
+    @After
+    public void tearDown() {
+        RpcStatus.removeStatus(url);
+        RpcStatus.removeStatus(url, "sayHello");
+    }
+
+    @Test
+    public void testCount() {
+        RpcStatus.beginCount(url, "sayHello");
+        Assert.assertEquals(1, RpcStatus.getStatus(url, "sayHello").getActive());
+        RpcStatus.endCount(url, "sayHello", 20, false);
+
+        RpcStatus status = RpcStatus.getStatus(url, "sayHello");
+        Assert.assertEquals(0, status.getActive());
+        Assert.assertEquals(1, status.getTotal());
+        Assert.assertEquals(1, status.getFailed());
+        Assert.assertEquals(20, status.getMaxElapsed());
+        Assert.assertTrue(status.getEwmaElapsed() > 0);
+        Assert.assertEquals(1, RpcStatus.getStatus(url).getTotal());
+    }
+
+    @Test
+    public void testEwmaElapsed() {
+        RpcStatus status = RpcStatus.getStatus(url, "sayHello");
+        long now = 0;
+        status.observeElapsed(10, now);
+        Assert.assertEquals(10, status.getEwmaElapsed(now), 0.0001);
+
+        // a slower call is taken at once
+        status.observeElapsed(100, now);
+        Assert.assertEquals(100, status.getEwmaElapsed(now), 0.0001);
+
+        // a faster call right after barely moves it
+        status.observeElapsed(10, now + TimeUnit.MILLISECONDS.toNanos(1));
+        Assert.assertTrue(status.getEwmaElapsed(now + TimeUnit.MILLISECONDS.toNanos(1)) > 99);
+
+        // a faster call after a long time mostly replaces it
+        now += TimeUnit.SECONDS.toNanos(60);
+        status.observeElapsed(10, now);
+        Assert.assertEquals(10, status.getEwmaElapsed(now), 1);
+
+        // and it decays while idle
+        Assert.assertTrue(status.getEwmaElapsed(now + TimeUnit.SECONDS.toNanos(10)) < 4);
+    }
+}
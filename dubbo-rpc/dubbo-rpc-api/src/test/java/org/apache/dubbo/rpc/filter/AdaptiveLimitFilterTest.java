@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.AsyncRpcResult;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcResult;
+import org.apache.dubbo.rpc.support.BlockMyInvoker;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class AdaptiveLimitFilterTest {
+
+    private AdaptiveLimitFilter adaptiveLimitFilter = new AdaptiveLimitFilter();
+
+    @Test
+    public void testNoAdaptiveLimitInvoke() throws Exception {
+        Invoker invoker = Mockito.mock(Invoker.class);
+        when(invoker.invoke(any(Invocation.class))).thenReturn(new RpcResult("result"));
+        when(invoker.getUrl()).thenReturn(URL.valueOf("test://test:11/test?group=dubbo&version=1.1"));
+
+        Invocation invocation = Mockito.mock(Invocation.class);
+        when(invocation.getMethodName()).thenReturn("testNoAdaptiveLimitInvoke");
+
+        Result result = adaptiveLimitFilter.invoke(invoker, invocation);
+        Assert.assertEquals("result", result.getValue());
+    }
+
+    @Test
+    public void testAsyncInvokeHoldsLimitUntilCompleted() throws Exception {
+        CompletableFuture<Object> future = new CompletableFuture<Object>();
+        Invoker invoker = Mockito.mock(Invoker.class);
+        when(invoker.invoke(any(Invocation.class))).thenReturn(new AsyncRpcResult(future));
+        when(invoker.getUrl()).thenReturn(URL.valueOf("test://test:11/test?group=dubbo&version=1.1&adaptive.limit=1"));
+
+        Invocation invocation = Mockito.mock(Invocation.class);
+        when(invocation.getMethodName()).thenReturn("testAsyncInvokeHoldsLimitUntilCompleted");
+
+        adaptiveLimitFilter.invoke(invoker, invocation);
+        try {
+            adaptiveLimitFilter.invoke(invoker, invocation);
+            Assert.fail();
+        } catch (RpcException expected) {
+            Assert.assertTrue(expected.isLimitExceed());
+        }
+        future.complete("result");
+        when(invoker.invoke(any(Invocation.class))).thenReturn(new RpcResult("result"));
+        Assert.assertEquals("result", adaptiveLimitFilter.invoke(invoker, invocation).getValue());
+    }
+
+    @Test
+    public void testMoreThanAdaptiveLimitInvoke() throws Exception {
+        int limit = 4;
+        int total = 10;
+        final AtomicInteger rejected = new AtomicInteger(0);
+
+        final Invocation invocation = Mockito.mock(Invocation.class);
+        when(invocation.getMethodName()).thenReturn("testMoreThanAdaptiveLimitInvoke");
+
+        URL url = URL.valueOf("test://test:11/test?group=dubbo&version=1.1&adaptive.limit=" + limit);
+        final Invoker<AdaptiveLimitFilter> invoker = new BlockMyInvoker<AdaptiveLimitFilter>(url, 1000);
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < total; i++) {
+            Thread thread = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        latch.await();
+                        adaptiveLimitFilter.invoke(invoker, invocation);
+                    } catch (RpcException expected) {
+                        if (expected.isLimitExceed()) {
+                            rejected.incrementAndGet();
+                        }
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        latch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(total - limit, rejected.get());
+    }
+}
@@ -21,12 +21,14 @@ import org.apache.dubbo.common.URL;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcInvocation;
 import org.apache.dubbo.rpc.support.MockInvocation;
 import org.apache.dubbo.rpc.support.MyInvoker;
 
 import org.junit.Test;
 
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class TpsLimitFilterTest {
 
@@ -61,4 +63,27 @@ public class TpsLimitFilterTest {
         }
     }
 
+    @Test
+    public void testApplicationLimit() throws Exception {
+        URL url = URL.valueOf("test://test");
+        url = url.addParameter(Constants.INTERFACE_KEY,
+                "org.apache.dubbo.rpc.file.TpsApplicationService");
+        url = url.addParameter(Constants.TPS_LIMIT_APPLICATION_RATE_KEY, 2);
+        Invoker<TpsLimitFilterTest> invoker = new MyInvoker<TpsLimitFilterTest>(url);
+        RpcInvocation first = new RpcInvocation("echo", new Class<?>[0], new Object[0]);
+        first.setAttachment(Constants.APPLICATION_KEY, "first");
+        RpcInvocation second = new RpcInvocation("echo", new Class<?>[0], new Object[0]);
+        second.setAttachment(Constants.APPLICATION_KEY, "second");
+
+        filter.invoke(invoker, first);
+        filter.invoke(invoker, first);
+        try {
+            filter.invoke(invoker, first);
+            fail();
+        } catch (RpcException e) {
+            assertTrue(e.isLimitExceed());
+        }
+        filter.invoke(invoker, second);
+    }
+
 }
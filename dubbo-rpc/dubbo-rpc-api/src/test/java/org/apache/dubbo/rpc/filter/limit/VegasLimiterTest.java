@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter.limit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VegasLimiterTest {
+
+    @Test
+    public void testTryAcquire() {
+        VegasLimiter limiter = new VegasLimiter(2, 100);
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertTrue(limiter.tryAcquire());
+        Assert.assertFalse(limiter.tryAcquire());
+        Assert.assertEquals(2, limiter.getInflight());
+        limiter.release(0, 2);
+        Assert.assertEquals(1, limiter.getInflight());
+        Assert.assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testGrowWithoutQueueing() {
+        VegasLimiter limiter = new VegasLimiter(10, 100);
+        for (int i = 0; i < 20; i++) {
+            sample(limiter, 1000);
+        }
+        Assert.assertEquals(100, limiter.getLimit());
+    }
+
+    @Test
+    public void testShrinkWhenQueueing() {
+        VegasLimiter limiter = new VegasLimiter(50, 100);
+        sample(limiter, 1000);
+        int limit = limiter.getLimit();
+        for (int i = 0; i < 10; i++) {
+            sample(limiter, 10000);
+        }
+        Assert.assertTrue(limiter.getLimit() < limit);
+        Assert.assertTrue(limiter.getLimit() >= 1);
+    }
+
+    @Test
+    public void testNoGrowthUnderLightLoad() {
+        VegasLimiter limiter = new VegasLimiter(10, 100);
+        for (int i = 0; i < 20; i++) {
+            Assert.assertTrue(limiter.tryAcquire());
+            limiter.release(1000, 1);
+        }
+        Assert.assertEquals(10, limiter.getLimit());
+    }
+
+    /**
+     * Fills the limit and releases one call with the response time.
+     */
+    private static void sample(VegasLimiter limiter, long rtt) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        limiter.release(rtt, limiter.getInflight());
+        for (int i = 1; i < acquired; i++) {
+            limiter.release(0, 0);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter.tps;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.RpcInvocation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketTPSLimiterTest {
+
+    private final TokenBucketTPSLimiter limiter = new TokenBucketTPSLimiter();
+
+    @Test
+    public void testApplicationTokenKeptWhenServiceRejects() {
+        URL url = URL.valueOf("test://test/DemoService?" + Constants.TPS_LIMIT_RATE_KEY + "=1&"
+                + Constants.TPS_LIMIT_APPLICATION_RATE_KEY + "=2");
+        RpcInvocation invocation = invocation("app");
+        assertTrue(limiter.isAllowable(url, invocation));
+        assertFalse(limiter.isAllowable(url, invocation));
+
+        // a new service rate, the application still has the token of the rejected call
+        url = url.addParameter(Constants.TPS_LIMIT_RATE_KEY, 10);
+        assertTrue(limiter.isAllowable(url, invocation));
+        assertFalse(limiter.isAllowable(url, invocation));
+    }
+
+    @Test
+    public void testApplicationsBounded() {
+        URL url = URL.valueOf("test://test/DemoService?" + Constants.TPS_LIMIT_APPLICATION_RATE_KEY + "=1");
+        for (int i = 0; i < TokenBucketTPSLimiter.MAX_APPLICATIONS; i++) {
+            assertTrue(limiter.isAllowable(url, invocation("app" + i)));
+        }
+        // the applications beyond the bound share one bucket
+        assertTrue(limiter.isAllowable(url, invocation("extra1")));
+        assertFalse(limiter.isAllowable(url, invocation("extra2")));
+        assertFalse(limiter.isAllowable(url, invocation("app0")));
+    }
+
+    private static RpcInvocation invocation(String application) {
+        RpcInvocation invocation = new RpcInvocation("echo", new Class<?>[0], new Object[0]);
+        invocation.setAttachment(Constants.APPLICATION_KEY, application);
+        return invocation;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter.tps;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketTest {
+
+    @Test
+    public void testIsAllowable() throws Exception {
+        TokenBucket bucket = new TokenBucket(5, 500L);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.tryAcquire());
+        }
+        assertFalse(bucket.tryAcquire());
+        Thread.sleep(600L);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.tryAcquire());
+        }
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void testConcurrentAcquire() throws Exception {
+        final TokenBucket bucket = new TokenBucket(1000, 3600 * 1000L);
+        final AtomicInteger allowed = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 16; i++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        latch.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < 1000; j++) {
+                        if (bucket.tryAcquire()) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        latch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(1000, allowed.get());
+    }
+
+    @Test
+    public void testRelease() throws Exception {
+        TokenBucket bucket = new TokenBucket(5, 3600 * 1000L);
+        // a full bucket does not grow
+        bucket.release(0);
+        int stripe = -1;
+        for (int i = 0; i < 5; i++) {
+            stripe = bucket.acquire();
+            assertTrue(stripe >= 0);
+        }
+        assertEquals(-1, bucket.acquire());
+        bucket.release(stripe);
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void testIsFor() {
+        TokenBucket bucket = new TokenBucket(5, 1000L);
+        assertTrue(bucket.isFor(5, 1000L));
+        assertFalse(bucket.isFor(6, 1000L));
+        assertFalse(bucket.isFor(5, 2000L));
+    }
+}
@@ -80,7 +80,7 @@ public class DecodeableRpcResult extends RpcResult implements Codec, Decodeable
                 break;
             case DubboCodec.RESPONSE_VALUE:
                 try {
-                    Type[] returnType = RpcUtils.getReturnTypes(invocation);
+                    Type[] returnType = getReturnTypes();
                     setValue(returnType == null || returnType.length == 0 ? in.readObject() :
                             (returnType.length == 1 ? in.readObject((Class<?>) returnType[0])
                                     : in.readObject((Class<?>) returnType[0], returnType[1])));
@@ -107,7 +107,7 @@ public class DecodeableRpcResult extends RpcResult implements Codec, Decodeable
                 break;
             case DubboCodec.RESPONSE_VALUE_WITH_ATTACHMENTS:
                 try {
-                    Type[] returnType = RpcUtils.getReturnTypes(invocation);
+                    Type[] returnType = getReturnTypes();
                     setValue(returnType == null || returnType.length == 0 ? in.readObject() :
                             (returnType.length == 1 ? in.readObject((Class<?>) returnType[0])
                                     : in.readObject((Class<?>) returnType[0], returnType[1])));
@@ -136,6 +136,13 @@ public class DecodeableRpcResult extends RpcResult implements Codec, Decodeable
         return this;
     }
 
+    /**
+     * A stream chunk holds an element of the stream rather than the declared return value.
+     */
+    private Type[] getReturnTypes() {
+        return response.getStatus() == Response.STREAM ? null : RpcUtils.getReturnTypes(invocation);
+    }
+
     @Override
     public void decode() throws Exception {
         if (!hasDecoded && channel != null && inputStream != null) {
@@ -76,7 +76,10 @@ public class DubboCodec extends ExchangeCodec implements Codec2 {
             // get status.
             byte status = header[3];
             res.setStatus(status);
-            if (status == Response.OK) {
+            if (status == Response.STREAM) {
+                setChunkIndex(res, readChunkIndex(is));
+            }
+            if (status == Response.OK || status == Response.STREAM) {
                 try {
                     Object data;
                     if (res.isHeartbeat()) {
@@ -85,9 +88,7 @@ public class DubboCodec extends ExchangeCodec implements Codec2 {
                         data = decodeEventData(channel, deserialize(s, channel.getUrl(), is));
                     } else {
                         DecodeableRpcResult result;
-                        if (channel.getUrl().getParameter(
-                                Constants.DECODE_IN_IO_THREAD_KEY,
-                                Constants.DEFAULT_DECODE_IN_IO_THREAD)) {
+                        if (isDecodeInIoThread(channel, is)) {
                             result = new DecodeableRpcResult(channel, res, is,
                                     (Invocation) getRequestData(id), proto);
                             result.decode();
@@ -126,9 +127,7 @@ public class DubboCodec extends ExchangeCodec implements Codec2 {
                     data = decodeEventData(channel, deserialize(s, channel.getUrl(), is));
                 } else {
                     DecodeableRpcInvocation inv;
-                    if (channel.getUrl().getParameter(
-                            Constants.DECODE_IN_IO_THREAD_KEY,
-                            Constants.DEFAULT_DECODE_IN_IO_THREAD)) {
+                    if (isDecodeInIoThread(channel, is)) {
                         inv = new DecodeableRpcInvocation(channel, req, is, proto);
                         inv.decode();
                     } else {
@@ -150,6 +149,20 @@ public class DubboCodec extends ExchangeCodec implements Codec2 {
         }
     }
 
+    /**
+     * Small bodies are cheaper to decode right away on the IO thread, while large ones are copied
+     * and left to DecodeHandler on the business thread pool when decode.in.io.threshold is set.
+     */
+    private boolean isDecodeInIoThread(Channel channel, InputStream is) throws IOException {
+        URL url = channel.getUrl();
+        int threshold = url.getParameter(Constants.DECODE_IN_IO_THREAD_THRESHOLD_KEY, 0);
+        if (threshold > 0) {
+            // the stream is limited to the body of this message.
+            return is.available() <= threshold;
+        }
+        return url.getParameter(Constants.DECODE_IN_IO_THREAD_KEY, Constants.DEFAULT_DECODE_IN_IO_THREAD);
+    }
+
     private ObjectInput deserialize(Serialization serialization, URL url, InputStream is)
             throws IOException {
         return serialization.deserialize(url, is);
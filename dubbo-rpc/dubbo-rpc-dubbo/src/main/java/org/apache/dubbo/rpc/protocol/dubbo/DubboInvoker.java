@@ -18,12 +18,13 @@ package org.apache.dubbo.rpc.protocol.dubbo;
 
 import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.URL;
-import org.apache.dubbo.common.utils.AtomicPositiveInteger;
 import org.apache.dubbo.common.utils.ConfigUtils;
 import org.apache.dubbo.remoting.RemotingException;
 import org.apache.dubbo.remoting.TimeoutException;
 import org.apache.dubbo.remoting.exchange.ExchangeClient;
+import org.apache.dubbo.remoting.exchange.ResponseCallback;
 import org.apache.dubbo.remoting.exchange.ResponseFuture;
+import org.apache.dubbo.remoting.exchange.support.DefaultFuture;
 import org.apache.dubbo.rpc.AsyncRpcResult;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
@@ -36,6 +37,7 @@ import org.apache.dubbo.rpc.SimpleAsyncRpcResult;
 import org.apache.dubbo.rpc.protocol.AbstractInvoker;
 import org.apache.dubbo.rpc.support.RpcUtils;
 
+import java.util.Iterator;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -44,9 +46,7 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public class DubboInvoker<T> extends AbstractInvoker<T> {
 
-    private final ExchangeClient[] clients;
-
-    private final AtomicPositiveInteger index = new AtomicPositiveInteger();
+    private final ExchangeClientPool clients;
 
     private final String version;
 
@@ -59,7 +59,11 @@ public class DubboInvoker<T> extends AbstractInvoker<T> {
     }
 
     public DubboInvoker(Class<T> serviceType, URL url, ExchangeClient[] clients, Set<Invoker<?>> invokers) {
-        super(serviceType, url, new String[]{Constants.INTERFACE_KEY, Constants.GROUP_KEY, Constants.TOKEN_KEY, Constants.TIMEOUT_KEY});
+        this(serviceType, url, new ExchangeClientPool(clients), invokers);
+    }
+
+    DubboInvoker(Class<T> serviceType, URL url, ExchangeClientPool clients, Set<Invoker<?>> invokers) {
+        super(serviceType, url, new String[]{Constants.INTERFACE_KEY, Constants.GROUP_KEY, Constants.TOKEN_KEY, Constants.TIMEOUT_KEY, Constants.APPLICATION_KEY});
         this.clients = clients;
         // get version.
         this.version = url.getParameter(Constants.VERSION_KEY, "0.0.0");
@@ -73,26 +77,51 @@ public class DubboInvoker<T> extends AbstractInvoker<T> {
         inv.setAttachment(Constants.PATH_KEY, getUrl().getPath());
         inv.setAttachment(Constants.VERSION_KEY, version);
 
-        ExchangeClient currentClient;
-        if (clients.length == 1) {
-            currentClient = clients[0];
-        } else {
-            currentClient = clients[index.getAndIncrement() % clients.length];
-        }
+        ExchangeClientPool.Connection connection = clients.acquire();
+        ExchangeClient currentClient = connection.getClient();
+        // released here unless a pending async request releases it on completion
+        boolean release = true;
         try {
             boolean isAsync = RpcUtils.isAsync(getUrl(), invocation);
             boolean isAsyncFuture = RpcUtils.isGeneratedFuture(inv) || RpcUtils.isFutureReturnType(inv);
             boolean isOneway = RpcUtils.isOneway(getUrl(), invocation);
+            boolean isStream = Iterator.class.equals(RpcUtils.getReturnType(invocation))
+                    && getUrl().getMethodParameter(methodName, Constants.STREAM_KEY, false);
             int timeout = getUrl().getMethodParameter(methodName, Constants.TIMEOUT_KEY, Constants.DEFAULT_TIMEOUT);
             if (isOneway) {
                 boolean isSent = getUrl().getMethodParameter(methodName, Constants.SENT_KEY, false);
                 currentClient.send(inv, isSent);
                 RpcContext.getContext().setFuture(null);
                 return new RpcResult();
+            } else if (isStream) {
+                int window = getUrl().getMethodParameter(methodName, Constants.STREAM_WINDOW_KEY, Constants.DEFAULT_STREAM_WINDOW);
+                inv.setAttachment(Constants.STREAM_WINDOW_KEY, String.valueOf(window));
+                ResponseFuture future = currentClient.request(inv, timeout);
+                if (!(future instanceof DefaultFuture)) {
+                    throw new RpcException("Failed to stream remote method: " + invocation.getMethodName()
+                            + ", the client " + currentClient + " does not support stream");
+                }
+                // the connection is busy until the stream ends
+                future.setCallback(new ResponseCallback() {
+                    @Override
+                    public void done(Object response) {
+                        connection.release();
+                    }
+
+                    @Override
+                    public void caught(Throwable exception) {
+                        connection.release();
+                    }
+                });
+                release = false;
+                RpcContext.getContext().setFuture(null);
+                return new RpcResult(new StreamIterator(((DefaultFuture) future).getStream(window), methodName, getUrl()));
             } else if (isAsync) {
                 ResponseFuture future = currentClient.request(inv, timeout);
                 // For compatibility
                 FutureAdapter<Object> futureAdapter = new FutureAdapter<>(future);
+                futureAdapter.whenComplete((value, t) -> connection.release());
+                release = false;
                 RpcContext.getContext().setFuture(futureAdapter);
 
                 Result result;
@@ -105,12 +134,22 @@ public class DubboInvoker<T> extends AbstractInvoker<T> {
                 return result;
             } else {
                 RpcContext.getContext().setFuture(null);
-                return (Result) currentClient.request(inv, timeout).get();
+                Result result = (Result) currentClient.request(inv, timeout).get();
+                if (result.hasException() && result.getException() instanceof RpcException
+                        && ((RpcException) result.getException()).isLimitExceed()) {
+                    // the provider rejected the call before it reached the service, let the cluster fail over
+                    throw (RpcException) result.getException();
+                }
+                return result;
             }
         } catch (TimeoutException e) {
             throw new RpcException(RpcException.TIMEOUT_EXCEPTION, "Invoke remote method timeout. method: " + invocation.getMethodName() + ", provider: " + getUrl() + ", cause: " + e.getMessage(), e);
         } catch (RemotingException e) {
             throw new RpcException(RpcException.NETWORK_EXCEPTION, "Failed to invoke remote method: " + invocation.getMethodName() + ", provider: " + getUrl() + ", cause: " + e.getMessage(), e);
+        } finally {
+            if (release) {
+                connection.release();
+            }
         }
     }
 
@@ -118,7 +157,7 @@ public class DubboInvoker<T> extends AbstractInvoker<T> {
     public boolean isAvailable() {
         if (!super.isAvailable())
             return false;
-        for (ExchangeClient client : clients) {
+        for (ExchangeClient client : clients.getClients()) {
             if (client.isConnected() && !client.hasAttribute(Constants.CHANNEL_ATTRIBUTE_READONLY_KEY)) {
                 //cannot write == not Available ?
                 return true;
@@ -127,6 +166,10 @@ public class DubboInvoker<T> extends AbstractInvoker<T> {
         return false;
     }
 
+    ExchangeClient[] getClients() {
+        return clients.getClients();
+    }
+
     @Override
     public void destroy() {
         // in order to avoid closing a client multiple times, a counter is used in case of connection per jvm, every
@@ -145,7 +188,7 @@ public class DubboInvoker<T> extends AbstractInvoker<T> {
                 if (invokers != null) {
                     invokers.remove(this);
                 }
-                for (ExchangeClient client : clients) {
+                for (ExchangeClient client : clients.destroy()) {
                     try {
                         client.close(ConfigUtils.getServerShutdownTimeout());
                     } catch (Throwable t) {
@@ -18,6 +18,7 @@ package org.apache.dubbo.rpc.protocol.dubbo;
 
 import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.Version;
 import org.apache.dubbo.common.extension.ExtensionLoader;
 import org.apache.dubbo.common.serialize.support.SerializableClassRegistry;
 import org.apache.dubbo.common.serialize.support.SerializationOptimizer;
@@ -34,6 +35,7 @@ import org.apache.dubbo.remoting.exchange.ExchangeHandler;
 import org.apache.dubbo.remoting.exchange.ExchangeServer;
 import org.apache.dubbo.remoting.exchange.Exchangers;
 import org.apache.dubbo.remoting.exchange.support.ExchangeHandlerAdapter;
+import org.apache.dubbo.remoting.exchange.support.StreamReply;
 import org.apache.dubbo.rpc.AsyncContextImpl;
 import org.apache.dubbo.rpc.AsyncRpcResult;
 import org.apache.dubbo.rpc.Exporter;
@@ -44,12 +46,14 @@ import org.apache.dubbo.rpc.Result;
 import org.apache.dubbo.rpc.RpcContext;
 import org.apache.dubbo.rpc.RpcException;
 import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.RpcResult;
 import org.apache.dubbo.rpc.protocol.AbstractProtocol;
 
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -111,8 +115,26 @@ public class DubboProtocol extends AbstractProtocol {
                     rpcContext.setAsyncContext(new AsyncContextImpl(future));
                 }
                 rpcContext.setRemoteAddress(channel.getRemoteAddress());
-                Result result = invoker.invoke(inv);
+                Result result;
+                try {
+                    result = invoker.invoke(inv);
+                } catch (RpcException e) {
+                    // rejected by a limit of the provider, serialized as the result so that the consumer gets the code,
+                    // older consumers get an error response as before, and fail over on it
+                    if (!e.isLimitExceed() || !Version.isSupportLimitExceeded(inv.getAttachment(Constants.DUBBO_VERSION_KEY))) {
+                        throw e;
+                    }
+                    result = new RpcResult(e);
+                }
 
+                String window = inv.getAttachment(Constants.STREAM_WINDOW_KEY);
+                if (window != null) {
+                    if (result instanceof AsyncRpcResult) {
+                        return ((AsyncRpcResult) result).getResultFuture().thenApply(r -> toStreamReply(r, window));
+                    } else {
+                        return CompletableFuture.completedFuture(toStreamReply(result, window));
+                    }
+                }
                 if (result instanceof AsyncRpcResult) {
                     return ((AsyncRpcResult) result).getResultFuture().thenApply(r -> (Object) r);
                 } else {
@@ -355,11 +377,44 @@ public class DubboProtocol extends AbstractProtocol {
     public <T> Invoker<T> refer(Class<T> serviceType, URL url) throws RpcException {
         optimizeSerialization(url);
         // create rpc invoker.
-        DubboInvoker<T> invoker = new DubboInvoker<T>(serviceType, url, getClients(url), invokers);
+        DubboInvoker<T> invoker = new DubboInvoker<T>(serviceType, url, getClientPool(url), invokers);
         invokers.add(invoker);
         return invoker;
     }
 
+    /**
+     * The consumer asked for a stream, an Iterator result is sent as a stream of its values.
+     */
+    private static Object toStreamReply(Result result, String window) {
+        Object value = result.hasException() ? null : result.getValue();
+        if (!(value instanceof Iterator)) {
+            return result;
+        }
+        Iterator<?> values = (Iterator<?>) value;
+        RpcResult end = new RpcResult();
+        end.setAttachments(result.getAttachments());
+        int chunks;
+        try {
+            chunks = Integer.parseInt(window);
+        } catch (NumberFormatException e) {
+            chunks = Constants.DEFAULT_STREAM_WINDOW;
+        }
+        return new StreamReply(new StreamResultIterator(values), end, chunks);
+    }
+
+    private ExchangeClientPool getClientPool(URL url) {
+        ExchangeClient[] clients = getClients(url);
+        int connections = url.getParameter(Constants.CONNECTIONS_KEY, 0);
+        int maxConnections = url.getParameter(Constants.MAX_CONNECTIONS_KEY, 0);
+        // shared connections are never resized
+        if (connections > 0 && maxConnections > connections) {
+            return new ExchangeClientPool(clients, maxConnections, url.getPositiveParameter(
+                    Constants.CONNECTIONS_PENDING_THRESHOLD_KEY, Constants.DEFAULT_CONNECTIONS_PENDING_THRESHOLD),
+                    () -> initClient(url));
+        }
+        return new ExchangeClientPool(clients);
+    }
+
     private ExchangeClient[] getClients(URL url) {
         // whether to share connection
         boolean service_share_connect = false;
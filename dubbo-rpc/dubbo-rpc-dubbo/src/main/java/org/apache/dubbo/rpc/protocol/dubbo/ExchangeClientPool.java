@@ -0,0 +1,314 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.AtomicPositiveInteger;
+import org.apache.dubbo.common.utils.ConfigUtils;
+import org.apache.dubbo.common.utils.NamedThreadFactory;
+import org.apache.dubbo.remoting.exchange.ExchangeClient;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * The connections of a {@link DubboInvoker}. Every request goes to the writable connection with the fewest requests
+ * in flight, so that one connection stuck behind a large response does not delay the unrelated calls.
+ * <p>
+ * With a factory the pool is elastic: a new connection is opened once even the least loaded one has
+ * <code>pendingThreshold</code> requests in flight, up to <code>maxSize</code>, and the newest connection is retired
+ * again once it is idle and the others have room for its share, down to <code>minSize</code>. Resizing runs in the
+ * background, a retired connection takes no new requests and is closed once its requests in flight have completed.
+ */
+final class ExchangeClientPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeClientPool.class);
+
+    private static final ExecutorService RESIZE_EXECUTOR = Executors.newCachedThreadPool(
+            new NamedThreadFactory("DubboClientPoolResizer", true));
+
+    /**
+     * the minimum milliseconds between two resizes, to keep the pool from flapping
+     */
+    private static final long RESIZE_INTERVAL = 1000;
+
+    private final int minSize;
+
+    private final int maxSize;
+
+    private final int pendingThreshold;
+
+    private final Supplier<ExchangeClient> factory;
+
+    private final Executor executor;
+
+    private final AtomicPositiveInteger index = new AtomicPositiveInteger();
+
+    private final AtomicBoolean resizing = new AtomicBoolean();
+
+    /**
+     * guards publishing connections against {@link #destroy()}, never held while connecting or closing
+     */
+    private final Lock lock = new ReentrantLock();
+
+    private volatile Connection[] connections;
+
+    private volatile long lastResizeTime;
+
+    private volatile boolean destroyed;
+
+    ExchangeClientPool(ExchangeClient[] clients) {
+        this(clients, clients.length, 0, null);
+    }
+
+    ExchangeClientPool(ExchangeClient[] clients, int maxSize, int pendingThreshold, Supplier<ExchangeClient> factory) {
+        this(clients, maxSize, pendingThreshold, factory, RESIZE_EXECUTOR);
+    }
+
+    ExchangeClientPool(ExchangeClient[] clients, int maxSize, int pendingThreshold, Supplier<ExchangeClient> factory,
+                       Executor executor) {
+        if (clients == null || clients.length == 0) {
+            throw new IllegalArgumentException("clients == null or empty");
+        }
+        this.minSize = clients.length;
+        this.maxSize = Math.max(maxSize, clients.length);
+        this.pendingThreshold = pendingThreshold;
+        this.factory = factory;
+        this.executor = executor;
+        Connection[] connections = new Connection[clients.length];
+        for (int i = 0; i < clients.length; i++) {
+            connections[i] = new Connection(clients[i]);
+        }
+        this.connections = connections;
+    }
+
+    /**
+     * Pick the least loaded connection and count one more request in flight on it, the caller must
+     * {@link Connection#release()} it once the request completes.
+     */
+    Connection acquire() {
+        while (true) {
+            Connection[] connections = this.connections;
+            Connection selected;
+            int leastPending;
+            if (connections.length == 1) {
+                selected = connections[0];
+                leastPending = selected.getPending();
+            } else {
+                int start = index.getAndIncrement() % connections.length;
+                selected = null;
+                leastPending = Integer.MAX_VALUE;
+                for (int i = 0; i < connections.length; i++) {
+                    Connection connection = connections[(start + i) % connections.length];
+                    int pending = connection.getPending();
+                    if (pending < leastPending && connection.client.isWritable()) {
+                        selected = connection;
+                        leastPending = pending;
+                        if (pending == 0) {
+                            break;
+                        }
+                    }
+                }
+                if (selected == null) {
+                    // none writable, let the transport decide whether to queue or reject the write
+                    selected = connections[start];
+                    leastPending = selected.getPending();
+                }
+            }
+            if (!selected.tryAcquire()) {
+                // retired after this snapshot was taken, the pool already has a new one
+                continue;
+            }
+            if (factory != null) {
+                resizeIfNecessary(connections, leastPending);
+            }
+            return selected;
+        }
+    }
+
+    ExchangeClient[] getClients() {
+        Connection[] connections = this.connections;
+        ExchangeClient[] clients = new ExchangeClient[connections.length];
+        for (int i = 0; i < connections.length; i++) {
+            clients[i] = connections[i].client;
+        }
+        return clients;
+    }
+
+    int size() {
+        return connections.length;
+    }
+
+    /**
+     * Stop resizing and return the clients to close, a connection opened in the background afterwards is closed
+     * right away.
+     */
+    ExchangeClient[] destroy() {
+        lock.lock();
+        try {
+            destroyed = true;
+            return getClients();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void resizeIfNecessary(Connection[] connections, int leastPending) {
+        boolean grow = leastPending >= pendingThreshold && connections.length < maxSize;
+        boolean shrink = !grow && connections.length > minSize && isNewestIdle(connections);
+        if ((!grow && !shrink) || System.currentTimeMillis() - lastResizeTime < RESIZE_INTERVAL
+                || !resizing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    if (grow) {
+                        grow();
+                    } else {
+                        shrink();
+                    }
+                } catch (Throwable t) {
+                    logger.warn("Failed to " + (grow ? "grow" : "shrink") + " the connection pool of "
+                            + connections[0].client.getUrl() + ", cause: " + t.getMessage(), t);
+                } finally {
+                    lastResizeTime = System.currentTimeMillis();
+                    resizing.set(false);
+                }
+            });
+        } catch (Throwable t) {
+            resizing.set(false);
+            logger.warn("Failed to schedule resizing the connection pool of " + connections[0].client.getUrl()
+                    + ", cause: " + t.getMessage(), t);
+        }
+    }
+
+    private void grow() {
+        if (destroyed || connections.length >= maxSize) {
+            return;
+        }
+        Connection connection = new Connection(factory.get());
+        lock.lock();
+        try {
+            if (!destroyed) {
+                Connection[] connections = this.connections;
+                Connection[] grown = Arrays.copyOf(connections, connections.length + 1);
+                grown[connections.length] = connection;
+                this.connections = grown;
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        connection.client.close();
+    }
+
+    private void shrink() {
+        Connection newest;
+        lock.lock();
+        try {
+            Connection[] connections = this.connections;
+            if (destroyed || connections.length <= minSize) {
+                return;
+            }
+            // requests may land on it meanwhile, it is only closed once they have completed
+            newest = connections[connections.length - 1];
+            this.connections = Arrays.copyOf(connections, connections.length - 1);
+        } finally {
+            lock.unlock();
+        }
+        newest.retire();
+    }
+
+    private boolean isNewestIdle(Connection[] connections) {
+        if (connections[connections.length - 1].getPending() > 0) {
+            return false;
+        }
+        long pending = 0;
+        for (int i = 0; i < connections.length - 1; i++) {
+            pending += connections[i].getPending();
+        }
+        // the remaining connections stay below half of the threshold
+        return pending * 2 < (long) pendingThreshold * (connections.length - 1);
+    }
+
+    final class Connection {
+
+        private final ExchangeClient client;
+
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private volatile boolean retired;
+
+        private Connection(ExchangeClient client) {
+            this.client = client;
+        }
+
+        ExchangeClient getClient() {
+            return client;
+        }
+
+        int getPending() {
+            return pending.get();
+        }
+
+        void release() {
+            if (pending.decrementAndGet() == 0 && retired) {
+                closeIfDrained();
+            }
+        }
+
+        private boolean tryAcquire() {
+            // counts before checking retired, while retire() marks before checking the count, so either this
+            // request backs off or the connection stays open until it completes
+            pending.incrementAndGet();
+            if (retired) {
+                release();
+                return false;
+            }
+            return true;
+        }
+
+        private void retire() {
+            retired = true;
+            closeIfDrained();
+        }
+
+        private void closeIfDrained() {
+            if (pending.get() == 0 && closed.compareAndSet(false, true)) {
+                executor.execute(() -> {
+                    try {
+                        client.close(ConfigUtils.getServerShutdownTimeout());
+                    } catch (Throwable t) {
+                        logger.warn("Failed to close the retired connection " + client + ", cause: "
+                                + t.getMessage(), t);
+                    }
+                });
+            }
+        }
+    }
+}
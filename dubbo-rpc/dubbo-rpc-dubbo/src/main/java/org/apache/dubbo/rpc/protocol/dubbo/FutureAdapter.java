@@ -18,8 +18,10 @@ package org.apache.dubbo.rpc.protocol.dubbo;
 
 import org.apache.dubbo.remoting.exchange.ResponseCallback;
 import org.apache.dubbo.remoting.exchange.ResponseFuture;
+import org.apache.dubbo.remoting.exchange.support.DefaultFuture;
 import org.apache.dubbo.rpc.Result;
 import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcResult;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -53,6 +55,7 @@ public class FutureAdapter<V> extends CompletableFuture<V> {
 
             @Override
             public void caught(Throwable exception) {
+                FutureAdapter.this.resultFuture.complete(new RpcResult(toRpcException(exception)));
                 FutureAdapter.this.completeExceptionally(exception);
             }
         });
@@ -62,14 +65,23 @@ public class FutureAdapter<V> extends CompletableFuture<V> {
         return future;
     }
 
-    @Override
-    public boolean cancel(boolean mayInterruptIfRunning) {
-        return false;
+    private static RpcException toRpcException(Throwable exception) {
+        if (exception instanceof org.apache.dubbo.remoting.TimeoutException) {
+            return new RpcException(RpcException.TIMEOUT_EXCEPTION, exception.getMessage(), exception);
+        }
+        return new RpcException(RpcException.NETWORK_EXCEPTION, exception.getMessage(), exception);
     }
 
+    /**
+     * Cancel the request, its response is dropped when it arrives.
+     */
     @Override
-    public boolean isCancelled() {
-        return false;
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled && future instanceof DefaultFuture) {
+            ((DefaultFuture) future).cancel();
+        }
+        return cancelled;
     }
 
     @Override
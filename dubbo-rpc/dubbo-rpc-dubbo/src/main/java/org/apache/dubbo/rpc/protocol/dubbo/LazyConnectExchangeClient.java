@@ -134,6 +134,15 @@ final class LazyConnectExchangeClient implements ExchangeClient {
         }
     }
 
+    @Override
+    public boolean isWritable() {
+        if (client == null) {
+            return initialState;
+        } else {
+            return client.isWritable();
+        }
+    }
+
     @Override
     public InetSocketAddress getLocalAddress() {
         if (client == null) {
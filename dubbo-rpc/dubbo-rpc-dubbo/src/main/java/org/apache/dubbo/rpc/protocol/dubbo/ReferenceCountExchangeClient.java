@@ -88,6 +88,11 @@ final class ReferenceCountExchangeClient implements ExchangeClient {
         return client.isConnected();
     }
 
+    @Override
+    public boolean isWritable() {
+        return client.isWritable();
+    }
+
     @Override
     public void reconnect() throws RemotingException {
         client.reconnect();
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.remoting.RemotingException;
+import org.apache.dubbo.remoting.TimeoutException;
+import org.apache.dubbo.remoting.exchange.support.ResponseStream;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The consumer side of a stream: the Iterator handed to the caller, taking the chunks as the caller goes.
+ */
+final class StreamIterator implements Iterator<Object> {
+
+    private final ResponseStream stream;
+
+    private final String methodName;
+
+    private final URL url;
+
+    private Object next;
+
+    private boolean fetched;
+
+    StreamIterator(ResponseStream stream, String methodName, URL url) {
+        this.stream = stream;
+        this.methodName = methodName;
+        this.url = url;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!fetched) {
+            next = take();
+            fetched = true;
+        }
+        return next != null;
+    }
+
+    @Override
+    public Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Result result = (Result) next;
+        next = null;
+        fetched = false;
+        try {
+            return result.recreate();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RpcException(t);
+        }
+    }
+
+    private Object take() {
+        try {
+            return stream.next();
+        } catch (TimeoutException e) {
+            throw new RpcException(RpcException.TIMEOUT_EXCEPTION, "Stream of remote method timeout. method: " + methodName + ", provider: " + url + ", cause: " + e.getMessage(), e);
+        } catch (RemotingException e) {
+            throw new RpcException(RpcException.NETWORK_EXCEPTION, "Failed to stream remote method: " + methodName + ", provider: " + url + ", cause: " + e.getMessage(), e);
+        }
+    }
+}
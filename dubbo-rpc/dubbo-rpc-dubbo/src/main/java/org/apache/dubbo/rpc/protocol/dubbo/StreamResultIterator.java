@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.rpc.RpcResult;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The provider side of a stream: turns the values of the Iterator returned by the service into one result per
+ * chunk. A failure of the Iterator is sent as a last result holding the exception.
+ */
+final class StreamResultIterator implements Iterator<Object> {
+
+    private final Iterator<?> values;
+
+    private Throwable failure;
+
+    private boolean failed;
+
+    StreamResultIterator(Iterator<?> values) {
+        this.values = values;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (failed) {
+            return false;
+        }
+        if (failure != null) {
+            return true;
+        }
+        try {
+            return values.hasNext();
+        } catch (Throwable t) {
+            failure = t;
+            return true;
+        }
+    }
+
+    @Override
+    public Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (failure != null) {
+            failed = true;
+            return new RpcResult(failure);
+        }
+        try {
+            return new RpcResult(values.next());
+        } catch (Throwable t) {
+            failed = true;
+            return new RpcResult(t);
+        }
+    }
+}
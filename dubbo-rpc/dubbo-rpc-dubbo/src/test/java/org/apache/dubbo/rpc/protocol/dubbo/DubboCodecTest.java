@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.remoting.Channel;
+import org.apache.dubbo.remoting.buffer.ChannelBuffer;
+import org.apache.dubbo.remoting.buffer.ChannelBuffers;
+import org.apache.dubbo.remoting.exchange.Request;
+import org.apache.dubbo.rpc.RpcInvocation;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DubboCodecTest {
+
+    private final DubboCodec codec = new DubboCodec();
+
+    @Test
+    public void testDecodeSmallBodyInIoThread() throws Exception {
+        Channel channel = channel(URL.valueOf("dubbo://127.0.0.1:20880/demo?decode.in.io.threshold=1024"));
+        DecodeableRpcInvocation inv = decode(channel, "small");
+        Assert.assertEquals("echo", inv.getMethodName());
+        Assert.assertEquals("small", inv.getAttachment("payload"));
+    }
+
+    @Test
+    public void testDeferLargeBodyToBusinessThread() throws Exception {
+        Channel channel = channel(URL.valueOf("dubbo://127.0.0.1:20880/demo?decode.in.io.threshold=1024"));
+        String large = repeat('A', 32 * 1024);
+        DecodeableRpcInvocation inv = decode(channel, large);
+        // left for DecodeHandler.
+        Assert.assertNull(inv.getMethodName());
+        inv.decode();
+        Assert.assertEquals("echo", inv.getMethodName());
+        Assert.assertEquals(large, inv.getAttachment("payload"));
+    }
+
+    @Test
+    public void testThresholdOverridesDecodeInIoThread() throws Exception {
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/demo")
+                .addParameter(Constants.DECODE_IN_IO_THREAD_KEY, false)
+                .addParameter(Constants.DECODE_IN_IO_THREAD_THRESHOLD_KEY, 1024);
+        Assert.assertEquals("echo", decode(channel(url), "small").getMethodName());
+    }
+
+    private DecodeableRpcInvocation decode(Channel channel, String payload) throws Exception {
+        RpcInvocation invocation = new RpcInvocation("echo", new Class<?>[0], new Object[0]);
+        invocation.setAttachment("payload", payload);
+        invocation.setAttachment(Constants.PATH_KEY, "demo");
+        invocation.setAttachment(Constants.VERSION_KEY, "0.0.0");
+        Request request = new Request();
+        request.setTwoWay(true);
+        request.setData(invocation);
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(1024);
+        codec.encode(channel, buffer, request);
+        Request decoded = (Request) codec.decode(channel, buffer);
+        Assert.assertFalse(decoded.isBroken());
+        return (DecodeableRpcInvocation) decoded.getData();
+    }
+
+    private static Channel channel(URL url) {
+        Channel channel = mock(Channel.class);
+        when(channel.getUrl()).thenReturn(url);
+        return channel;
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder buf = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            buf.append(c);
+        }
+        return buf.toString();
+    }
+}
@@ -32,8 +32,6 @@ import org.junit.BeforeClass;
 import org.junit.Ignore;
 import org.junit.Test;
 
-import java.lang.reflect.Field;
-
 import static org.junit.Assert.fail;
 
 /**
@@ -141,9 +139,7 @@ public class DubboInvokerAvilableTest {
     }
 
     private ExchangeClient[] getClients(DubboInvoker<?> invoker) throws Exception {
-        Field field = DubboInvoker.class.getDeclaredField("clients");
-        field.setAccessible(true);
-        ExchangeClient[] clients = (ExchangeClient[]) field.get(invoker);
+        ExchangeClient[] clients = invoker.getClients();
         Assert.assertEquals(1, clients.length);
         return clients;
     }
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.remoting.exchange.ExchangeClient;
+import org.apache.dubbo.remoting.exchange.ResponseFuture;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.RpcResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class DubboInvokerTest {
+
+    private final URL url = URL.valueOf("dubbo://127.0.0.1:20880/org.apache.dubbo.rpc.protocol.dubbo.IDemoService");
+
+    @Test
+    public void testSkipUnwritableClient() throws Exception {
+        ExchangeClient unwritable = mockClient(false);
+        ExchangeClient writable = mockClient(true);
+        DubboInvoker<IDemoService> invoker = new DubboInvoker<IDemoService>(IDemoService.class, url,
+                new ExchangeClient[]{unwritable, writable});
+
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals("ok", invoker.invoke(newInvocation()).getValue());
+        }
+        verify(unwritable, never()).request(any(), anyInt());
+        verify(writable, times(4)).request(any(), anyInt());
+    }
+
+    @Test
+    public void testAllClientsUnwritable() throws Exception {
+        ExchangeClient first = mockClient(false);
+        ExchangeClient second = mockClient(false);
+        DubboInvoker<IDemoService> invoker = new DubboInvoker<IDemoService>(IDemoService.class, url,
+                new ExchangeClient[]{first, second});
+
+        for (int i = 0; i < 4; i++) {
+            invoker.invoke(newInvocation());
+        }
+        verify(first, times(2)).request(any(), anyInt());
+        verify(second, times(2)).request(any(), anyInt());
+    }
+
+    private ExchangeClient mockClient(boolean writable) throws Exception {
+        ResponseFuture future = mock(ResponseFuture.class);
+        given(future.get()).willReturn(new RpcResult("ok"));
+        ExchangeClient client = mock(ExchangeClient.class);
+        given(client.isWritable()).willReturn(writable);
+        given(client.request(any(), anyInt())).willReturn(future);
+        return client;
+    }
+
+    private RpcInvocation newInvocation() {
+        return new RpcInvocation("get", new Class<?>[0], new Object[0]);
+    }
+
+}
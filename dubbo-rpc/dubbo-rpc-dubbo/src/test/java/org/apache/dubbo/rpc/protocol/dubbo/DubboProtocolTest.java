@@ -20,11 +20,17 @@ package org.apache.dubbo.rpc.protocol.dubbo;
 import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.remoting.RemotingException;
+import org.apache.dubbo.remoting.exchange.ExchangeClient;
+import org.apache.dubbo.remoting.exchange.Exchangers;
+import org.apache.dubbo.remoting.exchange.support.ExchangeHandlerAdapter;
 import org.apache.dubbo.rpc.Protocol;
 import org.apache.dubbo.rpc.ProxyFactory;
 import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcInvocation;
 import org.apache.dubbo.rpc.protocol.dubbo.support.DemoService;
 import org.apache.dubbo.rpc.protocol.dubbo.support.DemoServiceImpl;
+import org.apache.dubbo.rpc.protocol.dubbo.support.LegacyDubboCodec;
 import org.apache.dubbo.rpc.protocol.dubbo.support.NonSerialized;
 import org.apache.dubbo.rpc.protocol.dubbo.support.RemoteService;
 import org.apache.dubbo.rpc.protocol.dubbo.support.RemoteServiceImpl;
@@ -37,6 +43,7 @@ import org.junit.Test;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.Assert.assertEquals;
 
@@ -86,6 +93,45 @@ public class DubboProtocolTest {
         assertEquals(echo.$echo(1234), 1234);
     }
 
+    @Test
+    public void testDubboProtocolWithDecodeThreshold() throws Exception {
+        DemoService service = new DemoServiceImpl();
+        URL url = URL.valueOf("dubbo://127.0.0.1:9011/" + DemoService.class.getName())
+                .addParameter(Constants.DECODE_IN_IO_THREAD_THRESHOLD_KEY, 1024);
+        protocol.export(proxy.getInvoker(service, DemoService.class, url));
+        service = proxy.getProxy(protocol.refer(DemoService.class, url));
+        // small body decoded on the io thread
+        assertEquals(service.getSize(new String[]{"", "", ""}), 3);
+        // large body decoded on the business thread
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 1024 * 32; i++)
+            buf.append('A');
+        assertEquals(service.stringLength(buf.toString()), buf.length());
+        EchoService echo = proxy.getProxy(protocol.refer(EchoService.class, url));
+        assertEquals(echo.$echo(buf.toString()), buf.toString());
+        assertEquals(echo.$echo("test"), "test");
+    }
+
+    @Test
+    public void testDubboProtocolWithCompression() throws Exception {
+        DemoService service = new DemoServiceImpl();
+        URL url = URL.valueOf("dubbo://127.0.0.1:9012/" + DemoService.class.getName())
+                .addParameter(Constants.COMPRESSOR_KEY, "lz4")
+                .addParameter(Constants.COMPRESS_THRESHOLD_KEY, 1024)
+                .addParameter(Constants.DECODE_IN_IO_THREAD_THRESHOLD_KEY, 1024);
+        protocol.export(proxy.getInvoker(service, DemoService.class, url));
+        service = proxy.getProxy(protocol.refer(DemoService.class, url));
+        assertEquals(service.getSize(new String[]{"", "", ""}), 3);
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 1024 * 32; i++)
+            buf.append('A');
+        EchoService echo = proxy.getProxy(protocol.refer(EchoService.class, url));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(echo.$echo(buf.toString()), buf.toString());
+            assertEquals(echo.$echo("test"), "test");
+        }
+    }
+
     @Test
     public void testDubboProtocolWithMina() throws Exception {
         DemoService service = new DemoServiceImpl();
@@ -181,4 +227,95 @@ public class DubboProtocolTest {
             Assert.assertTrue(e.getMessage().contains("org.apache.dubbo.rpc.protocol.dubbo.support.NonSerialized must implement java.io.Serializable"));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLimitExceeded() throws Exception {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        DemoService service = new DemoServiceImpl() {
+            @Override
+            public String echo(String text) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return text;
+            }
+        };
+        URL url = URL.valueOf("dubbo://127.0.0.1:9060/" + DemoService.class.getName() + "?" + Constants.ADAPTIVE_LIMIT_KEY + "=1");
+        protocol.export(proxy.getInvoker(service, DemoService.class, url));
+        final DemoService client = proxy.getProxy(protocol.refer(DemoService.class, URL.valueOf("dubbo://127.0.0.1:9060/" + DemoService.class.getName() + "?timeout=5000")));
+        Thread blocked = new Thread(() -> client.echo("blocked"));
+        blocked.start();
+        entered.await();
+        try {
+            client.echo("rejected");
+            Assert.fail();
+        } catch (RpcException e) {
+            // the code of the provider's rejection reaches the consumer
+            Assert.assertTrue(e.getMessage(), e.isLimitExceed());
+        } finally {
+            release.countDown();
+            blocked.join();
+        }
+    }
+
+    @Test
+    public void testTpsLimitExceeded() throws Exception {
+        URL url = URL.valueOf("dubbo://127.0.0.1:9061/" + DemoService.class.getName() + "?" + Constants.TPS_LIMIT_RATE_KEY + "=1");
+        protocol.export(proxy.getInvoker(new DemoServiceImpl(), DemoService.class, url));
+        DemoService service = proxy.getProxy(protocol.refer(DemoService.class, URL.valueOf("dubbo://127.0.0.1:9061/" + DemoService.class.getName())));
+        assertEquals(3, service.getSize(new String[]{"", "", ""}));
+        try {
+            service.getSize(new String[]{"", "", ""});
+            Assert.fail();
+        } catch (RpcException e) {
+            Assert.assertTrue(e.getMessage(), e.isLimitExceed());
+        }
+    }
+
+    @Test
+    public void testLimitExceededForOlderConsumer() throws Exception {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        DemoService service = new DemoServiceImpl() {
+            @Override
+            public String echo(String text) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return text;
+            }
+        };
+        // a group of its own, so that the limit is not shared with the other tests
+        URL url = URL.valueOf("dubbo://127.0.0.1:9061/" + DemoService.class.getName() + "?group=legacy&" + Constants.ADAPTIVE_LIMIT_KEY + "=1");
+        protocol.export(proxy.getInvoker(service, DemoService.class, url));
+        final DemoService client = proxy.getProxy(protocol.refer(DemoService.class, URL.valueOf("dubbo://127.0.0.1:9061/" + DemoService.class.getName() + "?group=legacy&timeout=5000")));
+        Thread blocked = new Thread(() -> client.echo("blocked"));
+        blocked.start();
+        entered.await();
+        ExchangeClient legacyClient = Exchangers.connect(URL.valueOf("dubbo://127.0.0.1:9061/" + DemoService.class.getName()
+                + "?" + Constants.CODEC_KEY + "=" + LegacyDubboCodec.NAME), new ExchangeHandlerAdapter() {
+        });
+        try {
+            RpcInvocation invocation = new RpcInvocation("echo", new Class<?>[]{String.class}, new Object[]{"rejected"});
+            invocation.setAttachment(Constants.PATH_KEY, DemoService.class.getName());
+            invocation.setAttachment(Constants.VERSION_KEY, "0.0.0");
+            invocation.setAttachment(Constants.GROUP_KEY, "legacy");
+            legacyClient.request(invocation, 5000).get();
+            Assert.fail();
+        } catch (RemotingException e) {
+            // an error response as before, on which an older consumer fails over
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("adaptive limit"));
+        } finally {
+            legacyClient.close();
+            release.countDown();
+            blocked.join();
+        }
+    }
+}
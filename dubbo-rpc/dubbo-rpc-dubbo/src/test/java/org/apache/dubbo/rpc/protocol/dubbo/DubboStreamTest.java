@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.utils.NetUtils;
+import org.apache.dubbo.rpc.Protocol;
+import org.apache.dubbo.rpc.ProxyFactory;
+import org.apache.dubbo.rpc.protocol.dubbo.support.ProtocolUtils;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class DubboStreamTest {
+    private Protocol protocol = ExtensionLoader.getExtensionLoader(Protocol.class).getAdaptiveExtension();
+    private ProxyFactory proxy = ExtensionLoader.getExtensionLoader(ProxyFactory.class).getAdaptiveExtension();
+
+    @After
+    public void tearDown() {
+        ProtocolUtils.closeAll();
+    }
+
+    @Test
+    public void testStream() throws Exception {
+        NumberService service = refer("stream=true&stream.window=4");
+        Iterator<Integer> numbers = service.numbers(1000);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(numbers.hasNext());
+            Assert.assertEquals(i, numbers.next().intValue());
+        }
+        Assert.assertFalse(numbers.hasNext());
+        // the connection is still usable after the stream.
+        Assert.assertEquals(3, count(service.numbers(3)));
+    }
+
+    @Test
+    public void testNotStreamed() throws Exception {
+        NumberService service = refer("stream=true");
+        Assert.assertEquals(10, service.list(10).size());
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        NumberService service = refer("stream=true&stream.window=2");
+        Iterator<Integer> numbers = service.broken(5);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(i, numbers.next().intValue());
+        }
+        try {
+            numbers.next();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("broken", e.getMessage());
+        }
+    }
+
+    private NumberService refer(String parameters) {
+        int port = NetUtils.getAvailablePort();
+        URL url = URL.valueOf("dubbo://127.0.0.1:" + port + "/" + NumberService.class.getName() + "?" + parameters);
+        protocol.export(proxy.getInvoker(new NumberServiceImpl(), NumberService.class, url));
+        return proxy.getProxy(protocol.refer(NumberService.class, url));
+    }
+
+    private static int count(Iterator<?> iterator) {
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        return count;
+    }
+
+    public interface NumberService {
+        Iterator<Integer> numbers(int count);
+
+        Iterator<Integer> broken(int count);
+
+        List<Integer> list(int count);
+    }
+
+    public static class NumberServiceImpl implements NumberService {
+        @Override
+        public Iterator<Integer> numbers(int count) {
+            return list(count).iterator();
+        }
+
+        @Override
+        public Iterator<Integer> broken(int count) {
+            return new Iterator<Integer>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return true;
+                }
+
+                @Override
+                public Integer next() {
+                    if (next == count) {
+                        throw new IllegalStateException("broken");
+                    }
+                    if (next > count) {
+                        throw new NoSuchElementException();
+                    }
+                    return next++;
+                }
+            };
+        }
+
+        @Override
+        public List<Integer> list(int count) {
+            List<Integer> numbers = new ArrayList<Integer>();
+            for (int i = 0; i < count; i++) {
+                numbers.add(i);
+            }
+            return numbers;
+        }
+    }
+}
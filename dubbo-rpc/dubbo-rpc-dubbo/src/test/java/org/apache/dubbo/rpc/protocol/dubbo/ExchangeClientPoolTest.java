@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.remoting.exchange.ExchangeClient;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class ExchangeClientPoolTest {
+
+    @Test
+    public void testLeastPending() {
+        ExchangeClient first = mockClient();
+        ExchangeClient second = mockClient();
+        ExchangeClientPool pool = new ExchangeClientPool(new ExchangeClient[]{first, second});
+
+        ExchangeClientPool.Connection busy = pool.acquire();
+        for (int i = 0; i < 10; i++) {
+            ExchangeClientPool.Connection connection = pool.acquire();
+            Assert.assertNotSame(busy.getClient(), connection.getClient());
+            connection.release();
+        }
+        busy.release();
+        Assert.assertEquals(0, busy.getPending());
+    }
+
+    @Test
+    public void testSkipUnwritable() {
+        ExchangeClient unwritable = mockClient();
+        given(unwritable.isWritable()).willReturn(false);
+        ExchangeClient writable = mockClient();
+        ExchangeClientPool pool = new ExchangeClientPool(new ExchangeClient[]{unwritable, writable});
+
+        for (int i = 0; i < 4; i++) {
+            // the writable one is picked even with more requests in flight
+            Assert.assertSame(writable, pool.acquire().getClient());
+        }
+    }
+
+    @Test
+    public void testFixedSize() {
+        ExchangeClientPool pool = new ExchangeClientPool(new ExchangeClient[]{mockClient()});
+        for (int i = 0; i < 100; i++) {
+            pool.acquire();
+        }
+        Assert.assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void testGrowAndShrink() throws Exception {
+        final AtomicInteger created = new AtomicInteger();
+        Queue<Runnable> tasks = new ArrayDeque<Runnable>();
+        ExchangeClientPool pool = new ExchangeClientPool(new ExchangeClient[]{mockClient()}, 2, 4, () -> {
+            created.incrementAndGet();
+            return mockClient();
+        }, tasks::add);
+
+        ExchangeClientPool.Connection[] inFlight = new ExchangeClientPool.Connection[8];
+        for (int i = 0; i < 5; i++) {
+            inFlight[i] = pool.acquire();
+        }
+        // the caller does not wait for the new connection
+        Assert.assertEquals(1, pool.size());
+        Assert.assertEquals(0, created.get());
+        Assert.assertEquals(1, tasks.size());
+        runAll(tasks);
+        Assert.assertEquals(2, pool.size());
+        Assert.assertEquals(1, created.get());
+
+        // the new connection takes the following requests, the pool never exceeds the max
+        for (int i = 5; i < 8; i++) {
+            inFlight[i] = pool.acquire();
+            Assert.assertSame(pool.getClients()[1], inFlight[i].getClient());
+        }
+        Assert.assertTrue(tasks.isEmpty());
+        Assert.assertEquals(2, pool.size());
+
+        for (ExchangeClientPool.Connection connection : inFlight) {
+            connection.release();
+        }
+        Thread.sleep(1100);
+        ExchangeClient newest = pool.getClients()[1];
+        // shrinks once a request lands on an older connection while the newest one is idle
+        for (int i = 0; i < 4 && tasks.isEmpty(); i++) {
+            pool.acquire().release();
+        }
+        runAll(tasks);
+        Assert.assertEquals(1, pool.size());
+        verify(newest).close(anyInt());
+    }
+
+    @Test
+    public void testRetireAfterDrained() throws Exception {
+        Queue<Runnable> tasks = new ArrayDeque<Runnable>();
+        ExchangeClientPool pool = new ExchangeClientPool(new ExchangeClient[]{mockClient()}, 2, 4,
+                ExchangeClientPoolTest::mockClient, tasks::add);
+        ExchangeClientPool.Connection[] inFlight = new ExchangeClientPool.Connection[5];
+        for (int i = 0; i < 5; i++) {
+            inFlight[i] = pool.acquire();
+        }
+        runAll(tasks);
+        Assert.assertEquals(2, pool.size());
+        for (ExchangeClientPool.Connection connection : inFlight) {
+            connection.release();
+        }
+        Thread.sleep(1100);
+        ExchangeClient newest = pool.getClients()[1];
+
+        // a request on the older connection while the newest one is idle schedules the shrink
+        ExchangeClientPool.Connection older = pool.acquire();
+        while (older.getClient() == newest) {
+            older.release();
+            older = pool.acquire();
+        }
+        Assert.assertEquals(1, tasks.size());
+        // and one more request lands on the newest connection before the shrink runs
+        ExchangeClientPool.Connection late = pool.acquire();
+        Assert.assertSame(newest, late.getClient());
+        runAll(tasks);
+
+        // retired, but the request in flight keeps it open
+        Assert.assertEquals(1, pool.size());
+        Assert.assertNotSame(newest, pool.acquire().getClient());
+        Assert.assertTrue(tasks.isEmpty());
+        verify(newest, never()).close(anyInt());
+
+        late.release();
+        runAll(tasks);
+        verify(newest).close(anyInt());
+        older.release();
+    }
+
+    private static void runAll(Queue<Runnable> tasks) {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static ExchangeClient mockClient() {
+        ExchangeClient client = mock(ExchangeClient.class);
+        given(client.isWritable()).willReturn(true);
+        return client;
+    }
+
+}
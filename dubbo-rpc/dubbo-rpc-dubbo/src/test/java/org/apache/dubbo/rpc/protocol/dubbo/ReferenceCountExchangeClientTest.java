@@ -196,9 +196,7 @@ public class ReferenceCountExchangeClientTest {
         @SuppressWarnings("rawtypes")
         DubboInvoker dInvoker = (DubboInvoker) invoker;
         try {
-            Field clientField = DubboInvoker.class.getDeclaredField("clients");
-            clientField.setAccessible(true);
-            ExchangeClient[] clients = (ExchangeClient[]) clientField.get(dInvoker);
+            ExchangeClient[] clients = dInvoker.getClients();
             return clients[0];
 
         } catch (Exception e) {
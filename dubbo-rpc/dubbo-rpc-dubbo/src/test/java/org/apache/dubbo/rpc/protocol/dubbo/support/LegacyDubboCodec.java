@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo.support;
+
+import org.apache.dubbo.common.serialize.ObjectOutput;
+import org.apache.dubbo.remoting.Channel;
+import org.apache.dubbo.rpc.protocol.dubbo.DubboCodec;
+
+import java.io.IOException;
+
+/**
+ * Dubbo codec of an older consumer, writing the protocol version 2.0.2 in its requests.
+ */
+public class LegacyDubboCodec extends DubboCodec {
+
+    public static final String NAME = "legacydubbo";
+
+    @Override
+    protected void encodeRequestData(Channel channel, ObjectOutput out, Object data, String version) throws IOException {
+        super.encodeRequestData(channel, out, data, "2.0.2");
+    }
+}
@@ -78,8 +78,8 @@ public class RmiProtocol extends AbstractProxyProtocol {
     protected <T> T doRefer(final Class<T> serviceType, final URL url) throws RpcException {
         final RmiProxyFactoryBean rmiProxyFactoryBean = new RmiProxyFactoryBean();
         // RMI needs extra parameter since it uses customized remote invocation object
-        if (url.getParameter(Constants.DUBBO_VERSION_KEY, Version.getProtocolVersion()).equals(Version.getProtocolVersion())) {
-            // Check dubbo version on provider, this feature only support
+        if (Version.isSupportResponseAttatchment(url.getParameter(Constants.DUBBO_VERSION_KEY, Version.getProtocolVersion()))) {
+            // Check dubbo version on provider, this feature is only supported since the protocol version 2.0.2
             rmiProxyFactoryBean.setRemoteInvocationFactory(new RemoteInvocationFactory() {
                 @Override
                 public RemoteInvocation createRemoteInvocation(MethodInvocation methodInvocation) {